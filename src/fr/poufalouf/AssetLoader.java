@@ -0,0 +1,439 @@
+package fr.poufalouf;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import org.lwjgl.opengl.GL11;
+import org.newdawn.slick.openal.Audio;
+import org.newdawn.slick.openal.AudioLoader;
+import org.newdawn.slick.openal.SoundStore;
+import org.newdawn.slick.opengl.PNGImageData;
+import org.newdawn.slick.opengl.Texture;
+import org.newdawn.slick.opengl.TextureImpl;
+import org.newdawn.slick.util.ResourceLoader;
+
+/**
+ * Chargement des textures et des sons en arri�re-plan
+ * 
+ * <p>Cette classe d�code les fichiers PNG et WAV dans un groupe de threads d�di�s, afin que le thread de jeu ne
+ * soit pas bloqu� pendant le chargement des ressources d'un monde. Le nombre de ces threads est �gal au nombre de
+ * processeurs moins un (au moins un thread). Les musiques OGG ne sont pas charg�es par cette classe mais lues en
+ * continu par la classe MusicPlayer.</p>
+ * <p>Une texture d�cod�e est plac�e dans une file d'attente : seul son envoi � OpenGL (glTexImage2D) est r�alis� par
+ * le thread de jeu, par la m�thode upload(long), dans la limite d'une dur�e donn�e par image. Les sons sont quant � eux
+ * enti�rement charg�s par les threads de chargement, OpenAL n'�tant pas li� � un thread particulier. La classe
+ * SoundStore n'�tant pas pr�vue pour un acc�s concurrent, les sons sont toutefois charg�s un par un.</p>
+ * <p>Chaque demande de chargement retourne un Future, qui est achev� une fois la ressource disponible dans la table
+ * correspondante (textures ou sons) : le thread ayant demand� le chargement peut ainsi attendre la fin de celui-ci
+ * (m�thode await(Future)). Tant qu'une ressource est en cours de chargement, la m�thode isPending(String) retourne
+ * vrai.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class AssetLoader {
+	
+	/**
+	 * Le verrou s�rialisant le chargement des sons.
+	 */
+	private static final Object soundLock = new Object();
+	
+	/**
+	 * Le groupe de threads de chargement.
+	 */
+	private final ExecutorService pool;
+	/**
+	 * La file des textures d�cod�es en attente d'envoi � OpenGL.
+	 */
+	private final ConcurrentLinkedQueue<FutureTask<Texture>> uploads;
+	/**
+	 * La table des chargements en cours, rep�r�s par le nom de fichier de la ressource.
+	 */
+	private final ConcurrentHashMap<String, Future<?>> pending;
+	/**
+	 * La table des textures charg�es, rep�r�es par leur nom de fichier. Elle n'est modifi�e que par le thread de jeu.
+	 */
+	private final HashMap<String, Texture> textures;
+	/**
+	 * La table des sons charg�s, rep�r�s par leur nom de fichier.
+	 */
+	private final Map<String, Audio> sounds;
+	
+	/**
+	 * Constructeur AssetLoader.
+	 * 
+	 * <p></p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>pool : un nouveau groupe de threads d�mons de taille fixe.</li>
+	 * <li>uploads : une nouvelle file (ConcurrentLinkedQueue) de FutureTask.</li>
+	 * <li>pending : une nouvelle table (ConcurrentHashMap) de Future r�f�renc�s par des String.</li>
+	 * <li>textures : la table pass�e en param�tre (textures).</li>
+	 * <li>sounds : la table pass�e en param�tre (sounds).</li>
+	 * </ul></p>
+	 * 
+	 * @param textures
+	 * 		La table des textures � remplir. Elle ne doit �tre lue que par le thread de jeu.
+	 * @param sounds
+	 * 		La table des sons � remplir. Elle doit supporter les acc�s concurrents.
+	 */
+	public AssetLoader(HashMap<String, Texture> textures, Map<String, Audio> sounds) {
+		
+		this.pool = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors()-1),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "Chargement des ressources");
+						t.setDaemon(true);
+						return t;
+					}
+				});
+		this.uploads = new ConcurrentLinkedQueue<FutureTask<Texture>>();
+		this.pending = new ConcurrentHashMap<String, Future<?>>();
+		this.textures = textures;
+		this.sounds = sounds;
+		
+	}
+	
+	/**
+	 * Demande le chargement d'une texture au format PNG.
+	 * 
+	 * <p>Le fichier est d�cod� par un thread de chargement, puis la texture est envoy�e � OpenGL par le thread de jeu
+	 * lors d'un appel � la m�thode upload(long). Si la texture est d�j� en cours de chargement, le Future du chargement
+	 * en cours est retourn�.</p>
+	 * 
+	 * @param file
+	 * 		Le nom du fichier de la texture.
+	 * @return
+	 * 		Le Future achev� lorsque la texture est disponible dans la table des textures.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized Future<Texture> loadTexture(String file) {
+		
+		Future<?> current = this.pending.get(file);
+		if (current != null)
+			return (Future<Texture>) current;
+		
+		final PendingTexture texture = new PendingTexture(file);
+		final FutureTask<Texture> upload = new FutureTask<Texture>(texture);
+		this.pending.put(file, upload);
+		this.pool.execute(new Runnable() {
+			@Override
+			public void run() {
+				texture.decode();
+				AssetLoader.this.uploads.add(upload);
+			}
+		});
+		
+		return upload;
+		
+	}
+	
+	/**
+	 * Demande le chargement d'un son au format WAV.
+	 * 
+	 * <p>Le son est ajout� � la table des sons une fois charg�. S'il est d�j� en cours de chargement, le Future du
+	 * chargement en cours est retourn�.</p>
+	 * 
+	 * @param file
+	 * 		Le nom du fichier du son.
+	 * @return
+	 * 		Le Future achev� lorsque le son est disponible dans la table des sons.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized Future<Audio> loadSound(String file) {
+		
+		Future<?> current = this.pending.get(file);
+		if (current != null)
+			return (Future<Audio>) current;
+		
+		FutureTask<Audio> task = new FutureTask<Audio>(new PendingAudio("WAV", file));
+		this.pending.put(file, task);
+		this.pool.execute(task);
+		
+		return task;
+		
+	}
+	
+	/**
+	 * Envoie � OpenGL les textures d�cod�es en attente, dans la limite d'une dur�e donn�e.
+	 * 
+	 * <p>Cette m�thode doit �tre appel�e par le thread de jeu. Au moins une texture est envoy�e si la file n'est pas
+	 * vide, les suivantes ne l'�tant que si la dur�e �coul�e depuis le d�but de l'appel est inf�rieure � la dur�e
+	 * pass�e en param�tre.</p>
+	 * 
+	 * @param budget
+	 * 		La dur�e maximale � consacrer aux envois (en nanosecondes).
+	 * @return
+	 * 		Le nombre de textures envoy�es.
+	 * @throws IOException
+	 * 		si une texture n'a pas pu �tre lue.
+	 */
+	public int upload(long budget) throws IOException {
+		
+		long start = System.nanoTime();
+		int n = 0;
+		FutureTask<Texture> task;
+		while ((n == 0 || System.nanoTime()-start < budget) && (task = this.uploads.poll()) != null) {
+			task.run();
+			n++;
+			await(task);
+		}
+		
+		return n;
+		
+	}
+	
+	/**
+	 * Indique si une ressource est en cours de chargement.
+	 * 
+	 * @param file
+	 * 		Le nom du fichier de la ressource.
+	 * @return
+	 * 		Vrai si la ressource a �t� demand�e et n'est pas encore disponible.
+	 */
+	public boolean isPending(String file) {
+		
+		return file != null && this.pending.containsKey(file);
+		
+	}
+	
+	/**
+	 * Initialise OpenAL par la classe SoundStore, si ce n'est pas d�j� fait.
+	 * 
+	 * <p>L'initialisation est s�rialis�e avec le chargement des sons, la classe SoundStore n'�tant pas pr�vue pour un
+	 * acc�s concurrent.</p>
+	 */
+	public static void initSound() {
+		
+		synchronized (soundLock) {
+			SoundStore.get().init();
+		}
+		
+	}
+	
+	/**
+	 * Arr�te les threads de chargement. Les chargements en cours sont abandonn�s.
+	 */
+	public void shutdown() {
+		
+		this.pool.shutdownNow();
+		
+	}
+	
+	/**
+	 * Attend la fin d'un chargement.
+	 * 
+	 * <p>Cette m�thode ne doit pas �tre appel�e par le thread de jeu pour une texture qui n'a pas encore �t� envoy�e �
+	 * OpenGL, puisque c'est lui qui doit r�aliser cet envoi.</p>
+	 * 
+	 * @param future
+	 * 		Le Future du chargement. S'il est null, cette m�thode retourne null.
+	 * @return
+	 * 		La ressource charg�e.
+	 * @throws IOException
+	 * 		si le chargement a �chou� ou si l'attente a �t� interrompue.
+	 */
+	public static <T> T await(Future<T> future) throws IOException {
+		
+		if (future == null)
+			return null;
+		
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Attente d'un chargement interrompue.", e);
+		}
+		
+	}
+	
+	/**
+	 * Texture en cours de chargement
+	 * 
+	 * <p>Cette classe conserve les pixels d'une texture d�cod�e par un thread de chargement jusqu'� son envoi �
+	 * OpenGL par le thread de jeu (m�thode call()).</p>
+	 */
+	private final class PendingTexture implements Callable<Texture> {
+		
+		/**
+		 * Le nom du fichier de la texture.
+		 */
+		private final String file;
+		/**
+		 * Les pixels d�cod�s, ou null si le d�codage a �chou�.
+		 */
+		private ByteBuffer data;
+		/**
+		 * Les informations sur l'image d�cod�e.
+		 */
+		private PNGImageData image;
+		/**
+		 * L'erreur survenue lors du d�codage, ou null.
+		 */
+		private IOException error;
+		
+		/**
+		 * Constructeur PendingTexture.
+		 * 
+		 * @param file
+		 * 		Le nom du fichier de la texture.
+		 */
+		PendingTexture(String file) {
+			
+			this.file = file;
+			this.data = null;
+			this.image = new PNGImageData();
+			this.error = null;
+			
+		}
+		
+		/**
+		 * D�code le fichier de la texture. Cette m�thode est appel�e par un thread de chargement.
+		 */
+		void decode() {
+			
+			try {
+				InputStream in = new BufferedInputStream(new FileInputStream(this.file));
+				try {
+					this.data = this.image.loadImage(in);
+				} finally {
+					in.close();
+				}
+			} catch (IOException e) {
+				this.error = new IOException("Impossible de lire le fichier "+this.file, e);
+			}
+			
+		}
+		
+		/**
+		 * Envoie la texture d�cod�e � OpenGL et l'ajoute � la table des textures, sauf si elle s'y trouve d�j�. Cette
+		 * m�thode est appel�e par le thread de jeu.
+		 * 
+		 * @return
+		 * 		La texture cr��e.
+		 * @throws IOException
+		 * 		si le d�codage a �chou�.
+		 */
+		@Override
+		public Texture call() throws IOException {
+			
+			try {
+				if (this.error != null)
+					throw this.error;
+				// La texture a pu �tre demand�e � nouveau apr�s un premier chargement.
+				Texture loaded = AssetLoader.this.textures.get(this.file);
+				if (loaded != null)
+					return loaded;
+				
+				boolean alpha = this.image.getDepth() == 32;
+				int format = (alpha)?GL11.GL_RGBA:GL11.GL_RGB;
+				int id = GL11.glGenTextures();
+				GL11.glBindTexture(GL11.GL_TEXTURE_2D, id);
+				GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+				GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+				GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, format, this.image.getTexWidth(), this.image.getTexHeight(), 0,
+						format, GL11.GL_UNSIGNED_BYTE, this.data);
+				
+				TextureImpl t = new TextureImpl(this.file, GL11.GL_TEXTURE_2D, id);
+				t.setWidth(this.image.getWidth());
+				t.setHeight(this.image.getHeight());
+				t.setTextureWidth(this.image.getTexWidth());
+				t.setTextureHeight(this.image.getTexHeight());
+				t.setAlpha(alpha);
+				AssetLoader.this.textures.put(this.file, t);
+				
+				return t;
+			} finally {
+				this.data = null;
+				AssetLoader.this.pending.remove(this.file);
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Son en cours de chargement
+	 * 
+	 * <p>Cette classe charge un son par un thread de chargement (m�thode call()).</p>
+	 */
+	private final class PendingAudio implements Callable<Audio> {
+		
+		/**
+		 * Le format du fichier ("WAV").
+		 */
+		private final String format;
+		/**
+		 * Le nom du fichier du son.
+		 */
+		private final String file;
+		
+		/**
+		 * Constructeur PendingAudio.
+		 * 
+		 * @param format
+		 * 		Le format du fichier.
+		 * @param file
+		 * 		Le nom du fichier du son.
+		 */
+		PendingAudio(String format, String file) {
+			
+			this.format = format;
+			this.file = file;
+			
+		}
+		
+		/**
+		 * Charge le son.
+		 * 
+		 * @return
+		 * 		Le son charg�.
+		 * @throws IOException
+		 * 		si le fichier n'a pas pu �tre lu.
+		 */
+		@Override
+		public Audio call() throws IOException {
+			
+			try {
+				Audio a;
+				try {
+					synchronized (soundLock) {
+						a = AudioLoader.getAudio(this.format, ResourceLoader.getResourceAsStream(this.file));
+					}
+				} catch (IOException e) {
+					throw new IOException("Impossible de lire le fichier "+this.file, e);
+				}
+				if (a == null)
+					throw new IOException("La lecture du fichier audio "+this.file+" a �chou�.");
+				AssetLoader.this.sounds.put(this.file, a);
+				return a;
+			} finally {
+				AssetLoader.this.pending.remove(this.file);
+			}
+			
+		}
+		
+	}
+	
+}
@@ -0,0 +1,154 @@
+package fr.poufalouf;
+
+/**
+ * Emplacement d'une texture dans un atlas
+ * 
+ * <p>Cette classe associe une texture d'origine � la page d'atlas qui la contient, ainsi qu'au rectangle qu'elle y
+ * occupe, exprim� en coordonn�es de texture de la page (entre 0 et 1). Un rectangle de texture de l'image d'origine
+ * est converti en rectangle de texture de la page gr�ce aux m�thodes mapX et mapY.</p>
+ * <p>Une instance de cette classe ne peut pas �tre modifi�e une fois cr��e.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class AtlasRegion {
+	
+	/**
+	 * Le nom du fichier de la page d'atlas contenant la texture.
+	 */
+	private final String page;
+	/**
+	 * L'abscisse de la texture dans la page.
+	 */
+	private final double x;
+	/**
+	 * L'ordonn�e de la texture dans la page.
+	 */
+	private final double y;
+	/**
+	 * La largeur de la texture dans la page.
+	 */
+	private final double w;
+	/**
+	 * La hauteur de la texture dans la page.
+	 */
+	private final double h;
+	
+	/**
+	 * Constructeur AtlasRegion.
+	 * 
+	 * <p></p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>page : la page pass�e en param�tre (page), ou "" si le param�tre est null.</li>
+	 * <li>x : l'abscisse pass�e en param�tre (x).</li>
+	 * <li>y : l'ordonn�e pass�e en param�tre (y).</li>
+	 * <li>w : la largeur pass�e en param�tre (w).</li>
+	 * <li>h : la hauteur pass�e en param�tre (h).</li>
+	 * </ul></p>
+	 * 
+	 * @param page
+	 * 		Le nom du fichier de la page d'atlas.
+	 * @param x
+	 * 		L'abscisse de la texture dans la page.
+	 * @param y
+	 * 		L'ordonn�e de la texture dans la page.
+	 * @param w
+	 * 		La largeur de la texture dans la page.
+	 * @param h
+	 * 		La hauteur de la texture dans la page.
+	 */
+	public AtlasRegion(String page, double x, double y, double w, double h) {
+		
+		if (page != null)
+			this.page = page;
+		else
+			this.page = "";
+		this.x = x;
+		this.y = y;
+		this.w = w;
+		this.h = h;
+		
+	}
+	
+	/**
+	 * Convertit une abscisse de texture de l'image d'origine en abscisse de texture de la page.
+	 * 
+	 * @param textX
+	 * 		L'abscisse de texture dans l'image d'origine.
+	 * @return
+	 * 		L'abscisse de texture correspondante dans la page.
+	 */
+	public double mapX(double textX) {
+		
+		return this.x+textX*this.w;
+		
+	}
+	
+	/**
+	 * Convertit une ordonn�e de texture de l'image d'origine en ordonn�e de texture de la page.
+	 * 
+	 * @param textY
+	 * 		L'ordonn�e de texture dans l'image d'origine.
+	 * @return
+	 * 		L'ordonn�e de texture correspondante dans la page.
+	 */
+	public double mapY(double textY) {
+		
+		return this.y+textY*this.h;
+		
+	}
+	
+	/**
+	 * Retourne le nom du fichier de la page d'atlas contenant la texture.
+	 * 
+	 * @return
+	 * 		Le nom du fichier de la page.
+	 */
+	public String getPage() {
+		return this.page;
+	}
+	
+	/**
+	 * Retourne l'abscisse de la texture dans la page.
+	 * 
+	 * @return
+	 * 		L'abscisse de la texture.
+	 */
+	public double getX() {
+		return this.x;
+	}
+	
+	/**
+	 * Retourne l'ordonn�e de la texture dans la page.
+	 * 
+	 * @return
+	 * 		L'ordonn�e de la texture.
+	 */
+	public double getY() {
+		return this.y;
+	}
+	
+	/**
+	 * Retourne la largeur de la texture dans la page.
+	 * 
+	 * @return
+	 * 		La largeur de la texture.
+	 */
+	public double getW() {
+		return this.w;
+	}
+	
+	/**
+	 * Retourne la hauteur de la texture dans la page.
+	 * 
+	 * @return
+	 * 		La hauteur de la texture.
+	 */
+	public double getH() {
+		return this.h;
+	}
+	
+}
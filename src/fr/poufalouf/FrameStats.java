@@ -0,0 +1,415 @@
+package fr.poufalouf;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Compteur de performances de l'affichage
+ * 
+ * <p>Cette classe mesure la dur�e de rendu de chaque image du thread de jeu, ainsi que le nombre d'appels de dessin
+ * et de quadrilat�res envoy�s � OpenGL pendant cette image. Ces valeurs sont cumul�es puis moyenn�es sur une
+ * p�riode d'une seconde afin de pouvoir comparer les performances de deux versions du moteur d'affichage.</p>
+ * <p>Elle mesure �galement le nombre d'octets allou�s par le thread appelant pendant chaque image, lorsque la machine
+ * virtuelle le permet, ainsi que le nombre de passages du ramasse-miettes pendant chaque p�riode. Une m�me instance ne
+ * doit donc �tre utilis�e que par un seul thread. Le thread du mod�le poss�de sa propre instance afin de v�rifier que
+ * ses mises � jour n'allouent aucun objet en r�gime permanent.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class FrameStats {
+	
+	/**
+	 * La dur�e d'une p�riode de mesure (en nanosecondes).
+	 */
+	private static final long period = 1000000000L;
+	/**
+	 * Le gestionnaire des threads de la machine virtuelle.
+	 */
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	
+	/**
+	 * Le nom de cette instance, plac� en t�te de ses r�sum�s.
+	 */
+	private final String name;
+	/**
+	 * Le nombre d'octets allou�s par un appel � la m�thode allocatedBytes() elle-m�me, retranch� des mesures.
+	 */
+	private final long overhead;
+	/**
+	 * L'instant de d�but de l'image en cours (en nanosecondes).
+	 */
+	private long frameStart;
+	/**
+	 * Le nombre d'appels de dessin de l'image en cours.
+	 */
+	private int drawCalls;
+	/**
+	 * Le nombre de quadrilat�res dessin�s pendant l'image en cours.
+	 */
+	private int quads;
+	/**
+	 * Le nombre de Drawable dont l'image a �t� dessin�e pendant l'image en cours.
+	 */
+	private int drawn;
+	/**
+	 * Le nombre de Drawable �cart�s sans g�n�rer leur image pendant l'image en cours.
+	 */
+	private int culled;
+	/**
+	 * Le nombre d'effets sonores en cours de lecture � la fin de l'image en cours.
+	 */
+	private int voices;
+	/**
+	 * Le nombre de demandes d'effets sonores abandonn�es pendant l'image en cours.
+	 */
+	private int droppedSounds;
+	/**
+	 * Le nombre de demandes d'effets sonores regroup�es avec une demande identique pendant l'image en cours.
+	 */
+	private int coalescedSounds;
+	/**
+	 * Le nombre d'octets allou�s par le thread au d�but de l'image en cours, ou -1 si cette mesure n'est pas support�e.
+	 */
+	private long frameStartBytes;
+	/**
+	 * Le nombre d'octets allou�s par le thread pendant la derni�re image achev�e, ou -1 si cette mesure n'est pas
+	 * support�e.
+	 */
+	private long frameBytes;
+	/**
+	 * L'instant de d�but de la p�riode de mesure en cours (en nanosecondes).
+	 */
+	private long periodStart;
+	/**
+	 * Le nombre d'images rendues pendant la p�riode de mesure en cours.
+	 */
+	private int nbFrames;
+	/**
+	 * La dur�e cumul�e de rendu des images de la p�riode de mesure en cours (en nanosecondes).
+	 */
+	private long totalFrameTime;
+	/**
+	 * Le nombre cumul� d'appels de dessin de la p�riode de mesure en cours.
+	 */
+	private long totalDrawCalls;
+	/**
+	 * Le nombre cumul� de quadrilat�res dessin�s pendant la p�riode de mesure en cours.
+	 */
+	private long totalQuads;
+	/**
+	 * Le nombre cumul� de Drawable dessin�s pendant la p�riode de mesure en cours.
+	 */
+	private long totalDrawn;
+	/**
+	 * Le nombre cumul� de Drawable �cart�s pendant la p�riode de mesure en cours.
+	 */
+	private long totalCulled;
+	/**
+	 * Le nombre cumul� d'effets sonores en cours de lecture � la fin des images de la p�riode de mesure en cours.
+	 */
+	private long totalVoices;
+	/**
+	 * Le nombre cumul� de demandes d'effets sonores abandonn�es pendant la p�riode de mesure en cours.
+	 */
+	private long totalDroppedSounds;
+	/**
+	 * Le nombre cumul� de demandes d'effets sonores regroup�es pendant la p�riode de mesure en cours.
+	 */
+	private long totalCoalescedSounds;
+	/**
+	 * Le nombre cumul� d'octets allou�s pendant la p�riode de mesure en cours.
+	 */
+	private long totalBytes;
+	/**
+	 * Le nombre de passages du ramasse-miettes depuis le lancement du jeu, au d�but de la p�riode de mesure en cours.
+	 */
+	private long periodGcCount;
+	/**
+	 * Le r�sum� de la derni�re p�riode de mesure achev�e.
+	 */
+	private String report;
+	
+	/**
+	 * Constructeur FrameStats.
+	 * 
+	 * <p></p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>name : le nom pass� en param�tre (name), ou "" si le param�tre est null.</li>
+	 * <li>overhead : la diff�rence entre deux mesures successives du nombre d'octets allou�s par le thread, ou 0 si
+	 * cette mesure n'est pas support�e.</li>
+	 * <li>frameStart : l'instant pr�sent.</li>
+	 * <li>drawCalls : 0.</li>
+	 * <li>quads : 0.</li>
+	 * <li>drawn : 0.</li>
+	 * <li>culled : 0.</li>
+	 * <li>voices : 0.</li>
+	 * <li>droppedSounds : 0.</li>
+	 * <li>coalescedSounds : 0.</li>
+	 * <li>frameStartBytes : -1.</li>
+	 * <li>frameBytes : -1.</li>
+	 * <li>periodStart : l'instant pr�sent.</li>
+	 * <li>nbFrames : 0.</li>
+	 * <li>totalFrameTime : 0.</li>
+	 * <li>totalDrawCalls : 0.</li>
+	 * <li>totalQuads : 0.</li>
+	 * <li>totalDrawn : 0.</li>
+	 * <li>totalCulled : 0.</li>
+	 * <li>totalVoices : 0.</li>
+	 * <li>totalDroppedSounds : 0.</li>
+	 * <li>totalCoalescedSounds : 0.</li>
+	 * <li>totalBytes : 0.</li>
+	 * <li>periodGcCount : le nombre de passages du ramasse-miettes depuis le lancement du jeu.</li>
+	 * <li>report : "".</li>
+	 * </ul></p>
+	 * 
+	 * @param name
+	 * 		Le nom de cette instance, plac� en t�te de ses r�sum�s.
+	 */
+	public FrameStats(String name) {
+		
+		if (name != null)
+			this.name = name;
+		else
+			this.name = "";
+		long first = allocatedBytes();
+		long second = allocatedBytes();
+		this.overhead = (first >= 0)?second-first:0;
+		this.frameStart = System.nanoTime();
+		this.drawCalls = 0;
+		this.quads = 0;
+		this.drawn = 0;
+		this.culled = 0;
+		this.voices = 0;
+		this.droppedSounds = 0;
+		this.coalescedSounds = 0;
+		this.frameStartBytes = -1;
+		this.frameBytes = -1;
+		this.periodStart = this.frameStart;
+		this.nbFrames = 0;
+		this.totalFrameTime = 0;
+		this.totalDrawCalls = 0;
+		this.totalQuads = 0;
+		this.totalDrawn = 0;
+		this.totalCulled = 0;
+		this.totalVoices = 0;
+		this.totalDroppedSounds = 0;
+		this.totalCoalescedSounds = 0;
+		this.totalBytes = 0;
+		this.periodGcCount = gcCount();
+		this.report = "";
+		
+	}
+	
+	/**
+	 * Retourne le nombre d'octets allou�s par le thread appelant depuis son lancement.
+	 * 
+	 * @return
+	 * 		Le nombre d'octets allou�s, ou -1 si la machine virtuelle ne permet pas cette mesure.
+	 */
+	private static long allocatedBytes() {
+		
+		if (!(threads instanceof com.sun.management.ThreadMXBean))
+			return -1;
+		com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) threads;
+		if (!t.isThreadAllocatedMemorySupported() || !t.isThreadAllocatedMemoryEnabled())
+			return -1;
+		return t.getThreadAllocatedBytes(Thread.currentThread().getId());
+		
+	}
+	
+	/**
+	 * Retourne le nombre total de passages du ramasse-miettes depuis le lancement du jeu.
+	 * 
+	 * @return
+	 * 		La somme des nombres de passages de tous les ramasse-miettes de la machine virtuelle.
+	 */
+	private static long gcCount() {
+		
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (gc.getCollectionCount() > 0)
+				count += gc.getCollectionCount();
+		}
+		return count;
+		
+	}
+	
+	/**
+	 * Commence la mesure d'une nouvelle image.
+	 * 
+	 * <p>Les compteurs d'appels de dessin, de quadrilat�res, de Drawable et d'effets sonores de l'image pr�c�dente sont
+	 * remis � z�ro.</p>
+	 */
+	public void startFrame() {
+		
+		this.frameStart = System.nanoTime();
+		this.drawCalls = 0;
+		this.quads = 0;
+		this.drawn = 0;
+		this.culled = 0;
+		this.voices = 0;
+		this.droppedSounds = 0;
+		this.coalescedSounds = 0;
+		this.frameStartBytes = allocatedBytes();
+		
+	}
+	
+	/**
+	 * Comptabilise un appel de dessin pour l'image en cours.
+	 * 
+	 * @param nbQuads
+	 * 		Le nombre de quadrilat�res dessin�s par cet appel.
+	 */
+	public void addDrawCall(int nbQuads) {
+		
+		this.drawCalls++;
+		this.quads += nbQuads;
+		
+	}
+	
+	/**
+	 * Comptabilise les Drawable dessin�s et �cart�s par une vue pour l'image en cours.
+	 * 
+	 * @param nbDrawn
+	 * 		Le nombre de Drawable dont l'image a �t� dessin�e.
+	 * @param nbCulled
+	 * 		Le nombre de Drawable �cart�s sans g�n�rer leur image.
+	 */
+	public void addCulling(int nbDrawn, int nbCulled) {
+		
+		this.drawn += nbDrawn;
+		this.culled += nbCulled;
+		
+	}
+	
+	/**
+	 * Comptabilise les effets sonores jou�s, abandonn�s et regroup�s par un m�langeur pour l'image en cours.
+	 * 
+	 * @param nbVoices
+	 * 		Le nombre d'effets sonores en cours de lecture.
+	 * @param nbDropped
+	 * 		Le nombre de demandes d'effets sonores abandonn�es.
+	 * @param nbCoalesced
+	 * 		Le nombre de demandes d'effets sonores regroup�es avec une demande identique.
+	 */
+	public void addVoices(int nbVoices, int nbDropped, int nbCoalesced) {
+		
+		this.voices += nbVoices;
+		this.droppedSounds += nbDropped;
+		this.coalescedSounds += nbCoalesced;
+		
+	}
+	
+	/**
+	 * Termine la mesure de l'image en cours.
+	 * 
+	 * <p>Les valeurs de l'image sont ajout�es � la p�riode de mesure en cours. Si cette p�riode est achev�e, un
+	 * nouveau r�sum� est calcul� et une nouvelle p�riode commence.</p>
+	 * 
+	 * @return
+	 * 		Vrai si un nouveau r�sum� est disponible.
+	 */
+	public boolean endFrame() {
+		
+		long bytes = allocatedBytes();
+		long now = System.nanoTime();
+		
+		if (bytes >= 0 && this.frameStartBytes >= 0)
+			this.frameBytes = Math.max(0, bytes-this.frameStartBytes-this.overhead);
+		else
+			this.frameBytes = -1;
+		
+		this.nbFrames++;
+		this.totalFrameTime += now-this.frameStart;
+		this.totalDrawCalls += this.drawCalls;
+		this.totalQuads += this.quads;
+		this.totalDrawn += this.drawn;
+		this.totalCulled += this.culled;
+		this.totalVoices += this.voices;
+		this.totalDroppedSounds += this.droppedSounds;
+		this.totalCoalescedSounds += this.coalescedSounds;
+		if (this.frameBytes >= 0)
+			this.totalBytes += this.frameBytes;
+		
+		if (now-this.periodStart < period)
+			return false;
+		
+		long gc = gcCount();
+		this.report = ((this.name != "")?this.name+" : ":"")+this.nbFrames+" images, "
+				+String.format("%.2f", this.totalFrameTime/1000000./this.nbFrames)+" ms/image, "
+				+this.totalDrawCalls/this.nbFrames+" appels de dessin/image, "
+				+this.totalQuads/this.nbFrames+" quads/image, "
+				+((this.totalDrawn+this.totalCulled > 0)?this.totalDrawn/this.nbFrames+" dessin�s/"
+						+this.totalCulled/this.nbFrames+" �cart�s par image, ":"")
+				+((this.totalVoices+this.totalDroppedSounds+this.totalCoalescedSounds > 0)?String.format("%.2f",
+						(double) this.totalVoices/this.nbFrames)+" sons actifs par image, "+this.totalDroppedSounds
+						+" sons abandonn�s, "+this.totalCoalescedSounds+" sons regroup�s, ":"")
+				+((this.frameBytes >= 0)?this.totalBytes/this.nbFrames+" octets allou�s/image, ":"")
+				+(gc-this.periodGcCount)+" passages du ramasse-miettes";
+		this.periodStart = now;
+		this.periodGcCount = gc;
+		this.nbFrames = 0;
+		this.totalFrameTime = 0;
+		this.totalDrawCalls = 0;
+		this.totalQuads = 0;
+		this.totalDrawn = 0;
+		this.totalCulled = 0;
+		this.totalVoices = 0;
+		this.totalDroppedSounds = 0;
+		this.totalCoalescedSounds = 0;
+		this.totalBytes = 0;
+		
+		return true;
+		
+	}
+	
+	/**
+	 * Retourne le nombre d'appels de dessin de l'image en cours.
+	 * 
+	 * @return
+	 * 		Le nombre d'appels de dessin.
+	 */
+	public int getDrawCalls() {
+		return this.drawCalls;
+	}
+	
+	/**
+	 * Retourne le nombre de quadrilat�res dessin�s pendant l'image en cours.
+	 * 
+	 * @return
+	 * 		Le nombre de quadrilat�res.
+	 */
+	public int getQuads() {
+		return this.quads;
+	}
+	
+	/**
+	 * Retourne le nombre d'octets allou�s par le thread pendant la derni�re image achev�e.
+	 * 
+	 * <p>Ce nombre est nul en r�gime permanent si l'image n'a allou� aucun objet.</p>
+	 * 
+	 * @return
+	 * 		Le nombre d'octets allou�s, ou -1 si la machine virtuelle ne permet pas cette mesure.
+	 */
+	public long getFrameBytes() {
+		return this.frameBytes;
+	}
+	
+	/**
+	 * Retourne le r�sum� de la derni�re p�riode de mesure achev�e.
+	 * 
+	 * @return
+	 * 		Le nombre d'images rendues pendant la p�riode, les moyennes par image de la dur�e de rendu, du nombre
+	 * d'appels de dessin, du nombre de quadrilat�res et du nombre d'octets allou�s, et le nombre de passages du
+	 * ramasse-miettes pendant la p�riode.
+	 */
+	public String report() {
+		return this.report;
+	}
+	
+}
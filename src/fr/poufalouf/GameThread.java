@@ -3,33 +3,25 @@ package fr.poufalouf;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.DoubleBuffer;
-import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
-import org.lwjgl.BufferUtils;
 import org.lwjgl.LWJGLException;
 import org.lwjgl.input.Keyboard;
 import org.lwjgl.input.Mouse;
 import org.lwjgl.openal.AL;
-import org.lwjgl.opengl.ARBBufferObject;
-import org.lwjgl.opengl.ARBVertexBufferObject;
 import org.lwjgl.opengl.Display;
 import org.lwjgl.opengl.DisplayMode;
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GLContext;
 import org.newdawn.slick.openal.Audio;
-import org.newdawn.slick.openal.AudioLoader;
 import org.newdawn.slick.opengl.PNGImageData;
 import org.newdawn.slick.opengl.Texture;
-import org.newdawn.slick.opengl.TextureLoader;
-import org.newdawn.slick.util.ResourceLoader;
 
-import fr.poufalouf.tools.CombinedImage;
 import fr.poufalouf.tools.Constantes;
-import fr.poufalouf.tools.Image;
-import fr.poufalouf.tools.TexturedImage;
+import fr.poufalouf.tools.FrameSnapshot;
+import fr.poufalouf.tools.RenderBuffer;
 import fr.poufalouf.tools.View;
 
 /**
@@ -47,17 +39,21 @@ import fr.poufalouf.tools.View;
  * il ne l'est pas.</li>
  * </ul></p>
  * <p>La m�thode principale de cette classe est la m�thode run(), qui sert de boucle infinie pour le jeu.</p>
- * <p>Cette classe poss�de une variable qui peut �tre null : musique. Cette variable doit �tre instanci�e une premi�re fois
- * gr�ce � AudioLoader. A partir de ce moment, si aucune exception ne survient, cette variable ne pourra plus �tre null.</p>
+ * <p>La mise � jour du mod�le n'est pas r�alis�e par ce thread mais par un thread du mod�le (classe ModelThread),
+ * lanc� une fois le Display cr��. Ce thread de jeu se contente de lui transmettre les contr�les utilisateur et de
+ * dessiner les images publi�es par la vue.</p>
+ * <p>La musique de fond est jou�e par un lecteur (classe MusicPlayer) disposant de son propre thread, de sorte qu'un
+ * changement de musique ne bloque jamais ce thread.</p>
  * 
  * @author Anaïs Vernet
  */
 public final class GameThread implements Runnable {
 	
 	/**
-	 * � l'�tat faux, le programme quitte la boucle de jeu dans le thread principal et dans le thread de jeu.
+	 * � l'�tat faux, le programme quitte la boucle de jeu dans le thread principal et dans le thread de jeu. Ce champ
+	 * est lu par le thread du mod�le (classe ModelThread).
 	 */
-	private boolean playing;
+	private volatile boolean playing;
 	/**
 	 * Indique si le Display a �t� cr��, et permet ainsi au thread principal de continuer.
 	 */
@@ -71,37 +67,45 @@ public final class GameThread implements Runnable {
 	 */
 	private View vue;
 	/**
-	 * La musique de fond du jeu. Cette variable peut �tre null.
+	 * Le lecteur de la musique de fond du jeu.
 	 */
-	private Audio musique;
+	private MusicPlayer music;
 	/**
 	 * Le nom de la musique de fond.
 	 */
 	private String musicName;
 	/**
-	 * Les effets sonores du jeu.
+	 * Les effets sonores du jeu. Cette table est remplie par les threads de chargement.
 	 */
-	private HashMap<String, Audio> sounds;
+	private ConcurrentHashMap<String, Audio> sounds;
+	/**
+	 * Le m�langeur jouant les effets sonores de la table sounds.
+	 */
+	private SoundMixer mixer;
 	/**
 	 * La liste des textures disponibles.
 	 */
 	private HashMap<String, Texture> textures;
 	/**
-	 * La liste des textures � charger.
+	 * La table des r�gions d'atlas des textures regroup�es, rep�r�es par le nom de fichier de la texture d'origine.
+	 */
+	private HashMap<String, AtlasRegion> regions;
+	/**
+	 * Le chargeur des textures et des sons de ce thread.
 	 */
-	private ArrayList<String> texturesToAdd;
+	private AssetLoader loader;
 	/**
-	 * La liste des sons � charger.
+	 * Le lot de dessin regroupant les images textur�es � afficher.
 	 */
-	private ArrayList<String> soundsToAdd;
+	private SpriteBatch batch;
 	/**
-	 * L'adresse du tampon VBO.
+	 * Le compteur de performances de l'affichage.
 	 */
-	private int vboID;
+	private FrameStats stats;
 	/**
-	 * La taille du tampon VBO.
+	 * Le thread du mod�le mettant � jour la vue de ce thread.
 	 */
-	private int vboBufferSize;
+	private ModelThread modelThread;
 	
 	/**
 	 * Constructeur GameThread.
@@ -116,14 +120,16 @@ public final class GameThread implements Runnable {
 	 * <li>ready : faux.</li>
 	 * <li>fullscreen : faux.</li>
 	 * <li>vue : la vue pass�e en param�tre (vue), ou une nouvelle View standard si le param�tre est null.</li>
-	 * <li>musique : null.</li>
+	 * <li>music : un nouveau MusicPlayer.</li>
 	 * <li>musicName : "".</li>
-	 * <li>sounds : une nouvelle table (HashMap) d'Audio rep�r�s par des String.</li>
+	 * <li>sounds : une nouvelle table (ConcurrentHashMap) d'Audio rep�r�s par des String.</li>
+	 * <li>mixer : un nouveau SoundMixer.</li>
 	 * <li>textures : une nouvelle table (HashMap) de Texture r�f�renc�es par des String.</li>
-	 * <li>texturesToAdd : une nouvelle liste (ArrayList) de String.</li>
-	 * <li>soundsToAdd : une nouvelle liste (ArrayList) de String.</li>
-	 * <li>vboID : 0.</li>
-	 * <li>vboBufferSize : 0.</li>
+	 * <li>regions : une nouvelle table (HashMap) d'AtlasRegion rep�r�es par des String.</li>
+	 * <li>loader : un nouvel AssetLoader remplissant les tables textures et sounds.</li>
+	 * <li>stats : un nouveau FrameStats de nom "Rendu".</li>
+	 * <li>batch : un nouveau SpriteBatch associ� au compteur stats.</li>
+	 * <li>modelThread : un nouveau ModelThread associ� � ce thread et � la vue vue.</li>
 	 * </ul></p>
 	 * 
 	 * @param vue
@@ -138,276 +144,159 @@ public final class GameThread implements Runnable {
 			this.vue = vue;
 		else
 			this.vue = new View();
-		this.musique = null;
+		this.music = new MusicPlayer();
 		this.musicName = "";
-		this.sounds = new HashMap<String, Audio>();
+		this.sounds = new ConcurrentHashMap<String, Audio>();
+		this.mixer = new SoundMixer();
 		this.textures = new HashMap<String, Texture>();
-		this.texturesToAdd = new ArrayList<String>();
-		this.soundsToAdd = new ArrayList<String>();
-		this.vboID = 0;
-		this.vboBufferSize = 0;
+		this.regions = new HashMap<String, AtlasRegion>();
+		this.loader = new AssetLoader(this.textures, this.sounds);
+		this.stats = new FrameStats("Rendu");
+		this.batch = new SpriteBatch(this.stats);
+		this.modelThread = new ModelThread(this, this.vue);
 		
 	}
 	
 	/**
 	 * Affiche les images de la vue de ce thread sur le Display.
 	 * 
-	 * <p>Si le buffering VBO n'est pas support�, alors des boucles glBegin et glEnd sont utilis�es pour le rendu. Sinon,
-	 * les buffers VBO sont utilis�s, qui se voient r�allouer de la m�moire si la taille de la liste images de la vue
-	 * associ�e � ce thread est modifi�e. Seules les images issues de Drawable sp�cifiant qu'ils sont rendus par VBO
-	 * utiliseront ce syst�me. Pour les autres, les boucles glBegin et glEnd sont utilis�es dans tous les cas.</p>
-	 * 
-	 * <p>Les images sont affich�es diff�remment selon leurs types :
-	 * <ul>
-	 * <li>Une image combin�e (CombinedImage) affiche plusieurs images dans l'ordre de la liste des images qui la
-	 * composent. Les image combin�es ne sont en th�orie jamais envoy�es � cette m�thode, mais divis�es en
-	 * images textur�es par la vue.</li>
-	 * <li>Une image textur�e (TexturedImage) est affich�e dans la portion d'�cran d�finie par ses dimensions, et la zone
-	 * ainsi d�finie est remplie par la texture de l'image.</li>
-	 * <li>Une image simple est dessin�e comme un contour de rectangle de la taille et de la couleur
-	 * d�finies par l'image.</li>
-	 * </ul></p>
+	 * <p>Les images sont lues sous la forme de commandes de dessin (RenderBuffer) dans la derni�re instance de
+	 * FrameSnapshot publi�e par la vue, r�serv�e pendant toute la dur�e de cette m�thode (m�thodes acquireSnapshot() et
+	 * releaseSnapshot() de la classe View). Les images combin�es y ont d�j� �t� divis�es en images textur�es, et les
+	 * images issues de Drawable sp�cifiant qu'ils sont rendus par VBO sont plac�es avant toutes les autres.</p>
+	 * <p>Les commandes textur�es sont envoy�es au lot de dessin (SpriteBatch) de cette classe, qui dessine en un seul
+	 * appel chaque suite de commandes cons�cutives de m�me texture afin de limiter le nombre d'appels de dessin. Les
+	 * autres commandes sont dessin�es comme un contour de rectangle de la taille et de la couleur d�finies par l'image,
+	 * par des boucles glBegin et glEnd. Le lot est vid� avant chacun de ces contours, ainsi qu'� la fin de cette
+	 * m�thode.</p>
 	 * <p>L'image n'est pas affich�e si sa largeur ou sa hauteur est n�gative.</p>
 	 * <p>Dans le cas d'une image textur�e, la texture utilis�e est celle correspondant au nom de fichier servant
 	 * d'identifiant � l'image. Cette fonction rogne la texture selon les dimensions sp�cifi�es par l'image si 
-	 * n�cessaire.</p>
-	 * <p>Si un son est associ� � l'image, alors celui-ci est jou�, son nom de fichier �tant pass� au pr�alable � la
-	 * m�thode addSound de cette classe pour charger le son si ce n'est pas d�j� fait.</p>
+	 * n�cessaire. Si cette texture a �t� regroup�e dans un atlas, la page d'atlas la contenant est utilis�e � sa place
+	 * et le rectangle de texture de l'image est converti en coordonn�es de la page. Une image dont la texture est en
+	 * cours de chargement n'est pas dessin�e.</p>
+	 * <p>Chaque image est dessin�e � une position interpol�e entre celle qu'elle avait lors de l'avant-derni�re mise �
+	 * jour du mod�le et celle de la derni�re, selon le temps �coul� depuis cette derni�re mise � jour, afin que le
+	 * mouvement reste fluide quelle que soit la fr�quence de mise � jour du mod�le.</p>
+	 * <p>Si un son est associ� � une image, alors celui-ci est jou� gr�ce � la m�thode playSound(RenderBuffer, int) de
+	 * cette classe, une seule fois par instance de FrameSnapshot m�me si celle-ci est dessin�e plusieurs fois.</p>
 	 * 
 	 * @throws Exception
 	 * 		si la lecture des fichiers textures est impossible.
 	 */
 	private void drawImages() throws Exception {
 		
-		ArrayList<Image> images = this.vue.images();
-		ArrayList<TexturedImage> vboImages = this.vue.vboImages();
-		DoubleBuffer vboBuffer = BufferUtils.createDoubleBuffer(vboImages.size()*4*7); // 4pts, 2coord+3col+2text
+		View v = this.vue;
+		FrameSnapshot snapshot = v.acquireSnapshot();
 		
-		if (this.vboID == 0) {
-			images.addAll(0, vboImages);
-			vboImages.clear();
-		}
-		
-		double x, y, xw, yh, r, g, b, textX, textY, textXW, textYH;
-		double d[] = new double[4*7];
-		
-		for (TexturedImage image : vboImages) {
-			x = image.getX();
-			y = image.getY();
-			xw = x+image.getW();
-			yh = y+image.getH();
-			r = image.getCouleur().r;
-			g = image.getCouleur().g;
-			b = image.getCouleur().b;
-			textX = image.getTextRect().getX();
-			textY = image.getTextRect().getY();
-			textXW = textX+image.getTextRect().getW();
-			textYH = textY+image.getTextRect().getH();
-			d = new double[]{x,y,r,g,b,textX,textY,
-					xw,y,r,g,b,textXW,textY,
-					xw,yh,r,g,b,textXW,textYH,
-					x,yh,r,g,b,textX,textYH};
-			vboBuffer.put(d);
-		}
-		
-		// Rendu des images par VBO
-		
-		vboBuffer.rewind();
-		ARBBufferObject.glBindBufferARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, this.vboID);
-		if (vboBuffer.capacity()*8 > this.vboBufferSize) {
-			ARBBufferObject.glBufferDataARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB,
-					vboBuffer, ARBBufferObject.GL_STREAM_DRAW_ARB);
-			this.vboBufferSize = vboBuffer.capacity()*8; // 8 : taille d'un double
-		} else {
-			ARBBufferObject.glBufferSubDataARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, 0, vboBuffer);
-		}
-		if (vboImages.size() > 0) {
-			Texture text = this.textures.get(vboImages.get(0).getTextureID());
-			if (text != null)
-				text.bind();
-			else
-				throw new Exception("Erreur lors de la lecture de la texture des images VBO" +
-						" dans la m�thode drawImage(Image) de la classe GameThread. Fichier "
-						+vboImages.get(0).getTextureID()+" non trouv�.");
-			GL11.glBegin(GL11.GL_QUADS);
-			GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
-			GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
-			GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
-			GL11.glVertexPointer(2, GL11.GL_DOUBLE, 7*8, 0);
-			GL11.glColorPointer(3, GL11.GL_DOUBLE, 7*8, 2*8);
-			GL11.glTexCoordPointer(2, GL11.GL_DOUBLE, 7*8, 5*8);
-			GL11.glDrawArrays(GL11.GL_QUADS, 0, this.vboBufferSize/7/8);
-			GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
-			GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
-			GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
-		}
-		
-		for (Image img : images) {
-			if (img == null)
-				continue;
+		try {
+			RenderBuffer cmds = snapshot.commands();
+			double alpha = snapshot.alpha(System.nanoTime());
 			
-			if (img.getW() < 0 || img.getH() < 0)
-				continue;
-	
-			if (img instanceof CombinedImage) {
-				CombinedImage cbImg = (CombinedImage) img;
-				// L'image principale de la CombinedImage n'est affich�e que si sa texture est d�finie.
-				if (cbImg.getTextureID() != "") {
-					cbImg.getCouleur().bind();
-					
-					Texture text = this.textures.get(cbImg.getTextureID());
-					if (text != null)
-						text.bind();
-					else {
-						throw new Exception("Erreur lors de la lecture de la texture de l'image compos�e " +
-								img.getName()+" dans la m�thode drawImage(Image) de la classe GameThread. Fichier "
-								+cbImg.getTextureID()+" non trouv�.");
-					}
-					x = cbImg.getX();
-					y = cbImg.getY();
-					xw = x+cbImg.getW();
-					yh = y+cbImg.getH();
-					textX = cbImg.getTextRect().getX();
-					textY = cbImg.getTextRect().getY();
-					textXW = textX+cbImg.getTextRect().getW();
-					textYH = textY+cbImg.getTextRect().getH();
-					cbImg.getCouleur().bind();
-					GL11.glPushMatrix();
-						GL11.glTranslated(x+(xw-x)/2, y+(yh-y)/2, 0);
-						GL11.glRotatef(cbImg.getAngle(), 0, 0, 1);
-						GL11.glTranslated(-(x+(xw-x)/2), -(y+(yh-y)/2), 0);
-						GL11.glBegin(GL11.GL_QUADS);
-							GL11.glTexCoord2d(textX, textY);
-							GL11.glVertex2d(x, y);
-							GL11.glTexCoord2d(textXW, textY);
-							GL11.glVertex2d(xw, y);
-							GL11.glTexCoord2d(textXW, textYH);
-							GL11.glVertex2d(xw, yh);
-							GL11.glTexCoord2d(textX, textYH);
-							GL11.glVertex2d(x, yh);
-						GL11.glEnd();
-					GL11.glPopMatrix();
-				}
-				
-				for (TexturedImage image : cbImg.images()) {
-					image.getCouleur().bind();
-					Texture text = this.textures.get(image.getTextureID());
-					if (text != null)
-						text.bind();
-					else {
-						throw new Exception("Erreur lors de la lecture de la texture de l'image " + image.getName()+
-								" dans l'image compos�e "+img.getName()+" dans la m�thode drawImage(Image) de la " +
-								"classe GameThread. Fichier "+image.getTextureID()+" non trouv�.");
-					}
-					x = cbImg.getX()+image.getX()*cbImg.getW();
-					y = cbImg.getY()+image.getY()*cbImg.getH();
-					xw = cbImg.getX()+(image.getX()+image.getW())*cbImg.getW();
-					yh = cbImg.getY()+(image.getY()+image.getH())*cbImg.getH();
-					textX = image.getTextRect().getX();
-					textY = image.getTextRect().getY();
-					textXW = textX+image.getTextRect().getW();
-					textYH = textY+image.getTextRect().getH();
-					image.getCouleur().bind();
-					GL11.glPushMatrix();
-						GL11.glTranslated(x+(xw-x)/2, y+(yh-y)/2, 0);
-						GL11.glRotatef(image.getAngle(), 0, 0, 1);
-						GL11.glTranslated(-(x+(xw-x)/2), -(y+(yh-y)/2), 0);
-						GL11.glBegin(GL11.GL_QUADS);
-							GL11.glTexCoord2d(textX, textY);
-							GL11.glVertex2d(x, y);
-							GL11.glTexCoord2d(textXW, textY);
-							GL11.glVertex2d(xw, y);
-							GL11.glTexCoord2d(textXW, textYH);
-							GL11.glVertex2d(xw, yh);
-							GL11.glTexCoord2d(textX, textYH);
-							GL11.glVertex2d(x, yh);
-						GL11.glEnd();
-					GL11.glPopMatrix();
-				}
-			} else if (img instanceof TexturedImage) {
-				TexturedImage image = (TexturedImage) img;
+			double x, y, xw, yh;
+			for (int i=0;i<cmds.size();i++) {
+				double w = cmds.getW(i), h = cmds.getH(i);
+				if (w < 0 || h < 0)
+					continue;
 				
-				image.getCouleur().bind();
-				Texture text = this.textures.get(image.getTextureID());
-				if (text != null)
-					text.bind();
-				else {
-					throw new Exception("Erreur lors de la lecture de la texture de l'image " +
-							img.getName()+" dans la m�thode drawImage(Image) de la classe GameThread. Fichier "
-							+image.getTextureID()+" non trouv�.");
-				}
-				x = image.getX();
-				y = image.getY();
-				xw = x+image.getW();
-				yh = y+image.getH();
-				textX = image.getTextRect().getX();
-				textY = image.getTextRect().getY();
-				textXW = textX+image.getTextRect().getW();
-				textYH = textY+image.getTextRect().getH();
-				GL11.glPushMatrix();
-					GL11.glTranslated(x+(xw-x)/2, y+(yh-y)/2, 0);
-					GL11.glRotatef(image.getAngle(), 0, 0, 1);
-					GL11.glTranslated(-(x+(xw-x)/2), -(y+(yh-y)/2), 0);
-					GL11.glBegin(GL11.GL_QUADS);
-						GL11.glTexCoord2d(textX, textY);
-						GL11.glVertex2d(x, y);
-						GL11.glTexCoord2d(textXW, textY);
-						GL11.glVertex2d(xw, y);
-						GL11.glTexCoord2d(textXW, textYH);
-						GL11.glVertex2d(xw, yh);
-						GL11.glTexCoord2d(textX, textYH);
-						GL11.glVertex2d(x, yh);
-					GL11.glEnd();
-				GL11.glPopMatrix();
-			} else {
-				GL11.glDisable(GL11.GL_TEXTURE_2D);
-				GL11.glColor3d(img.getCouleur().r, img.getCouleur().g, img.getCouleur().b);
+				// Position interpol�e entre les deux derni�res mises � jour du mod�le
+				double ix = snapshot.interpolatedX(i, alpha), iy = snapshot.interpolatedY(i, alpha);
 				
-				if (img.getW() == 0 && img.getH() == 0) {
-					// En mode GL_LINE_LOOP, un point unique ne serait pas visible.
-					GL11.glBegin(GL11.GL_POINTS);
-						GL11.glVertex2d(img.getX(), img.getY());
-					GL11.glEnd();
+				if (cmds.isTextured(i)) {
+					String textureID = cmds.getTextureID(i);
+					AtlasRegion region = this.regions.get(textureID);
+					Texture text = this.textures.get((region != null)?region.getPage():textureID);
+					if (text == null && this.loader.isPending((region != null)?region.getPage():textureID))
+						continue;
+					if (text == null) {
+						throw new Exception("Erreur lors de la lecture de la texture de l'image " +
+								cmds.getName(i)+" dans la m�thode drawImages() de la classe GameThread. Fichier "
+								+textureID+" non trouv�.");
+					}
+					this.batch.addQuad(text, ix, iy, w, h, cmds.getAngle(i),
+							cmds.getRed(i), cmds.getGreen(i), cmds.getBlue(i),
+							cmds.getTextX(i), cmds.getTextY(i), cmds.getTextW(i), cmds.getTextH(i), region);
 				} else {
-					x = img.getX();
-					y = img.getY();
-					xw = img.getX()+img.getW();
-					yh = img.getY()+img.getH();
-					GL11.glPushMatrix();
-						GL11.glTranslated(x+(xw-x)/2, y+(yh-y)/2, 0);
-						GL11.glRotatef(img.getAngle(), 0, 0, 1);
-						GL11.glTranslated(-(x+(xw-x)/2), -(y+(yh-y)/2), 0);
-						GL11.glBegin(GL11.GL_LINE_LOOP);
-							GL11.glVertex2d(x, y);
-							GL11.glVertex2d(xw, y);
-							GL11.glVertex2d(xw, yh);
-							GL11.glVertex2d(x, yh);
+					// Les images textur�es pr�c�dentes doivent �tre dessin�es avant celle-ci.
+					this.batch.flush();
+					GL11.glDisable(GL11.GL_TEXTURE_2D);
+					GL11.glColor3f(cmds.getRed(i), cmds.getGreen(i), cmds.getBlue(i));
+					if (w == 0 && h == 0) {
+						// En mode GL_LINE_LOOP, un point unique ne serait pas visible.
+						GL11.glBegin(GL11.GL_POINTS);
+							GL11.glVertex2d(ix, iy);
 						GL11.glEnd();
-					GL11.glPopMatrix();
+					} else {
+						x = ix;
+						y = iy;
+						xw = ix+w;
+						yh = iy+h;
+						GL11.glPushMatrix();
+							GL11.glTranslated(x+(xw-x)/2, y+(yh-y)/2, 0);
+							GL11.glRotatef(cmds.getAngle(i), 0, 0, 1);
+							GL11.glTranslated(-(x+(xw-x)/2), -(y+(yh-y)/2), 0);
+							GL11.glBegin(GL11.GL_LINE_LOOP);
+								GL11.glVertex2d(x, y);
+								GL11.glVertex2d(xw, y);
+								GL11.glVertex2d(xw, yh);
+								GL11.glVertex2d(x, yh);
+							GL11.glEnd();
+						GL11.glPopMatrix();
+					}
+					this.stats.addDrawCall(0);
+					
+					GL11.glEnable(GL11.GL_TEXTURE_2D);
 				}
-				
-				GL11.glEnable(GL11.GL_TEXTURE_2D);
 			}
 			
-			// Lecture du son
+			this.batch.flush();
+			
+			// Lecture des sons, une seule fois par instance de FrameSnapshot
 			
-			String s = img.getSound();
-			if (s != "" && s != null) {
-				Audio a = this.sounds.get(s);
-				if (a == null)
-					throw new IOException("La lecture du fichier audio "+s+" a �chou�.");
-				if (img.isSpatialSound())
-					a.playAsSoundEffect(1, 1, false,
-							1.0f/(Constantes.initialDisplayWidth*(float) this.vue.getCoeffWidth())*
-							4*((float) img.getX()-this.vue.getX()-
-									Constantes.initialDisplayWidth*(float) this.vue.getCoeffWidth()/2),
-							1.0f/(Constantes.initialDisplayHeight*(float) this.vue.getCoeffHeight())*
-							4*((float) img.getY()-this.vue.getY()-
-									Constantes.initialDisplayHeight*(float) this.vue.getCoeffHeight()/2),
-							0);
-				else
-					a.playAsSoundEffect(1, 1, false);
+			if (snapshot.consume()) {
+				RenderBuffer snds = snapshot.soundCommands();
+				for (int i=0;i<snds.size();i++)
+					this.playSound(snds, i);
 			}
+		} finally {
+			v.releaseSnapshot();
+		}
+		
+	}
+	
+	/**
+	 * Demande au m�langeur de ce thread de jouer le son associ� � une commande de dessin.
+	 * 
+	 * <p>Si le son de la commande est spatialis�, sa position est calcul�e � partir de celle de la commande par rapport
+	 * au centre de la vue. Si la commande n'a pas de son, ou si son son est en cours de chargement, cette m�thode ne
+	 * fait rien. Le son est jou� � la fin de l'image par la m�thode flush() de la classe SoundMixer.</p>
+	 * 
+	 * @param cmds
+	 * 		Le tampon contenant la commande.
+	 * @param n
+	 * 		Le rang de la commande dans ce tampon.
+	 * @throws IOException
+	 * 		si le son de la commande n'a pas �t� charg�.
+	 */
+	private void playSound(RenderBuffer cmds, int n) throws IOException {
+		
+		String s = cmds.getSound(n);
+		if (s != "" && s != null) {
+			Audio a = this.sounds.get(s);
+			if (a == null && this.loader.isPending(s))
+				return;
+			if (a == null)
+				throw new IOException("La lecture du fichier audio "+s+" a �chou�.");
+			if (cmds.isSpatialSound(n))
+				this.mixer.request(a, s, true,
+						1.0f/(Constantes.initialDisplayWidth*(float) this.vue.getCoeffWidth())*
+						4*((float) cmds.getX(n)-this.vue.getX()-
+								Constantes.initialDisplayWidth*(float) this.vue.getCoeffWidth()/2),
+						1.0f/(Constantes.initialDisplayHeight*(float) this.vue.getCoeffHeight())*
+						4*((float) cmds.getY(n)-this.vue.getY()-
+								Constantes.initialDisplayHeight*(float) this.vue.getCoeffHeight()/2));
+			else
+				this.mixer.request(a, s, false, 0, 0);
 		}
 		
 	}
@@ -492,8 +381,9 @@ public final class GameThread implements Runnable {
 	 * <li>ESCAPE : quitter le jeu (passage du bool�en playing de cette classe � l'�tat faux).</li>
 	 * <li>F11 : passer ou quitter le mode plein �cran (m�thode setFullScreen(boolean) de cette classe).</li>
 	 * </ul></p>
-	 * <p>Les autres contr�les sont pass�s � la vue de cette classe par les m�thodes pollKeyboardDown(int) et
-	 * pollKeyboardUp(int) de la classe View.</p>
+	 * <p>Les autres contr�les sont ajout�s � la file des �v�nements clavier du thread du mod�le par les m�thodes
+	 * postKeyDown(int) et postKeyUp(int) de la classe ModelThread, qui les transmet � sa vue lors de sa prochaine mise
+	 * � jour.</p>
 	 * 
 	 */
 	private void pollInput() {
@@ -509,12 +399,12 @@ public final class GameThread implements Runnable {
 					this.setFullscreen(!this.fullscreen);
 					break;
 				default:
-					this.vue.pollKeyboardDown(key);
+					this.modelThread.postKeyDown(key);
 				}
 			} else {
 				switch (key) {
 				default:
-					this.vue.pollKeyboardUp(key);
+					this.modelThread.postKeyUp(key);
 				}
 			}
 		}
@@ -524,92 +414,58 @@ public final class GameThread implements Runnable {
 	/**
 	 * Joue, arr�te ou change la musique de fond en fonction de l'�tat de la vue.
 	 * 
-	 * <p>Si la m�thode isChangingMusic() de la classe View retourne vrai, alors la musique est chang�e gr�ce � un
-	 * AudioLoader par la musique dont le nom de fichier est retourn� par la m�thode getMusicFile() de la classe View.
-	 * Si la m�thode isPlayingMusic() de la classe View retourne vrai, et si la variable musique de cette classe n'est
-	 * pas null, alors la musique est jou�e en boucle.</p>
+	 * <p>Si le nom de fichier retourn� par la m�thode getMusicFile() de la classe View a chang� et n'est pas vide, la
+	 * nouvelle musique est demand�e au lecteur de musique de ce thread (m�thode play(String) de la classe
+	 * MusicPlayer), qui l'encha�ne avec la pr�c�dente sans bloquer ce thread. Une vue sans musique laisse la musique
+	 * pr�c�dente se poursuivre.</p>
 	 * <p>La musique doit �tre au format OGG.</p>
-	 * <p>Les sons stock�s par la vue sont �galement jou�s, la m�thode addSound de cette classe �tant pr�alablement
-	 * appel�e pour charger le son si ce n'est pas d�j� fait.</p>
+	 * <p>Les sons stock�s par la vue sont �galement confi�s au m�langeur de ce thread, qui les joue � la fin de
+	 * l'image. Un son qui n'a pas �t� charg� auparavant est charg� par le chargeur de ce thread, dont la fin est
+	 * attendue.</p>
 	 * 
 	 * @throws IOException
-	 * 		si l'appel � AudioLoader.getAudio(String, InputStream) l�ve une IOException.
+	 * 		si le chargement de la musique ou d'un son �choue.
 	 */
 	private void updateSound() throws IOException {
 		
-		if (this.musicName != this.vue.getMusicFile()) {
-			this.musique = AudioLoader.getAudio("OGG", ResourceLoader.getResourceAsStream(this.vue.getMusicFile()));
-			if (this.musique != null)
-				this.musique.playAsMusic(1, 1, true);
-			this.musicName = this.vue.getMusicFile();
+		String m = this.vue.getMusicFile();
+		if (m != this.musicName && m != null && m != "") {
+			this.musicName = m;
+			this.music.play(m);
 		}
+		this.music.checkError();
 		ArrayList<String> snds = this.vue.soundsToPlay();
 		for (String s : snds) {
-			if (!this.sounds.containsKey(s)) {
-				this.addSound(s);
+			if (!this.sounds.containsKey(s) && s != null) {
+				AssetLoader.await(this.loader.loadSound(s));
 			}
 			Audio a = this.sounds.get(s);
 			if (a == null)
 				throw new IOException("La lecture du fichier audio "+s+" a �chou�.");
-			a.playAsSoundEffect(1, 1, false);
-		}
-		
-	}
-	
-	/**
-	 * Ajoute une effet sonore � la liste de ce thread.
-	 * 
-	 * @param fileName
-	 * 		Le nom du fichier son.
-	 * @throws IOException
-	 * 		si l'appel � AudioLoader.getAudio(String, InputStream) l�ve une IOException.
-	 */
-	private void addSound(String fileName) throws IOException {
-		
-		if (fileName == null)
-			return;
-		try {
-			this.sounds.put(fileName, AudioLoader.getAudio("WAV", ResourceLoader.getResourceAsStream(fileName)));
-		} catch (IOException e) {
-			throw new IOException("Impossible de lire le fichier "+fileName, e);
+			this.mixer.request(a, s, false, 0, 0);
 		}
 		
 	}
 	
-	/**
-	 * Ajoute une texture � la liste des textures disponibles.
-	 * 
-	 * @param file
-	 * 		Le nom du fichier texture � ajouter.
-	 * @throws IOException
-	 * 		si le chargement du fichier �choue.
-	 */
-	private void addTexture(String file) throws IOException {
-		
-		if (file != "" && file != null && !this.textures.containsKey(file))
-			this.textures.put(file, TextureLoader.getTexture("PNG", new FileInputStream(file)));
-		
-	}
-	
 	/**
 	 * Boucle principale du thread de jeu.
 	 * 
 	 * <p>Cette m�thode commence par initialiser le contexte OpenGL en utilisant les champs initialDisplayWidth et
-	 * initialDisplayHeight de la classe Constantes. Une variable musique de type Audio est cr��e. Elle servira de
-	 * param�tre � la m�thode updateSound(Audio) de cette classe. Une fois le Display cr��, il passe le bool�en ready �
-	 * l'�tat vrai.</p>
+	 * initialDisplayHeight de la classe Constantes, puis d�marre le lecteur de musique de ce thread (m�thode start()
+	 * de la classe MusicPlayer). Une fois le Display cr��, il passe le bool�en ready � l'�tat vrai et lance le thread
+	 * du mod�le.</p>
 	 * <p>La boucle de jeu est ensuite lanc�e, et ne s'arr�te que lorsque l'utilisateur appuie sur la croix de fermeture
 	 * de la fen�tre ou d�clenche un �v�nement de fermeture de l'application (indiqu� au moyen du bool�en playing).</p>
 	 * <p>A l'int�rieur de cette boucle, cette m�thode r�alise les actions suivantes :
 	 * <ul>
-	 * <li>Chargement des textures dont les noms sont sp�cifi�s dans la liste texturesToAdd de cette classe. Cette liste
-	 * est ensuite effac�e.</li>
+	 * <li>Envoi � OpenGL des textures d�cod�es par le chargeur de ce thread, dans la limite de la dur�e d�finie par le
+	 * champ uploadBudget de la classe Constantes (m�thode upload(long) de la classe AssetLoader).</li>
 	 * <li>Redimensionnement �ventuel de la vue gr�ce � la m�thode updateDisplayMode() de cette classe.</li>
 	 * <li>Gestion des contr�les gr�ce � la m�thode pollInput() de cette classe.</li>
-	 * <li>R�initialisation de l'affichage gr�ce � la m�thode clear() de cette classe, rafra�chissement de la vue de
-	 * cette classe gr�ce � la m�thode refresh() de la classe View, mise � jour des sons gr�ce � la m�thode updateSound()
-	 * de cette classe, et enfin parcours de la liste des images
+	 * <li>R�initialisation de l'affichage gr�ce � la m�thode clear() de cette classe, mise � jour des sons gr�ce � la
+	 * m�thode updateSound() de cette classe, et enfin parcours de la liste des images publi�es
 	 * de la vue en utilisant la m�thode drawImage(Image) de cette classe afin de les dessiner.</li>
+	 * <li>Lecture des sons demand�s pendant l'image (m�thode flush() de la classe SoundMixer).</li>
 	 * <li>Encadrement de la vue par des bandes bleues si n�cessaire gr�ce � la m�thode packView() de cette classe.</li>
 	 * <li>Mise � jour du Display.</li>
 	 * </ul></p>
@@ -641,46 +497,39 @@ public final class GameThread implements Runnable {
 			GL11.glLoadIdentity();
 			GL11.glOrtho(0, Display.getDisplayMode().getWidth(), Display.getDisplayMode().getHeight(), 0, 1, -1);
 			
-			if (GLContext.getCapabilities().GL_ARB_vertex_buffer_object) {
-				IntBuffer buf = BufferUtils.createIntBuffer(1);
-				ARBBufferObject.glGenBuffersARB(buf);
-				this.vboID = buf.get(0);
-			}
+			this.batch.init();
+			this.music.start();
 			
 			this.ready = true;
 			
+			// Lancement du thread du mod�le
+			
+			new Thread(this.modelThread).start();
+			
 			// Boucle principale
 			
 			while(this.isPlaying() && !Display.isCloseRequested()) {
+				this.stats.startFrame();
 				synchronized (this) {
-					if (this.texturesToAdd.size() > 0) {
-						@SuppressWarnings("unchecked")
-						ArrayList<String> strs = (ArrayList<String>) this.texturesToAdd.clone();
-						for (String s : strs) {
-							this.addTexture(s);
-						}
-						this.texturesToAdd.clear();
-					}
-					if (this.soundsToAdd.size() > 0) {
-						@SuppressWarnings("unchecked")
-						ArrayList<String> strs = (ArrayList<String>) this.soundsToAdd.clone();
-						for (String s : strs) {
-							this.addSound(s);
-						}
-						this.soundsToAdd.clear();
-					}
+					this.loader.upload(Constantes.uploadBudget*1000000L);
 					updateDisplayMode();
 					clear();
 					pollInput();
-					this.vue.refresh();
 					updateSound();
 					drawImages();
+					this.mixer.flush();
 				}
+				this.stats.addVoices(this.mixer.getNbActive(), this.mixer.getNbDropped(),
+						this.mixer.getNbCoalesced());
 				packView();
+				if (this.stats.endFrame() && Constantes.showFrameStats)
+					System.out.println(this.stats.report());
 				Display.update();
 				Display.sync(60);
 			}
 			this.setPlaying(false);
+			this.loader.shutdown();
+			this.music.shutdown();
 			Display.destroy();
 		} catch (Exception e) {
 			this.setFullscreen(false);
@@ -691,6 +540,8 @@ public final class GameThread implements Runnable {
 			}
 			ExceptionMessageBox.show(e, "Erreur game thread");
 			this.setPlaying(false);
+			this.loader.shutdown();
+			this.music.shutdown();
 			if (Display.isCreated())
 				Display.destroy();
 			if (AL.isCreated())
@@ -703,10 +554,9 @@ public final class GameThread implements Runnable {
 	 * Met � jour la vue associ�e � ce GameThread.
 	 * 
 	 * <p>Cette m�thode est synchronis�e pour s'assurer que la vue ne sera pas modifi�e pendant son traitement par
-	 * la m�thode run() de cette classe.</p>
+	 * la m�thode run() de cette classe. La nouvelle vue est �galement transmise au thread du mod�le, qui termine
+	 * auparavant sa mise � jour en cours.</p>
 	 * <p>Si le param�tre de cette m�thode est null, aucun changement n'est effectu�.</p>
-	 * <p>Les noms de textures retourn�s par la m�thode textureList du mod�le associ� � la vue sont ajout�s � la liste
-	 * texturesToAdd de cette classe.</p>
 	 * 
 	 * @param view
 	 * 		La vue � associer � ce thread de jeu.
@@ -716,46 +566,105 @@ public final class GameThread implements Runnable {
 	public synchronized void changeView(View view) throws IOException {
 		
 		if (view != null) {
-			this.musique = null;
 			this.vue = view;
 			this.vue.resizeToDisplay();
 			this.vue.setPosition();
+			this.modelThread.changeView(this.vue);
 		}
 		
 	}
 	
 	/**
-	 * Ajoute les textures dont les noms sont pass�s en param�tres � la liste des textures � ajouter � ce thread.
+	 * Demande le chargement des textures dont les noms sont pass�s en param�tres.
+	 * 
+	 * <p>Les textures sont d�cod�es par les threads du chargeur de ce thread, puis envoy�es � OpenGL par ce thread au
+	 * fil des images. Le thread appelant peut attendre la fin de leur chargement gr�ce � la m�thode await(Future) de la
+	 * classe AssetLoader, � condition de ne pas �tre ce thread lui-m�me.</p>
 	 * 
 	 * @param textureNames
 	 * 		La liste des textures � ajouter.
+	 * @return
+	 * 		La liste (ArrayList) des Future des chargements demand�s.
 	 */
-	public synchronized void addTextures(ArrayList<String> textureNames) {
+	public synchronized ArrayList<Future<Texture>> addTextures(ArrayList<String> textureNames) {
 		
+		ArrayList<Future<Texture>> loads = new ArrayList<Future<Texture>>();
 		if (textureNames == null)
-			return;
+			return loads;
 		for (String s : textureNames) {
-			if (s != null)
-				this.texturesToAdd.add(s);
+			if (s != null && s != "")
+				loads.add(this.loader.loadTexture(s));
 		}
 		
+		return loads;
+		
 	}
 	
 	/**
-	 * Ajoute les sons dont les noms sont pass�s en param�tres � la liste des sons � ajouter � ce thread.
+	 * Ajoute un atlas de textures � ce thread.
+	 * 
+	 * <p>Le chargement des pages de l'atlas ainsi que des textures qu'il n'a pas pu regrouper est demand� par la
+	 * m�thode addTextures(ArrayList[String]) de cette classe. Les images dont la texture appartient � l'atlas seront alors
+	 * dessin�es avec la page d'atlas correspondante.</p>
+	 * 
+	 * @param atlas
+	 * 		L'atlas de textures � ajouter.
+	 * @return
+	 * 		La liste (ArrayList) des Future des chargements demand�s.
+	 */
+	public synchronized ArrayList<Future<Texture>> addAtlas(TextureAtlas atlas) {
+		
+		ArrayList<Future<Texture>> loads = new ArrayList<Future<Texture>>();
+		if (atlas == null)
+			return loads;
+		loads.addAll(this.addTextures(atlas.pages()));
+		loads.addAll(this.addTextures(atlas.unpacked()));
+		this.regions.putAll(atlas.regions());
+		
+		return loads;
+		
+	}
+	
+	/**
+	 * Demande le chargement des sons dont les noms sont pass�s en param�tres.
+	 * 
+	 * <p>Les sons sont charg�s par les threads du chargeur de ce thread.</p>
 	 * 
 	 * @param soundNames
 	 * 		La liste des sons � ajouter.
+	 * @return
+	 * 		La liste (ArrayList) des Future des chargements demand�s.
 	 */
-	public synchronized void addSounds(ArrayList<String> soundNames) {
+	public synchronized ArrayList<Future<Audio>> addSounds(ArrayList<String> soundNames) {
 		
+		ArrayList<Future<Audio>> loads = new ArrayList<Future<Audio>>();
 		if (soundNames == null)
-			return;
+			return loads;
 		for (String s : soundNames) {
 			if (s != null)
-				this.soundsToAdd.add(s);
+				loads.add(this.loader.loadSound(s));
 		}
 		
+		return loads;
+		
+	}
+	
+	/**
+	 * Demande la pr�paration des musiques dont les noms sont pass�s en param�tres.
+	 * 
+	 * <p>Les musiques sont ouvertes par le lecteur de musique de ce thread (m�thode prefetch(String) de la classe
+	 * MusicPlayer), afin d'�tre jou�es sans d�lai lorsqu'une vue les demandera.</p>
+	 * 
+	 * @param musicNames
+	 * 		La liste des musiques � pr�parer.
+	 */
+	public void prefetchMusic(ArrayList<String> musicNames) {
+		
+		if (musicNames == null)
+			return;
+		for (String m : musicNames)
+			this.music.prefetch(m);
+		
 	}
 
 	/**
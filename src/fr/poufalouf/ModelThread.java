@@ -0,0 +1,208 @@
+package fr.poufalouf;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import fr.poufalouf.tools.Constantes;
+import fr.poufalouf.tools.View;
+
+/**
+ * Impl�mentation du thread du mod�le
+ * 
+ * <p>Cette classe met � jour la vue courante, et donc son contr�le et son mod�le, � pas de temps fixe, ind�pendamment
+ * de l'affichage r�alis� par le thread de jeu. Une mise � jour lente du mod�le ne ralentit ainsi plus le rendu des
+ * images, qui dessine la derni�re instance de FrameSnapshot publi�e par la vue.</p>
+ * <p>Le nombre de mises � jour par seconde est d�fini par le champ modelUpdateRate de la classe Constantes. Si une
+ * mise � jour prend plus de temps que pr�vu, la suivante est r�alis�e imm�diatement ; si le retard d�passe un pas de
+ * temps complet, il est abandonn� plut�t que rattrap�.</p>
+ * <p>Les �v�nements clavier lus par le thread de jeu sont transmis � ce thread par une file (m�thodes postKeyDown(int)
+ * et postKeyUp(int)), puis appliqu�s � la vue au d�but de chaque mise � jour, de sorte que le mod�le n'est jamais
+ * modifi� par le thread de jeu.</p>
+ * <p>Ce thread s'arr�te d�s que le thread de jeu n'est plus en cours d'ex�cution.</p>
+ * <p>Chaque mise � jour est mesur�e par une instance de FrameStats propre � ce thread, dont le r�sum� est affich�
+ * lorsque le champ showFrameStats de la classe Constantes est vrai. Le nombre d'octets allou�s par mise � jour permet
+ * de v�rifier que la vue ne produit aucun d�chet en r�gime permanent ; le nombre de Drawable dessin�s et �cart�s par
+ * la vue y est �galement report�.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class ModelThread implements Runnable {
+	
+	/**
+	 * La dur�e d'un pas de temps (en nanosecondes).
+	 */
+	private static final long step = 1000000000L/Constantes.modelUpdateRate;
+	
+	/**
+	 * Le thread de jeu dont d�pend ce thread.
+	 */
+	private final GameThread game;
+	/**
+	 * La vue � mettre � jour.
+	 */
+	private View vue;
+	/**
+	 * La file des �v�nements clavier en attente.
+	 */
+	private ConcurrentLinkedQueue<KeyEvent> inputs;
+	/**
+	 * Le compteur de performances des mises � jour de ce thread.
+	 */
+	private FrameStats stats;
+	
+	/**
+	 * Constructeur ModelThread.
+	 * 
+	 * <p></p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>game : le thread de jeu pass� en param�tre (game).</li>
+	 * <li>vue : la vue pass�e en param�tre (vue), ou une nouvelle View si le param�tre est null.</li>
+	 * <li>inputs : une nouvelle file (ConcurrentLinkedQueue) de KeyEvent.</li>
+	 * <li>stats : un nouveau FrameStats de nom "Mod�le".</li>
+	 * </ul></p>
+	 * 
+	 * @param game
+	 * 		Le thread de jeu dont d�pend ce thread.
+	 * @param vue
+	 * 		La vue � mettre � jour.
+	 */
+	public ModelThread(GameThread game, View vue) {
+		
+		this.game = game;
+		if (vue != null)
+			this.vue = vue;
+		else
+			this.vue = new View();
+		this.inputs = new ConcurrentLinkedQueue<KeyEvent>();
+		this.stats = new FrameStats("Mod�le");
+		
+	}
+	
+	/**
+	 * Ajoute l'appui sur une touche � la file des �v�nements clavier.
+	 * 
+	 * @param key
+	 * 		L'identifiant de la touche.
+	 */
+	public void postKeyDown(int key) {
+		
+		this.inputs.add(new KeyEvent(key, true));
+		
+	}
+	
+	/**
+	 * Ajoute le rel�chement d'une touche � la file des �v�nements clavier.
+	 * 
+	 * @param key
+	 * 		L'identifiant de la touche.
+	 */
+	public void postKeyUp(int key) {
+		
+		this.inputs.add(new KeyEvent(key, false));
+		
+	}
+	
+	/**
+	 * Transmet � la vue les �v�nements clavier en attente, dans leur ordre d'arriv�e.
+	 */
+	private void pollInput() {
+		
+		KeyEvent e;
+		while ((e = this.inputs.poll()) != null) {
+			if (e.down)
+				this.vue.pollKeyboardDown(e.key);
+			else
+				this.vue.pollKeyboardUp(e.key);
+		}
+		
+	}
+	
+	/**
+	 * Boucle de mise � jour du mod�le.
+	 * 
+	 * <p>Si une exception survient, elle est affich�e et le thread de jeu est arr�t�.</p>
+	 */
+	@Override
+	public void run() {
+		
+		try {
+			long next = System.nanoTime();
+			while (this.game.isPlaying()) {
+				synchronized (this) {
+					this.stats.startFrame();
+					this.pollInput();
+					this.vue.refresh();
+					this.stats.addCulling(this.vue.getNbDrawn(), this.vue.getNbCulled());
+					if (this.stats.endFrame() && Constantes.showFrameStats)
+						System.out.println(this.stats.report());
+				}
+				next += step;
+				long wait = next-System.nanoTime();
+				if (wait > 0)
+					Thread.sleep(wait/1000000, (int) (wait%1000000));
+				else if (wait < -step)
+					next = System.nanoTime();
+			}
+		} catch (Exception e) {
+			this.game.setFullscreen(false);
+			ExceptionMessageBox.show(e, "Erreur thread du mod�le");
+			this.game.setPlaying(false);
+		}
+		
+	}
+	
+	/**
+	 * Change la vue mise � jour par ce thread.
+	 * 
+	 * <p>Les �v�nements clavier en attente sont abandonn�s, car ils concernaient la vue pr�c�dente. Cette m�thode attend
+	 * la fin de la mise � jour en cours.</p>
+	 * 
+	 * @param view
+	 * 		La nouvelle vue. Si elle est null, cette m�thode ne fait rien.
+	 */
+	public synchronized void changeView(View view) {
+		
+		if (view != null) {
+			this.vue = view;
+			this.inputs.clear();
+		}
+		
+	}
+	
+	/**
+	 * Ev�nement clavier en attente
+	 * 
+	 * <p>Cette classe associe l'identifiant d'une touche � son �tat (appuy�e ou rel�ch�e).</p>
+	 */
+	private static final class KeyEvent {
+		
+		/**
+		 * L'identifiant de la touche.
+		 */
+		final int key;
+		/**
+		 * Vrai si la touche a �t� appuy�e, faux si elle a �t� rel�ch�e.
+		 */
+		final boolean down;
+		
+		/**
+		 * Constructeur KeyEvent.
+		 * 
+		 * @param key
+		 * 		L'identifiant de la touche.
+		 * @param down
+		 * 		Vrai si la touche a �t� appuy�e.
+		 */
+		KeyEvent(int key, boolean down) {
+			
+			this.key = key;
+			this.down = down;
+			
+		}
+		
+	}
+	
+}
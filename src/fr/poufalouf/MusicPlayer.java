@@ -0,0 +1,756 @@
+package fr.poufalouf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.openal.AL;
+import org.lwjgl.openal.AL10;
+import org.newdawn.slick.openal.OggInputStream;
+import org.newdawn.slick.openal.SoundStore;
+import org.newdawn.slick.util.ResourceLoader;
+
+import fr.poufalouf.tools.Constantes;
+
+/**
+ * Lecteur de musique en continu
+ * 
+ * <p>Cette classe joue la musique de fond du jeu depuis un thread qui lui est propre, sans jamais bloquer le thread de
+ * jeu : celui-ci se contente d'indiquer la musique souhait�e (m�thode play(String)). Les fichiers OGG ne sont pas
+ * d�cod�s en entier mais par morceaux, au fil de la lecture, dans un petit nombre de tampons OpenAL utilis�s � tour de
+ * r�le (champs musicBuffers et musicChunkSize de la classe Constantes). Une musique est jou�e en boucle.</p>
+ * <p>Lors d'un changement de musique, la nouvelle musique est jou�e en fondu encha�n� avec la pr�c�dente, pendant la
+ * dur�e d�finie par le champ musicCrossfade de la classe Constantes. La musique pr�c�dente est alors rembobin�e et
+ * conserv�e pr�te � �tre jou�e, avec ses premiers tampons d�j� d�cod�s, de m�me que les musiques demand�es � l'avance
+ * (m�thode prefetch(String)), dans la limite du champ musicPrefetch de la classe Constantes.</p>
+ * <p>Les musiques sont jou�es sur les derni�res sources cr��es par la classe SoundStore, dont le nombre est d�fini par
+ * le champ reservedSources de cette classe et que la classe SoundMixer n'utilise pas. Si aucune de ces sources n'est
+ * libre, la plus ancienne musique pr�par�e est ferm�e. S'il n'y en a pas, la pr�paration d'une musique est abandonn�e
+ * et une musique demand�e remplace la musique en cours sans fondu encha�n�.</p>
+ * <p>Une erreur de lecture survenue dans le thread de ce lecteur est conserv�e jusqu'� ce que le thread de jeu la
+ * consulte (m�thode checkError()). La musique concern�e n'est alors plus demand�e tant qu'une autre ne l'a pas
+ * remplac�e.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class MusicPlayer implements Runnable {
+	
+	/**
+	 * Le nombre de sources r�serv�es � ce lecteur parmi celles cr��es par la classe SoundStore : une pour la musique
+	 * en cours, une pour la musique en cours de disparition et une pour chaque musique pr�par�e.
+	 */
+	public static final int reservedSources = Constantes.musicPrefetch+2;
+	
+	/**
+	 * La musique demand�e par le thread de jeu, ou null si aucune ne l'a encore �t�.
+	 */
+	private String wanted;
+	/**
+	 * Les musiques � pr�parer � l'avance, en attente de traitement par le thread de ce lecteur.
+	 */
+	private ArrayList<String> prefetchRequests;
+	/**
+	 * La derni�re erreur de lecture non consult�e, ou null.
+	 */
+	private IOException error;
+	/**
+	 * Indique si le thread de ce lecteur doit continuer � s'ex�cuter.
+	 */
+	private volatile boolean running;
+	/**
+	 * Le thread de ce lecteur, ou null s'il n'a pas �t� lanc�.
+	 */
+	private Thread thread;
+	/**
+	 * La musique en cours de lecture, ou null. Ce champ n'est utilis� que par le thread de ce lecteur.
+	 */
+	private Track current;
+	/**
+	 * La musique en cours de disparition par fondu, ou null. Ce champ n'est utilis� que par le thread de ce lecteur.
+	 */
+	private Track fading;
+	/**
+	 * Les musiques pr�tes � �tre jou�es, de la plus ancienne � la plus r�cente. Ce champ n'est utilis� que par le
+	 * thread de ce lecteur.
+	 */
+	private ArrayList<Track> prefetched;
+	/**
+	 * La musique dont la lecture a �chou�, ou null. Ce champ n'est utilis� que par le thread de ce lecteur.
+	 */
+	private String failed;
+	/**
+	 * Les sources OpenAL libres de ce lecteur, ou null si elles n'ont pas encore �t� lues. Ce champ n'est utilis� que
+	 * par le thread de ce lecteur.
+	 */
+	private int[] freeSources;
+	/**
+	 * Le nombre de sources libres au d�but du tableau freeSources.
+	 */
+	private int nbFreeSources;
+	/**
+	 * L'instant de d�but du dernier fondu encha�n� (en nanosecondes).
+	 */
+	private long fadeStart;
+	
+	/**
+	 * Constructeur MusicPlayer.
+	 * 
+	 * <p></p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>wanted : null.</li>
+	 * <li>prefetchRequests : une nouvelle liste (ArrayList) de String.</li>
+	 * <li>error : null.</li>
+	 * <li>running : faux.</li>
+	 * <li>thread : null.</li>
+	 * <li>current : null.</li>
+	 * <li>fading : null.</li>
+	 * <li>prefetched : une nouvelle liste (ArrayList) de Track.</li>
+	 * <li>failed : null.</li>
+	 * <li>freeSources : null.</li>
+	 * <li>nbFreeSources : 0.</li>
+	 * <li>fadeStart : 0.</li>
+	 * </ul></p>
+	 */
+	public MusicPlayer() {
+		
+		this.wanted = null;
+		this.prefetchRequests = new ArrayList<String>();
+		this.error = null;
+		this.running = false;
+		this.thread = null;
+		this.current = null;
+		this.fading = null;
+		this.prefetched = new ArrayList<Track>();
+		this.failed = null;
+		this.freeSources = null;
+		this.nbFreeSources = 0;
+		this.fadeStart = 0;
+		
+	}
+	
+	/**
+	 * Lance le thread de ce lecteur.
+	 * 
+	 * <p>Ce thread est un d�mon : il ne retient pas la fermeture du programme.</p>
+	 */
+	public void start() {
+		
+		this.running = true;
+		this.thread = new Thread(this, "Lecture de la musique");
+		this.thread.setDaemon(true);
+		this.thread.start();
+		
+	}
+	
+	/**
+	 * Arr�te le thread de ce lecteur, qui lib�re alors ses sources et ses tampons OpenAL.
+	 * 
+	 * <p>Cette m�thode attend la fin de ce thread, afin qu'OpenAL puisse �tre d�truit ensuite sans risque.</p>
+	 */
+	public void shutdown() {
+		
+		this.running = false;
+		if (this.thread == null)
+			return;
+		try {
+			this.thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		
+	}
+	
+	/**
+	 * Demande la lecture d'une musique.
+	 * 
+	 * <p>Cette m�thode retourne imm�diatement : la musique est ouverte et jou�e par le thread de ce lecteur.</p>
+	 * 
+	 * @param file
+	 * 		Le nom du fichier OGG de la musique. S'il est null, cette m�thode ne fait rien.
+	 */
+	public synchronized void play(String file) {
+		
+		if (file != null)
+			this.wanted = file;
+			
+	}
+	
+	/**
+	 * Demande la pr�paration d'une musique, afin qu'elle puisse �tre jou�e sans attendre son ouverture.
+	 * 
+	 * @param file
+	 * 		Le nom du fichier OGG de la musique. S'il est null, cette m�thode ne fait rien.
+	 */
+	public synchronized void prefetch(String file) {
+		
+		if (file != null)
+			this.prefetchRequests.add(file);
+			
+	}
+	
+	/**
+	 * L�ve la derni�re erreur de lecture survenue dans le thread de ce lecteur, s'il y en a une.
+	 * 
+	 * @throws IOException
+	 * 		si la lecture d'une musique a �chou� depuis le dernier appel � cette m�thode.
+	 */
+	public synchronized void checkError() throws IOException {
+		
+		IOException e = this.error;
+		this.error = null;
+		if (e != null)
+			throw e;
+			
+	}
+	
+	/**
+	 * Boucle du thread de ce lecteur.
+	 * 
+	 * <p>OpenAL est d'abord initialis� s'il ne l'a pas d�j� �t� (m�thode initSound() de la classe AssetLoader). Tant
+	 * que le son n'est pas disponible (AL n'est pas cr��), aucune musique n'est ouverte. Ensuite, � chaque tour, les
+	 * musiques demand�es � l'avance sont pr�par�es, la musique demand�e est jou�e si elle a chang�, le fondu encha�n�
+	 * est mis � jour et les tampons lus sont d�cod�s � nouveau. Le thread attend ensuite la dur�e d�finie par le champ
+	 * musicPollDelay de la classe Constantes.</p>
+	 */
+	@Override
+	public void run() {
+		
+		try {
+			AssetLoader.initSound();
+			while (this.running) {
+				if (AL.isCreated())
+					this.update();
+				Thread.sleep(Constantes.musicPollDelay);
+			}
+		} catch (InterruptedException e) {
+			// fin du thread
+		} finally {
+			if (AL.isCreated()) {
+				if (this.current != null)
+					this.close(this.current);
+				if (this.fading != null)
+					this.close(this.fading);
+				for (Track t : this.prefetched)
+					this.close(t);
+			}
+			this.current = null;
+			this.fading = null;
+			this.prefetched.clear();
+		}
+		
+	}
+	
+	/**
+	 * R�alise un tour de la boucle de ce lecteur.
+	 * 
+	 * <p>Les sources de ce lecteur sont lues lors du premier tour. Les musiques demand�es � l'avance ne sont plus
+	 * pr�par�es d�s qu'aucune source n'est disponible.</p>
+	 */
+	private void update() {
+		
+		if (this.freeSources == null)
+			this.initSources();
+		
+		String w;
+		ArrayList<String> requests;
+		synchronized (this) {
+			w = this.wanted;
+			requests = this.prefetchRequests;
+			this.prefetchRequests = new ArrayList<String>();
+		}
+		
+		for (String file : requests) {
+			if (!this.isOpen(file) && !file.equals(this.failed)) {
+				int source = this.acquireSource();
+				if (source == 0)
+					break;
+				try {
+					this.park(new Track(file, source));
+				} catch (IOException e) {
+					this.releaseSource(source);
+					this.fail(file, e);
+				}
+			}
+		}
+		
+		if (w != null && (this.current == null || !w.equals(this.current.file)) && !w.equals(this.failed))
+			this.switchTo(w);
+		
+		this.fade();
+		this.current = this.stream(this.current);
+		this.fading = this.stream(this.fading);
+		
+	}
+	
+	/**
+	 * D�code � nouveau les tampons d�j� jou�s d'une musique.
+	 * 
+	 * @param t
+	 * 		La musique. Si elle est null, cette m�thode retourne null.
+	 * @return
+	 * 		La musique, ou null si sa lecture a �chou�, auquel cas elle est ferm�e.
+	 */
+	private Track stream(Track t) {
+		
+		if (t == null)
+			return null;
+		try {
+			t.stream();
+		} catch (IOException e) {
+			this.close(t);
+			this.fail(t.file, e);
+			return null;
+		}
+		return t;
+		
+	}
+	
+	/**
+	 * Commence le fondu encha�n� vers une nouvelle musique.
+	 * 
+	 * <p>Si un fondu �tait d�j� en cours, la musique qui disparaissait est d'abord rembobin�e et conserv�e. La nouvelle
+	 * musique est ensuite reprise parmi les musiques pr�par�es si elle s'y trouve, sinon elle est ouverte. La musique
+	 * en cours devient la musique en cours de disparition.</p>
+	 * <p>Si aucune source n'est disponible pour ouvrir la nouvelle musique, la musique en cours est ferm�e et sa source
+	 * est utilis�e, sans fondu. Si ce lecteur n'a aucune source, la musique n'est pas jou�e.</p>
+	 * 
+	 * @param file
+	 * 		Le nom du fichier de la nouvelle musique.
+	 */
+	private void switchTo(String file) {
+		
+		if (this.fading != null) {
+			this.park(this.fading);
+			this.fading = null;
+		}
+		Track next = this.find(file);
+		if (next != null) {
+			this.prefetched.remove(next);
+		} else {
+			int source = this.acquireSource();
+			if (source == 0 && this.current != null) {
+				this.close(this.current);
+				this.current = null;
+				source = this.acquireSource();
+			}
+			if (source == 0) {
+				this.failed = file;
+				return;
+			}
+			try {
+				next = new Track(file, source);
+			} catch (IOException e) {
+				this.releaseSource(source);
+				this.fail(file, e);
+				return;
+			}
+		}
+		
+		this.fading = this.current;
+		this.current = next;
+		this.current.play();
+		this.fadeStart = System.nanoTime();
+		this.failed = null;
+		
+	}
+	
+	/**
+	 * Met � jour le volume des musiques selon l'avancement du fondu encha�n�.
+	 * 
+	 * <p>A la fin du fondu, la musique qui a disparu est rembobin�e et conserv�e parmi les musiques pr�par�es.</p>
+	 */
+	private void fade() {
+		
+		float t = Math.min(1, (System.nanoTime()-this.fadeStart)/(Constantes.musicCrossfade*1000000f));
+		if (this.current != null)
+			this.current.setGain(t);
+		if (this.fading != null) {
+			this.fading.setGain(1-t);
+			if (t >= 1) {
+				this.park(this.fading);
+				this.fading = null;
+			}
+		}
+		
+	}
+	
+	/**
+	 * Rembobine une musique et l'ajoute aux musiques pr�par�es.
+	 * 
+	 * <p>Si le nombre de musiques pr�par�es d�passe le champ musicPrefetch de la classe Constantes, la plus ancienne
+	 * est ferm�e. Si le rembobinage �choue, la musique est ferm�e.</p>
+	 * 
+	 * @param t
+	 * 		La musique.
+	 */
+	private void park(Track t) {
+		
+		try {
+			t.rewind();
+		} catch (IOException e) {
+			this.close(t);
+			this.fail(t.file, e);
+			return;
+		}
+		this.prefetched.add(t);
+		while (this.prefetched.size() > Constantes.musicPrefetch)
+			this.close(this.prefetched.remove(0));
+			
+	}
+	
+	/**
+	 * Recherche une musique parmi les musiques pr�par�es.
+	 * 
+	 * @param file
+	 * 		Le nom du fichier de la musique.
+	 * @return
+	 * 		La musique pr�par�e, ou null si elle n'a pas �t� trouv�e.
+	 */
+	private Track find(String file) {
+		
+		for (Track t : this.prefetched) {
+			if (t.file.equals(file))
+				return t;
+		}
+		return null;
+		
+	}
+	
+	/**
+	 * Indique si une musique est d�j� ouverte par ce lecteur, qu'elle soit jou�e ou pr�par�e.
+	 * 
+	 * @param file
+	 * 		Le nom du fichier de la musique.
+	 * @return
+	 * 		Vrai si la musique est ouverte.
+	 */
+	private boolean isOpen(String file) {
+		
+		return (this.current != null && this.current.file.equals(file))
+				|| (this.fading != null && this.fading.file.equals(file)) || this.find(file) != null;
+		
+	}
+	
+	/**
+	 * Lit les sources OpenAL de ce lecteur parmi celles cr��es par la classe SoundStore.
+	 * 
+	 * <p>Ce lecteur prend les reservedSources derni�res sources de la classe SoundStore, ou toutes si elle en a cr��
+	 * moins. Si le son n'est pas disponible, ce lecteur n'a aucune source.</p>
+	 */
+	private void initSources() {
+		
+		SoundStore store = SoundStore.get();
+		int count = (store.soundWorks())?store.getSourceCount():0;
+		this.freeSources = new int[Math.max(0, Math.min(reservedSources, count))];
+		for (int s=0;s<this.freeSources.length;s++)
+			this.freeSources[s] = store.getSource(count-1-s);
+		this.nbFreeSources = this.freeSources.length;
+		
+	}
+	
+	/**
+	 * Retire une source de la liste des sources libres de ce lecteur.
+	 * 
+	 * <p>Si aucune source n'est libre, la plus ancienne musique pr�par�e est d'abord ferm�e.</p>
+	 * 
+	 * @return
+	 * 		L'identifiant de la source, ou 0 si aucune source n'est disponible.
+	 */
+	private int acquireSource() {
+		
+		if (this.nbFreeSources == 0 && !this.prefetched.isEmpty())
+			this.close(this.prefetched.remove(0));
+		if (this.nbFreeSources == 0)
+			return 0;
+		return this.freeSources[--this.nbFreeSources];
+		
+	}
+	
+	/**
+	 * Rend une source � la liste des sources libres de ce lecteur.
+	 * 
+	 * @param source
+	 * 		L'identifiant de la source.
+	 */
+	private void releaseSource(int source) {
+		
+		this.freeSources[this.nbFreeSources++] = source;
+		
+	}
+	
+	/**
+	 * Ferme une musique et rend sa source � ce lecteur.
+	 * 
+	 * @param t
+	 * 		La musique.
+	 */
+	private void close(Track t) {
+		
+		t.close();
+		this.releaseSource(t.source);
+		
+	}
+	
+	/**
+	 * Conserve une erreur de lecture pour le thread de jeu.
+	 * 
+	 * @param file
+	 * 		Le nom du fichier de la musique dont la lecture a �chou�.
+	 * @param e
+	 * 		L'erreur survenue.
+	 */
+	private void fail(String file, IOException e) {
+		
+		this.failed = file;
+		synchronized (this) {
+			this.error = e;
+		}
+		
+	}
+	
+	/**
+	 * Musique lue par morceaux
+	 * 
+	 * <p>Cette classe associe un fichier OGG en cours de d�codage � une source OpenAL du lecteur et � ses propres
+	 * tampons. Les tampons
+	 * d�cod�s sont plac�s dans la file de la source, puis d�cod�s � nouveau d�s qu'ils ont �t� jou�s (m�thode
+	 * stream()). Arriv� � la fin du fichier, le d�codage reprend depuis son d�but.</p>
+	 */
+	private static final class Track {
+		
+		/**
+		 * Le nom du fichier de la musique.
+		 */
+		final String file;
+		/**
+		 * La source OpenAL jouant la musique, prise parmi celles du lecteur.
+		 */
+		final int source;
+		/**
+		 * Les tampons OpenAL de la musique.
+		 */
+		private final int[] buffers;
+		/**
+		 * Le morceau de musique en cours de d�codage.
+		 */
+		private final byte[] chunk;
+		/**
+		 * Le tampon m�moire transmis � OpenAL.
+		 */
+		private final ByteBuffer data;
+		/**
+		 * Le flux de d�codage du fichier, ou null s'il est ferm�.
+		 */
+		private OggInputStream ogg;
+		/**
+		 * Le format OpenAL des �chantillons d�cod�s.
+		 */
+		private int format;
+		/**
+		 * La fr�quence d'�chantillonnage de la musique.
+		 */
+		private int rate;
+		/**
+		 * Indique si la musique doit �tre en cours de lecture.
+		 */
+		private boolean playing;
+		
+		/**
+		 * Constructeur Track.
+		 * 
+		 * <p>Le fichier est ouvert et les premiers tampons sont d�cod�s : la musique est pr�te � �tre jou�e.</p>
+		 * <p>Si OpenAL ne peut cr�er les tampons de la musique, ceux d�j� cr��s sont supprim�s et une IOException est
+		 * lev�e. La source n'est jamais supprim�e : elle reste � la charge du lecteur.</p>
+		 * 
+		 * @param file
+		 * 		Le nom du fichier OGG de la musique.
+		 * @param source
+		 * 		La source OpenAL jouant la musique.
+		 * @throws IOException
+		 * 		si les tampons OpenAL n'ont pas pu �tre cr��s, ou si le fichier n'a pas pu �tre lu.
+		 */
+		Track(String file, int source) throws IOException {
+			
+			this.file = file;
+			this.source = source;
+			AL10.alGetError();
+			this.buffers = new int[Constantes.musicBuffers];
+			for (int i=0;i<this.buffers.length;i++)
+				this.buffers[i] = AL10.alGenBuffers();
+			if (AL10.alGetError() != AL10.AL_NO_ERROR) {
+				for (int b : this.buffers) {
+					if (b != 0)
+						AL10.alDeleteBuffers(b);
+				}
+				throw new IOException("Impossible de cr�er les tampons OpenAL de la musique "+file);
+			}
+			this.chunk = new byte[Constantes.musicChunkSize];
+			this.data = BufferUtils.createByteBuffer(Constantes.musicChunkSize);
+			this.ogg = null;
+			this.playing = false;
+			AL10.alSourcei(this.source, AL10.AL_LOOPING, AL10.AL_FALSE);
+			AL10.alSource3f(this.source, AL10.AL_POSITION, 0, 0, 0);
+			try {
+				this.rewind();
+			} catch (IOException e) {
+				this.close();
+				throw e;
+			}
+			
+		}
+		
+		/**
+		 * Ouvre le flux de d�codage du fichier depuis son d�but.
+		 * 
+		 * @throws IOException
+		 * 		si le fichier n'a pas pu �tre lu.
+		 */
+		private void open() throws IOException {
+			
+			if (this.ogg != null)
+				this.ogg.close();
+			this.ogg = null;
+			InputStream in = ResourceLoader.getResourceAsStream(this.file);
+			if (in == null)
+				throw new IOException("Impossible de lire le fichier "+this.file);
+			this.ogg = new OggInputStream(in);
+			this.format = (this.ogg.getChannels() > 1)?AL10.AL_FORMAT_STEREO16:AL10.AL_FORMAT_MONO16;
+			this.rate = this.ogg.getRate();
+			
+		}
+		
+		/**
+		 * Arr�te la musique et la ram�ne � son d�but, ses premiers tampons �tant d�cod�s � nouveau.
+		 * 
+		 * @throws IOException
+		 * 		si le fichier n'a pas pu �tre lu.
+		 */
+		void rewind() throws IOException {
+			
+			this.playing = false;
+			AL10.alSourceStop(this.source);
+			AL10.alSourcei(this.source, AL10.AL_BUFFER, 0);
+			this.open();
+			for (int b : this.buffers) {
+				if (!this.decode(b))
+					break;
+				AL10.alSourceQueueBuffers(this.source, b);
+			}
+			
+		}
+		
+		/**
+		 * D�code le morceau suivant de la musique dans un tampon OpenAL.
+		 * 
+		 * <p>Si la fin du fichier est atteinte, le d�codage reprend depuis son d�but.</p>
+		 * 
+		 * @param buffer
+		 * 		Le tampon OpenAL.
+		 * @return
+		 * 		Vrai si des �chantillons ont �t� d�cod�s, faux si le fichier est vide.
+		 * @throws IOException
+		 * 		si le fichier n'a pas pu �tre lu.
+		 */
+		private boolean decode(int buffer) throws IOException {
+			
+			int n = 0;
+			boolean reopened = false;
+			while (n < this.chunk.length) {
+				int r = this.ogg.read(this.chunk, n, this.chunk.length-n);
+				if (r > 0) {
+					n += r;
+					reopened = false;
+				} else {
+					// Un fichier ne produisant aucun �chantillon depuis son d�but ne boucle pas ind�finiment.
+					if (reopened)
+						break;
+					this.open();
+					reopened = true;
+				}
+			}
+			if (n == 0)
+				return false;
+			
+			this.data.clear();
+			this.data.put(this.chunk, 0, n);
+			this.data.flip();
+			AL10.alBufferData(buffer, this.format, this.data, this.rate);
+			return true;
+			
+		}
+		
+		/**
+		 * D�code � nouveau les tampons d�j� jou�s et les replace dans la file de la source.
+		 * 
+		 * <p>Si la source s'est arr�t�e faute de tampons d�cod�s � temps, sa lecture est relanc�e.</p>
+		 * 
+		 * @throws IOException
+		 * 		si le fichier n'a pas pu �tre lu.
+		 */
+		void stream() throws IOException {
+			
+			int processed = AL10.alGetSourcei(this.source, AL10.AL_BUFFERS_PROCESSED);
+			while (processed-- > 0) {
+				int b = AL10.alSourceUnqueueBuffers(this.source);
+				if (this.decode(b))
+					AL10.alSourceQueueBuffers(this.source, b);
+			}
+			if (this.playing && AL10.alGetSourcei(this.source, AL10.AL_SOURCE_STATE) != AL10.AL_PLAYING)
+				AL10.alSourcePlay(this.source);
+				
+		}
+		
+		/**
+		 * Lance la lecture de la musique, � volume nul.
+		 */
+		void play() {
+			
+			this.setGain(0);
+			this.playing = true;
+			AL10.alSourcePlay(this.source);
+			
+		}
+		
+		/**
+		 * Modifie le volume de la musique.
+		 * 
+		 * <p>Le volume est multipli� par le volume de la musique d�fini dans la classe SoundStore.</p>
+		 * 
+		 * @param gain
+		 * 		Le volume, compris entre 0 et 1.
+		 */
+		void setGain(float gain) {
+			
+			AL10.alSourcef(this.source, AL10.AL_GAIN, gain*SoundStore.get().getMusicVolume());
+			
+		}
+		
+		/**
+		 * Arr�te la musique et lib�re ses tampons et son flux de d�codage. Sa source est d�tach�e de ses tampons mais
+		 * n'est pas supprim�e.
+		 */
+		void close() {
+			
+			AL10.alSourceStop(this.source);
+			AL10.alSourcei(this.source, AL10.AL_BUFFER, 0);
+			for (int b : this.buffers)
+				AL10.alDeleteBuffers(b);
+			try {
+				if (this.ogg != null)
+					this.ogg.close();
+			} catch (IOException e) {
+				// le fichier n'est plus lu
+			}
+			this.ogg = null;
+			
+		}
+		
+	}
+	
+}
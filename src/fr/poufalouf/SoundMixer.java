@@ -0,0 +1,303 @@
+package fr.poufalouf;
+
+import java.util.Arrays;
+
+import org.lwjgl.openal.AL10;
+import org.newdawn.slick.openal.Audio;
+import org.newdawn.slick.openal.SoundStore;
+
+import fr.poufalouf.tools.Constantes;
+
+/**
+ * M�langeur des effets sonores
+ * 
+ * <p>Cette classe joue les effets sonores du jeu sur un nombre fixe de sources OpenAL, au lieu de laisser chaque appel
+ * � la m�thode playAsSoundEffect de l'interface Audio chercher une source libre. Les sons demand�s pendant une image
+ * (m�thode request(Audio, String, boolean, float, float)) sont d'abord regroup�s, puis jou�s ensemble par la m�thode
+ * flush() � la fin de l'image :
+ * <ul>
+ * <li>Un m�me son demand� plusieurs fois pendant une image n'est jou� qu'une fois : � pleine puissance si l'une des
+ * demandes n'est pas spatialis�e, sinon � la position de la demande la plus proche du centre de la vue.</li>
+ * <li>Un son spatialis� plus �loign� du centre de la vue que le champ soundCullDistance de la classe Constantes n'est
+ * pas jou�.</li>
+ * <li>Un son n'est pas jou� si le nombre de ses lectures en cours atteint le champ maxSoundVoices de la classe
+ * Constantes, ou si toutes les sources sont occup�es.</li>
+ * </ul></p>
+ * <p>Les sources utilis�es sont celles cr��es par la classe SoundStore, dans la limite du champ soundSources de la
+ * classe Constantes. Les derni�res sources, dont le nombre est d�fini par le champ reservedSources de la classe
+ * MusicPlayer, sont r�serv�es � la musique. Elles sont lues lors du premier appel � la m�thode flush() suivant le
+ * chargement d'un son.</p>
+ * <p>Le nombre de sons jou�s, le nombre de demandes abandonn�es et le nombre de demandes regroup�es lors du dernier
+ * appel � la m�thode flush() peuvent �tre report�s dans les mesures de performances du thread de jeu (m�thode
+ * addVoices(int, int, int) de la classe FrameStats). Une demande regroup�e avec une demande identique n'est pas
+ * consid�r�e comme abandonn�e. Une instance de cette classe ne doit �tre utilis�e que par le thread de jeu.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class SoundMixer {
+	
+	/**
+	 * Les identifiants des sources OpenAL de ce m�langeur, ou null si elles n'ont pas encore �t� lues.
+	 */
+	private int[] sources;
+	/**
+	 * Le dernier son jou� par chaque source, null si la source n'a jamais servi.
+	 */
+	private Audio[] voices;
+	/**
+	 * Les sons demand�s pendant l'image en cours.
+	 */
+	private Audio[] pendingAudio;
+	/**
+	 * Les noms des sons demand�s pendant l'image en cours.
+	 */
+	private String[] pendingNames;
+	/**
+	 * Indique, pour chaque son demand� pendant l'image en cours, s'il est spatialis�.
+	 */
+	private boolean[] pendingSpatial;
+	/**
+	 * Les abscisses des sons demand�s pendant l'image en cours.
+	 */
+	private float[] pendingX;
+	/**
+	 * Les ordonn�es des sons demand�s pendant l'image en cours.
+	 */
+	private float[] pendingY;
+	/**
+	 * Le nombre de sons demand�s pendant l'image en cours.
+	 */
+	private int nbPending;
+	/**
+	 * Le nombre de demandes abandonn�es pendant l'image en cours.
+	 */
+	private int dropped;
+	/**
+	 * Le nombre de demandes regroup�es avec une demande identique pendant l'image en cours.
+	 */
+	private int coalesced;
+	/**
+	 * Le nombre de sources en cours de lecture � l'issue du dernier appel � la m�thode flush().
+	 */
+	private int nbActive;
+	/**
+	 * Le nombre de demandes abandonn�es lors de la derni�re image achev�e par la m�thode flush().
+	 */
+	private int nbDropped;
+	/**
+	 * Le nombre de demandes regroup�es lors de la derni�re image achev�e par la m�thode flush().
+	 */
+	private int nbCoalesced;
+	
+	/**
+	 * Constructeur SoundMixer.
+	 * 
+	 * <p></p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>sources : null.</li>
+	 * <li>voices : null.</li>
+	 * <li>pendingAudio : un nouveau tableau de 16 Audio.</li>
+	 * <li>pendingNames : un nouveau tableau de 16 String.</li>
+	 * <li>pendingSpatial : un nouveau tableau de 16 bool�ens.</li>
+	 * <li>pendingX : un nouveau tableau de 16 r�els.</li>
+	 * <li>pendingY : un nouveau tableau de 16 r�els.</li>
+	 * <li>nbPending : 0.</li>
+	 * <li>dropped : 0.</li>
+	 * <li>coalesced : 0.</li>
+	 * <li>nbActive : 0.</li>
+	 * <li>nbDropped : 0.</li>
+	 * <li>nbCoalesced : 0.</li>
+	 * </ul></p>
+	 */
+	public SoundMixer() {
+		
+		this.sources = null;
+		this.voices = null;
+		this.pendingAudio = new Audio[16];
+		this.pendingNames = new String[16];
+		this.pendingSpatial = new boolean[16];
+		this.pendingX = new float[16];
+		this.pendingY = new float[16];
+		this.nbPending = 0;
+		this.dropped = 0;
+		this.coalesced = 0;
+		this.nbActive = 0;
+		this.nbDropped = 0;
+		this.nbCoalesced = 0;
+		
+	}
+	
+	/**
+	 * Demande la lecture d'un son � la fin de l'image en cours.
+	 * 
+	 * <p>Si le son est spatialis� et trop �loign� du centre de la vue, la demande est abandonn�e. S'il a d�j� �t�
+	 * demand� pendant cette image, la demande est regroup�e avec la pr�c�dente (voir la description de cette
+	 * classe).</p>
+	 * 
+	 * @param a
+	 * 		Le son � jouer. S'il est null, cette m�thode ne fait rien.
+	 * @param name
+	 * 		Le nom du fichier du son, servant � reconna�tre les demandes identiques.
+	 * @param spatial
+	 * 		Vrai si le son est spatialis�.
+	 * @param x
+	 * 		L'abscisse du son par rapport au centre de la vue, si celui-ci est spatialis�.
+	 * @param y
+	 * 		L'ordonn�e du son par rapport au centre de la vue, si celui-ci est spatialis�.
+	 */
+	public void request(Audio a, String name, boolean spatial, float x, float y) {
+		
+		if (a == null)
+			return;
+		float d = x*x+y*y;
+		if (spatial && d > Constantes.soundCullDistance*Constantes.soundCullDistance) {
+			this.dropped++;
+			return;
+		}
+		
+		for (int i=0;i<this.nbPending;i++) {
+			if (this.pendingAudio[i] != a && !this.pendingNames[i].equals(name))
+				continue;
+			this.coalesced++;
+			if (!this.pendingSpatial[i])
+				return;
+			if (!spatial || d < this.pendingX[i]*this.pendingX[i]+this.pendingY[i]*this.pendingY[i]) {
+				this.pendingSpatial[i] = spatial;
+				this.pendingX[i] = x;
+				this.pendingY[i] = y;
+			}
+			return;
+		}
+		
+		if (this.nbPending == this.pendingAudio.length) {
+			int n = 2*this.nbPending;
+			this.pendingAudio = Arrays.copyOf(this.pendingAudio, n);
+			this.pendingNames = Arrays.copyOf(this.pendingNames, n);
+			this.pendingSpatial = Arrays.copyOf(this.pendingSpatial, n);
+			this.pendingX = Arrays.copyOf(this.pendingX, n);
+			this.pendingY = Arrays.copyOf(this.pendingY, n);
+		}
+		int i = this.nbPending++;
+		this.pendingAudio[i] = a;
+		this.pendingNames[i] = (name != null)?name:"";
+		this.pendingSpatial[i] = spatial;
+		this.pendingX[i] = x;
+		this.pendingY[i] = y;
+		
+	}
+	
+	/**
+	 * Joue les sons demand�s pendant l'image en cours, puis commence une nouvelle image.
+	 * 
+	 * <p>Chaque son est jou� par une source libre, dans l'ordre des demandes, tant que le nombre de ses lectures en
+	 * cours est inf�rieur au champ maxSoundVoices de la classe Constantes. Les demandes qui ne peuvent �tre satisfaites
+	 * sont abandonn�es.</p>
+	 */
+	public void flush() {
+		
+		if (this.nbPending > 0 && this.sources == null)
+			this.initSources();
+		
+		for (int i=0;i<this.nbPending;i++) {
+			Audio a = this.pendingAudio[i];
+			int free = -1, playing = 0;
+			for (int s=0;s<this.sources.length;s++) {
+				if (AL10.alGetSourcei(this.sources[s], AL10.AL_SOURCE_STATE) == AL10.AL_PLAYING) {
+					if (this.voices[s] == a)
+						playing++;
+				} else if (free < 0) {
+					free = s;
+				}
+			}
+			if (free < 0 || playing >= Constantes.maxSoundVoices) {
+				this.dropped++;
+			} else {
+				int src = this.sources[free];
+				AL10.alSourceStop(src);
+				AL10.alSourcei(src, AL10.AL_BUFFER, a.getBufferID());
+				AL10.alSourcef(src, AL10.AL_PITCH, 1);
+				AL10.alSourcef(src, AL10.AL_GAIN, 1);
+				AL10.alSourcei(src, AL10.AL_LOOPING, AL10.AL_FALSE);
+				if (this.pendingSpatial[i])
+					AL10.alSource3f(src, AL10.AL_POSITION, this.pendingX[i], this.pendingY[i], 0);
+				else
+					AL10.alSource3f(src, AL10.AL_POSITION, 0, 0, 0);
+				AL10.alSourcePlay(src);
+				this.voices[free] = a;
+			}
+			this.pendingAudio[i] = null;
+			this.pendingNames[i] = null;
+		}
+		
+		this.nbActive = 0;
+		if (this.sources != null) {
+			for (int s=0;s<this.sources.length;s++) {
+				if (AL10.alGetSourcei(this.sources[s], AL10.AL_SOURCE_STATE) == AL10.AL_PLAYING)
+					this.nbActive++;
+			}
+		}
+		this.nbDropped = this.dropped;
+		this.nbCoalesced = this.coalesced;
+		this.nbPending = 0;
+		this.dropped = 0;
+		this.coalesced = 0;
+		
+	}
+	
+	/**
+	 * Lit les sources OpenAL de ce m�langeur parmi celles cr��es par la classe SoundStore.
+	 * 
+	 * <p>Si le son n'est pas disponible, ce m�langeur n'a aucune source et toutes les demandes sont abandonn�es.</p>
+	 */
+	private void initSources() {
+		
+		SoundStore store = SoundStore.get();
+		int n = (store.soundWorks())
+				?Math.min(Constantes.soundSources, store.getSourceCount()-MusicPlayer.reservedSources):0;
+		this.sources = new int[Math.max(0, n)];
+		this.voices = new Audio[this.sources.length];
+		for (int s=0;s<this.sources.length;s++)
+			this.sources[s] = store.getSource(s);
+			
+	}
+	
+	/**
+	 * Retourne le nombre de sources en cours de lecture � l'issue du dernier appel � la m�thode flush().
+	 * 
+	 * @return
+	 * 		Le nombre de sons en cours de lecture.
+	 */
+	public int getNbActive() {
+		return this.nbActive;
+	}
+	
+	/**
+	 * Retourne le nombre de demandes abandonn�es lors de la derni�re image achev�e par la m�thode flush().
+	 * 
+	 * <p>Ce nombre comprend les sons spatialis�s trop �loign�s, les sons qui n'ont pu �tre jou�s faute de source libre
+	 * et ceux dont le nombre de lectures en cours atteignait le champ maxSoundVoices de la classe Constantes. Il ne
+	 * comprend pas les demandes regroup�es (m�thode getNbCoalesced()).</p>
+	 * 
+	 * @return
+	 * 		Le nombre de demandes abandonn�es.
+	 */
+	public int getNbDropped() {
+		return this.nbDropped;
+	}
+	
+	/**
+	 * Retourne le nombre de demandes regroup�es avec une demande identique lors de la derni�re image achev�e par la
+	 * m�thode flush().
+	 * 
+	 * @return
+	 * 		Le nombre de demandes regroup�es.
+	 */
+	public int getNbCoalesced() {
+		return this.nbCoalesced;
+	}
+	
+}
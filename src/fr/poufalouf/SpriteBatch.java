@@ -0,0 +1,300 @@
+package fr.poufalouf;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.ARBBufferObject;
+import org.lwjgl.opengl.ARBVertexBufferObject;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GLContext;
+import org.newdawn.slick.opengl.Texture;
+
+/**
+ * Regroupement des images textur�es en lots de dessin
+ * 
+ * <p>Cette classe accumule les quadrilat�res textur�s d'une image dans un unique tableau de sommets entrelac�s
+ * (position, couleur, coordonn�es de texture). Lors de l'envoi � OpenGL, un seul appel de dessin est effectu� pour
+ * chaque suite de quadrilat�res cons�cutifs partageant la m�me texture.</p>
+ * <p>Les quadrilat�res sont dessin�s dans leur ordre d'ajout : deux images qui se recouvrent sont donc toujours
+ * superpos�es dans l'ordre fix� par la vue, m�me si elles sont de m�me plan. Les textures regroup�es dans un atlas
+ * partageant la m�me page, les suites de m�me texture restent longues. La rotation des images est calcul�e par le
+ * processeur afin de ne pas avoir � modifier la matrice OpenGL pour chaque image.</p>
+ * <p>Si le buffering VBO est support�, les sommets sont envoy�s dans un tampon VBO, sinon ils sont lus directement
+ * dans la m�moire par des tableaux de sommets.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class SpriteBatch {
+	
+	/**
+	 * Le nombre de valeurs par sommet : 2 coordonn�es, 3 couleurs et 2 coordonn�es de texture.
+	 */
+	private static final int vertexSize = 7;
+	/**
+	 * Le nombre de valeurs par quadrilat�re.
+	 */
+	private static final int quadSize = 4*vertexSize;
+	
+	/**
+	 * Les sommets des quadrilat�res ajout�s, dans leur ordre d'ajout.
+	 */
+	private float[] vertices;
+	/**
+	 * Les textures des quadrilat�res ajout�s.
+	 */
+	private Texture[] textures;
+	/**
+	 * Le nombre de quadrilat�res en attente d'envoi.
+	 */
+	private int nbQuads;
+	/**
+	 * Le tampon de sommets envoy� � OpenGL.
+	 */
+	private FloatBuffer buffer;
+	/**
+	 * L'adresse du tampon VBO, 0 si le buffering VBO n'est pas support�.
+	 */
+	private int vboID;
+	/**
+	 * Le compteur de performances associ� � ce lot.
+	 */
+	private FrameStats stats;
+	
+	/**
+	 * Constructeur SpriteBatch.
+	 * 
+	 * <p></p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>vertices : un nouveau tableau de float pouvant contenir 256 quadrilat�res.</li>
+	 * <li>textures : un nouveau tableau de Texture de 256 �l�ments.</li>
+	 * <li>nbQuads : 0.</li>
+	 * <li>buffer : un nouveau FloatBuffer de la taille du tableau vertices.</li>
+	 * <li>vboID : 0.</li>
+	 * <li>stats : le compteur pass� en param�tre (stats), ou un nouveau FrameStats de nom "Rendu" si le param�tre est null.</li>
+	 * </ul></p>
+	 * 
+	 * @param stats
+	 * 		Le compteur de performances � mettre � jour lors de chaque appel de dessin.
+	 */
+	public SpriteBatch(FrameStats stats) {
+		
+		this.vertices = new float[256*quadSize];
+		this.textures = new Texture[256];
+		this.nbQuads = 0;
+		this.buffer = BufferUtils.createFloatBuffer(this.vertices.length);
+		this.vboID = 0;
+		if (stats != null)
+			this.stats = stats;
+		else
+			this.stats = new FrameStats("Rendu");
+			
+	}
+	
+	/**
+	 * Cr�e le tampon VBO de ce lot si le buffering VBO est support�.
+	 * 
+	 * <p>Cette m�thode doit �tre appel�e apr�s la cr�ation du Display.</p>
+	 */
+	public void init() {
+		
+		if (GLContext.getCapabilities().GL_ARB_vertex_buffer_object) {
+			IntBuffer buf = BufferUtils.createIntBuffer(1);
+			ARBBufferObject.glGenBuffersARB(buf);
+			this.vboID = buf.get(0);
+		}
+		
+	}
+	
+	/**
+	 * Ajoute un quadrilat�re textur� � ce lot.
+	 * 
+	 * <p>Le quadrilat�re sera dessin� apr�s tous ceux d�j� ajout�s.</p>
+	 * 
+	 * @param text
+	 * 		La texture du quadrilat�re.
+	 * @param x
+	 * 		L'abscisse du quadrilat�re.
+	 * @param y
+	 * 		L'ordonn�e du quadrilat�re.
+	 * @param w
+	 * 		La largeur du quadrilat�re.
+	 * @param h
+	 * 		La hauteur du quadrilat�re.
+	 * @param angle
+	 * 		L'angle de rotation du quadrilat�re autour de son centre (en degr�s).
+	 * @param red
+	 * 		La composante rouge de la couleur du quadrilat�re.
+	 * @param green
+	 * 		La composante verte de la couleur du quadrilat�re.
+	 * @param blue
+	 * 		La composante bleue de la couleur du quadrilat�re.
+	 * @param textX
+	 * 		L'abscisse du rectangle de texture � appliquer au quadrilat�re.
+	 * @param textY
+	 * 		L'ordonn�e du rectangle de texture � appliquer au quadrilat�re.
+	 * @param textW
+	 * 		La largeur du rectangle de texture � appliquer au quadrilat�re.
+	 * @param textH
+	 * 		La hauteur du rectangle de texture � appliquer au quadrilat�re.
+	 * @param region
+	 * 		La r�gion d'atlas de la texture d'origine, null si la texture n'appartient pas � un atlas. Dans ce cas, le
+	 * rectangle de texture est converti en coordonn�es de la page d'atlas.
+	 */
+	public void addQuad(Texture text, double x, double y, double w, double h, int angle, float red, float green,
+			float blue, double textX, double textY, double textW, double textH, AtlasRegion region) {
+		
+		if (text == null)
+			return;
+		
+		if (this.nbQuads == this.textures.length)
+			grow();
+		
+		double textXW = textX+textW, textYH = textY+textH;
+		if (region != null) {
+			textX = region.mapX(textX);
+			textY = region.mapY(textY);
+			textXW = region.mapX(textXW);
+			textYH = region.mapY(textYH);
+		}
+		float tx = (float) textX, ty = (float) textY, txw = (float) textXW, tyh = (float) textYH;
+		int i = this.nbQuads*quadSize;
+		
+		if (angle % 360 == 0) {
+			float fx = (float) x, fy = (float) y, fxw = (float) (x+w), fyh = (float) (y+h);
+			i = putVertex(i, fx, fy, red, green, blue, tx, ty);
+			i = putVertex(i, fxw, fy, red, green, blue, txw, ty);
+			i = putVertex(i, fxw, fyh, red, green, blue, txw, tyh);
+			putVertex(i, fx, fyh, red, green, blue, tx, tyh);
+		} else {
+			// M�me transformation que glRotatef(angle, 0, 0, 1) autour du centre du quadrilat�re
+			double cx = x+w/2, cy = y+h/2, dx = w/2, dy = h/2;
+			double cos = Math.cos(Math.toRadians(angle)), sin = Math.sin(Math.toRadians(angle));
+			i = putVertex(i, (float) (cx-dx*cos+dy*sin), (float) (cy-dx*sin-dy*cos), red, green, blue, tx, ty);
+			i = putVertex(i, (float) (cx+dx*cos+dy*sin), (float) (cy+dx*sin-dy*cos), red, green, blue, txw, ty);
+			i = putVertex(i, (float) (cx+dx*cos-dy*sin), (float) (cy+dx*sin+dy*cos), red, green, blue, txw, tyh);
+			putVertex(i, (float) (cx-dx*cos-dy*sin), (float) (cy-dx*sin+dy*cos), red, green, blue, tx, tyh);
+		}
+		
+		this.textures[this.nbQuads] = text;
+		this.nbQuads++;
+		
+	}
+	
+	/**
+	 * Dessine les quadrilat�res en attente puis vide ce lot.
+	 * 
+	 * <p>Cette m�thode doit �tre appel�e avant tout dessin OpenGL ne passant pas par ce lot, afin de respecter l'ordre
+	 * d'affichage des images, ainsi qu'� la fin de chaque image.</p>
+	 */
+	public void flush() {
+		
+		if (this.nbQuads == 0)
+			return;
+		
+		this.buffer.clear();
+		this.buffer.put(this.vertices, 0, this.nbQuads*quadSize);
+		this.buffer.flip();
+		
+		GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+		GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+		GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		if (this.vboID != 0) {
+			ARBBufferObject.glBindBufferARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, this.vboID);
+			ARBBufferObject.glBufferDataARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, this.buffer,
+					ARBBufferObject.GL_STREAM_DRAW_ARB);
+			GL11.glVertexPointer(2, GL11.GL_FLOAT, vertexSize*4, 0);
+			GL11.glColorPointer(3, GL11.GL_FLOAT, vertexSize*4, 2*4);
+			GL11.glTexCoordPointer(2, GL11.GL_FLOAT, vertexSize*4, 5*4);
+		} else {
+			this.buffer.position(0);
+			GL11.glVertexPointer(2, vertexSize*4, this.buffer);
+			this.buffer.position(2);
+			GL11.glColorPointer(3, vertexSize*4, this.buffer);
+			this.buffer.position(5);
+			GL11.glTexCoordPointer(2, vertexSize*4, this.buffer);
+			this.buffer.position(0);
+		}
+		
+		// Un appel de dessin par suite de quadrilat�res cons�cutifs de m�me texture
+		
+		int start = 0;
+		Texture current = this.textures[0];
+		for (int k=1;k<=this.nbQuads;k++) {
+			Texture text = null;
+			if (k < this.nbQuads)
+				text = this.textures[k];
+			if (text != current) {
+				current.bind();
+				GL11.glDrawArrays(GL11.GL_QUADS, start*4, (k-start)*4);
+				this.stats.addDrawCall(k-start);
+				start = k;
+				current = text;
+			}
+		}
+		
+		if (this.vboID != 0)
+			ARBBufferObject.glBindBufferARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, 0);
+		GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+		GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+		GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		
+		Arrays.fill(this.textures, 0, this.nbQuads, null);
+		this.nbQuads = 0;
+		
+	}
+	
+	/**
+	 * �crit un sommet dans le tableau vertices de ce lot.
+	 * 
+	 * @param i
+	 * 		L'indice de la premi�re valeur du sommet dans le tableau.
+	 * @param x
+	 * 		L'abscisse du sommet.
+	 * @param y
+	 * 		L'ordonn�e du sommet.
+	 * @param red
+	 * 		La composante rouge de la couleur du sommet.
+	 * @param green
+	 * 		La composante verte de la couleur du sommet.
+	 * @param blue
+	 * 		La composante bleue de la couleur du sommet.
+	 * @param textX
+	 * 		L'abscisse de texture du sommet.
+	 * @param textY
+	 * 		L'ordonn�e de texture du sommet.
+	 * @return
+	 * 		L'indice du sommet suivant dans le tableau.
+	 */
+	private int putVertex(int i, float x, float y, float red, float green, float blue, float textX, float textY) {
+		
+		this.vertices[i] = x;
+		this.vertices[i+1] = y;
+		this.vertices[i+2] = red;
+		this.vertices[i+3] = green;
+		this.vertices[i+4] = blue;
+		this.vertices[i+5] = textX;
+		this.vertices[i+6] = textY;
+		
+		return i+vertexSize;
+		
+	}
+	
+	/**
+	 * Double la capacit� de ce lot.
+	 */
+	private void grow() {
+		
+		int capacity = this.textures.length*2;
+		this.vertices = Arrays.copyOf(this.vertices, capacity*quadSize);
+		this.textures = Arrays.copyOf(this.textures, capacity);
+		this.buffer = BufferUtils.createFloatBuffer(this.vertices.length);
+		
+	}
+	
+}
@@ -2,6 +2,10 @@ package fr.poufalouf;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.Future;
+
+import org.newdawn.slick.openal.Audio;
+import org.newdawn.slick.opengl.Texture;
 
 import fr.poufalouf.combat.CombatCharacter;
 import fr.poufalouf.combat.CombatControl;
@@ -14,6 +18,7 @@ import fr.poufalouf.map.MapObject;
 import fr.poufalouf.map.Poufalouf;
 import fr.poufalouf.tools.Camera;
 import fr.poufalouf.tools.Characteristic;
+import fr.poufalouf.tools.Constantes;
 import fr.poufalouf.tools.LoadingScreen;
 import fr.poufalouf.tools.ScriptReader;
 import fr.poufalouf.tools.View;
@@ -150,7 +155,8 @@ public class Test {
 	 * 
 	 * <p>Cette m�thode passe d'un mod�le � un autre (combat � map) en fonction de la situation. Elle g�re le transfert
 	 * des propri�t�s des personnages entre chaque mod�le. Si Poufalouf meurt, elle cr�e un nouveau MapModel pour
-	 * recommencer une partie.</p>
+	 * recommencer une partie, en restaurant la carte enregistr�e lors de sa g�n�ration (champ mapSnapshotFileName de
+	 * la classe Constantes) plut�t qu'en en g�n�rant une nouvelle.</p>
 	 * 
 	 * @param args
 	 * 		Ce programme ne prend pas d'argument.
@@ -266,6 +272,7 @@ public class Test {
 						gameThread.changeView(vueInter);
 						param.clear();
 						param.add(ldScreen);
+						param.add(Constantes.mapSnapshotFileName);
 						mod = new MapModel(param);
 						vueMap = new View(new MapControl(mod), new MapCamera(0, 0));
 						mod.addObserver(vueMap);
@@ -318,19 +325,34 @@ public class Test {
 	/**
 	 * Charge les ressources du monde dont le nom est pass� en param�tre dans le thread de jeu.
 	 * 
+	 * <p>Les textures du monde sont regroup�es dans un atlas de textures (TextureAtlas), relu depuis le disque s'il
+	 * est � jour.</p>
+	 * <p>Les textures et les sons sont charg�s en arri�re-plan par le thread de jeu : cette m�thode attend la fin de
+	 * leur chargement avant de retourner. Elle ne doit donc pas �tre appel�e par le thread de jeu lui-m�me. Les
+	 * musiques du monde (flag MUS) sont seulement pr�par�es par le lecteur de musique, sans attendre.</p>
+	 * 
 	 * @param g
 	 * 		Le thread de jeu.
 	 * @param worldName
 	 * 		Le nom du monde.
 	 * @throws IOException
-	 * 		si la m�thode readSectionAtFlag de la classe ScriptReader l�ve une IOException.
+	 * 		si la m�thode readSectionAtFlag de la classe ScriptReader ou la m�thode createAtlas de la classe
+	 * TextureAtlas l�ve une IOException, ou si le chargement d'une texture ou d'un son �choue.
 	 */
 	private static void addWorldResources(GameThread g, String worldName) throws IOException {
 		
 		if (g == null || worldName == null)
 			return;
-		g.addTextures(ScriptReader.readSectionAtFlag("res/scripts/worlds.txt", worldName, "IMG"));
-		g.addSounds(ScriptReader.readSectionAtFlag("res/scripts/worlds.txt", worldName, "SND"));
+		ArrayList<Future<Texture>> textures = g.addAtlas(TextureAtlas.createAtlas(worldName,
+				ScriptReader.readSectionAtFlag("res/scripts/worlds.txt", worldName, "IMG")));
+		ArrayList<Future<Audio>> sounds = g.addSounds(ScriptReader.readSectionAtFlag("res/scripts/worlds.txt",
+				worldName, "SND"));
+		g.prefetchMusic(ScriptReader.readSectionAtFlag("res/scripts/worlds.txt", worldName, "MUS"));
+		
+		for (Future<Texture> f : textures)
+			AssetLoader.await(f);
+		for (Future<Audio> f : sounds)
+			AssetLoader.await(f);
 		
 	}
 
@@ -0,0 +1,390 @@
+package fr.poufalouf;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import javax.imageio.ImageIO;
+
+import fr.poufalouf.tools.Constantes;
+import fr.poufalouf.tools.ScriptReader;
+
+/**
+ * Atlas de textures d'un monde
+ * 
+ * <p>Cette classe regroupe les textures d'un monde (liste du flag IMG du fichier worlds.txt) dans une ou plusieurs
+ * grandes pages, afin que le thread de jeu puisse dessiner la plupart des images avec tr�s peu de changements de
+ * texture. Chaque texture d'origine est associ�e � une r�gion (AtlasRegion) de sa page.</p>
+ * <p>Les pages sont enregistr�es au format PNG dans le r�pertoire d�fini par le champ atlasDirectory de la classe
+ * Constantes, accompagn�es d'un fichier index d�crivant les r�gions. Au d�marrage suivant, l'index est relu si
+ * aucune des textures d'origine n'a �t� modifi�e depuis, ce qui �vite de recalculer l'atlas.</p>
+ * <p>Une texture est r�serv�e dans sa page avec des dimensions arrondies � la puissance de deux sup�rieure, comme le
+ * fait le chargement d'une texture isol�e, afin que les rectangles de texture des images restent valables. Les textures
+ * trop grandes pour une page ou illisibles ne sont pas regroup�es et doivent �tre charg�es s�par�ment.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class TextureAtlas {
+	
+	/**
+	 * L'espace laiss� entre deux textures d'une page (en pixels).
+	 */
+	private static final int padding = 2;
+	
+	/**
+	 * Le nom de l'atlas (nom du monde).
+	 */
+	private final String name;
+	/**
+	 * La liste des noms de fichiers des pages de l'atlas.
+	 */
+	private ArrayList<String> pages;
+	/**
+	 * La table des r�gions de l'atlas, rep�r�es par le nom de fichier de la texture d'origine.
+	 */
+	private HashMap<String, AtlasRegion> regions;
+	/**
+	 * La liste des textures qui n'ont pas pu �tre regroup�es dans l'atlas.
+	 */
+	private ArrayList<String> unpacked;
+	
+	/**
+	 * Constructeur TextureAtlas.
+	 * 
+	 * <p></p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>name : le nom pass� en param�tre (name), ou "" si le param�tre est null.</li>
+	 * <li>pages : une nouvelle liste (ArrayList) de String.</li>
+	 * <li>regions : une nouvelle table (HashMap) d'AtlasRegion rep�r�es par des String.</li>
+	 * <li>unpacked : une nouvelle liste (ArrayList) de String.</li>
+	 * </ul></p>
+	 * 
+	 * @param name
+	 * 		Le nom de l'atlas.
+	 */
+	public TextureAtlas(String name) {
+		
+		if (name != null)
+			this.name = name;
+		else
+			this.name = "";
+		this.pages = new ArrayList<String>();
+		this.regions = new HashMap<String, AtlasRegion>();
+		this.unpacked = new ArrayList<String>();
+		
+	}
+	
+	/**
+	 * Cr�e l'atlas des textures pass�es en param�tre.
+	 * 
+	 * <p>Si l'index de l'atlas enregistr� sur le disque est � jour, il est simplement relu. Sinon, les textures sont
+	 * regroup�es dans de nouvelles pages, et les pages ainsi que l'index sont enregistr�s.</p>
+	 * 
+	 * @param name
+	 * 		Le nom de l'atlas (nom du monde).
+	 * @param textureNames
+	 * 		La liste des noms de fichiers des textures � regrouper.
+	 * @return
+	 * 		L'atlas cr��.
+	 * @throws IOException
+	 * 		si l'enregistrement des pages ou de l'index �choue.
+	 */
+	public static TextureAtlas createAtlas(String name, ArrayList<String> textureNames) throws IOException {
+		
+		TextureAtlas atlas = new TextureAtlas(name);
+		if (textureNames == null)
+			return atlas;
+		
+		if (!atlas.readIndex(textureNames)) {
+			atlas.pack(textureNames);
+			atlas.writeIndex();
+		}
+		
+		return atlas;
+		
+	}
+	
+	/**
+	 * Retourne le nom du fichier index de cet atlas.
+	 * 
+	 * @return
+	 * 		Le nom du fichier index.
+	 */
+	private String indexFile() {
+		
+		return Constantes.atlasDirectory+this.getName().toLowerCase()+".txt";
+		
+	}
+	
+	/**
+	 * Relit l'index de cet atlas enregistr� sur le disque.
+	 * 
+	 * <p>L'index n'est pas relu s'il n'existe pas, si l'une des textures pass�es en param�tre n'y figure pas ou a �t�
+	 * modifi�e apr�s lui, ou si l'une des pages n'existe plus.</p>
+	 * 
+	 * @param textureNames
+	 * 		La liste des noms de fichiers des textures de l'atlas.
+	 * @return
+	 * 		Vrai si l'index a �t� relu.
+	 * @throws IOException
+	 * 		si la lecture du fichier index �choue.
+	 */
+	private boolean readIndex(ArrayList<String> textureNames) throws IOException {
+		
+		File index = new File(this.indexFile());
+		if (!index.isFile())
+			return false;
+		
+		ArrayList<String> pgs = ScriptReader.readSectionAtFlag(this.indexFile(), this.getName(), "PAGES");
+		ArrayList<String> regs = ScriptReader.readSectionAtFlag(this.indexFile(), this.getName(), "REGIONS");
+		ArrayList<String> unp = ScriptReader.readSectionAtFlag(this.indexFile(), this.getName(), "UNPACKED");
+		
+		for (String p : pgs) {
+			if (!new File(p).isFile())
+				return false;
+		}
+		HashMap<String, AtlasRegion> rgs = new HashMap<String, AtlasRegion>();
+		for (String r : regs) {
+			String[] values = r.split(";");
+			if (values.length != 6)
+				return false;
+			int page;
+			try {
+				page = Integer.parseInt(values[1]);
+				if (page < 0 || page >= pgs.size())
+					return false;
+				rgs.put(values[0], new AtlasRegion(pgs.get(page), Double.parseDouble(values[2]),
+						Double.parseDouble(values[3]), Double.parseDouble(values[4]), Double.parseDouble(values[5])));
+			} catch (NumberFormatException e) {
+				return false;
+			}
+		}
+		for (String t : textureNames) {
+			if (!rgs.containsKey(t) && !unp.contains(t))
+				return false;
+			if (new File(t).lastModified() > index.lastModified())
+				return false;
+		}
+		
+		this.pages = pgs;
+		this.regions = rgs;
+		this.unpacked = unp;
+		
+		return true;
+		
+	}
+	
+	/**
+	 * Regroupe les textures pass�es en param�tre dans les pages de cet atlas.
+	 * 
+	 * <p>Les textures sont rang�es par hauteur d�croissante sur des �tag�res successives. Une nouvelle page est
+	 * commenc�e quand la page en cours est pleine. La hauteur de chaque page est ensuite r�duite � la plus petite
+	 * puissance de deux contenant toutes ses textures.</p>
+	 * 
+	 * @param textureNames
+	 * 		La liste des noms de fichiers des textures � regrouper.
+	 * @throws IOException
+	 * 		si l'enregistrement d'une page �choue.
+	 */
+	private void pack(ArrayList<String> textureNames) throws IOException {
+		
+		int size = Constantes.atlasPageSize;
+		ArrayList<String> names = new ArrayList<String>();
+		ArrayList<BufferedImage> images = new ArrayList<BufferedImage>();
+		
+		// Lecture des textures
+		
+		for (String t : textureNames) {
+			if (t == null || names.contains(t) || this.unpacked.contains(t))
+				continue;
+			BufferedImage img = null;
+			try {
+				img = ImageIO.read(new File(t));
+			} catch (IOException e) {
+				// La texture sera charg�e s�par�ment, qui signalera l'erreur.
+			}
+			if (img == null || powerOfTwo(img.getWidth()) > size || powerOfTwo(img.getHeight()) > size) {
+				this.unpacked.add(t);
+				continue;
+			}
+			// Tri par hauteur d�croissante
+			int i = 0;
+			while (i < images.size() && powerOfTwo(images.get(i).getHeight()) >= powerOfTwo(img.getHeight()))
+				i++;
+			names.add(i, t);
+			images.add(i, img);
+		}
+		
+		// Placement des textures sur des �tag�res
+		
+		int[] page = new int[images.size()], x = new int[images.size()], y = new int[images.size()];
+		ArrayList<Integer> heights = new ArrayList<Integer>();
+		int p = 0, shelfX = 0, shelfY = 0, shelfH = 0;
+		for (int i=0;i<images.size();i++) {
+			int w = powerOfTwo(images.get(i).getWidth()), h = powerOfTwo(images.get(i).getHeight());
+			if (shelfX+w > size) {
+				shelfX = 0;
+				shelfY += shelfH+padding;
+				shelfH = 0;
+			}
+			if (shelfY+h > size) {
+				heights.add(Integer.valueOf(size));
+				p++;
+				shelfX = 0;
+				shelfY = 0;
+				shelfH = 0;
+			}
+			page[i] = p;
+			x[i] = shelfX;
+			y[i] = shelfY;
+			shelfX += w+padding;
+			shelfH = Math.max(shelfH, h);
+		}
+		if (images.size() > 0)
+			heights.add(Integer.valueOf(powerOfTwo(shelfY+shelfH)));
+		
+		// Dessin et enregistrement des pages
+		
+		new File(Constantes.atlasDirectory).mkdirs();
+		for (int n=0;n<heights.size();n++) {
+			int pageH = heights.get(n).intValue();
+			String pageName = Constantes.atlasDirectory+this.getName().toLowerCase()+"_"+n+".png";
+			BufferedImage pageImage = new BufferedImage(size, pageH, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = pageImage.createGraphics();
+			g.setComposite(AlphaComposite.Src);
+			for (int i=0;i<images.size();i++) {
+				if (page[i] != n)
+					continue;
+				g.drawImage(images.get(i), x[i], y[i], null);
+				this.regions.put(names.get(i), new AtlasRegion(pageName, (double) x[i]/size, (double) y[i]/pageH,
+						(double) powerOfTwo(images.get(i).getWidth())/size,
+						(double) powerOfTwo(images.get(i).getHeight())/pageH));
+			}
+			g.dispose();
+			if (!ImageIO.write(pageImage, "png", new File(pageName)))
+				throw new IOException("Impossible d'enregistrer la page d'atlas "+pageName+".");
+			this.pages.add(pageName);
+		}
+		
+	}
+	
+	/**
+	 * Enregistre l'index de cet atlas sur le disque.
+	 * 
+	 * <p>L'index est un script compos� d'une section portant le nom de cet atlas, et des flags PAGES (noms des
+	 * pages), REGIONS (une ligne "texture;page;x;y;w;h" par texture regroup�e) et UNPACKED (textures non
+	 * regroup�es).</p>
+	 * 
+	 * @throws IOException
+	 * 		si l'�criture du fichier index �choue.
+	 */
+	private void writeIndex() throws IOException {
+		
+		PrintWriter out;
+		try {
+			out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(this.indexFile())));
+		} catch (Exception e) {
+			throw new IOException("Fichier "+this.indexFile()+" non accessible en �criture.", e);
+		}
+		
+		out.println("["+this.getName()+"]");
+		out.println("$PAGES");
+		for (String p : this.pages) {
+			out.println(p);
+		}
+		out.println("$REGIONS");
+		for (String t : this.regions.keySet()) {
+			AtlasRegion r = this.regions.get(t);
+			out.println(t+";"+this.pages.indexOf(r.getPage())+";"+r.getX()+";"+r.getY()+";"+r.getW()+";"
+					+r.getH());
+		}
+		out.println("$UNPACKED");
+		for (String t : this.unpacked) {
+			out.println(t);
+		}
+		
+		out.close();
+		if (out.checkError())
+			throw new IOException("Erreur lors de l'�criture du fichier "+this.indexFile()+".");
+			
+	}
+	
+	/**
+	 * Retourne la plus petite puissance de deux sup�rieure ou �gale au param�tre.
+	 * 
+	 * @param n
+	 * 		Un entier positif.
+	 * @return
+	 * 		La puissance de deux correspondante.
+	 */
+	private static int powerOfTwo(int n) {
+		
+		int p = 1;
+		while (p < n)
+			p *= 2;
+		
+		return p;
+		
+	}
+	
+	/**
+	 * Retourne le nom de cet atlas.
+	 * 
+	 * @return
+	 * 		Le nom de cet atlas.
+	 */
+	public String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * Retourne une copie de la liste des noms de fichiers des pages de cet atlas.
+	 * 
+	 * @return
+	 * 		Une copie de la liste des pages.
+	 */
+	@SuppressWarnings("unchecked")
+	public ArrayList<String> pages() {
+		
+		return (ArrayList<String>) this.pages.clone();
+		
+	}
+	
+	/**
+	 * Retourne une copie de la table des r�gions de cet atlas.
+	 * 
+	 * @return
+	 * 		Une copie de la table des r�gions, rep�r�es par le nom de fichier de la texture d'origine.
+	 */
+	@SuppressWarnings("unchecked")
+	public HashMap<String, AtlasRegion> regions() {
+		
+		return (HashMap<String, AtlasRegion>) this.regions.clone();
+		
+	}
+	
+	/**
+	 * Retourne une copie de la liste des textures qui n'ont pas pu �tre regroup�es dans cet atlas.
+	 * 
+	 * @return
+	 * 		Une copie de la liste des textures non regroup�es.
+	 */
+	@SuppressWarnings("unchecked")
+	public ArrayList<String> unpacked() {
+		
+		return (ArrayList<String>) this.unpacked.clone();
+		
+	}
+	
+}
@@ -2,11 +2,11 @@ package fr.poufalouf.combat;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Set;
 
 import fr.poufalouf.ObjectInstanciationException;
 import fr.poufalouf.UpdateException;
 import fr.poufalouf.game.GameCharacter;
+import fr.poufalouf.game.InventoryListener;
 import fr.poufalouf.tools.Characteristic;
 import fr.poufalouf.tools.Orientation;
 import fr.poufalouf.tools.Rectangle;
@@ -14,11 +14,13 @@ import fr.poufalouf.tools.Rectangle;
 /**
  * Personnage combattant dans un �cran de combat
  * 
- * <p>Cet objet est li� � une instance de GameCharacter.</p>
+ * <p>Cet objet est li� � une instance de GameCharacter, dont il re�oit les changements d'inventaire en tant
+ * qu'InventoryListener : seul l'objet concern� par un changement est ajout� ou retir� de la table des objets de ce
+ * personnage.</p>
  * 
  * @author Anaïs Vernet
  */
-public class CombatCharacter extends CombatObject {
+public class CombatCharacter extends CombatObject implements InventoryListener {
 	
 	/**
 	 * Le personnage associ� � cet objet.
@@ -33,6 +35,10 @@ public class CombatCharacter extends CombatObject {
 	 * GameCharacter).
 	 */
 	private HashMap<String, CombatItem> items;
+	/**
+	 * La liste des noms des objets acquis depuis la derni�re mise � jour, dont le CombatItem reste � cr�er.
+	 */
+	private ArrayList<String> pendingItems;
 	/**
 	 * Le nom de l'attaque en cours de lancement.
 	 */
@@ -68,6 +74,7 @@ public class CombatCharacter extends CombatObject {
 	 * <p>Ce constructeur appelle le constructeur de la classe m�re.</p>
 	 * <p>Apr�s initialisation, l'orientation de cet objet prend la valeur pass�e en param�tre (or).</p>
 	 * <p>Le plan de perspective de ce personnage est son ordonn�e.</p>
+	 * <p>Ce personnage devient l'InventoryListener du personnage pass� en param�tre (character).</p>
 	 * 
 	 * <b>Initialisation</b>
 	 * 
@@ -76,6 +83,7 @@ public class CombatCharacter extends CombatObject {
 	 * <li>character : le personnage pass� en param�tre (character).</li>
 	 * <li>attacks : une nouvelle table (HashMap) d'Attack rep�r�es par des String.</li>
 	 * <li>items : une nouvelle table (HashMap) d'CombatItem rep�r�s par des String.</li>
+	 * <li>pendingItems : une nouvelle liste (ArrayList) de String.</li>
 	 * <li>currentAttack : "".</li>
 	 * <li>currentItemUse : "".</li>
 	 * <li>opponent : this.</li>
@@ -107,6 +115,7 @@ public class CombatCharacter extends CombatObject {
 		this.character = character;
 		this.attacks = new HashMap<String, Attack>();
 		this.items = new HashMap<String, CombatItem>();
+		this.pendingItems = new ArrayList<String>();
 		this.currentAttack = "";
 		this.currentItemUse = "";
 		this.opponent = this;
@@ -120,6 +129,7 @@ public class CombatCharacter extends CombatObject {
 		else
 			this.setOrientation(Orientation.AUCUNE);
 		this.setPlan((int) this.getY()); // Attention, le plan est red�fini lors de l'initialisation de Combat.
+		this.character.setInventoryListener(this);
 		
 	}
 	
@@ -166,7 +176,8 @@ public class CombatCharacter extends CombatObject {
 	 * <p>Cette m�thode appelle la m�thode de la classe m�re, puis incr�mente la frame de l'animation de l'attaque
 	 * en cours, si elle n'est pas null. Si cette attaque a un timer nul, alors l'attaque en cours devient "".</p>
 	 * <p>L'attaque ou l'utilisation d'objet en cours pour ce personnage, s'il y en a une, est mise � jour.</p>
-	 * <p>La liste des objets de ce personnage est mise � jour en fonction de celle du GameCharacter qui lui est li�.</p>
+	 * <p>Les CombatItem des objets acquis depuis la derni�re mise � jour (m�thode itemQuantityChanged(String, int,
+	 * int)) sont cr��s et ajout�s � la table des objets de ce personnage.</p>
 	 * 
 	 * @throws UpdateException
 	 * 		si l'ajout d'un objet lors de la mise � jour de la liste l�ve une exception.
@@ -194,25 +205,16 @@ public class CombatCharacter extends CombatObject {
 			}
 		}
 		
-		HashMap<String, CombatItem> its = this.items;
-		ArrayList<CombatItem> i = new ArrayList<CombatItem>();
-		ArrayList<String> n = new ArrayList<String>();
-		this.items = new HashMap<String, CombatItem>();
-		Set<String> set = this.character.getObjects().keySet();
-		for (String s : set) {
-			CombatItem c = its.get(s);
-			if (c == null) {
-				n.add(s);
-				try {
-					i = CombatItem.createCombatItemsFromFile(this, this.opponent, n);
-				} catch (Exception e) {
-					throw new UpdateException("Erreur lors de l'ajout de l'objet "+n.get(0), e);
-				}
-				if (i.size() > 0)
-					this.items.put(s, i.get(0));
-			} else {
-				this.items.put(s, c);
+		if (!this.pendingItems.isEmpty()) {
+			ArrayList<CombatItem> i;
+			try {
+				i = CombatItem.createCombatItemsFromFile(this, this.opponent, this.pendingItems);
+			} catch (Exception e) {
+				throw new UpdateException("Erreur lors de l'ajout de l'objet "+this.pendingItems.get(0), e);
 			}
+			for (CombatItem c : i)
+				this.addCombatItem(c);
+			this.pendingItems.clear();
 		}
 		
 	}
@@ -293,8 +295,33 @@ public class CombatCharacter extends CombatObject {
 	 */
 	public int itemQuantity(String itemName) {
 		
-		Integer i = this.character.getObjects().get(itemName);
-		return (i==null)?0:i.intValue();
+		return this.character.itemQuantity(itemName);
+		
+	}
+	
+	/**
+	 * Met � jour la table des objets de ce personnage suite au changement de la quantit� d'un objet.
+	 * 
+	 * <p>Si la quantit� est nulle, l'objet est retir� de la table. Si l'objet vient d'�tre acquis, son nom est
+	 * ajout� � la liste pendingItems, et son CombatItem sera cr�� lors de la prochaine mise � jour de ce personnage
+	 * (m�thode playBehavior()).</p>
+	 * 
+	 * @param itemName
+	 * 		Le nom de l'objet.
+	 * @param delta
+	 * 		La variation de la quantit� de l'objet.
+	 * @param qty
+	 * 		La nouvelle quantit� de l'objet.
+	 */
+	@Override
+	public void itemQuantityChanged(String itemName, int delta, int qty) {
+		
+		if (qty == 0) {
+			this.items.remove(itemName);
+			this.pendingItems.remove(itemName);
+		} else if (!this.items.containsKey(itemName) && !this.pendingItems.contains(itemName)) {
+			this.pendingItems.add(itemName);
+		}
 		
 	}
 	
@@ -3,12 +3,12 @@ package fr.poufalouf.combat;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.script.ScriptException;
 
 import fr.poufalouf.ObjectInstanciationException;
 import fr.poufalouf.tools.Constantes;
+import fr.poufalouf.tools.ScriptGrammar;
 import fr.poufalouf.tools.ScriptReader;
 
 /**
@@ -87,7 +87,6 @@ public class CombatItem extends Move {
 		String s;
 		ArrayList<String> lines;
 		String line;
-		Pattern pttn;
 		Matcher mtch;
 		String texture;
 
@@ -101,8 +100,7 @@ public class CombatItem extends Move {
 			if (lines.size() == 0)
 				throw new ScriptException("Objet "+s+". Bloc $IMG : le bloc n'est pas complet.");
 			line = lines.get(0);
-			pttn = Pattern.compile("^[a-zA-Z][a-zA-Z0-9/_]*\\.?[a-zA-Z0-9]*$");
-			mtch = pttn.matcher(line);
+			mtch = ScriptGrammar.textureLine.matcher(line);
 			if (!mtch.find())
 				throw new ScriptException("Objet "+s+". Bloc $IMG : le nom du fichier texture n'est pas valide.");
 			texture = line;
@@ -5,7 +5,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.script.ScriptException;
 
@@ -13,11 +12,13 @@ import org.newdawn.slick.Color;
 
 import fr.poufalouf.ObjectInstanciationException;
 import fr.poufalouf.tools.Animation;
+import fr.poufalouf.tools.AnimationClip;
 import fr.poufalouf.tools.AnimationFrame;
 import fr.poufalouf.tools.Characteristic;
 import fr.poufalouf.tools.Constantes;
 import fr.poufalouf.tools.PoppingObject;
 import fr.poufalouf.tools.Rectangle;
+import fr.poufalouf.tools.ScriptGrammar;
 import fr.poufalouf.tools.ScriptReader;
 import fr.poufalouf.tools.Status;
 import fr.poufalouf.tools.Text;
@@ -29,6 +30,12 @@ import fr.poufalouf.tools.Text;
  */
 public class Move {
 	
+	/**
+	 * Table de hachage stockant les mod�les des actions d�j� lues, r�f�renc�s par le nom du script suivi du nom de
+	 * l'action entre crochets.
+	 */
+	private static final HashMap<String, MoveTemplate> templates = new HashMap<String, MoveTemplate>();
+	
 	/**
 	 * Le nom de cette action.
 	 */
@@ -339,6 +346,9 @@ public class Move {
 	 * </ul></p>
 	 * <p>Cette m�thode lit le fichier enti�rement, et pour chaque action, v�rifie si son nom correspond � l'un des
 	 * champs pass�s en param�tres. Si c'est ce le cas, l'action est charg�e dans la liste retourn�e.</p>
+	 * <p>Le script n'est analys� qu'une fois par action : le r�sultat est conserv� sous forme de mod�le (m�thode
+	 * template(String, String)) tant que le script n'est pas relu. Cr�er une action revient alors � associer ce mod�le
+	 * au lanceur et � son adversaire, avec un nouvel �tat de lecture pour ses animations.</p>
 	 * 
 	 * @param fileName
 	 * 		Le nom du script � lire.
@@ -371,263 +381,316 @@ public class Move {
 		
 		int actionsLoaded = 0;
 		
-		ArrayList<String> lines;
 		for (String s : names) {
 			
-			String actionTextureFile;
-			int nbCycles;
+			MoveTemplate t = template(fileName, s);
 			ArrayList<Animation> anims = new ArrayList<Animation>();
-			Status userAnim = Status.STILL;
-			Rectangle box = null;
-			CombatEffectStyle style = CombatEffectStyle.RELATIVE_TO_SCREEN;
-			int frameToStrike = 0;
-			HashMap<Characteristic, Integer> effects = new HashMap<Characteristic, Integer>();
-			HashMap<Characteristic, Integer> successRates = new HashMap<Characteristic, Integer>();
-			boolean offensive = true;
-			boolean targetUser = false;
-			Rectangle[] trajectory = null;
-			Move m;
-			
-			// ANIM
+			for (AnimationClip c : t.clips)
+				anims.add(new Animation(c));
+			Move m = new Move(user, s, t.box, anims, t.style, new HashMap<Characteristic, Integer>(t.effects),
+					new HashMap<Characteristic, Integer>(t.successRates), t.offensive, t.frameToStrike, t.trajectory);
+			m.setUserAnim(t.userAnim);
+			if (!t.targetUser)
+				m.setTarget(opponent);
+			moves.add(m);
+			actionsLoaded++;
 			
-			lines = ScriptReader.readSectionAtFlag(fileName, s, "ANIM");
-			if (lines.size() < 4)
-				throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $ANIM : le bloc n'est pas complet.");
-			// nom du fichier texture
-			String line = lines.get(0);
-			Pattern pttn = Pattern.compile("^[a-zA-Z][a-zA-Z0-9/_]*\\.?[a-zA-Z0-9]*$");
-			Matcher mtch;
-			mtch = pttn.matcher(line);
-			if (!mtch.find())
-				throw new ScriptException("Fichier "+fileName+" : "+s+
-						". Bloc $ANIM : le fichier texture n'a pas un nom valide.");
-			actionTextureFile = line;
-			// nombre de cycles d'animation
-			line = lines.get(1);
-			Integer in = new Integer(0);
+		}
+		
+		if (actionsLoaded < names.size())
+			throw new ObjectInstanciationException("une ou plusieurs attaques n'ont pas pu �tre lues.", user.getName());
+		
+		return moves;
+		
+	}
+	
+	/**
+	 * Retourne le mod�le d'une action d'un script.
+	 * 
+	 * <p>Le mod�le est pris dans le cache de cette classe si le script n'a pas �t� relu depuis sa cr�ation (m�thode
+	 * revision(String) de la classe ScriptReader). Sinon, il est lu dans le script par la m�thode
+	 * readTemplate(String, String, long), puis le cache est mis � jour.</p>
+	 * 
+	 * @param fileName
+	 * 		Le nom du script � lire.
+	 * @param name
+	 * 		Le nom de l'action.
+	 * @return
+	 * 		Le mod�le de l'action.
+	 * @throws IOException
+	 * 		si la lecture du script �choue.
+	 * @throws ScriptException
+	 * 		si le script n'est pas valide.
+	 */
+	private static MoveTemplate template(String fileName, String name) throws IOException, ScriptException {
+		
+		long revision = ScriptReader.revision(fileName);
+		String key = fileName+"["+name+"]";
+		MoveTemplate t;
+		synchronized (templates) {
+			t = templates.get(key);
+		}
+		if (t == null || t.revision != revision) {
+			t = readTemplate(fileName, name, revision);
+			synchronized (templates) {
+				templates.put(key, t);
+			}
+		}
+		
+		return t;
+		
+	}
+	
+	/**
+	 * Lit le mod�le d'une action dans un script.
+	 * 
+	 * <p>La structure du script est d�crite par la m�thode createMovesFromFile(String, CombatCharacter,
+	 * CombatCharacter, ArrayList).</p>
+	 * 
+	 * @param fileName
+	 * 		Le nom du script � lire.
+	 * @param s
+	 * 		Le nom de l'action.
+	 * @param revision
+	 * 		Le num�ro de r�vision du script.
+	 * @return
+	 * 		Le mod�le de l'action.
+	 * @throws IOException
+	 * 		si la lecture du script �choue.
+	 * @throws ScriptException
+	 * 		si le script n'est pas valide.
+	 */
+	private static MoveTemplate readTemplate(String fileName, String s, long revision)
+			throws IOException, ScriptException {
+		
+		String actionTextureFile;
+		int nbCycles;
+		ArrayList<AnimationClip> clips = new ArrayList<AnimationClip>();
+		Status userAnim = Status.STILL;
+		Rectangle box = null;
+		CombatEffectStyle style = CombatEffectStyle.RELATIVE_TO_SCREEN;
+		int frameToStrike = 0;
+		HashMap<Characteristic, Integer> effects = new HashMap<Characteristic, Integer>();
+		HashMap<Characteristic, Integer> successRates = new HashMap<Characteristic, Integer>();
+		boolean offensive = true;
+		boolean targetUser = false;
+		Rectangle[] trajectory = null;
+		ArrayList<String> lines;
+		
+		// ANIM
+		
+		lines = ScriptReader.readSectionAtFlag(fileName, s, "ANIM");
+		if (lines.size() < 4)
+			throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $ANIM : le bloc n'est pas complet.");
+		// nom du fichier texture
+		String line = lines.get(0);
+		Matcher mtch;
+		mtch = ScriptGrammar.textureLine.matcher(line);
+		if (!mtch.find())
+			throw new ScriptException("Fichier "+fileName+" : "+s+
+					". Bloc $ANIM : le fichier texture n'a pas un nom valide.");
+		actionTextureFile = line;
+		// nombre de cycles d'animation
+		line = lines.get(1);
+		Integer in = new Integer(0);
+		try {
+			in = Integer.decode(line);
+		} catch (Exception e) {
+			throw new ScriptException("Fichier "+fileName+" : "+s+
+					". Bloc $ANIM : nombre de cycles d'animation non valide.");
+		}
+		nbCycles = in.intValue();
+		// Frames de l'animation
+		int l = 2;
+		ArrayList<AnimationFrame> af = new ArrayList<AnimationFrame>();
+		Status st;
+		AnimationClip clip;
+		boolean stillFound = false;
+		Matcher mtch2;
+		Matcher mtch3;
+		while (l < lines.size()) {
+			af.clear();
+			line = lines.get(l);
 			try {
-				in = Integer.decode(line);
+				st = Status.valueOf(line);
 			} catch (Exception e) {
-				throw new ScriptException("Fichier "+fileName+" : "+s+
-						". Bloc $ANIM : nombre de cycles d'animation non valide.");
+				throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $ANIM : l'animation "+line+" de " +
+						"l'action n'est pas d�finie.");
 			}
-			nbCycles = in.intValue();
-			// Frames de l'animation
-			int l = 2;
-			ArrayList<AnimationFrame> af = new ArrayList<AnimationFrame>();
-			Status st;
-			Animation anim;
-			boolean stillFound = false;
-			Pattern pttn2;
-			Matcher mtch2;
-			Pattern pttn3;
-			Matcher mtch3;
-			while (l < lines.size()) {
-				af.clear();
-				line = lines.get(l);
-				try {
-					st = Status.valueOf(line);
-				} catch (Exception e) {
-					throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $ANIM : l'animation "+line+" de " +
-							"l'action n'est pas d�finie.");
-				}
-				int j = 0;
-				int i;
-				int x = 0, y = 0, w = 1, h = 1;
-				for (i=l+1;i<lines.size();i++) {
-					pttn = Pattern.compile("^-?\\d+,-?\\d+,\\d+,\\d+$");
-					pttn2 = Pattern.compile("^x\\d+$");
-					pttn3 = Pattern.compile("^[a-zA-Z][a-zA-Z0-9/_]*\\.[a-zA-Z0-9]*(\\[\\d+\\])?$");
-					mtch = pttn.matcher(lines.get(i));
-					mtch2 = pttn2.matcher(lines.get(i));
-					mtch3 = pttn3.matcher(lines.get(i));
-					if (mtch.find()) {
-						String[] strs;
-						try {
-							strs = mtch.group().split(",");
-							x = Integer.parseInt(strs[0]);
-							y = Integer.parseInt(strs[1]);
-							w = Integer.parseInt(strs[2]);
-							h = Integer.parseInt(strs[3]);
-						} catch (Exception e) {
-							throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $ANIM : frame mal d�finie.");
-						}
-						af.add(new AnimationFrame(new Rectangle(x, y, w, h, Constantes.sizeTextureFragment), null, -1));
-						j++;
-					} else if (lines.get(i).equals("strike")) {
-						frameToStrike = j;
-					} else if (mtch2.find()) {
-						try {
-							int n = Integer.parseInt(mtch2.group().substring(1));
-							if (n > 100)
-								n = 100;
-							for (int nb=0;nb<n;nb++) {
-								af.add(new AnimationFrame(new Rectangle(x, y, w, h, Constantes.sizeTextureFragment),
-										null, -1));
-							}
-						} catch (Exception e) {
-							throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $ANIM : multiplication d'une " +
-									"ligne de coordonn�es par un nombre non valide.");
-						}
-					} else if (mtch3.find()) {
-						String[] strs = mtch3.group().split("[\\[\\]]");
-						int k = -1;
-						if (strs.length > 1)
-							k = Integer.parseInt(strs[1]);
-						if (af.size() > 0) {
-							AnimationFrame fr = af.get(af.size()-1);
-							fr = new AnimationFrame(fr.getText(), strs[0], k);
-							af.remove(af.size()-1);
-							af.add(fr);
+			int j = 0;
+			int i;
+			int x = 0, y = 0, w = 1, h = 1;
+			for (i=l+1;i<lines.size();i++) {
+				mtch = ScriptGrammar.rectangleLine.matcher(lines.get(i));
+				mtch2 = ScriptGrammar.repeatLine.matcher(lines.get(i));
+				mtch3 = ScriptGrammar.soundLine.matcher(lines.get(i));
+				if (mtch.find()) {
+					String[] strs;
+					try {
+						strs = mtch.group().split(",");
+						x = Integer.parseInt(strs[0]);
+						y = Integer.parseInt(strs[1]);
+						w = Integer.parseInt(strs[2]);
+						h = Integer.parseInt(strs[3]);
+					} catch (Exception e) {
+						throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $ANIM : frame mal d�finie.");
+					}
+					af.add(new AnimationFrame(new Rectangle(x, y, w, h, Constantes.sizeTextureFragment), null, -1));
+					j++;
+				} else if (lines.get(i).equals("strike")) {
+					frameToStrike = j;
+				} else if (mtch2.find()) {
+					try {
+						int n = Integer.parseInt(mtch2.group().substring(1));
+						if (n > 100)
+							n = 100;
+						for (int nb=0;nb<n;nb++) {
+							af.add(new AnimationFrame(new Rectangle(x, y, w, h, Constantes.sizeTextureFragment),
+									null, -1));
 						}
-					} else {
-						break;
+					} catch (Exception e) {
+						throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $ANIM : multiplication d'une " +
+								"ligne de coordonn�es par un nombre non valide.");
 					}
+				} else if (mtch3.find()) {
+					String[] strs = ScriptGrammar.soundChannelSeparator.split(mtch3.group());
+					int k = -1;
+					if (strs.length > 1)
+						k = Integer.parseInt(strs[1]);
+					if (af.size() > 0) {
+						AnimationFrame fr = af.get(af.size()-1);
+						fr = new AnimationFrame(fr.getText(), strs[0], k);
+						af.remove(af.size()-1);
+						af.add(fr);
+					}
+				} else {
+					break;
 				}
-				if (af.size() == 0)
-					throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $ANIM : l'animation "+st.toString()+
-					" ne contient pas de frame.");
-				anim = new Animation(st, actionTextureFile, af.get(0), nbCycles);
-				if (st == Status.STILL)
-					stillFound = true;
-				af.remove(0);
-				for (AnimationFrame afr : af) {
-					if (afr != null)
-						anim.addFrame(afr);
-				}
-				anims.add(anim);
-				l = i;
-			}
-			if (!stillFound) {
-				throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $ANIM : l'animation STILL n'a pas �t� " +
-						"renseign�e.");
 			}
-			
-			// BOX
-			
-			lines = ScriptReader.readSectionAtFlag(fileName, s, "BOX");
-			if (lines.size() < 2)
-				throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $BOX : le bloc n'est pas complet.");
-			// Coordonn�es
-			line = lines.get(0);
-			pttn = Pattern.compile("^-?\\d+\\.?\\d*,-?\\d+\\.?\\d*,\\d+\\.?\\d*,\\d+\\.?\\d*$");
-			mtch = pttn.matcher(line);
+			if (af.size() == 0)
+				throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $ANIM : l'animation "+st.toString()+
+				" ne contient pas de frame.");
+			clip = new AnimationClip(st, actionTextureFile, nbCycles, af.toArray(new AnimationFrame[af.size()]));
+			if (st == Status.STILL)
+				stillFound = true;
+			clips.add(clip);
+			l = i;
+		}
+		if (!stillFound) {
+			throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $ANIM : l'animation STILL n'a pas �t� " +
+					"renseign�e.");
+		}
+		
+		// BOX
+		
+		lines = ScriptReader.readSectionAtFlag(fileName, s, "BOX");
+		if (lines.size() < 2)
+			throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $BOX : le bloc n'est pas complet.");
+		// Coordonn�es
+		line = lines.get(0);
+		mtch = ScriptGrammar.decimalRectangleLine.matcher(line);
+		if (!mtch.find())
+			throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $BOX : la ligne des " +
+					"coordonn�es est introuvable ou non valide.");
+		String[] strs;
+		double x, y, w, h;
+		try {
+			strs = mtch.group().split(",");
+			x = Double.parseDouble(strs[0]);
+			y = Double.parseDouble(strs[1]);
+			w = Double.parseDouble(strs[2]);
+			h = Double.parseDouble(strs[3]);
+		} catch (Exception e) {
+		throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $BOX : coordonn�es mal d�finies.");
+		}
+		box = new Rectangle(x, y, w, h);
+		// Style d'animation
+		line = lines.get(1);
+		try {
+			style = CombatEffectStyle.valueOf(line);
+		} catch (Exception e) {
+			throw new ScriptException("Fichier "+fileName+" : "+s+
+				". Bloc $BOX : le style d'animation n'est pas d�fini ou n'est pas valide.");
+		}
+		
+		// TRAJ
+		
+		lines = ScriptReader.readSectionAtFlag(fileName, s, "TRAJ");
+		trajectory = new Rectangle[lines.size()];
+		for (l=0;l<lines.size();l++) {
+			mtch = ScriptGrammar.rectangleLine.matcher(lines.get(l));
 			if (!mtch.find())
-				throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $BOX : la ligne des " +
-						"coordonn�es est introuvable ou non valide.");
-			String[] strs;
-			double x, y, w, h;
+				throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $TRAJ : une ligne de la trajectoire " +
+						"n'est pas valide.");
+			strs = lines.get(l).split(",");
 			try {
-				strs = mtch.group().split(",");
 				x = Double.parseDouble(strs[0]);
 				y = Double.parseDouble(strs[1]);
 				w = Double.parseDouble(strs[2]);
 				h = Double.parseDouble(strs[3]);
 			} catch (Exception e) {
-			throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $BOX : coordonn�es mal d�finies.");
+				throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $TRAJ : coordonn�es mal d�finies.");
 			}
-			box = new Rectangle(x, y, w, h);
-			// Style d'animation
-			line = lines.get(1);
-			try {
-				style = CombatEffectStyle.valueOf(line);
-			} catch (Exception e) {
-				throw new ScriptException("Fichier "+fileName+" : "+s+
-					". Bloc $BOX : le style d'animation n'est pas d�fini ou n'est pas valide.");
-			}
-			
-			// TRAJ
-			
-			lines = ScriptReader.readSectionAtFlag(fileName, s, "TRAJ");
-			trajectory = new Rectangle[lines.size()];
-			pttn = Pattern.compile("^-?\\d+,-?\\d+,\\d+,\\d+$");
-			for (l=0;l<lines.size();l++) {
-				mtch = pttn.matcher(lines.get(l));
-				if (!mtch.find())
-					throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $TRAJ : une ligne de la trajectoire " +
-							"n'est pas valide.");
-				strs = lines.get(l).split(",");
-				try {
-					x = Double.parseDouble(strs[0]);
-					y = Double.parseDouble(strs[1]);
-					w = Double.parseDouble(strs[2]);
-					h = Double.parseDouble(strs[3]);
-				} catch (Exception e) {
-					throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $TRAJ : coordonn�es mal d�finies.");
-				}
-				trajectory[l] = new Rectangle(x, y, w, h);
-			}
-			
-			// CHAR
-			
-			lines = ScriptReader.readSectionAtFlag(fileName, s, "CHAR");
-			if (lines.size() > 0) {
-				pttn = Pattern.compile("^.+,-?\\d+,\\d+$");
-				for (String ln : lines) {
-					mtch = pttn.matcher(ln);
-					if (mtch.find()) {
-						strs = ln.split(",");
-						try {
-							Characteristic ch = Characteristic.valueOf(strs[0]);
-							effects.put(ch, Integer.decode(strs[1]));
-							successRates.put(ch, Integer.decode(strs[2]));
-						} catch (Exception e) {
-							throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $CHAR : "+
-									"les effets de l'attaque ne sont pas correctement renseign�s.");
-						}
-					} else
-						break;
-				}
-			}
-			
-			// PROP
-			
-			lines = ScriptReader.readSectionAtFlag(fileName, s, "PROP");
-			pttn = Pattern.compile("^[^\\=]+\\=[^\\=]+$");
-			for (int i=0;i<lines.size();i++) {
-				line = lines.get(i);
-				mtch = pttn.matcher(line);
-				if (!mtch.find())
-					throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $PROP : ligne non valide.");
-				strs = line.split("=");
-				if (strs[0].equals("OFFENSIVE")) {
-					if (strs[1].equals("false"))
-						offensive = false;
-					else if (!strs[1].equals("true"))
-						throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $PROP : argument " +
-								"de la propri�t� OFFENSIVE non valide (accept�s : 'true' et 'false').");
-				} else if (strs[0].equals("TARGET")) {
-					if (strs[1].equals("user"))
-						targetUser = true;
-					else if (!strs[1].equals("opponent"))
-						throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $PROP : argument " +
-						"de la propri�t� TARGET non valide (accept�s : 'user' et 'opponent').");
-				} else if (strs[0].equals("USER_ANIM")) {
+			trajectory[l] = new Rectangle(x, y, w, h);
+		}
+		
+		// CHAR
+		
+		lines = ScriptReader.readSectionAtFlag(fileName, s, "CHAR");
+		if (lines.size() > 0) {
+			for (String ln : lines) {
+				mtch = ScriptGrammar.characteristicEffectLine.matcher(ln);
+				if (mtch.find()) {
+					strs = ln.split(",");
 					try {
-						userAnim = Status.valueOf(strs[1]);
+						Characteristic ch = Characteristic.valueOf(strs[0]);
+						effects.put(ch, Integer.decode(strs[1]));
+						successRates.put(ch, Integer.decode(strs[2]));
 					} catch (Exception e) {
-						throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $PROP : argument " +
-								"de la propri�t� USER_ANIM non valide, l'animation "+strs[1]+" n'est pas d�finie.");
+						throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $CHAR : "+
+								"les effets de l'attaque ne sont pas correctement renseign�s.");
 					}
-				} else {
-					throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $PROP : propri�t� "+strs[0]+
-							" non valide.");
-				}
+				} else
+					break;
 			}
-			
-			m = new Move(user, s, box, anims, style, effects, successRates, offensive, frameToStrike, trajectory);
-			m.setUserAnim(userAnim);
-			if (!targetUser)
-				m.setTarget(opponent);
-			moves.add(m);
-			actionsLoaded++;
-			
 		}
 		
-		if (actionsLoaded < names.size())
-			throw new ObjectInstanciationException("une ou plusieurs attaques n'ont pas pu �tre lues.", user.getName());
+		// PROP
 		
-		return moves;
+		lines = ScriptReader.readSectionAtFlag(fileName, s, "PROP");
+		for (int i=0;i<lines.size();i++) {
+			line = lines.get(i);
+			mtch = ScriptGrammar.propertyLine.matcher(line);
+			if (!mtch.find())
+				throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $PROP : ligne non valide.");
+			strs = line.split("=");
+			if (strs[0].equals("OFFENSIVE")) {
+				if (strs[1].equals("false"))
+					offensive = false;
+				else if (!strs[1].equals("true"))
+					throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $PROP : argument " +
+							"de la propri�t� OFFENSIVE non valide (accept�s : 'true' et 'false').");
+			} else if (strs[0].equals("TARGET")) {
+				if (strs[1].equals("user"))
+					targetUser = true;
+				else if (!strs[1].equals("opponent"))
+					throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $PROP : argument " +
+					"de la propri�t� TARGET non valide (accept�s : 'user' et 'opponent').");
+			} else if (strs[0].equals("USER_ANIM")) {
+				try {
+					userAnim = Status.valueOf(strs[1]);
+				} catch (Exception e) {
+					throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $PROP : argument " +
+							"de la propri�t� USER_ANIM non valide, l'animation "+strs[1]+" n'est pas d�finie.");
+				}
+			} else {
+				throw new ScriptException("Fichier "+fileName+" : "+s+". Bloc $PROP : propri�t� "+strs[0]+
+						" non valide.");
+			}
+		}
+		
+		return new MoveTemplate(revision, box, clips.toArray(new AnimationClip[clips.size()]), style, effects,
+				successRates, offensive, targetUser, userAnim, frameToStrike, trajectory);
 		
 	}
 	
@@ -740,5 +803,104 @@ public class Move {
 	public void setStruck(boolean struck) {
 		this.hasStruck = struck;
 	}
-
+	
+	/**
+	 * Mod�le d'une action lue dans un script
+	 * 
+	 * <p>Cette classe contient les donn�es d'une action ind�pendantes de son lanceur et de sa cible. Elle n'est pas
+	 * modifi�e apr�s sa construction et peut donc servir � cr�er les actions de plusieurs combats.</p>
+	 */
+	private static final class MoveTemplate {
+		
+		/**
+		 * Le num�ro de r�vision du script lors de la lecture de ce mod�le.
+		 */
+		final long revision;
+		/**
+		 * Le rectangle des coordonn�es de l'effet de rendu.
+		 */
+		final Rectangle box;
+		/**
+		 * Les donn�es des animations de l'effet de rendu.
+		 */
+		final AnimationClip[] clips;
+		/**
+		 * Le style d'animation de l'effet de rendu.
+		 */
+		final CombatEffectStyle style;
+		/**
+		 * La table des effets sur les caract�ristiques.
+		 */
+		final HashMap<Characteristic, Integer> effects;
+		/**
+		 * La table des taux de r�ussite des effets.
+		 */
+		final HashMap<Characteristic, Integer> successRates;
+		/**
+		 * Indique si l'action inflige des dommages.
+		 */
+		final boolean offensive;
+		/**
+		 * Indique si la cible de l'action est son lanceur.
+		 */
+		final boolean targetUser;
+		/**
+		 * Le statut de l'animation que doit prendre le lanceur.
+		 */
+		final Status userAnim;
+		/**
+		 * Le num�ro de la frame de l'animation o� l'action doit agir.
+		 */
+		final int frameToStrike;
+		/**
+		 * La trajectoire de l'effet de rendu.
+		 */
+		final Rectangle[] trajectory;
+		
+		/**
+		 * Constructeur MoveTemplate.
+		 * 
+		 * @param revision
+		 * 		Le num�ro de r�vision du script.
+		 * @param box
+		 * 		Le rectangle des coordonn�es de l'effet de rendu.
+		 * @param clips
+		 * 		Les donn�es des animations de l'effet de rendu.
+		 * @param style
+		 * 		Le style d'animation de l'effet de rendu.
+		 * @param effects
+		 * 		La table des effets sur les caract�ristiques.
+		 * @param successRates
+		 * 		La table des taux de r�ussite des effets.
+		 * @param offensive
+		 * 		Vrai si l'action inflige des dommages.
+		 * @param targetUser
+		 * 		Vrai si la cible de l'action est son lanceur.
+		 * @param userAnim
+		 * 		Le statut de l'animation que doit prendre le lanceur.
+		 * @param frameToStrike
+		 * 		Le num�ro de la frame de l'animation o� l'action doit agir.
+		 * @param trajectory
+		 * 		La trajectoire de l'effet de rendu.
+		 */
+		MoveTemplate(long revision, Rectangle box, AnimationClip[] clips, CombatEffectStyle style,
+				HashMap<Characteristic, Integer> effects, HashMap<Characteristic, Integer> successRates,
+				boolean offensive, boolean targetUser, Status userAnim, int frameToStrike, Rectangle[] trajectory) {
+			
+			this.revision = revision;
+			this.box = box;
+			this.clips = clips;
+			this.style = style;
+			this.effects = effects;
+			this.successRates = successRates;
+			this.offensive = offensive;
+			this.targetUser = targetUser;
+			this.userAnim = userAnim;
+			this.frameToStrike = frameToStrike;
+			this.trajectory = trajectory;
+			
+		}
+		
+	}
+	
 }
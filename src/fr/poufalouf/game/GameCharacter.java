@@ -4,18 +4,20 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.script.ScriptException;
 
 import fr.poufalouf.ObjectInstanciationException;
 import fr.poufalouf.tools.Characteristic;
+import fr.poufalouf.tools.ScriptGrammar;
 import fr.poufalouf.tools.ScriptReader;
 
 /**
  * Personnage du jeu
  * 
  * <p>Cette classe contient les informations n�cessaires au passage des donn�es d'un personnage d'un mod�le � un autre.</p>
+ * <p>Chaque changement de la quantit� d'un objet est transmis � l'InventoryListener associ� � ce personnage, s'il y
+ * en a un.</p>
  * 
  * @author Anaïs Vernet
  */
@@ -37,6 +39,10 @@ public class GameCharacter {
 	 * Les objets poss�d�s par ce personnage, leurs quantit�s rep�r�es par leurs noms.
 	 */
 	private HashMap<String, Integer> objects;
+	/**
+	 * L'objet notifi� des changements de l'inventaire de ce personnage.
+	 */
+	private InventoryListener inventoryListener;
 	
 	/**
 	 * Constructeur GameCharacter.
@@ -52,6 +58,7 @@ public class GameCharacter {
 	 * <li>characteristics : une nouvelle table (HashMap) d'Integer rep�r�s par des Characteristic.</li>
 	 * <li>attakcsNames : une nouvelle liste (ArrayList) de String.</li>
 	 * <li>objects : une nouvelle table (HashMap) d'Integer rep�r�s par des String.</li>
+	 * <li>inventoryListener : null.</li>
 	 * </ul></p>
 	 * 
 	 * @param name
@@ -67,6 +74,7 @@ public class GameCharacter {
 		this.characteristics = new HashMap<Characteristic, Integer>();
 		this.attacksNames = new ArrayList<String>();
 		this.objects = new HashMap<String, Integer>();
+		this.inventoryListener = null;
 		
 		try{
 			this.setPropertiesFromFile(file);
@@ -102,14 +110,13 @@ public class GameCharacter {
 		
 		ArrayList<String> lines;
 		String line = null;
-		Pattern pattern = Pattern.compile("^\\d+(,\\d+){"+(Characteristic.values().length-1)+"}$");
 		
 		lines = ScriptReader.readAll(fileName);
 		if (lines.size() == 0)
 			throw new ScriptException("Erreur dans le script personnage "+fileName+" : le fichier est vide.");
 		// Caract�ristiques
 		line = lines.get(0);
-		Matcher mtc = pattern.matcher(line);
+		Matcher mtc = ScriptGrammar.characteristicsLine.matcher(line);
 		if (!mtc.find())
 			throw new ScriptException("Erreur dans le script personnage "+fileName+" : caract�ristique manquante.");
 		this.characteristics.clear();
@@ -213,10 +220,27 @@ public class GameCharacter {
 		return (HashMap<String, Integer>) this.objects.clone();
 	}
 	
+	/**
+	 * Retourne le nombre d'objets du nom pass� en param�tre poss�d�s par ce personnage.
+	 * 
+	 * @param itemName
+	 * 		Le nom de l'objet.
+	 * @return
+	 * 		La quantit� poss�d�e, ou 0 si ce personnage ne poss�de pas cet objet.
+	 */
+	public int itemQuantity(String itemName) {
+		
+		Integer i = this.objects.get(itemName);
+		return (i==null)?0:i.intValue();
+		
+	}
+	
 	/**
 	 * Modifie la quantit� d'objets dont le nom est pass� en param�tre.
 	 * 
 	 * <p>Si la quantit� est z�ro, alors l'objet est retir� de la liste des objets.</p>
+	 * <p>Si la quantit� a chang�, l'InventoryListener de ce personnage en est notifi� (m�thode
+	 * itemQuantityChanged(String, int, int)).</p>
 	 * 
 	 * @param itemName
 	 * 		Le nom des objets dont la quantit� doit �tre modifi�e. S'il est null, rien n'est fait.
@@ -226,12 +250,29 @@ public class GameCharacter {
 	public void changeItemQuantity(String itemName, int qty) {
 		
 		if (itemName != null) {
+			int old = this.itemQuantity(itemName);
 			if (qty == 0) {
 				this.objects.remove(itemName);
 			} else
 				this.objects.put(itemName, new Integer(qty));
+			if (qty != old && this.inventoryListener != null)
+				this.inventoryListener.itemQuantityChanged(itemName, qty-old, qty);
 		}
 		
 	}
+	
+	/**
+	 * Associe un InventoryListener � ce personnage.
+	 * 
+	 * <p>Un personnage ne participant qu'� un combat � la fois, un seul InventoryListener lui est associ� : il remplace
+	 * le pr�c�dent.</p>
+	 * 
+	 * @param listener
+	 * 		L'objet � notifier des changements de l'inventaire. S'il est null, rien n'est fait.
+	 */
+	public void setInventoryListener(InventoryListener listener) {
+		if (listener != null)
+			this.inventoryListener = listener;
+	}
 
 }
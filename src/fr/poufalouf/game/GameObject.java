@@ -1,13 +1,13 @@
 package fr.poufalouf.game;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 import org.lwjgl.Sys;
 import org.newdawn.slick.Color;
 
 import fr.poufalouf.UpdateException;
 import fr.poufalouf.tools.Animation;
+import fr.poufalouf.tools.AnimationClip;
 import fr.poufalouf.tools.CombinedImage;
 import fr.poufalouf.tools.Constantes;
 import fr.poufalouf.tools.Drawable;
@@ -26,6 +26,11 @@ import fr.poufalouf.tools.TexturedImage;
  */
 public abstract class GameObject implements Drawable {
 
+	/**
+	 * Le tableau d'animations vide, partag� par les objets n'ayant encore aucune animation.
+	 */
+	private static final AnimationClip[] noClips = new AnimationClip[Status.values().length];
+	
 	/**
 	 * Le nom de cet objet.
 	 */
@@ -67,9 +72,20 @@ public abstract class GameObject implements Drawable {
 	 */
 	private ArrayList<PoppingObject> popups;
 	/**
-	 * La table des animations de cet objet.
+	 * Le tableau des donn�es des animations de cet objet, index� par le rang du statut de chaque animation.
+	 * 
+	 * <p>Ce tableau peut �tre partag� avec d'autres objets (champ sharedClips), auquel cas il est copi� avant d'�tre
+	 * modifi�.</p>
 	 */
-	private HashMap<Status, Animation> anim;
+	private AnimationClip[] clips;
+	/**
+	 * Indique si le tableau clips est partag� avec d'autres objets.
+	 */
+	private boolean sharedClips;
+	/**
+	 * L'�tat de lecture de l'animation actuelle de cet objet, ou null si aucune animation n'a encore �t� jou�e.
+	 */
+	private Animation cursor;
 	/**
 	 * Le statut de l'animation actuelle de cet objet.
 	 */
@@ -112,7 +128,9 @@ public abstract class GameObject implements Drawable {
 	 * <li>delayUpdate : la valeur du champ delayUpdate de la classe Constantes.</li>
 	 * <li>orientation : le champ AUCUNE de la classe Orientation.</li>
 	 * <li>popups : une nouvelle liste (ArrayList) de PoppingObject.</li>
-	 * <li>anim : une nouvelle table (HashMap) d'Animation r�f�renc�es par des Status.</li>
+	 * <li>clips : un tableau vide d'AnimationClip, partag� par tous les objets.</li>
+	 * <li>sharedClips : vrai.</li>
+	 * <li>cursor : null.</li>
 	 * <li>currentAnim : STILL.</li>
 	 * <li>compteurTemps : la valeur retourn�e par Sys.getTime().</li>
 	 * <li>soundToAdd : "".</li>
@@ -146,7 +164,9 @@ public abstract class GameObject implements Drawable {
 		this.delayUpdate = Constantes.delayUpdate;
 		this.orientation = Orientation.AUCUNE;
 		this.popups = new ArrayList<PoppingObject>();
-		this.anim = new HashMap<Status, Animation>();
+		this.clips = noClips;
+		this.sharedClips = true;
+		this.cursor = null;
 		this.currentAnim = Status.STILL;
 		this.compteurTemps = Sys.getTime();
 		this.soundToAdd = "";
@@ -464,6 +484,16 @@ public abstract class GameObject implements Drawable {
 		
 	}
 	
+	/**
+	 * Retourne le nombre de PoppingObject de cet objet.
+	 * 
+	 * @return
+	 * 		Le nombre d'objets de la liste popups.
+	 */
+	public int nbPopups() {
+		return this.popups.size();
+	}
+	
 	/**
 	 * Met � jour l'animation actuelle de cet objet gr�ce au Status pass� en param�tre.
 	 * 
@@ -476,31 +506,53 @@ public abstract class GameObject implements Drawable {
 	 */
 	public void changeCurrentAnim(Status status) {
 		
-		if (status == null || !this.anim.containsKey(status))
+		if (status == null || this.clips[status.ordinal()] == null)
 			return;
-		if (this.currentAnim().getStatus() != status) {
+		if (this.currentAnim() == null || this.currentAnim().getStatus() != status) {
 			this.currentAnim = status;
-			this.currentAnim().reset();
+			this.play(this.clips[status.ordinal()]);
 		}
 		
 	}
 	
+	/**
+	 * Fait lire des donn�es d'animation � l'�tat de lecture de cet objet, � partir de leur premi�re frame.
+	 * 
+	 * @param clip
+	 * 		Les donn�es de l'animation � lire.
+	 */
+	private void play(AnimationClip clip) {
+		
+		if (this.cursor == null)
+			this.cursor = new Animation(clip);
+		else
+			this.cursor.play(clip);
+		
+	}
+	
 	/**
 	 * Retourne l'animation actuelle de cet objet.
 	 * 
+	 * <p>L'instance retourn�e est l'�tat de lecture de cet objet : elle est r�utilis�e d'une animation � l'autre et
+	 * lit les donn�es de l'animation du statut actuel.</p>
+	 * 
 	 * @return
-	 * 		L'animation actuelle de cet objet.
+	 * 		L'animation actuelle de cet objet, ou null si aucune animation ne correspond au statut actuel.
 	 */
 	public Animation currentAnim() {
 		
-		return this.anim.get(this.currentAnim);
+		if (this.clips[this.currentAnim.ordinal()] == null)
+			return null;
+		return this.cursor;
 		
 	}
 	
 	/**
 	 * Ajoute une animation � la table des animations de cet objet.
 	 * 
-	 * <p>La cl� qui lui est associ�e est le statut de l'animation.</p>
+	 * <p>La cl� qui lui est associ�e est le statut de l'animation. Seules les donn�es de l'animation (m�thode getClip()
+	 * de la classe Animation) sont conserv�es ; si son statut est le statut actuel, elle est lue depuis sa premi�re
+	 * frame.</p>
 	 * 
 	 * @param animation
 	 * 		L'animation � ajouter. Si elle est null, elle n'est pas ajout�e.
@@ -509,22 +561,61 @@ public abstract class GameObject implements Drawable {
 		
 		if (animation == null)
 			return;
-		this.anim.put(animation.getStatus(), animation);
+		if (this.sharedClips) {
+			this.clips = this.clips.clone();
+			this.sharedClips = false;
+		}
+		this.clips[animation.getStatus().ordinal()] = animation.getClip();
+		if (animation.getStatus() == this.currentAnim)
+			this.play(animation.getClip());
+		
+	}
+	
+	/**
+	 * Ajoute � cet objet les animations d'un tableau partag�.
+	 * 
+	 * <p>Si aucune animation n'a encore �t� ajout�e � cet objet par la m�thode addAnimation(Animation), le tableau
+	 * n'est pas copi� : il peut �tre partag� par tous les objets d'un m�me type, qui ne conservent alors chacun que
+	 * leur �tat de lecture. Il ne doit plus �tre modifi� par l'appelant ; un ajout ult�rieur d'animation � cet objet en
+	 * fait d'abord une copie. Sinon, chaque animation du tableau est ajout�e � celles de cet objet. Si une animation
+	 * correspond au statut actuel, elle est lue depuis sa premi�re frame.</p>
+	 * 
+	 * @param shared
+	 * 		Le tableau des donn�es d'animation, index� par le rang des statuts. S'il est null ou n'a pas une case par
+	 * statut, rien n'est fait.
+	 */
+	public void shareAnimations(AnimationClip[] shared) {
+		
+		if (shared == null || shared.length != noClips.length)
+			return;
+		if (this.sharedClips) {
+			this.clips = shared;
+		} else {
+			for (int i=0;i<shared.length;i++) {
+				if (shared[i] != null)
+					this.clips[i] = shared[i];
+			}
+		}
+		if (shared[this.currentAnim.ordinal()] != null)
+			this.play(shared[this.currentAnim.ordinal()]);
 		
 	}
 	
 	/**
 	 * Retourne la liste des animations de cet objet.
 	 * 
+	 * <p>Chaque animation de la liste est une nouvelle instance, positionn�e sur sa premi�re frame, partageant les
+	 * donn�es de l'animation correspondante de cet objet.</p>
+	 * 
 	 * @return
 	 * 		La liste des animations de cet objet.
 	 */
 	public ArrayList<Animation> anims() {
 		
 		ArrayList<Animation> anims = new ArrayList<Animation>();
-		for (Animation a : this.anim.values()) {
-			if (a != null)
-				anims.add(a);
+		for (AnimationClip c : this.clips) {
+			if (c != null)
+				anims.add(new Animation(c));
 		}
 		return anims;
 		
@@ -0,0 +1,29 @@
+package fr.poufalouf.game;
+
+/**
+ * Interface permettant � une classe d'�tre notifi�e des changements de l'inventaire d'un GameCharacter
+ * 
+ * <p>Cette interface doit �tre impl�ment�e pour pouvoir �tre associ�e � un GameCharacter (m�thode
+ * setInventoryListener(InventoryListener) de la classe GameCharacter). Seul l'objet dont la quantit� a chang� est
+ * notifi�, ce qui �vite � l'impl�mentation de relire l'inventaire entier.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public interface InventoryListener {
+	
+	/**
+	 * Notifie cet InventoryListener du changement de la quantit� d'un objet.
+	 * 
+	 * <p>Cette m�thode n'est appel�e que si la quantit� a r�ellement chang�. Une quantit� nulle signifie que l'objet a
+	 * �t� retir� de l'inventaire.</p>
+	 * 
+	 * @param itemName
+	 * 		Le nom de l'objet.
+	 * @param delta
+	 * 		La variation de la quantit� de l'objet.
+	 * @param qty
+	 * 		La nouvelle quantit� de l'objet.
+	 */
+	public void itemQuantityChanged(String itemName, int delta, int qty);
+	
+}
@@ -97,7 +97,7 @@ public class Barriere extends Decor {
 		Case nextCell = this.cells(false).get(0).nextCell(orientation);
 		ArrayList<MapObject> list = new ArrayList<MapObject>();
 		if (nextCell != null) {
-			for (MapObject obj : nextCell.occupants()) {
+			for (MapObject obj : nextCell.occupantSet()) {
 				if (obj != null)
 					list.add(obj);
 			}
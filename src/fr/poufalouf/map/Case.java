@@ -1,7 +1,10 @@
 package fr.poufalouf.map;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import fr.poufalouf.tools.CombinedImage;
 import fr.poufalouf.tools.Constantes;
@@ -62,9 +65,13 @@ public class Case implements Drawable {
 	 */
 	private ArrayList<Integer> textureNumbers;
 	/**
-	 * La liste des objets pr�sents sur cette case.
+	 * L'ensemble des objets pr�sents sur cette case, dans leur ordre d'arriv�e.
 	 */
-	private ArrayList<MapObject> occupants;
+	private final LinkedHashSet<MapObject> occupants;
+	/**
+	 * La vue non modifiable de l'ensemble occupants.
+	 */
+	private final Set<MapObject> occupantsView;
 	/**
 	 * La table des zones de cette case.
 	 */
@@ -89,7 +96,8 @@ public class Case implements Drawable {
 	 * <li>h : la hauteur pass�e en param�tre (h).</li>
 	 * <li>type : SOLID.</li>
 	 * <li>textureNumbers : une nouvelle liste (ArrayList) d'Integer.</li>
-	 * <li>occupants : une nouvelle liste (ArrayList) de MapObject.</li>
+	 * <li>occupants : un nouvel ensemble (LinkedHashSet) de MapObject.</li>
+	 * <li>occupantsView : une vue non modifiable de l'ensemble occupants.</li>
 	 * <li>zones : une nouvelle table (HashMap) de Zone rep�r�es par des ZoneType.</li>
 	 * </ul></p>
 	 * 
@@ -125,7 +133,8 @@ public class Case implements Drawable {
 			this.textureID = "";
 		this.type = CaseType.SOLID;
 		this.textureNumbers = new ArrayList<Integer>();
-		this.occupants = new ArrayList<MapObject>();
+		this.occupants = new LinkedHashSet<MapObject>();
+		this.occupantsView = Collections.unmodifiableSet(this.occupants);
 		this.zones = new HashMap<ZoneType, Zone>();
 		
 		this.textureNumbers.add(new Integer(textureNumber));
@@ -391,6 +400,8 @@ public class Case implements Drawable {
 	/**
 	 * Remplace le num�ro de texture � l'indice sp�cifi� par le num�ro pass� en param�tre.
 	 * 
+	 * <p>Le bloc de terrain de la carte contenant cette case est marqu� comme modifi�.</p>
+	 * 
 	 * @param index
 	 * 		L'indice du num�ro de texture � modifier.
 	 * @param textureNumber
@@ -401,13 +412,15 @@ public class Case implements Drawable {
 		if (index < 0 || index >= this.textureNumbers.size())
 			return;
 		this.textureNumbers.set(index, new Integer(textureNumber));
+		this.carte.cellChanged(this);
 		
 	}
 	
 	/**
 	 * Ajoute un num�ro de texture � cette case.
 	 * 
-	 * <p>Cela signifie qu'une nouvelle image est ajout�e � la pile de textures de cette case.</p>
+	 * <p>Cela signifie qu'une nouvelle image est ajout�e � la pile de textures de cette case. Le bloc de terrain de la
+	 * carte contenant cette case est marqu� comme modifi�.</p>
 	 * 
 	 * @param textureNumber
 	 * 		Le num�ro de texture � ajouter.
@@ -415,6 +428,7 @@ public class Case implements Drawable {
 	public void addTextureNumber(int textureNumber) {
 		
 		this.textureNumbers.add(new Integer(textureNumber));
+		this.carte.cellChanged(this);
 		
 	}
 
@@ -437,13 +451,28 @@ public class Case implements Drawable {
 		
 	}
 	
+	/**
+	 * Retourne le nombre de textures superpos�es de cette case.
+	 * 
+	 * @return
+	 * 		Le nombre de num�ros de texture de cette case.
+	 */
+	public int numberOfTextures() {
+		
+		return this.textureNumbers.size();
+		
+	}
+	
 	/**
 	 * Efface la liste des textures de cette case et ajoute 0 comme premier �l�ment.
+	 * 
+	 * <p>Le bloc de terrain de la carte contenant cette case est marqu� comme modifi�.</p>
 	 */
 	public void clearTextures() {
 		
 		this.textureNumbers.clear();
 		this.textureNumbers.add(new Integer(0));
+		this.carte.cellChanged(this);
 		
 	}
 
@@ -462,28 +491,72 @@ public class Case implements Drawable {
 	 */
 	public void clearOccupants() {
 		
-		this.occupants = new ArrayList<MapObject>();
+		this.occupants.clear();
 		
 	}
 
 	/**
 	 * Retourne une copie de la liste des objets occupant cette case (jamais null).
 	 * 
-	 * <p>La liste retourn�e est une copie mais les instances de MapObject sont les originales.</p>
+	 * <p>La liste retourn�e est une copie mais les instances de MapObject sont les originales. Pour un simple parcours
+	 * des occupants, la m�thode occupantSet() de cette classe �vite cette copie.</p>
 	 * 
 	 * @return
 	 * 		Une copie de la liste des objets.
 	 */
-	@SuppressWarnings("unchecked")
 	public ArrayList<MapObject> occupants() {
 		
-		return (ArrayList<MapObject>) this.occupants.clone();
+		return new ArrayList<MapObject>(this.occupants);
+		
+	}
+	
+	/**
+	 * Retourne l'ensemble des objets occupant cette case, sans le copier.
+	 * 
+	 * <p>L'ensemble retourn� n'est pas modifiable et refl�te les changements ult�rieurs des occupants de cette case. Il
+	 * ne doit donc pas �tre parcouru pendant que des objets sont ajout�s � cette case ou en sont retir�s : la m�thode
+	 * occupants() de cette classe doit alors �tre utilis�e.</p>
+	 * 
+	 * @return
+	 * 		L'ensemble des objets, dans leur ordre d'arriv�e sur cette case.
+	 */
+	public Set<MapObject> occupantSet() {
+		
+		return this.occupantsView;
+		
+	}
+	
+	/**
+	 * Retourne le nombre d'objets occupant cette case.
+	 * 
+	 * @return
+	 * 		Le nombre d'occupants.
+	 */
+	public int nbOccupants() {
+		
+		return this.occupants.size();
+		
+	}
+	
+	/**
+	 * Indique si un objet occupe cette case.
+	 * 
+	 * @param obj
+	 * 		L'objet recherch�.
+	 * @return
+	 * 		Vrai si l'objet fait partie des occupants de cette case.
+	 */
+	public boolean isOccupiedBy(MapObject obj) {
+		
+		return this.occupants.contains(obj);
 		
 	}
 	
 	/**
 	 * Ajoute un objet � la liste des occupants de cette case.
 	 * 
+	 * <p>Un objet d�j� pr�sent n'est pas ajout� une seconde fois.</p>
+	 * 
 	 * @param obj
 	 * 		L'objet � ajouter � la liste. S'il est null, il n'est pas ajout�.
 	 */
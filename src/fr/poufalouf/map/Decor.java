@@ -77,5 +77,17 @@ public class Decor extends MapObject {
 		return img;
 		
 	}
+	
+	/**
+	 * Retourne le nombre de plans de perspective ajout�s � ce d�cor lors de la g�n�ration de son image.
+	 * 
+	 * @return
+	 * 		Le nombre de plans suppl�mentaires (ce nombre peut �tre n�gatif).
+	 */
+	public int extraPlans() {
+		
+		return this.plan;
+		
+	}
 
 }
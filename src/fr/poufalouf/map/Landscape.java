@@ -98,5 +98,26 @@ public class Landscape extends MapObject {
 		return t;
 		
 	}
+	
+	/**
+	 * Retourne faux : l'image d�filante de ce d�cor couvre toute la carte et n'est jamais �cart�e.
+	 * 
+	 * @param x
+	 * 		L'abscisse de la portion du jeu par rapport au jeu.
+	 * @param y
+	 * 		L'ordonn�e de la portion du jeu par rapport au jeu.
+	 * @param w
+	 * 		La largeur de la portion du jeu.
+	 * @param h
+	 * 		La hauteur de la portion du jeu.
+	 * @return
+	 * 		Faux.
+	 */
+	@Override
+	public boolean cull(double x, double y, double w, double h) {
+		
+		return false;
+		
+	}
 
 }
@@ -1,12 +1,15 @@
 package fr.poufalouf.map;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.LinkedHashSet;
 
 import fr.poufalouf.ObjectInstanciationException;
 import fr.poufalouf.tools.Animation;
+import fr.poufalouf.tools.AnimationClip;
+import fr.poufalouf.tools.Constantes;
+import fr.poufalouf.tools.Status;
 
 /**
  * Carte 2D vue du ciel
@@ -23,6 +26,27 @@ import fr.poufalouf.tools.Animation;
  */
 public class Map {
 
+	/**
+	 * Le nombre d'index d'objets de cette classe, taille du tableau indexSlots de la classe MapObject.
+	 */
+	static final int nbIndexes = 4;
+	/**
+	 * Le num�ro de l'index de tous les objets de la carte.
+	 */
+	private static final int objectsIndex = 0;
+	/**
+	 * Le num�ro de l'index des objets tireurs de la carte.
+	 */
+	private static final int shootersIndex = 1;
+	/**
+	 * Le num�ro de l'index des personnages de la carte.
+	 */
+	private static final int charactersIndex = 2;
+	/**
+	 * Le num�ro de l'index des projectiles de la carte.
+	 */
+	private static final int projectilesIndex = 3;
+	
 	/**
 	 * Le nombre de cases en largeur sur cette carte.
 	 */
@@ -39,22 +63,59 @@ public class Map {
 	 * Le tableau de cases de cette carte.
 	 */
 	private Case[][] carte;
+	/**
+	 * Le tableau des blocs de terrain de cette carte.
+	 * 
+	 * <p>Chaque bloc regroupe un carr� de cases dont le c�t� est d�fini par le champ cellPerChunk de la classe
+	 * Constantes.</p>
+	 */
+	private TerrainChunk[][] chunks;
 	/**
 	 * La liste des objets de cette carte.
 	 */
 	private HashMap<String, MapObject> objets;
 	/**
-	 * Table de hachage stockant le nombre d'objets d'une classe dans le jeu.
+	 * Le tableau du nombre d'objets de chaque type sur cette carte.
+	 * 
+	 * <p>L'indice est l'identifiant du type de l'objet (m�thode getTypeId() de la classe MapObject). Le tableau est
+	 * agrandi lorsqu'un type plus r�cent que sa taille est rencontr�.</p>
+	 */
+	private int[] nbObjets;
+	/**
+	 * Le tableau des donn�es d'animation des objets de cette carte.
 	 * 
-	 * <p>La cl� est le nom de l'objet sans (x:valeur,y:valeur).</p>
+	 * <p>Le premier indice est l'identifiant du type de l'objet, le second le rang du statut de l'animation. Une case
+	 * vaut null tant que les animations de ce type n'ont pas �t� lues. Chaque tableau d'un type est partag� par tous
+	 * les objets de ce type (m�thode shareAnimations(AnimationClip[]) de la classe GameObject).</p>
+	 */
+	private AnimationClip[][] anims;
+	/**
+	 * L'index des objets tireurs de cette carte.
+	 */
+	private ObjectIndex<ShootingObject> shooters;
+	/**
+	 * L'index des personnages de cette carte.
+	 */
+	private ObjectIndex<MapCharacter> characters;
+	/**
+	 * L'index des projectiles de cette carte.
 	 */
-	private HashMap<String, Integer> nbObjets;
+	private ObjectIndex<Projectile> projectiles;
 	/**
-	 * Table de hachage stockant les animations des objets du jeu.
+	 * L'index de tous les objets de cette carte.
 	 * 
-	 * <p>La cl� est le nom de l'objet sans (x:valeur,y:valeur).</p>
+	 * <p>Cet index contient les m�mes instances que la table objets et permet de les parcourir sans copie (m�thodes
+	 * nbObjects() et object(int)).</p>
 	 */
-	private HashMap<String, ArrayList<Animation>> anims;
+	private ObjectIndex<MapObject> objectList;
+	/**
+	 * L'ordonnanceur des objets de cette carte devant �tre mis � jour.
+	 * 
+	 * <p>Un objet appartient � la file de cet ordonnanceur si sa m�thode isToUpdate() renvoie vrai. Cette file est tenue
+	 * � jour par la m�thode toUpdateChanged(MapObject) de cette classe, appel�e par la m�thode setToUpdate(boolean) de
+	 * la classe MapObject.</p>
+	 */
+	private UpdateScheduler scheduler;
 	
 	/**
 	 * Constructeur Map.
@@ -70,11 +131,17 @@ public class Map {
 	 * <li>nbCasesHeight : la hauteur pass�e en param�tre (h), ou 1 si le param�tre est inf�rieur � 1.</li>
 	 * <li>terrainID : l'identifiant pass� en param�tre (terrainID), ou "" si le param�tre est null.</li>
 	 * <li>carte : un nouveau tableau de Case de taille [nbCasesWidth][nbCasesHeight].</li>
+	 * <li>chunks : un nouveau tableau de TerrainChunk couvrant le tableau carte, chaque bloc �tant cr�� � sa
+	 * position.</li>
 	 * <li>objets : une nouvelle table (HashMap) de MapObject r�f�renc�s par des String.</li>
 	 * <li>brume : une nouvelle Brume d'identifiant "res/terrain/brume.png".</li>
-	 * <li>nbObjets : une nouvelle table (HashMap) d'Integer r�f�renc�s par des String.</li>
-	 * <li>anims : une nouvelle table (HashMap) d'ArrayList[Animation] r�f�renc�s par des String (construite dans la m�thode
-	 * initialize(LoadingScreen) de cette classe).</li>
+	 * <li>nbObjets : un nouveau tableau d'entiers de la taille du registre ObjectTypeRegistry.</li>
+	 * <li>anims : un nouveau tableau de tableaux d'AnimationClip de la taille du registre ObjectTypeRegistry.</li>
+	 * <li>shooters : un nouvel ObjectIndex de ShootingObject, de num�ro shootersIndex.</li>
+	 * <li>characters : un nouvel ObjectIndex de MapCharacter, de num�ro charactersIndex.</li>
+	 * <li>projectiles : un nouvel ObjectIndex de Projectile, de num�ro projectilesIndex.</li>
+	 * <li>objectList : un nouvel ObjectIndex de MapObject, de num�ro objectsIndex.</li>
+	 * <li>scheduler : un nouvel UpdateScheduler.</li>
 	 * </ul></p>
 	 * 
 	 * @param w
@@ -93,9 +160,20 @@ public class Map {
 		else
 			this.terrainID = "";
 		this.carte = new Case[this.nbCasesWidth][this.nbCasesHeight];
+		this.chunks = new TerrainChunk[(this.nbCasesWidth+Constantes.cellPerChunk-1)/Constantes.cellPerChunk]
+				[(this.nbCasesHeight+Constantes.cellPerChunk-1)/Constantes.cellPerChunk];
+		for (int i=0;i<this.chunks.length;i++) {
+			for (int j=0;j<this.chunks[i].length;j++)
+				this.chunks[i][j] = new TerrainChunk(this, i*Constantes.cellPerChunk, j*Constantes.cellPerChunk);
+		}
 		this.objets = new HashMap<String, MapObject>();
-		this.nbObjets = new HashMap<String, Integer>();
-		this.anims = new HashMap<String, ArrayList<Animation>>();
+		this.nbObjets = new int[ObjectTypeRegistry.size()];
+		this.anims = new AnimationClip[ObjectTypeRegistry.size()][];
+		this.shooters = new ObjectIndex<ShootingObject>(shootersIndex);
+		this.characters = new ObjectIndex<MapCharacter>(charactersIndex);
+		this.projectiles = new ObjectIndex<Projectile>(projectilesIndex);
+		this.objectList = new ObjectIndex<MapObject>(objectsIndex);
+		this.scheduler = new UpdateScheduler();
 		
 	}
 	
@@ -103,14 +181,17 @@ public class Map {
 	 * Ajoute un objet � cette carte.
 	 * 
 	 * <p>Cette m�thode ajoute l'objet � la liste des objets de cette map.</p>
-	 * <p>Elle met � jour la table nbObjets de cette classe. Si aucun objet portant le m�me nom (sans les
-	 * coordonn�es) n'est d�j� pr�sent dans le jeu (test r�alis� gr�ce � la table nbObjets), alors les animations
-	 * correspondant � cet objet sont charg�es dans la table anims, gr�ce au fichier portant le m�me nom (en minuscules)
-	 * que cet objet. Si, au contraire, un objet du m�me type est d�j� pr�sent, l'objet se voit attribuer les animations
-	 * stock�es dans la table anims � la cl� du nom de l'objet. Ce nom simplifi� de l'objet est �gal � l'ensemble des
-	 * caract�res alphanum�riques lus depuis le d�but du nom. D�s qu'un espace, ou un caract�re autre quelconque
-	 * (une parenth�se par exemple pour les coordonn�es) est rencontr�, alors le nom est tronqu�.</p>
-	 * <p>Si le nom de cet objet est invalide, alors l'objet n'est pas ajout�.</p>
+	 * <p>Elle met � jour le tableau nbObjets de cette classe. Si les animations du type de cet objet n'ont pas encore
+	 * �t� lues, elles sont charg�es dans le tableau anims, gr�ce au fichier portant le m�me nom (en minuscules) que cet
+	 * objet. Dans les deux cas, l'objet se voit attribuer les animations stock�es dans le tableau anims �
+	 * l'identifiant du type de l'objet (m�thode getTypeId() de la classe MapObject), sans copie de leurs donn�es. Ce
+	 * type correspond au nom simplifi� de l'objet, �gal � l'ensemble des caract�res alphanum�riques lus depuis le d�but
+	 * du nom. D�s qu'un espace, ou un caract�re autre quelconque (une parenth�se par exemple pour les coordonn�es) est
+	 * rencontr�, alors le nom est tronqu�. Il est calcul� par l'objet lui-m�me (m�thode getSimpleName() de la classe
+	 * MapObject).</p>
+	 * <p>L'objet est ajout� aux index de cette carte correspondant � son type, ainsi qu'� l'index des objets � mettre �
+	 * jour si n�cessaire. Si un autre objet portait d�j� le m�me nom, il est retir� de ces index et des cases qu'il
+	 * occupait.</p>
 	 * 
 	 * @param obj
 	 * 		L'objet � ajouter � cette carte.
@@ -124,47 +205,41 @@ public class Map {
 		if (obj == null)
 			return;
 		
-		// Simplification du nom de l'objet
+		// Type de l'objet
 		
-		String nameObj;
-		Pattern pattern = Pattern.compile("^[A-Za-z0-9]*");
-		Matcher matcher = pattern.matcher(obj.getName());
-		if (matcher.find())
-			nameObj = matcher.group();
-		else
-			return;
+		int type = obj.getTypeId();
+		this.ensureType(type);
 		
 		// Ajout des animations de l'objet si demand�
 		
 		if (readAnimFromFile) {
-			if (this.anims.get(nameObj) == null) {
-				String animFile = "res/scripts/animations/map/"+nameObj.toLowerCase()+".txt";
+			if (this.anims[type] == null) {
+				String animFile = "res/scripts/animations/map/"+obj.getSimpleName().toLowerCase()+".txt";
 				try {
 					ArrayList<Animation> anim = Animation.createAnimationFromFile(animFile);
-					this.anims.put(nameObj, anim);
-					for (Animation a : anim) {
-						obj.addAnimation(a.clone());
-					}
+					AnimationClip[] clips = new AnimationClip[Status.values().length];
+					for (Animation a : anim)
+						clips[a.getStatus().ordinal()] = a.getClip();
+					this.anims[type] = clips;
 				} catch (Exception e) {
 					throw new ObjectInstanciationException("erreur lors de l'ajout des animations.", obj.getName(), e);
 				}
-			} else {
-				for (Animation a : this.anims.get(nameObj)) {
-					obj.addAnimation(a.clone());
-				}
 			}
+			obj.shareAnimations(this.anims[type]);
 		}
 		
-		// Mise � jour de la table nbObjets
+		// Mise � jour du tableau nbObjets
 		
-		Integer n = this.nbObjets.get(nameObj);
-		if (n == null)
-			n = new Integer(0);
-		this.nbObjets.put(nameObj, new Integer(n.intValue()+1));
+		this.nbObjets[type]++;
 		
 		// Ajout de l'objet � cette carte
 		
-		this.objets.put(obj.getName(), obj);
+		MapObject old = this.objets.put(obj.getName(), obj);
+		if (old != null && old != obj) {
+			old.clearCells();
+			this.unindex(old);
+		}
+		this.index(obj);
 		
 		// Mise � jour de la liste des occupants des cases de la carte
 		
@@ -175,7 +250,8 @@ public class Map {
 	/**
 	 * Supprime un objet de cette carte.
 	 * 
-	 * <p>Cette m�thode met � jour la table nbObjets de cette classe.</p>
+	 * <p>Cette m�thode met � jour le tableau nbObjets de cette classe, et retire l'objet des index de cette carte ainsi
+	 * que des cases qu'il occupait (m�thode clearCells() de la classe MapObject).</p>
 	 * 
 	 * @param name
 	 * 		Le nom de l'objet � supprimer.
@@ -185,35 +261,67 @@ public class Map {
 		if (name == null)
 			return;
 		MapObject obj = this.objets.get(name);
+		if (obj == null)
+			return;
 		
 		// Suppression de l'objet de la carte
 		
-		ArrayList<Case> cells = obj.cells(false);
-		
-		if (cells != null) {
-			for (Case cell : cells) {
-				if (cell != null)
-					cell.removeOccupant(obj);
-			}
-		}
+		obj.clearCells();
 		this.objets.remove(name);
+		this.unindex(obj);
 		
-		// Simplification du nom de l'objet
+		// Mise � jour du champ correspondant dans le tableau nbObjets
 		
-		String nameObj;
-		Pattern pattern = Pattern.compile("^[A-Za-z0-9]*");
-		Matcher matcher = pattern.matcher(name);
-		if (matcher.find())
-			nameObj = matcher.group();
-		else
+		this.ensureType(obj.getTypeId());
+		this.nbObjets[obj.getTypeId()]--;
+		
+	}
+	
+	/**
+	 * Agrandit les tableaux index�s par type de cette carte pour qu'ils contiennent un type donn�.
+	 * 
+	 * @param type
+	 * 		L'identifiant du type.
+	 */
+	private void ensureType(int type) {
+		
+		if (type < this.nbObjets.length)
 			return;
+		int size = Math.max(type+1, ObjectTypeRegistry.size());
+		this.nbObjets = Arrays.copyOf(this.nbObjets, size);
+		this.anims = Arrays.copyOf(this.anims, size);
 		
-		// Mise � jour du champ correspondant dans la table nbObjets
+	}
+	
+	/**
+	 * Retourne le nombre d'objets d'un type pr�sents sur cette carte.
+	 * 
+	 * @param type
+	 * 		L'identifiant du type (m�thode getTypeId() de la classe MapObject, ou m�thode id(String) de la classe
+	 * ObjectTypeRegistry).
+	 * @return
+	 * 		Le nombre d'objets de ce type, ou 0 si aucun objet de ce type n'a jamais �t� ajout� � cette carte.
+	 */
+	public int nbObjectsOfType(int type) {
+		
+		if (type < 0 || type >= this.nbObjets.length)
+			return 0;
+		
+		return this.nbObjets[type];
+		
+	}
+	
+	/**
+	 * Retourne le nombre d'objets d'un type pr�sents sur cette carte.
+	 * 
+	 * @param simpleName
+	 * 		Le nom simplifi� du type (par exemple "Citrouille").
+	 * @return
+	 * 		Le nombre d'objets de ce type, ou 0 si ce type est inconnu.
+	 */
+	public int nbObjectsOfType(String simpleName) {
 		
-		Integer n = this.nbObjets.get(nameObj);
-		if (n == null)
-			n = new Integer(0);
-		this.nbObjets.put(nameObj, new Integer(n.intValue()-1));
+		return this.nbObjectsOfType(ObjectTypeRegistry.find(simpleName));
 		
 	}
 	
@@ -241,7 +349,8 @@ public class Map {
 	 * Remplace la case aux indices sp�cifi�s par la case pass�e en param�tre.
 	 * 
 	 * <p>Si les indices ne sont pas valides (hors tableau), ou si la case pass�e en param�tre est null, la case n'est pas
-	 * modifi�e.</p>
+	 * modifi�e. Sinon, les occupants de l'ancienne case sont report�s sur la nouvelle, et le bloc de terrain contenant
+	 * la case est marqu� comme modifi�.</p>
 	 * 
 	 * @param x
 	 * 		L'indice de la colonne de la case � remplacer.
@@ -256,7 +365,32 @@ public class Map {
 			return;
 		if (cell == null)
 			return;
+		if (this.carte[x][y] != null && this.carte[x][y] != cell) {
+			for (MapObject obj : this.carte[x][y].occupantSet())
+				cell.addOccupant(obj);
+		}
 		this.carte[x][y] = cell;
+		this.chunks[x/Constantes.cellPerChunk][y/Constantes.cellPerChunk].invalidate();
+		
+	}
+	
+	/**
+	 * Marque comme modifi� le bloc de terrain contenant la case pass�e en param�tre.
+	 * 
+	 * <p>Cette m�thode est appel�e par la case quand ses textures changent. Si la case est null ou hors de cette carte,
+	 * rien n'est fait.</p>
+	 * 
+	 * @param cell
+	 * 		La case modifi�e.
+	 */
+	public void cellChanged(Case cell) {
+		
+		if (cell == null)
+			return;
+		int x = (int) (cell.getX()/Constantes.sizeCell), y = (int) (cell.getY()/Constantes.sizeCell);
+		if (x < 0 || x >= this.carte.length || y < 0 || y >= this.carte[x].length)
+			return;
+		this.chunks[x/Constantes.cellPerChunk][y/Constantes.cellPerChunk].invalidate();
 		
 	}
 	
@@ -296,6 +430,54 @@ public class Map {
 		return cells;
 		
 	}
+	
+	/**
+	 * Renvoie une liste (ArrayList) des blocs de terrain de cette carte.
+	 * 
+	 * <p>Les instances de TerrainChunk dans cette liste sont les originales.</p>
+	 * 
+	 * @return
+	 * 		La liste des blocs de terrain de cette carte.
+	 */
+	public ArrayList<TerrainChunk> chunks() {
+		
+		ArrayList<TerrainChunk> chks = new ArrayList<TerrainChunk>();
+		for (TerrainChunk[] cs : this.chunks) {
+			for (TerrainChunk c : cs)
+				chks.add(c);
+		}
+		return chks;
+		
+	}
+	
+	/**
+	 * Retourne le nombre de blocs de terrain de cette carte.
+	 * 
+	 * @return
+	 * 		Le nombre de blocs de terrain.
+	 */
+	public int nbChunks() {
+		return this.chunks.length*this.chunks[0].length;
+	}
+	
+	/**
+	 * Retourne un bloc de terrain de cette carte selon son rang.
+	 * 
+	 * <p>Les blocs sont num�rot�s colonne par colonne, dans le m�me ordre que la liste retourn�e par la m�thode
+	 * chunks(). Cette m�thode permet de les parcourir sans construire cette liste.</p>
+	 * 
+	 * @param n
+	 * 		Le rang du bloc, compris entre 0 et nbChunks()-1.
+	 * @return
+	 * 		Le bloc de rang n, ou null si n est en dehors de ces bornes.
+	 */
+	public TerrainChunk chunk(int n) {
+		
+		if (n < 0 || n >= this.nbChunks())
+			return null;
+		return this.chunks[n/this.chunks[0].length][n%this.chunks[0].length];
+		
+	}
 
 	/**
 	 * Retourne une copie de la table des objets de cette carte.
@@ -309,6 +491,249 @@ public class Map {
 	public HashMap<String, MapObject> objets() {
 		return (HashMap<String, MapObject>) this.objets.clone();
 	}
+	
+	/**
+	 * Retourne l'objet de cette carte portant le nom sp�cifi�.
+	 * 
+	 * <p>Contrairement � la m�thode objets() de cette classe, cette m�thode ne copie pas la table des objets.</p>
+	 * 
+	 * @param name
+	 * 		Le nom de l'objet.
+	 * @return
+	 * 		L'objet portant ce nom, ou null s'il n'existe pas.
+	 */
+	public MapObject object(String name) {
+		return this.objets.get(name);
+	}
+	
+	/**
+	 * Retourne le nombre d'objets de cette carte.
+	 * 
+	 * @return
+	 * 		Le nombre d'objets de cette carte.
+	 */
+	public int nbObjects() {
+		return this.objectList.size();
+	}
+	
+	/**
+	 * Retourne un objet de cette carte selon son rang.
+	 * 
+	 * <p>Cette m�thode permet de parcourir les objets de cette carte sans copier la table objets. L'instance retourn�e
+	 * est l'originale. Le rang d'un objet peut changer lorsqu'un autre objet est supprim� de cette carte.</p>
+	 * 
+	 * @param n
+	 * 		Le rang de l'objet, compris entre 0 et nbObjects()-1.
+	 * @return
+	 * 		L'objet de rang n, ou null si n est en dehors de ces bornes.
+	 */
+	public MapObject object(int n) {
+		return this.objectList.get(n);
+	}
+	
+	/**
+	 * Ajoute un objet aux index de cette carte.
+	 * 
+	 * @param obj
+	 * 		L'objet � indexer.
+	 */
+	private void index(MapObject obj) {
+		
+		this.objectList.add(obj);
+		if (obj instanceof ShootingObject)
+			this.shooters.add((ShootingObject) obj);
+		if (obj instanceof MapCharacter)
+			this.characters.add((MapCharacter) obj);
+		if (obj instanceof Projectile)
+			this.projectiles.add((Projectile) obj);
+		if (obj.isToUpdate())
+			this.scheduler.schedule(obj);
+			
+	}
+	
+	/**
+	 * Retire un objet des index de cette carte.
+	 * 
+	 * @param obj
+	 * 		L'objet � retirer.
+	 */
+	private void unindex(MapObject obj) {
+		
+		this.objectList.remove(obj);
+		this.shooters.remove(obj);
+		this.characters.remove(obj);
+		this.projectiles.remove(obj);
+		this.scheduler.cancel(obj);
+		
+	}
+	
+	/**
+	 * Ajoute un objet � l'ordonnanceur de cette carte, ou l'en retire, apr�s une modification du champ toUpdate de cet
+	 * objet.
+	 * 
+	 * <p>Si l'objet n'appartient pas � cette carte, cette m�thode ne fait rien.</p>
+	 * 
+	 * @param obj
+	 * 		L'objet modifi�.
+	 */
+	public void toUpdateChanged(MapObject obj) {
+		
+		if (obj == null || this.objets.get(obj.getName()) != obj)
+			return;
+		
+		if (obj.isToUpdate())
+			this.scheduler.schedule(obj);
+		else
+			this.scheduler.cancel(obj);
+			
+	}
+	
+	/**
+	 * Retourne une liste (ArrayList) des objets de cette carte dont la mise � jour est due.
+	 * 
+	 * <p>Seuls les objets dont la m�thode isToUpdate() renvoie vrai et dont le temps �coul� depuis le compteur de temps
+	 * d�passe le d�lai de mise � jour sont retourn�s (m�thode wake(long) de la classe UpdateScheduler). Le compteur de
+	 * temps de ces objets doit ensuite �tre r�initialis� au temps pass� en param�tre.</p>
+	 * <p>La liste retourn�e peut �tre parcourue pendant que des objets sont ajout�s ou supprim�s de cette carte. Les
+	 * instances de MapObject sont les originales.</p>
+	 * 
+	 * @param temps
+	 * 		Le temps actuel.
+	 * @return
+	 * 		La liste des objets � mettre � jour.
+	 */
+	public ArrayList<MapObject> dueObjects(long temps) {
+		return this.scheduler.wake(temps);
+	}
+	
+	/**
+	 * Retourne le nombre d'objets r�veill�s lors du dernier appel � la m�thode dueObjects(long).
+	 * 
+	 * @return
+	 * 		Le nombre d'objets mis � jour lors de la derni�re mise � jour de la carte.
+	 */
+	public int getNbWoken() {
+		return this.scheduler.getNbWoken();
+	}
+	
+	/**
+	 * Retourne le nombre d'objets tireurs de cette carte.
+	 * 
+	 * @return
+	 * 		Le nombre d'objets de l'index des objets tireurs.
+	 */
+	public int nbShooters() {
+		return this.shooters.size();
+	}
+	
+	/**
+	 * Retourne un objet tireur de cette carte selon son rang.
+	 * 
+	 * <p>Comme la m�thode object(int), cette m�thode permet de parcourir l'index des objets tireurs sans le copier.</p>
+	 * 
+	 * @param n
+	 * 		Le rang de l'objet, compris entre 0 et nbShooters()-1.
+	 * @return
+	 * 		L'objet de rang n, ou null si n est en dehors de ces bornes.
+	 */
+	public ShootingObject shooter(int n) {
+		return this.shooters.get(n);
+	}
+	
+	/**
+	 * Retourne le nombre de personnages de cette carte.
+	 * 
+	 * @return
+	 * 		Le nombre d'objets de l'index des personnages.
+	 */
+	public int nbCharacters() {
+		return this.characters.size();
+	}
+	
+	/**
+	 * Retourne un personnage de cette carte selon son rang.
+	 * 
+	 * <p>Comme la m�thode object(int), cette m�thode permet de parcourir l'index des personnages sans le copier.</p>
+	 * 
+	 * @param n
+	 * 		Le rang du personnage, compris entre 0 et nbCharacters()-1.
+	 * @return
+	 * 		Le personnage de rang n, ou null si n est en dehors de ces bornes.
+	 */
+	public MapCharacter character(int n) {
+		return this.characters.get(n);
+	}
+	
+	/**
+	 * Retourne le nombre de projectiles de cette carte.
+	 * 
+	 * @return
+	 * 		Le nombre d'objets de l'index des projectiles.
+	 */
+	public int nbProjectiles() {
+		return this.projectiles.size();
+	}
+	
+	/**
+	 * Retourne un projectile de cette carte selon son rang.
+	 * 
+	 * <p>Comme la m�thode object(int), cette m�thode permet de parcourir l'index des projectiles sans le copier.</p>
+	 * 
+	 * @param n
+	 * 		Le rang du projectile, compris entre 0 et nbProjectiles()-1.
+	 * @return
+	 * 		Le projectile de rang n, ou null si n est en dehors de ces bornes.
+	 */
+	public Projectile projectile(int n) {
+		return this.projectiles.get(n);
+	}
+	
+	/**
+	 * Retourne une liste (ArrayList) des objets occupant les cases recouvertes par un rectangle.
+	 * 
+	 * <p>Les cases consid�r�es sont celles dont l'intersection avec le rectangle (bords compris) n'est pas vide. Si le
+	 * param�tre border est vrai, les cases voisines de ces cases sont �galement consid�r�es. Chaque objet n'appara�t
+	 * qu'une seule fois dans la liste retourn�e, m�me s'il occupe plusieurs cases.</p>
+	 * <p>Le co�t de cette m�thode d�pend du nombre d'objets proches du rectangle, et non du nombre total d'objets de la
+	 * carte. Les cases occup�es par un objet �tant celles recouvertes par sa zone d'image, il convient de demander les
+	 * cases voisines lorsque la zone recherch�e peut d�passer de l'image des objets, comme la zone de d�tection.</p>
+	 * 
+	 * @param x
+	 * 		L'abscisse du rectangle.
+	 * @param y
+	 * 		L'ordonn�e du rectangle.
+	 * @param w
+	 * 		La largeur du rectangle.
+	 * @param h
+	 * 		La hauteur du rectangle.
+	 * @param border
+	 * 		Vrai si les cases voisines doivent �tre consid�r�es.
+	 * @return
+	 * 		La liste des objets trouv�s, vide si le rectangle a une largeur ou une hauteur n�gative.
+	 */
+	public ArrayList<MapObject> objectsInRegion(double x, double y, double w, double h, boolean border) {
+		
+		LinkedHashSet<MapObject> objs = new LinkedHashSet<MapObject>();
+		if (w < 0 || h < 0)
+			return new ArrayList<MapObject>();
+		
+		int d = (border)?1:0;
+		int firstCol = Math.max((int) Math.floor(x/Constantes.sizeCell)-d, 0);
+		int lastCol = Math.min((int) Math.floor((x+w)/Constantes.sizeCell)+d, this.nbCasesWidth-1);
+		int firstLine = Math.max((int) Math.floor(y/Constantes.sizeCell)-d, 0);
+		int lastLine = Math.min((int) Math.floor((y+h)/Constantes.sizeCell)+d, this.nbCasesHeight-1);
+		
+		for (int i=firstCol;i<=lastCol;i++) {
+			for (int j=firstLine;j<=lastLine;j++) {
+				Case cell = this.carte[i][j];
+				if (cell != null)
+					objs.addAll(cell.occupantSet());
+			}
+		}
+		
+		return new ArrayList<MapObject>(objs);
+		
+	}
 
 	/**
 	 * Retourne le fichier texture du terrain de cette carte.
@@ -320,4 +745,104 @@ public class Map {
 		return this.terrainID;
 	}
 	
+	/**
+	 * Index d'objets de la carte
+	 * 
+	 * <p>Cette classe range des objets dans une liste sans doublon. Chaque objet conserve son rang dans la liste
+	 * (m�thode indexSlot(int) de la classe MapObject) : l'ajout, le test d'appartenance et le retrait d'un objet ne
+	 * parcourent pas la liste. Lors d'un retrait, le dernier objet de la liste prend la place de l'objet retir�.</p>
+	 * <p>Les objets de cet index doivent �tre des instances de MapObject.</p>
+	 * 
+	 * @param <T>
+	 * 		Le type des objets de cet index.
+	 */
+	private static final class ObjectIndex<T> {
+		
+		/**
+		 * Le num�ro de cet index, indice du rang des objets dans leur tableau indexSlots.
+		 */
+		private final int id;
+		/**
+		 * Les objets de cet index.
+		 */
+		private final ArrayList<T> list;
+		
+		/**
+		 * Constructeur ObjectIndex.
+		 * 
+		 * @param id
+		 * 		Le num�ro de cet index, compris entre 0 et nbIndexes-1.
+		 */
+		ObjectIndex(int id) {
+			
+			this.id = id;
+			this.list = new ArrayList<T>();
+			
+		}
+		
+		/**
+		 * Ajoute un objet � cet index, s'il n'y est pas d�j�.
+		 * 
+		 * @param elem
+		 * 		L'objet � ajouter.
+		 */
+		void add(T elem) {
+			
+			MapObject obj = (MapObject) elem;
+			if (obj.indexSlot(this.id) >= 0)
+				return;
+			obj.setIndexSlot(this.id, this.list.size());
+			this.list.add(elem);
+			
+		}
+		
+		/**
+		 * Retire un objet de cet index, s'il y est.
+		 * 
+		 * @param elem
+		 * 		L'objet � retirer.
+		 */
+		void remove(Object elem) {
+			
+			MapObject obj = (MapObject) elem;
+			int slot = obj.indexSlot(this.id);
+			if (slot < 0)
+				return;
+			T last = this.list.remove(this.list.size()-1);
+			if (slot < this.list.size()) {
+				this.list.set(slot, last);
+				((MapObject) last).setIndexSlot(this.id, slot);
+			}
+			obj.setIndexSlot(this.id, -1);
+			
+		}
+		
+		/**
+		 * Retourne le nombre d'objets de cet index.
+		 * 
+		 * @return
+		 * 		Le nombre d'objets.
+		 */
+		int size() {
+			return this.list.size();
+		}
+		
+		/**
+		 * Retourne un objet de cet index selon son rang.
+		 * 
+		 * @param n
+		 * 		Le rang de l'objet, compris entre 0 et size()-1.
+		 * @return
+		 * 		L'objet de rang n, ou null si n est en dehors de ces bornes.
+		 */
+		T get(int n) {
+			
+			if (n < 0 || n >= this.list.size())
+				return null;
+			return this.list.get(n);
+			
+		}
+		
+	}
+	
 }
@@ -160,7 +160,7 @@ public abstract class MapCharacter extends MapObject {
 	public void playBehavior() {
 		
 		ArrayList<MapObject> objs = new ArrayList<MapObject>();
-		MapObject brume = this.carte.objets().get("Brume");
+		MapObject brume = this.carte.object("Brume");
 		if (brume != null)
 			objs.add(brume);
 		int health = this.characteristic(Characteristic.HP);
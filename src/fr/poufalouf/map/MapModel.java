@@ -1,7 +1,12 @@
 package fr.poufalouf.map;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.lwjgl.Sys;
 import org.lwjgl.input.Keyboard;
@@ -36,10 +41,23 @@ import fr.poufalouf.tools.ZoneType;
  */
 public class MapModel extends Model {
 	
+	/**
+	 * Les valeurs de l'�num�ration ZoneType, copi�es une seule fois plut�t qu'� chaque appel de la m�thode values().
+	 */
+	private static final ZoneType[] zoneTypes = ZoneType.values();
+	
 	/**
 	 * La carte g�r�e par ce mod�le.
 	 */
 	private Map carte;
+	/**
+	 * La graine de la g�n�ration al�atoire de la carte.
+	 */
+	private long seed;
+	/**
+	 * Le g�n�rateur al�atoire du placement des objets de la carte, initialis� avec la graine seed.
+	 */
+	private Random random;
 	/**
 	 * Indique quelles zones doivent �tre affich�es pendant le jeu.
 	 */
@@ -64,12 +82,18 @@ public class MapModel extends Model {
 	 * Le nom de l'adversaire rencontr� lors de l'entr�e en mode combat.
 	 */
 	private String opponent;
+	/**
+	 * Table de hachage stockant les barres de vie des personnages de la carte, r�utilis�es d'une mise � jour �
+	 * l'autre.
+	 */
+	private HashMap<MapCharacter, Bar> lifeBars;
 	
 	/**
 	 * Constructeur MapModel.
 	 * 
 	 * <p>Ce constructeur appelle le constructeur de la classe m�re.</p>
-	 * <p>Le param�tre de ce contructeur doit contenir en premier objet un LoadingScreen.</p>
+	 * <p>Le param�tre de ce contructeur doit contenir en premier objet un LoadingScreen, et peut contenir en second
+	 * objet le nom du fichier d'une image de carte (MapSnapshot) � restaurer.</p>
 	 * <p>Le constructeur Model appelle les deux m�thodes initialize(LoadingScreen) et updateObjects() red�finies dans
 	 * cette classe. L'initialisation de la carte se fait dans la premi�re m�thode. Un bool�en � l'�tat faux est ajout�
 	 * dans la table drawingZone de cette classe pour chaque ZoneType de l'�num�ration.</p>
@@ -82,15 +106,21 @@ public class MapModel extends Model {
 	 * <ul>
 	 * <li>carte : la carte est initialis�e dans la m�thode initialize(LoadingScreen) de cette classe, appel�e par le
 	 * constructeur de la classe m�re. Cette m�thode cr�e une nouvelle Map de dimensions d�finies par les champs
-	 * cellPerMapW et cellPerMapH de la classe Constantes.
+	 * cellPerMapW et cellPerMapH de la classe Constantes, ou restaure l'image de carte pass�e en param�tre.
 	 * Si pour une quelconque raison la carte est toujours null apr�s l'appel � la m�thode initialize(LoadingScreen), une
 	 * nouvelle Map standard est cr��e.</li>
+	 * <li>seed : la graine est initialis�e dans la m�thode initialize(LoadingScreen) de cette classe, au champ mapSeed
+	 * de la classe Constantes s'il n'est pas nul, ou � l'instant pr�sent sinon. Si une image de carte est restaur�e,
+	 * la graine est celle de cette image.</li>
+	 * <li>random : un nouveau g�n�rateur al�atoire (Random) de graine seed, cr�� dans la m�thode
+	 * initialize(LoadingScreen) de cette classe.</li>
 	 * <li>drawingZone : une nouvelle table (HashMap) de Boolean r�f�renc�s par des ZoneType.</li>
 	 * <li>terminated : false.</li>
 	 * <li>arrowKeys : un nouveau tableau d'Orientation dont tous les champs sont initialis�s � Orientation.AUCUNE.</li>
 	 * <li>inCombatMode : false.</li>
 	 * <li>showingDetectionRings : false.</li>
 	 * <li>opponent : "".</li>
+	 * <li>lifeBars : une nouvelle table (HashMap) de Bar r�f�renc�es par des MapCharacter.</li>
 	 * </ul></p>
 	 * 
 	 * @param param
@@ -119,6 +149,7 @@ public class MapModel extends Model {
 		this.inCombatMode = false;
 		this.showingDetectionRings = false;
 		this.opponent = "";
+		this.lifeBars = new HashMap<MapCharacter, Bar>();
 		
 		for (int i=0;i<4;i++)
 			this.arrowKeys[i] = Orientation.AUCUNE;
@@ -126,7 +157,8 @@ public class MapModel extends Model {
 	}
 	
 	/**
-	 * V�rifie que la liste des param�tres contient en premier objet un LoadingScreen.
+	 * V�rifie que la liste des param�tres contient en premier objet un LoadingScreen, et �ventuellement en second objet
+	 * une cha�ne de caract�res.
 	 * 
 	 * @return
 	 * 		Vrai si les param�tres sont corrects.
@@ -138,6 +170,8 @@ public class MapModel extends Model {
 			return false;
 		if (!(param.get(0) instanceof LoadingScreen))
 			return false;
+		if (param.size() > 1 && !(param.get(1) instanceof String))
+			return false;
 		return true;
 		
 	}
@@ -146,25 +180,69 @@ public class MapModel extends Model {
 	 * Initialise ce mod�le en cr�ant une nouvelle carte.
 	 * 
 	 * <p>La carte est g�n�r�e avec les dimensions sp�cifi�es par les champs cellPerMapW et cellPerMapH de la classe
-	 * Constantes. La m�thode generateNewMap(LoadingScreen) de cette classe est ensuite appel�e. Tous les objets de la
-	 * carte se voient assigner un compteur de temps initialis� � la m�me date afin qu'ils soient synchrones dans leurs
-	 * animations. Enfin, la musique du mod�le est initialis�e.</p>
+	 * Constantes. La m�thode generateNewMap(LoadingScreen) de cette classe est ensuite appel�e, avec la graine d�finie
+	 * par le champ mapSeed de la classe Constantes, ou une graine tir�e au hasard si ce champ est nul. Tous les objets
+	 * de la carte se voient assigner un compteur de temps initialis� � la m�me date afin qu'ils soient synchrones dans
+	 * leurs animations. Enfin, la musique du mod�le est initialis�e.</p>
+	 * <p>Si le nom d'un fichier existant est pass� en second param�tre, la carte est restaur�e depuis cette image
+	 * (classe MapSnapshot) au lieu d'�tre g�n�r�e, avec sa graine d'origine. Si ce fichier ne peut pas �tre lu, la
+	 * carte est g�n�r�e normalement. Une carte g�n�r�e est enregistr�e dans le fichier d�fini par le champ
+	 * mapSnapshotFileName de la classe Constantes ; si cet enregistrement �choue, la partie continue sans image.</p>
+	 * <p>Si le champ showFrameStats de la classe Constantes est vrai, la graine et la dur�e de la g�n�ration (ou de la
+	 * restauration) sont �crites sur la sortie standard.</p>
 	 * 
 	 * @param param
-	 * 		L'�cran de chargement affichant la progression de l'initialisation. Il est pass� � la m�thode
-	 * generateNewMap(LoadingScreen) de cette classe.
+	 * 		L'�cran de chargement affichant la progression de l'initialisation, pass� � la m�thode
+	 * generateNewMap(LoadingScreen) de cette classe, puis �ventuellement le nom du fichier de l'image de carte �
+	 * restaurer.
 	 */
 	@Override
 	public void initialize(ArrayList<Object> param) throws InitializationException {
 		
 		LoadingScreen ldScreen = (LoadingScreen) param.get(0);
-		this.carte = new Map(Constantes.cellPerMapW, Constantes.cellPerMapH,
-				"res/textures/map/terrain/pumpkins/terrain.png");
-		try {
-			generateNewMap(ldScreen);
-		} catch (Exception e) {
-			throw new InitializationException("erreur lors de la g�n�ration de la carte.", e);
+		String snapshotFile = (param.size() > 1)?(String) param.get(1):null;
+		long debut = System.nanoTime();
+		
+		// Restauration de l'image de carte
+		
+		if (snapshotFile != null && new File(snapshotFile).isFile()) {
+			try {
+				MapSnapshot snapshot = new MapSnapshot(snapshotFile);
+				this.carte = snapshot.restore();
+				this.seed = snapshot.getSeed();
+				this.random = new Random(this.seed);
+				this.addLandscapes();
+				ldScreen.update(1);
+				if (Constantes.showFrameStats)
+					System.out.println("Carte restaur�e (graine "+this.seed+") en "+(System.nanoTime()-debut)/1000000+
+							" ms");
+			} catch (Exception e) {
+				e.printStackTrace();
+				this.carte = null;
+			}
 		}
+		
+		// G�n�ration d'une nouvelle carte
+		
+		if (this.carte == null) {
+			this.carte = new Map(Constantes.cellPerMapW, Constantes.cellPerMapH,
+					"res/textures/map/terrain/pumpkins/terrain.png");
+			this.seed = (Constantes.mapSeed != 0)?Constantes.mapSeed:System.nanoTime();
+			this.random = new Random(this.seed);
+			try {
+				generateNewMap(ldScreen);
+			} catch (Exception e) {
+				throw new InitializationException("erreur lors de la g�n�ration de la carte.", e);
+			}
+			if (Constantes.showFrameStats)
+				System.out.println("Carte g�n�r�e (graine "+this.seed+") en "+(System.nanoTime()-debut)/1000000+" ms");
+			try {
+				MapSnapshot.save(this.carte, this.seed, Constantes.mapSnapshotFileName);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		
 		long temps = Sys.getTime();
 		for (MapObject obj : this.carte.objets().values()) {
 			obj.setCompteurTemps(temps);
@@ -205,6 +283,9 @@ public class MapModel extends Model {
 	 * <p>Pendant la g�n�ration de cette carte al�atoire, l'�cran de chargement pass� en param�tre est mis � jour en
 	 * fonction de l'�volution de la g�n�ration. Il est affich� dans le thread de jeu pendant que cette m�thode
 	 * tourne.</p>
+	 * <p>Les cases et le terrain sont g�n�r�s en parall�le par un TerrainGenerator, sur un ForkJoinPool cr�� pour
+	 * l'occasion. Tous les tirages al�atoires d�pendent de la graine seed de ce mod�le, de sorte qu'une m�me graine
+	 * produit toujours la m�me carte.</p>
 	 * 
 	 * @param ldScreen
 	 * 		L'�cran de chargement affichant la progression de la g�n�ration. S'il est null, rien n'est fait.
@@ -216,17 +297,6 @@ public class MapModel extends Model {
 		if (ldScreen == null)
 			return;
 		
-		// G�n�ration des cases
-		
-		for (int i=0;i<this.carte.getNbCasesWidth();i++) {
-			for (int j=0;j<this.carte.getNbCasesHeight();j++) {
-				this.carte.replaceCell(i, j, new Case(this.carte,
-						i*Constantes.sizeCell,j*Constantes.sizeCell,
-						Constantes.sizeCell, Constantes.sizeCell, this.carte.getTerrainID(),
-						(int) (Math.random()*1)));
-			}
-		}
-		
 		// D�termination du nombre d'objets � placer
 		
 		int nbCitrouilles = 2000;
@@ -242,12 +312,19 @@ public class MapModel extends Model {
 		ArrayList<MapObject> objs = new ArrayList<MapObject>();
 		ArrayList<CaseType> caseTypes = new ArrayList<CaseType>();
 		
-		// G�n�ration de la terre et de l'eau
+		// G�n�ration des cases, de la terre et de l'eau
 		
-		this.generateTerrain(2, 240, 300, 3, CaseType.SOLID2, true);
-		ldScreen.update((float) (Constantes.cellPerMapW*Constantes.cellPerMapH)/totalAttente);
-		this.generateTerrain(1, 248, 400, 3, CaseType.WATER, false);
-		ldScreen.update((float) (2*Constantes.cellPerMapW*Constantes.cellPerMapH)/totalAttente);
+		ForkJoinPool pool = new ForkJoinPool();
+		TerrainGenerator terrain = new TerrainGenerator(this.carte, this.seed, pool);
+		try {
+			terrain.createCells();
+			terrain.generate(2, 240, 300, 3, CaseType.SOLID2, true);
+			ldScreen.update((float) (Constantes.cellPerMapW*Constantes.cellPerMapH)/totalAttente);
+			terrain.generate(1, 248, 400, 3, CaseType.WATER, false);
+			ldScreen.update((float) (2*Constantes.cellPerMapW*Constantes.cellPerMapH)/totalAttente);
+		} finally {
+			pool.shutdown();
+		}
 		try {
 			Thread.sleep(50); // Pour s'assurer que la barre de chargement se compl�te.
 		} catch (InterruptedException e) {
@@ -264,10 +341,10 @@ public class MapModel extends Model {
 		do {
 			int cmpt = 0;
 			cnt = false;
-			col = (int) this.carte.objets().get("Poufalouf").getX()/Constantes.sizeCell 
-				+ (int) (Math.random()*10) - 5;
-			line = (int) this.carte.objets().get("Poufalouf").getY()/Constantes.sizeCell 
-			+ (int) (Math.random()*10) - 5;
+			col = (int) this.carte.object("Poufalouf").getX()/Constantes.sizeCell
+				+ this.random.nextInt(10) - 5;
+			line = (int) this.carte.object("Poufalouf").getY()/Constantes.sizeCell
+			+ this.random.nextInt(10) - 5;
 			if (line >= this.carte.getNbCasesHeight()-22)
 				line = this.carte.getNbCasesHeight()-23;
 			if (col >= this.carte.getNbCasesWidth()-22)
@@ -276,7 +353,7 @@ public class MapModel extends Model {
 				line = 23;
 			if (col <= 22)
 				col = 23;
-			if (this.carte.cell(col, line).occupants().size() > 0)
+			if (this.carte.cell(col, line).nbOccupants() > 0)
 				cnt = true;
 			if (this.carte.cell(col, line).getType() == CaseType.WATER)
 				cnt = true;
@@ -373,130 +450,27 @@ public class MapModel extends Model {
 		
 		// Ajout de la brume
 		
-		this.carte.addObject(new Landscape("Boue", this.carte, null, new Rectangle(0, 0,
-				Constantes.cellPerMapW*Constantes.sizeCell/4, Constantes.cellPerMapH*Constantes.sizeCell/4),
-				"res/textures/map/terrain/pumpkins/boue.png", 0, -Constantes.maxPlan+3), false);
-		this.carte.addObject(new Landscape("Brume", this.carte, Orientation.OUEST, new Rectangle(0, 0,
-				Constantes.cellPerMapW*Constantes.sizeCell/2, Constantes.cellPerMapH*Constantes.sizeCell/2),
-				"res/textures/map/terrain/pumpkins/brume.png", 2, Constantes.maxPlan-3), false);
+		this.addLandscapes();
 
 	}
 	
 	/**
-	 * G�n�re une portion de terrain.
+	 * Ajoute les d�cors de type Landscape � la carte de ce mod�le.
 	 * 
-	 * <p>Une case de texture dont le num�ro est sp�cifi� en param�tre est ajout�e � la carte en remplacement d'une case
-	 * existante, al�atoirement � une fr�quence sp�cifi�e en param�tre. Puis, les cases l'entourant sont �galement
-	 * modifi�es avec une probabilit� sp�cifi�e en param�tre, afin de cr�er une nappe. Cette nappe est ensuite bord�e
-	 * gr�ce � une suite de huit textures cons�cutives dans le fichier texture du terrain (dans l'ordre bordures EST,
-	 * OUEST, NORD, SUD, SUD_EST, NORD_OUEST, NORD_EST, SUD_OUEST). Les cases modifi�es prennent le type pass� en
-	 * param�tre.</p>
-	 * <p>En fonction du type de bordures choisie (� l'int�rieur ou � l'ext�rieur), les bordures seront plac�es sur les
-	 * cases modifi�es o� sur leurs voisines.</p>
-	 * <p>Si un MapObject n'autorisant pas le type de case pass� en param�tre est rencontr�, alors la case n'est pas
-	 * modifi�e.</p>
+	 * <p>Ces d�cors ne sont pas enregistr�s dans les images de carte (classe MapSnapshot) : cette m�thode est appel�e
+	 * aussi bien apr�s la g�n�ration d'une carte qu'apr�s sa restauration.</p>
 	 * 
-	 * @param textureNb
-	 * 		Le num�ro de la texture.
-	 * @param borderTextureNb
-	 * 		Le num�ro de la premi�re des huit textures de la bordure.
-	 * @param freq
-	 * 		La fr�quence d'apparition de la texture. Si ce param�tre est 500, alors il y a une chance sur 500 pour
-	 * que la case soit remplac�e.
-	 * @param neighbourFreq
-	 * 		La fr�quence d'apparition de la texture � c�t� d'une case d�j� modifi�e. Si ce param�tre est 2, alors il
-	 * y a une chance sur 2 pour que la case soit remplac�e.
-	 * @param type
-	 * 		Le type de la case.
-	 * @param borderOutside
-	 * 		Vrai si les bordures doivent �tre � l'ext�rieur des cases modifi�es.
+	 * @throws ObjectInstanciationException
+	 * 		si une erreur survient lors de l'ajout d'un d�cor � la carte.
 	 */
-	private void generateTerrain(int textureNb, int borderTextureNb, int freq, int neighbourFreq, CaseType type,
-			boolean borderOutside) {
+	private void addLandscapes() throws ObjectInstanciationException {
 		
-		for (Case cell : this.carte.cells()) {
-			if (cell == null)
-				continue;
-			if ((int) (Math.random()*freq) == 0) {
-				cell.clearTextures();
-				cell.replaceTextureNumber(0, textureNb);
-				if (type != null)
-					cell.setType(type);
-			} else {
-				for (Orientation or : Orientation.values()) {
-					if (cell.nextCell(or) != null) {
-						if (cell.nextCell(or).textureNumber(0) == textureNb)
-							if ((int) (Math.random()*neighbourFreq) == 0) {
-								cell.clearTextures();
-								cell.replaceTextureNumber(0, textureNb);
-								if (type != null)
-									cell.setType(type);
-							}
-					}
-				}
-			}
-		}
-		if (borderOutside) {
-			for (Case cell : this.carte.cells()) {
-				for (Orientation or : Orientation.values()) {
-					if (cell.nextCell(or) != null && cell.textureNumber(0) != textureNb) {
-						if (cell.nextCell(or).textureNumber(0) == textureNb) {
-							switch (or) {
-							case NORD:
-								cell.addTextureNumber(borderTextureNb+3);
-								break;
-							case NORD_EST:
-								cell.addTextureNumber(borderTextureNb+7);
-								break;
-							case NORD_OUEST:
-								cell.addTextureNumber(borderTextureNb+4);
-								break;
-							case SUD:
-								cell.addTextureNumber(borderTextureNb+2);
-								break;
-							case SUD_EST:
-								cell.addTextureNumber(borderTextureNb+5);
-								break;
-							case SUD_OUEST:
-								cell.addTextureNumber(borderTextureNb+6);
-								break;
-							case EST:
-								cell.addTextureNumber(borderTextureNb+1);
-								break;
-							case OUEST:
-								cell.addTextureNumber(borderTextureNb);
-								break;
-							default:
-							}
-						}
-					}
-				}
-			}
-		} else {
-			for (Case cell : this.carte.cells()) {
-				for (Orientation or : Orientation.values()) {
-					if (cell.textureNumber(0) == textureNb && cell.nextCell(or) != null) {
-						if (cell.nextCell(or).textureNumber(0) != textureNb) {
-							switch (or) {
-							case NORD:
-								cell.addTextureNumber(borderTextureNb+3);
-								break;
-							case SUD:
-								cell.addTextureNumber(borderTextureNb+2);
-								break;
-							case EST:
-								cell.addTextureNumber(borderTextureNb+1);
-								break;
-							case OUEST:
-								cell.addTextureNumber(borderTextureNb);
-								break;
-							default:
-							}
-						}
-					}
-				}
-			}
-		}
+		this.carte.addObject(new Landscape("Boue", this.carte, null, new Rectangle(0, 0,
+				Constantes.cellPerMapW*Constantes.sizeCell/4, Constantes.cellPerMapH*Constantes.sizeCell/4),
+				"res/textures/map/terrain/pumpkins/boue.png", 0, -Constantes.maxPlan+3), false);
+		this.carte.addObject(new Landscape("Brume", this.carte, Orientation.OUEST, new Rectangle(0, 0,
+				Constantes.cellPerMapW*Constantes.sizeCell/2, Constantes.cellPerMapH*Constantes.sizeCell/2),
+				"res/textures/map/terrain/pumpkins/brume.png", 2, Constantes.maxPlan-3), false);
 		
 	}
 	
@@ -506,8 +480,10 @@ public class MapModel extends Model {
 	 * <p>Cette m�thode place les objets pass�s en param�tre sur des cases dont le type n'est dans la liste des types
 	 * interdits (forbiddenTypes), et qui n'est pas d�j� occup�e par un autre objet si le bool�en overOtherObjects est
 	 * vrai.</p>
-	 * <p>Chaque objet a le droit � 100 essais de
-	 * placement avant abandon, afin d'�viter les boucles infinies si les crit�res ne peuvent pas �tre respect�s.</p>
+	 * <p>Les cases respectant ces crit�res sont recens�es une seule fois dans une liste de cases libres, dans laquelle
+	 * chaque objet tire sa case gr�ce au g�n�rateur al�atoire random de ce mod�le. Si les objets ne peuvent pas se
+	 * superposer, la case tir�e est retir�e de la liste, et une case occup�e entre-temps par un autre objet est
+	 * �cart�e au moment du tirage. Lorsque la liste est vide, les objets restants ne sont pas plac�s.</p>
 	 * <p>Une marge sous forme de couronne carr�e partant de l'ext�rieur peut �tre d�finie (en nombre de cases, param�tre
 	 * margin), pour forcer les objets � se placer au centre de la carte. Sur une carte de 50x50 par exemple, une marge
 	 * de 5 force l'objet � se placer sur le carr� central 40x40.</p>
@@ -526,29 +502,39 @@ public class MapModel extends Model {
 	private void putMapObjects(ArrayList<MapObject> objets, ArrayList<CaseType> forbiddenTypes, boolean overOtherObjects,
 			int margin) throws ObjectInstanciationException {
 		
-		int col, line, cmpt;
-		boolean cnt;
-		if (objets == null)
+		int w = this.carte.getNbCasesWidth()-2*margin, h = this.carte.getNbCasesHeight()-2*margin;
+		if (objets == null || w <= 0 || h <= 0)
 			return;
+		
+		// Recensement des cases libres
+		
+		int[] free = new int[w*h];
+		int nbFree = 0;
+		for (int i=margin;i<margin+w;i++) {
+			for (int j=margin;j<margin+h;j++) {
+				if (isFree(this.carte.cell(i, j), forbiddenTypes, overOtherObjects))
+					free[nbFree++] = i*h+j-margin;
+			}
+		}
+		
+		// Tirage des cases
+		
+		int k, col = 0, line = 0;
+		boolean found;
 		for (MapObject o : objets) {
 			if (o == null)
 				continue;
-			cmpt = 0;
-			do {
-				cnt = false;
-				col = margin + (int) (Math.random()*(this.carte.getNbCasesWidth()-2*margin));
-				line = margin + (int) (Math.random()*(this.carte.getNbCasesHeight()-2*margin));
-				if (!overOtherObjects && this.carte.cell(col, line).occupants().size() > 0)
-					cnt = true;
-				if (forbiddenTypes != null)
-					if (forbiddenTypes.contains(this.carte.cell(col, line).getType()))
-						cnt = true;
-				cmpt++;
-				if (cmpt >= 100)
-					break;
-			} while (cnt);
-			if (cmpt >= 100)
-				continue;
+			found = false;
+			while (nbFree > 0 && !found) {
+				k = this.random.nextInt(nbFree);
+				col = free[k]/h;
+				line = free[k]%h+margin;
+				if (!overOtherObjects)
+					free[k] = free[--nbFree];
+				found = isFree(this.carte.cell(col, line), forbiddenTypes, overOtherObjects);
+			}
+			if (!found)
+				break;
 			o.displace(col*Constantes.sizeCell, line*Constantes.sizeCell);
 			
 			this.carte.addObject(o, true);
@@ -556,6 +542,30 @@ public class MapModel extends Model {
 		
 	}
 	
+	/**
+	 * Indique si une case peut recevoir un objet plac� par la m�thode putMapObjects de cette classe.
+	 * 
+	 * @param cell
+	 * 		La case.
+	 * @param forbiddenTypes
+	 * 		Les types de cases interdits.
+	 * @param overOtherObjects
+	 * 		Vrai si l'objet peut �tre plac� sur une case d�j� occup�e par un MapObject.
+	 * @return
+	 * 		Vrai si la case n'est pas null, si son type n'est pas interdit et, lorsque overOtherObjects est faux, si
+	 * elle n'est occup�e par aucun objet.
+	 */
+	private static boolean isFree(Case cell, ArrayList<CaseType> forbiddenTypes, boolean overOtherObjects) {
+		
+		if (cell == null)
+			return false;
+		if (!overOtherObjects && cell.nbOccupants() > 0)
+			return false;
+		
+		return forbiddenTypes == null || !forbiddenTypes.contains(cell.getType());
+		
+	}
+	
 	/**
 	 * Met � jour l'orientation de Poufalouf en fonction des touches entr�es par l'utilisateur.
 	 * 
@@ -640,23 +650,30 @@ public class MapModel extends Model {
 	 * Met � jour la liste des objets Drawable servant � mettre � jour les observateurs de ce mod�le.
 	 * 
 	 * <p>Efface tous les objets de la liste des Drawable de la classe Model (m�thode clearDrawable() de cette classe),
-	 * puis y ajoute toutes les Case suivies des MapObject de la carte, puis de la brume.</p>
+	 * puis y ajoute tous les blocs de terrain (TerrainChunk) suivis des MapObject de la carte, puis de la brume. Les
+	 * blocs de terrain conservent leur image tant que les textures de leurs cases ne changent pas.</p>
 	 * <p>Si les bool�ens drawZone de cette classe sont � l'�tat vrai, alors cette m�thode envoie �galement les rectangles
 	 * des zones visibles de chaque objet � la liste des Drawable.</p>
 	 * <p>Enfin, pour les objets poss�dant une zone de d�tection, si le bool�en showingDetectionRings est � l'�tat vrai,
 	 * alors un anneau de d�tection est ajout� sous forme d'image textur�e.</p>
+	 * <p>Les objets de la carte sont parcourus par leur rang (m�thodes nbObjects() et object(int) de la classe Map), sans
+	 * copie de la table des objets. La barre de vie de chaque personnage est conserv�e dans la table lifeBars et
+	 * seulement mise � jour ; les barres des personnages retir�s de la carte sont supprim�es de cette table.</p>
 	 */
 	@Override
 	public void updateObjects() {
 		
 		this.clearDrawables();
 
-		for (Case cell : this.carte.cells()) {
-			this.addDrawable(cell);
+		for (int i=0;i<this.carte.nbChunks();i++) {
+			this.addDrawable(this.carte.chunk(i));
 		}
-		for (MapObject objet : this.carte.objets().values()) {
+		
+		int nbCharacters = 0;
+		for (int i=0;i<this.carte.nbObjects();i++) {
+			MapObject objet = this.carte.object(i);
 			this.addDrawable(objet);
-			for (ZoneType z : ZoneType.values()) {
+			for (ZoneType z : zoneTypes) {
 				if (this.isDrawing(z))
 					this.addDrawable(objet.zone(z));
 			}
@@ -665,11 +682,27 @@ public class MapModel extends Model {
 				MapCharacter perso = (MapCharacter) objet;
 				health = perso.characteristic(Characteristic.HP);
 				maxHealth = perso.characteristic(Characteristic.HPMAX);
-				this.addDrawable(new Bar("Barre de vie "+objet.getName(), "res/textures/misc/barreDeVie.png",
-						(double) health/maxHealth, objet.getX(),
-						objet.getY()-(int) (Constantes.sizeCell*Constantes.sizeTextureFragment)-4-
-						objet.getHauteur()*Constantes.sizeHStep,
-						Constantes.sizeCell, (int) (Constantes.sizeCell*Constantes.sizeTextureFragment)));
+				Bar bar = this.lifeBars.get(perso);
+				if (bar == null) {
+					bar = new Bar("Barre de vie "+objet.getName(), "res/textures/misc/barreDeVie.png", 0, 0, 0,
+							Constantes.sizeCell, (int) (Constantes.sizeCell*Constantes.sizeTextureFragment));
+					this.lifeBars.put(perso, bar);
+				}
+				bar.setRate((double) health/maxHealth);
+				bar.setX(objet.getX());
+				bar.setY(objet.getY()-(int) (Constantes.sizeCell*Constantes.sizeTextureFragment)-4-
+						objet.getHauteur()*Constantes.sizeHStep);
+				this.addDrawable(bar);
+				nbCharacters++;
+			}
+		}
+		// Suppression des barres de vie des personnages retir�s de la carte
+		if (this.lifeBars.size() > nbCharacters) {
+			Iterator<MapCharacter> it = this.lifeBars.keySet().iterator();
+			while (it.hasNext()) {
+				MapCharacter perso = it.next();
+				if (this.carte.object(perso.getName()) != perso)
+					it.remove();
 			}
 		}
 		if (this.showingDetectionRings) {
@@ -722,6 +755,11 @@ public class MapModel extends Model {
 	 * </ul></p>
 	 * 
 	 * <p>Enfin, cette m�thode supprime de la carte tous les objets marqu�s finished.</p>
+	 * <p>Les objets � mettre � jour sont fournis par l'ordonnanceur de la carte, qui ne r�veille que ceux dont le d�lai
+	 * de mise � jour est �coul�. Les tireurs, les personnages et les projectiles sont parcourus dans les index tenus �
+	 * jour par la carte, sans copie.
+	 * Les tests d'activation et de d�tection ne portent que sur les objets occupant les cases proches de la zone
+	 * test�e (m�thode objectsInRegion de la classe Map), et non sur tous les objets de la carte.</p>
 	 * 
 	 * @throws UpdateException
 	 * 		si une erreur survient lors de la mise � jour d'un objet.
@@ -733,7 +771,7 @@ public class MapModel extends Model {
 		
 		long temps = Sys.getTime();
 		
-		Poufalouf poufalouf = (Poufalouf) this.carte.objets().get("Poufalouf");
+		Poufalouf poufalouf = (Poufalouf) this.carte.object("Poufalouf");
 		
 		// V�rification des contr�les utilisateurs
 		
@@ -794,25 +832,7 @@ public class MapModel extends Model {
 		
 		// Mise � jour des objets
 		
-		ArrayList<MapObject> moving = new ArrayList<MapObject>(); // liste pour plus tard
-		ArrayList<ActivableObject> activs = new ArrayList<ActivableObject>();
-		ArrayList<ShootingObject> shooters = new ArrayList<ShootingObject>();
-		ArrayList<MapObject> ennemies = new ArrayList<MapObject>();
-		
-		ArrayList<MapObject> objets = new ArrayList<MapObject>();
-		for (MapObject o : this.carte.objets().values()) {
-			if (o instanceof MapCharacter || o instanceof Projectile)
-				moving.add(o);
-			if (o instanceof ActivableObject)
-				activs.add((ActivableObject) o);
-			if (o instanceof ShootingObject)
-				shooters.add((ShootingObject) o);
-			if (o instanceof Douni)
-				ennemies.add(o);
-			if (o.isToUpdate())
-				objets.add(o);
-		}
-		for (MapObject obj : objets) {
+		for (MapObject obj : this.carte.dueObjects(temps)) {
 			if (obj == null)
 				continue;
 			if (temps-obj.getCompteurTemps() > obj.getDelayUpdate()) {
@@ -878,34 +898,24 @@ public class MapModel extends Model {
 		
 		// V�rification des collisions entre zones
 		
-		for (ShootingObject o : shooters) {
+		for (int i=0;i<this.carte.nbShooters();i++) {
+			ShootingObject o = this.carte.shooter(i);
 			for (Projectile p : o.projectiles()) {
-				if (p != null && !this.carte.objets().containsKey(p.getName())) {
+				if (p != null && this.carte.object(p.getName()) == null) {
 					p.setCompteurTemps(((MapObject) o).getCompteurTemps());
 					this.carte.addObject(p, false);
-					moving.add(p);
-				}
-			}
-		}
-		for (MapObject o : moving) {
-			if (o == null) {
-				continue;
-			} else if (o.zone(ZoneType.IMAGE) == null) {
-				continue;
-			} else if (o.zone(ZoneType.EFFECT) == null) {
-				continue;
-			}
-			for (ActivableObject obj : activs) {
-				if (o.zone(ZoneType.EFFECT).isInside(((MapObject) obj).zone(ZoneType.EFFECT),
-						(obj instanceof Projectile)?true:false, false)) {
-					if (!obj.isActivated())
-						obj.activate(o);
 				}
 			}
 		}
 		
-		for (MapObject o : ennemies) {
-			if (o == null)
+		for (int i=0;i<this.carte.nbCharacters();i++)
+			this.activateNear(this.carte.character(i));
+		for (int i=0;i<this.carte.nbProjectiles();i++)
+			this.activateNear(this.carte.projectile(i));
+		
+		Zone img = poufalouf.zone(ZoneType.IMAGE);
+		for (MapObject o : this.carte.objectsInRegion(img.getX(), img.getY(), img.getW(), img.getH(), true)) {
+			if (!(o instanceof Douni))
 				continue;
 			if (poufalouf.zone(ZoneType.IMAGE).isInside(o.zone(ZoneType.DETECTION), false, false) && !poufalouf.isStandby()
 					&& !o.isStandby()) {
@@ -922,6 +932,33 @@ public class MapModel extends Model {
 		
 	}
 	
+	/**
+	 * Active les objets activables dont la zone d'effet est recouverte par celle d'un objet en mouvement.
+	 * 
+	 * <p>Seuls les objets occupant les cases proches de la zone d'effet de l'objet sont test�s (m�thode
+	 * objectsInRegion de la classe Map).</p>
+	 * 
+	 * @param o
+	 * 		L'objet en mouvement, personnage ou projectile. S'il est null ou n'a pas de zone d'image ou d'effet, rien
+	 * n'est fait.
+	 */
+	private void activateNear(MapObject o) {
+		
+		if (o == null || o.zone(ZoneType.IMAGE) == null || o.zone(ZoneType.EFFECT) == null)
+			return;
+		Zone z = o.zone(ZoneType.EFFECT);
+		for (MapObject near : this.carte.objectsInRegion(z.getX(), z.getY(), z.getW(), z.getH(), true)) {
+			if (!(near instanceof ActivableObject))
+				continue;
+			ActivableObject obj = (ActivableObject) near;
+			if (z.isInside(near.zone(ZoneType.EFFECT), (obj instanceof Projectile)?true:false, false)) {
+				if (!obj.isActivated())
+					obj.activate(o);
+			}
+		}
+		
+	}
+	
 	/**
 	 * Retourne une copie de la table des objets de cette carte.
 	 * 
@@ -947,7 +984,7 @@ public class MapModel extends Model {
 	 */
 	public MapCharacter opponent() {
 		
-		MapObject o = this.carte.objets().get(this.opponent);
+		MapObject o = this.carte.object(this.opponent);
 		if (o instanceof MapCharacter)
 			return (MapCharacter) o;
 		return null;
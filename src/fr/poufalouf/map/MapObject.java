@@ -1,11 +1,15 @@
 package fr.poufalouf.map;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
+import org.newdawn.slick.Color;
+
 import fr.poufalouf.game.GameObject;
 import fr.poufalouf.tools.CombinedImage;
 import fr.poufalouf.tools.Constantes;
+import fr.poufalouf.tools.Cullable;
 import fr.poufalouf.tools.Orientation;
 import fr.poufalouf.tools.Rectangle;
 import fr.poufalouf.tools.Status;
@@ -35,16 +39,30 @@ import fr.poufalouf.tools.ZoneType;
  * 
  * @author Anaïs Vernet
  */
-public abstract class MapObject extends GameObject {
+public abstract class MapObject extends GameObject implements Cullable {
 	
 	/**
 	 * La carte dans laquelle �volue cet objet.
 	 */
 	protected final Map carte;
 	/**
-	 * La liste des cases sur lesquelles se trouve cet objet.
+	 * L'indice de la premi�re colonne des cases sur lesquelles se trouve cet objet.
+	 */
+	private int firstCol;
+	/**
+	 * L'indice de la derni�re colonne des cases sur lesquelles se trouve cet objet, inf�rieur � firstCol si cet objet
+	 * n'occupe aucune case.
+	 */
+	private int lastCol;
+	/**
+	 * L'indice de la premi�re ligne des cases sur lesquelles se trouve cet objet.
+	 */
+	private int firstLine;
+	/**
+	 * L'indice de la derni�re ligne des cases sur lesquelles se trouve cet objet, inf�rieur � firstLine si cet objet
+	 * n'occupe aucune case.
 	 */
-	private ArrayList<Case> cells;
+	private int lastLine;
 	/**
 	 * Indique si cet objet est invisible.
 	 */
@@ -85,6 +103,28 @@ public abstract class MapObject extends GameObject {
 	 * Indique si cet objet vole.
 	 */
 	private boolean flying;
+	/**
+	 * L'image de cet objet, r�utilis�e par la m�thode generateObjectImage() d'un appel � l'autre.
+	 */
+	private CombinedImage objectImage;
+	/**
+	 * Le nom de cet objet lors de la construction de l'image objectImage.
+	 */
+	private String imageName;
+	/**
+	 * Le nom simplifi� de cet objet, identifiant son type sur la carte (m�thode simpleName(String)).
+	 */
+	private String simpleName;
+	/**
+	 * L'identifiant du type de cet objet dans le registre ObjectTypeRegistry, correspondant � son nom simplifi�.
+	 */
+	private int typeId;
+	/**
+	 * Le rang de cet objet dans chacun des index de la carte, -1 pour un index auquel il n'appartient pas.
+	 * 
+	 * <p>L'indice est le num�ro de l'index dans la classe Map. Ce tableau n'est modifi� que par la carte.</p>
+	 */
+	private int[] indexSlots;
 	
 	/**
 	 * Constructeur MapObject.
@@ -103,7 +143,10 @@ public abstract class MapObject extends GameObject {
 	 * <p>
 	 * <ul>
 	 * <li>carte : la carte pass�e en param�tre (carte), ou une nouvelle carte standard si le param�tre est null.</li>
-	 * <li>cells : une nouvelle liste (ArrayList) de Case.</li>
+	 * <li>firstCol : 0.</li>
+	 * <li>lastCol : -1.</li>
+	 * <li>firstLine : 0.</li>
+	 * <li>lastLine : -1.</li>
 	 * <li>invisible : faux.</li>
 	 * <li>standby : fauux.</li>
 	 * <li>zones : une nouvelle table (HashMap) de Zone r�f�renc�es par des ZoneType.</li>
@@ -113,6 +156,11 @@ public abstract class MapObject extends GameObject {
 	 * <li>vitesseZ : 0.</li>
 	 * <li>toUpdate : vrai.</li>
 	 * <li>flying : faux.</li>
+	 * <li>imageName : le nom de cet objet.</li>
+	 * <li>simpleName : le nom simplifi� du nom de cet objet.</li>
+	 * <li>typeId : l'identifiant du nom simplifi� dans le registre ObjectTypeRegistry.</li>
+	 * <li>indexSlots : un nouveau tableau d'entiers de taille nbIndexes (classe Map), rempli de -1.</li>
+	 * <li>objectImage : une nouvelle CombinedImage nomm�e "Image "+imageName, sans texture.</li>
 	 * </ul></p>
 	 * 
 	 * @param name
@@ -138,7 +186,10 @@ public abstract class MapObject extends GameObject {
 			this.carte = carte;
 		else
 			this.carte = new Map(0, 0, null);
-		this.cells = new ArrayList<Case>();
+		this.firstCol = 0;
+		this.lastCol = -1;
+		this.firstLine = 0;
+		this.lastLine = -1;
 		this.invisible = false;
 		this.standby = false;
 		this.zones = new HashMap<ZoneType, Zone>();
@@ -148,6 +199,12 @@ public abstract class MapObject extends GameObject {
 		this.vitesseZ = 0;
 		this.toUpdate = true;
 		this.flying = false;
+		this.imageName = this.getName();
+		this.objectImage = new CombinedImage(new TexturedImage("Image "+this.imageName, x, y, w, h, null));
+		this.simpleName = simpleName(this.getName());
+		this.typeId = ObjectTypeRegistry.id(this.simpleName);
+		this.indexSlots = new int[Map.nbIndexes];
+		Arrays.fill(this.indexSlots, -1);
 		
 		this.zones.put(ZoneType.IMAGE,
 				new Zone("Zone Image "+this.getName(), this.getX(), this.getY(), new Rectangle(w, h),
@@ -162,38 +219,83 @@ public abstract class MapObject extends GameObject {
 	 * 
 	 * <p>Cette m�thode met �galement � jour la liste des occupants des cases concern�es, en supprimant cet objet s'il a
 	 * quitt� une case, o� en l'ajoutant � la liste des occupants s'il arrive sur une case.</p>
+	 * <p>Les cases occup�es forment un rectangle de colonnes et de lignes de la carte. Seules les cases appartenant �
+	 * l'ancien rectangle sans appartenir au nouveau, ou inversement, sont modifi�es : lors d'un d�placement de quelques
+	 * pixels, aucune case n'est g�n�ralement concern�e.</p>
 	 */
 	public void refreshCells() {
 		
-		ArrayList<Case> cases = new ArrayList<Case>();
-		Case cell;
+		int fc = 0, lc = -1, fl = 0, ll = -1;
 		if (this.zone(ZoneType.IMAGE) != null) {
-			for (int i=(int) (this.getX()/Constantes.sizeCell);
-			i<(this.getX()+this.zone(ZoneType.IMAGE).getObjRect().getW())/Constantes.sizeCell;i++) {
-				for (int j=(int) (this.getY()/Constantes.sizeCell);
-				j<(this.getY()+this.zone(ZoneType.IMAGE).getObjRect().getH())/Constantes.sizeCell;j++) {
-					// Ajout de la case sans risque d'erreur
-					cell = this.carte.cell(i, j);
-					if (cell != null)
-						cases.add(cell);
-				}
+			fc = Math.max((int) (this.getX()/Constantes.sizeCell), 0);
+			lc = Math.min((int) Math.ceil((this.getX()+this.zone(ZoneType.IMAGE).getObjRect().getW())
+					/Constantes.sizeCell)-1, this.carte.getNbCasesWidth()-1);
+			fl = Math.max((int) (this.getY()/Constantes.sizeCell), 0);
+			ll = Math.min((int) Math.ceil((this.getY()+this.zone(ZoneType.IMAGE).getObjRect().getH())
+					/Constantes.sizeCell)-1, this.carte.getNbCasesHeight()-1);
+			if (lc < fc || ll < fl) {
+				fc = fl = 0;
+				lc = ll = -1;
 			}
 		}
-		for (Case c : this.cells) {
-			if (!cases.contains(c))
-				c.removeOccupant(this);
+		if (fc == this.firstCol && lc == this.lastCol && fl == this.firstLine && ll == this.lastLine)
+			return;
+		
+		Case cell;
+		for (int i=this.firstCol;i<=this.lastCol;i++) {
+			for (int j=this.firstLine;j<=this.lastLine;j++) {
+				if (i >= fc && i <= lc && j >= fl && j <= ll)
+					continue;
+				cell = this.carte.cell(i, j);
+				if (cell != null)
+					cell.removeOccupant(this);
+			}
 		}
-		for (Case c : cases) {
-			if (!c.occupants().contains(this))
-				c.addOccupant(this);
+		for (int i=fc;i<=lc;i++) {
+			for (int j=fl;j<=ll;j++) {
+				if (i >= this.firstCol && i <= this.lastCol && j >= this.firstLine && j <= this.lastLine)
+					continue;
+				cell = this.carte.cell(i, j);
+				if (cell != null)
+					cell.addOccupant(this);
+			}
+		}
+		this.firstCol = fc;
+		this.lastCol = lc;
+		this.firstLine = fl;
+		this.lastLine = ll;
+		
+	}
+	
+	/**
+	 * Retire cet objet de la liste des occupants des cases sur lesquelles il se trouve.
+	 * 
+	 * <p>Le rectangle des cases occup�es devient vide : si cet objet est ajout� de nouveau � la carte, la m�thode
+	 * refreshCells() l'ajoute � toutes les cases qu'il recouvre, m�me s'il n'a pas �t� d�plac�. Cette m�thode est
+	 * appel�e par la carte lorsque cet objet en est retir�.</p>
+	 */
+	void clearCells() {
+		
+		Case cell;
+		for (int i=this.firstCol;i<=this.lastCol;i++) {
+			for (int j=this.firstLine;j<=this.lastLine;j++) {
+				cell = this.carte.cell(i, j);
+				if (cell != null)
+					cell.removeOccupant(this);
+			}
 		}
-		this.cells = cases;
+		this.firstCol = 0;
+		this.lastCol = -1;
+		this.firstLine = 0;
+		this.lastLine = -1;
 		
 	}
 	
 	/**
 	 * Retourne une copie de la liste des cases de la carte pass�e en param�tre sur lesquelles cet objet se trouve.
 	 * 
+	 * <p>Les cases sont rang�es par colonne puis par ligne.</p>
+	 * 
 	 * @param border
 	 * 		Vrai si les cases entourant les cases sur lesquelles se trouve cet objet doivent aussi �tre retourn�es.
 	 * @return
@@ -201,17 +303,16 @@ public abstract class MapObject extends GameObject {
 	 */
 	public ArrayList<Case> cells(boolean border) {
 		
-		@SuppressWarnings("unchecked")
-		ArrayList<Case> cases = (ArrayList<Case>) this.cells.clone();
-		if (border) {
-			for (Case cell : this.cells) {
-				if (cell == null)
-					continue;
-				for (int i=Orientation.SUD.ordinal();i<Orientation.SUD_EST.ordinal();i++) {
-					Case c = cell.nextCell(Orientation.values()[i]);
-					if (!cases.contains(c))
-						cases.add(c);
-				}
+		ArrayList<Case> cases = new ArrayList<Case>();
+		if (this.lastCol < this.firstCol || this.lastLine < this.firstLine)
+			return cases;
+		int d = (border)?1:0;
+		Case cell;
+		for (int i=this.firstCol-d;i<=this.lastCol+d;i++) {
+			for (int j=this.firstLine-d;j<=this.lastLine+d;j++) {
+				cell = this.carte.cell(i, j);
+				if (cell != null)
+					cases.add(cell);
 			}
 		}
 		
@@ -248,27 +349,25 @@ public abstract class MapObject extends GameObject {
 		
 		if (or == null || this.zone(ZoneType.IMAGE) == null || this.zone(zoneType) == null)
 			return null;
-		ArrayList<Case> cases = this.cells(true);
-		ArrayList<MapObject> objets = new ArrayList<MapObject>();
 		Zone z = this.zone(zoneType);
-		for (Case cell : cases) {
-			if (cell == null)
-				continue;
-			// Ajout des objets des cases � la liste des objets � tester
-			for (MapObject obj : cell.occupants()) {
-				if (obj != null && obj != this) {
-					if (excludedObjects == null)
-						objets.add(obj);
-					else if (!excludedObjects.contains(obj))
-						objets.add(obj);
+		if (this.lastCol >= this.firstCol && this.lastLine >= this.firstLine) {
+			Case cell;
+			for (int i=this.firstCol-1;i<=this.lastCol+1;i++) {
+				for (int j=this.firstLine-1;j<=this.lastLine+1;j++) {
+					cell = this.carte.cell(i, j);
+					if (cell == null)
+						continue;
+					// V�rification des collisions avec les occupants de la case, sans copie de leur liste
+					for (MapObject obj : cell.occupantSet()) {
+						if (obj == null || obj == this
+								|| (excludedObjects != null && excludedObjects.contains(obj)))
+							continue;
+						if (z.colliding(obj.zone(ZoneType.COLLISION), or))
+							return obj;
+					}
 				}
 			}
 		}
-		for (MapObject obj : objets) {
-			// V�rification des collisions avec d'autres objets
-			if (z.colliding(obj.zone(ZoneType.COLLISION), or))
-				return obj;
-		}
 		// V�rification des collisions avec un bord de la carte
 		switch (or) {
 		case NORD:
@@ -297,9 +396,152 @@ public abstract class MapObject extends GameObject {
 	/**
 	 * D�place cet objet d'un pas selon l'orientation pass�e en param�tre.
 	 * 
+	 * <p>Le r�sultat de cette m�thode est celui de la m�thode moveStepByStep(Orientation, int) de cette classe, qui
+	 * teste la collision de cet objet � chaque pixel du d�placement. Cependant, le pas auquel le d�placement doit �tre
+	 * arr�t� est ici calcul� en une seule fois : les objets proches du trajet de cet objet sont obtenus par la m�thode
+	 * objectsInRegion de la carte, puis la m�thode collidingStep(Zone, Orientation, int, int) de la zone de collision
+	 * de cet objet donne pour chacun d'eux le premier pas de collision. Les bords de la carte sont trait�s de la m�me
+	 * mani�re par la m�thode borderStep(Orientation, int, int) de cette classe.</p>
+	 * <p>Cet objet est alors plac� directement au premier pas de collision trouv�, o� la m�thode colliding de cette
+	 * classe d�signe l'objet retourn�, comme le ferait le d�placement pixel par pixel. Si aucun objet n'y est d�sign�,
+	 * ce qui ne peut arriver que si le trajet a �t� surestim�, le d�placement se termine pixel par pixel.</p>
+	 * 
+	 * @param or
+	 * 		La direction du mouvement.
+	 * @param step
+	 * 		Le pas de d�placement.
+	 * @return
+	 * 		L'objet avec lequel cet objet est entr� en collision, null s'il n'y a pas collision.
+	 */
+	public MapObject move(Orientation or, int step) {
+		
+		int dx = 0, dy = 0;
+		switch(or) {
+		case NORD:
+			dy = -1;
+			break;
+		case SUD:
+			dy = 1;
+			break;
+		case OUEST:
+			dx = -1;
+			break;
+		case EST:
+			dx = 1;
+			break;
+		case SUD_OUEST:
+			dx = -1;
+			dy = 1;
+			break;
+		case SUD_EST:
+			dx = 1;
+			dy = 1;
+			break;
+		case NORD_OUEST:
+			dx = -1;
+			dy = -1;
+			break;
+		case NORD_EST:
+			dx = 1;
+			dy = -1;
+			break;
+		default:
+			return this.moveStepByStep(or, step);
+		}
+		if (step <= 0 || this.zone(ZoneType.IMAGE) == null || this.zone(ZoneType.COLLISION) == null)
+			return this.moveStepByStep(or, step);
+		
+		// Le premier pas est test� avec les zones et les cases actuelles, comme pixel par pixel
+		MapObject o;
+		if ((o=this.colliding(null, ZoneType.COLLISION, or)) != null)
+			return o;
+		this.updateZones();
+		
+		int k = step, c;
+		if (step > 1) {
+			Zone z = this.zone(ZoneType.COLLISION);
+			Rectangle r = this.zone(ZoneType.IMAGE).getObjRect();
+			double x = Math.min(this.getX(), this.getX()+dx*(step-1));
+			double y = Math.min(this.getY(), this.getY()+dy*(step-1));
+			double w = Math.max(r.getW(), 0)+Math.abs(dx)*(step-1);
+			double h = Math.max(r.getH(), 0)+Math.abs(dy)*(step-1);
+			for (MapObject obj : this.carte.objectsInRegion(x, y, w, h, true)) {
+				if (obj == null || obj == this)
+					continue;
+				c = z.collidingStep(obj.zone(ZoneType.COLLISION), or, 1, k-1);
+				if (c >= 0)
+					k = c;
+			}
+			c = this.borderStep(or, 1, k-1);
+			if (c >= 0)
+				k = c;
+		}
+		
+		this.setX(this.getX()+dx*k);
+		this.setY(this.getY()+dy*k);
+		this.updateZones();
+		this.refreshCells();
+		if (k == step)
+			return null;
+		if ((o=this.colliding(null, ZoneType.COLLISION, or)) != null)
+			return o;
+		
+		return this.moveStepByStep(or, step-k);
+		
+	}
+	
+	/**
+	 * Calcule le premier pas de d�placement � partir duquel cet objet entre en collision avec un bord de la carte.
+	 * 
+	 * <p>Les conditions sont celles de la m�thode colliding de cette classe, appliqu�es � la zone d'image de cet objet
+	 * d�plac�e d'un pixel par pas. Comme dans cette m�thode, seules les orientations cardinales sont concern�es.</p>
+	 * 
+	 * @param or
+	 * 		La direction du mouvement.
+	 * @param first
+	 * 		Le premier pas � tester.
+	 * @param last
+	 * 		Le dernier pas � tester.
+	 * @return
+	 * 		Le premier pas de collision avec un bord, ou -1 s'il n'y en a pas entre les pas first et last.
+	 */
+	private int borderStep(Orientation or, int first, int last) {
+		
+		Zone image = this.zone(ZoneType.IMAGE);
+		if (image == null || or == null)
+			return -1;
+		double k;
+		switch (or) {
+		case NORD:
+			k = image.getY();
+			break;
+		case SUD:
+			k = this.carte.getNbCasesHeight()*Constantes.sizeCell-image.getY()-image.getObjRect().getH();
+			break;
+		case OUEST:
+			k = image.getX();
+			break;
+		case EST:
+			k = this.carte.getNbCasesWidth()*Constantes.sizeCell-image.getX()-image.getObjRect().getW();
+			break;
+		default:
+			return -1;
+		}
+		k = Math.max(first, Math.ceil(k));
+		
+		return (k <= last)?(int) k:-1;
+		
+	}
+	
+	/**
+	 * D�place cet objet d'un pas selon l'orientation pass�e en param�tre, pixel par pixel.
+	 * 
 	 * <p>Les coordonn�es de cet objet sont modifi�es, puis ses zones sont mises � jour gr�ce � la m�thode updateZones()
 	 * de cette classe. A chaque pas de 1 pixel, la collision de l'objet est test�e. S'il y a collision, le d�placement
 	 * est arr�t�.</p>
+	 * <p>Cette m�thode est la r�f�rence de la m�thode move(Orientation, int) de cette classe, qui doit laisser cet
+	 * objet � la m�me position et retourner le m�me objet. Elle peut �tre appel�e � sa place pour v�rifier un
+	 * d�placement, mais son co�t est proportionnel au pas de d�placement.</p>
 	 * 
 	 * @param or
 	 * 		La direction du mouvement.
@@ -308,7 +550,7 @@ public abstract class MapObject extends GameObject {
 	 * @return
 	 * 		L'objet avec lequel cet objet est entr� en collision, null s'il n'y a pas collision.
 	 */
-	public MapObject move(Orientation or, int step) {
+	public MapObject moveStepByStep(Orientation or, int step) {
 		
 		MapObject o;
 		for (int i=0;i<step;i++) {
@@ -422,6 +664,9 @@ public abstract class MapObject extends GameObject {
 	 * de cet objet (m�thode currentAnim() de cette classe), et le nom du fichier texture est �galement obtenu gr�ce
 	 * � l'animation en cours.</p>
 	 * <p>Le plan de perspective de l'image prend la valeur de l'ordonn�e par rapport au jeu de cet objet.</p>
+	 * <p>L'image retourn�e est toujours la m�me instance (champ objectImage), vid�e de ses sous-images et r�initialis�e
+	 * � chaque appel, afin de ne pas allouer une nouvelle image � chaque mise � jour. Elle n'est reconstruite que si le
+	 * nom de cet objet a chang�.</p>
 	 * 
 	 * @return
 	 * 		L'image g�n�r�e, ou null si la zone d'image de cet objet est null ou si l'animation courrante n'est pas
@@ -432,10 +677,23 @@ public abstract class MapObject extends GameObject {
 		
 		if (this.zone(ZoneType.IMAGE) == null || this.currentAnim() == null)
 			return null;
-		CombinedImage image = new CombinedImage(new TexturedImage("Image "+this.getName(), this.getX(),
-				this.getY()-this.getHauteur()*Constantes.sizeHStep, 
-				this.zone(ZoneType.IMAGE).getObjRect().getW(), this.zone(ZoneType.IMAGE).getObjRect().getH(),
-				this.currentAnim().getTextureID(), this.currentAnim().textRect(this.getOrientation())));
+		if (this.getName() != this.imageName) {
+			this.imageName = this.getName();
+			this.objectImage = new CombinedImage(new TexturedImage("Image "+this.imageName, 0, 0, 0, 0, null));
+		}
+		CombinedImage image = this.objectImage;
+		image.clearImages();
+		image.setX(this.getX());
+		image.setY(this.getY()-this.getHauteur()*Constantes.sizeHStep);
+		image.setW(this.zone(ZoneType.IMAGE).getObjRect().getW());
+		image.setH(this.zone(ZoneType.IMAGE).getObjRect().getH());
+		image.setTextureID(this.currentAnim().getTextureID());
+		image.setTextRect(this.currentAnim().textRect(this.getOrientation()));
+		image.setCouleur(Color.white);
+		image.setPlan(0);
+		image.setAngle(0);
+		image.setSound("");
+		image.setSpatialSound(true);
 		if (this.isInvisible()) {
 			image.setW(-1);
 		}
@@ -454,6 +712,43 @@ public abstract class MapObject extends GameObject {
 		
 	}
 	
+	/**
+	 * Indique si cet objet se trouve enti�rement en dehors d'une portion du jeu.
+	 * 
+	 * <p>L'image de cet objet occupe le rectangle de sa zone d'image, d�cal� vers le haut selon la hauteur de cet objet
+	 * comme dans la m�thode generateObjectImage() de cette classe. Si cet objet affiche des PoppingObject, dont les
+	 * images peuvent d�border de ce rectangle, il n'est jamais �cart�.</p>
+	 * <p>Si cet objet est �cart�, le son qu'il devait jouer est abandonn�, comme l'est celui d'une image g�n�r�e mais
+	 * non visible.</p>
+	 * 
+	 * @param x
+	 * 		L'abscisse de la portion du jeu par rapport au jeu.
+	 * @param y
+	 * 		L'ordonn�e de la portion du jeu par rapport au jeu.
+	 * @param w
+	 * 		La largeur de la portion du jeu.
+	 * @param h
+	 * 		La hauteur de la portion du jeu.
+	 * @return
+	 * 		Vrai si l'image de cet objet ne peut pas �tre visible dans cette portion du jeu.
+	 */
+	@Override
+	public boolean cull(double x, double y, double w, double h) {
+		
+		Zone z = this.zone(ZoneType.IMAGE);
+		if (z == null || this.nbPopups() > 0)
+			return false;
+		
+		double top = this.getY()-this.getHauteur()*Constantes.sizeHStep;
+		if (this.getX()+z.getObjRect().getW() > x && this.getX() < x+w
+				&& top+z.getObjRect().getH() > y && top < y+h)
+			return false;
+		
+		this.sound();
+		return true;
+		
+	}
+	
 	/**
 	 * Met � jour l'�tat du bool�en invisible de cet objet.
 	 * 
@@ -629,11 +924,17 @@ public abstract class MapObject extends GameObject {
 	/**
 	 * Met � jour la valeur du bool�en toUpdate de cette classe.
 	 * 
+	 * <p>La carte de cet objet est pr�venue de la modification afin de tenir � jour son index des objets � mettre �
+	 * jour.</p>
+	 * 
 	 * @param toUpdate
 	 * 		Vrai si cet objet doit �tre mis � jour par le mod�le.
 	 */
 	public void setToUpdate(boolean toUpdate) {
+		
 		this.toUpdate = toUpdate;
+		this.carte.toUpdateChanged(this);
+		
 	}
 	
 	/**
@@ -646,6 +947,97 @@ public abstract class MapObject extends GameObject {
 		return this.toUpdate;
 	}
 	
+	/**
+	 * Calcule le nom simplifi� d'un nom d'objet.
+	 * 
+	 * <p>Ce nom simplifi� est �gal � l'ensemble des caract�res alphanum�riques (lettres non accentu�es et chiffres) lus
+	 * depuis le d�but du nom. D�s qu'un autre caract�re est rencontr� (une parenth�se par exemple pour les
+	 * coordonn�es), le nom est tronqu�.</p>
+	 * 
+	 * @param name
+	 * 		Le nom de l'objet.
+	 * @return
+	 * 		Le nom simplifi�, �ventuellement vide.
+	 */
+	public static String simpleName(String name) {
+		
+		int i = 0;
+		while (i < name.length()) {
+			char c = name.charAt(i);
+			if ((c < 'a' || c > 'z') && (c < 'A' || c > 'Z') && (c < '0' || c > '9'))
+				break;
+			i++;
+		}
+		
+		return name.substring(0, i);
+		
+	}
+	
+	/**
+	 * Modifie le nom de cet objet.
+	 * 
+	 * <p>Cette m�thode appelle la m�thode de la classe m�re, puis recalcule le nom simplifi� de cet objet et
+	 * l'identifiant de son type.</p>
+	 * 
+	 * @param name
+	 * 		Le nouveau nom de cet objet. S'il est null, rien n'est fait.
+	 */
+	@Override
+	public void setName(String name) {
+		
+		super.setName(name);
+		this.simpleName = simpleName(this.getName());
+		this.typeId = ObjectTypeRegistry.id(this.simpleName);
+		
+	}
+	
+	/**
+	 * Retourne le nom simplifi� de cet objet.
+	 * 
+	 * <p>Ce nom identifie le type de cet objet sur la carte : il r�f�rence ses animations et son nombre d'occurrences
+	 * dans la classe Map. Il est calcul� � la construction de cet objet et � chaque changement de nom.</p>
+	 * 
+	 * @return
+	 * 		Le nom simplifi� de cet objet.
+	 */
+	public String getSimpleName() {
+		return this.simpleName;
+	}
+	
+	/**
+	 * Retourne l'identifiant du type de cet objet.
+	 * 
+	 * @return
+	 * 		L'identifiant du nom simplifi� de cet objet dans le registre ObjectTypeRegistry.
+	 */
+	public int getTypeId() {
+		return this.typeId;
+	}
+	
+	/**
+	 * Retourne le rang de cet objet dans un index de la carte.
+	 * 
+	 * @param index
+	 * 		Le num�ro de l'index.
+	 * @return
+	 * 		Le rang de cet objet dans l'index, ou -1 s'il n'y appartient pas.
+	 */
+	int indexSlot(int index) {
+		return this.indexSlots[index];
+	}
+	
+	/**
+	 * Modifie le rang de cet objet dans un index de la carte.
+	 * 
+	 * @param index
+	 * 		Le num�ro de l'index.
+	 * @param slot
+	 * 		Le nouveau rang, ou -1 si cet objet est retir� de l'index.
+	 */
+	void setIndexSlot(int index, int slot) {
+		this.indexSlots[index] = slot;
+	}
+	
 	/**
 	 * Indique si cet objet doit voler.
 	 * 
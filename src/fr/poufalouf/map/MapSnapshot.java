@@ -0,0 +1,518 @@
+package fr.poufalouf.map;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import fr.poufalouf.ObjectInstanciationException;
+import fr.poufalouf.tools.Constantes;
+import fr.poufalouf.tools.Orientation;
+import fr.poufalouf.tools.Rectangle;
+import fr.poufalouf.tools.Status;
+import fr.poufalouf.tools.Zone;
+import fr.poufalouf.tools.ZoneType;
+
+/**
+ * Image binaire d'une carte
+ * 
+ * <p>Cette classe enregistre une carte dans un fichier binaire compact, puis la restaure sans refaire sa g�n�ration
+ * al�atoire. Le fichier contient, dans l'ordre :
+ * <ul>
+ * <li>un en-t�te : l'identifiant du format, sa version, les dimensions de la carte (en cases), son fichier texture de
+ * terrain et la graine de sa g�n�ration ;</li>
+ * <li>pour chaque case, colonne par colonne : son type et la liste de ses num�ros de texture ;</li>
+ * <li>pour chaque objet, dans l'ordre de leur ajout � la carte : sa classe, les param�tres de son constructeur, son
+ * orientation, son �tat (animation en cours, standby, visibilit�, mise � jour, vol, hauteur) et les rectangles de ses
+ * zones.</li>
+ * </ul></p>
+ * <p>Le fichier est �crit en une fois par un FileChannel, puis relu par projection en m�moire (MappedByteBuffer) : la
+ * restauration se r�sume � la lecture de ces valeurs et � la construction des objets.</p>
+ * <p>Seuls les objets plac�s lors de la g�n�ration d'une carte sont enregistr�s (Poufalouf, Douni, Barriere, Decor,
+ * Chaise, Coeur et Mine). Les autres objets, comme les d�cors de type Landscape ou les projectiles, sont ignor�s et
+ * doivent �tre recr��s par l'appelant.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class MapSnapshot {
+	
+	/**
+	 * L'identifiant du format de fichier.
+	 */
+	private static final int magic = 0x50464D50;
+	/**
+	 * La version du format de fichier.
+	 */
+	private static final int version = 1;
+	/**
+	 * Le jeu de caract�res des cha�nes enregistr�es.
+	 */
+	private static final Charset charset = Charset.forName("UTF-8");
+	/**
+	 * Les valeurs des �num�rations enregistr�es par leur rang.
+	 */
+	private static final CaseType[] caseTypes = CaseType.values();
+	/**
+	 * Les valeurs de l'�num�ration Orientation.
+	 */
+	private static final Orientation[] orientations = Orientation.values();
+	/**
+	 * Les valeurs de l'�num�ration Status.
+	 */
+	private static final Status[] statuses = Status.values();
+	/**
+	 * Les valeurs de l'�num�ration ZoneType.
+	 */
+	private static final ZoneType[] zoneTypes = ZoneType.values();
+	
+	/**
+	 * Code d'un objet Poufalouf.
+	 */
+	private static final byte POUFALOUF = 1;
+	/**
+	 * Code d'un objet Douni.
+	 */
+	private static final byte DOUNI = 2;
+	/**
+	 * Code d'un objet Barriere.
+	 */
+	private static final byte BARRIERE = 3;
+	/**
+	 * Code d'un objet Decor.
+	 */
+	private static final byte DECOR = 4;
+	/**
+	 * Code d'un objet Chaise.
+	 */
+	private static final byte CHAISE = 5;
+	/**
+	 * Code d'un objet Coeur.
+	 */
+	private static final byte COEUR = 6;
+	/**
+	 * Code d'un objet Mine.
+	 */
+	private static final byte MINE = 7;
+	
+	/**
+	 * Le contenu du fichier, projet� en m�moire et positionn� apr�s l'en-t�te.
+	 */
+	private final ByteBuffer buffer;
+	/**
+	 * Le nombre de cases de la carte en largeur.
+	 */
+	private final int nbCasesWidth;
+	/**
+	 * Le nombre de cases de la carte en hauteur.
+	 */
+	private final int nbCasesHeight;
+	/**
+	 * Le fichier texture du terrain de la carte.
+	 */
+	private final String terrainID;
+	/**
+	 * La graine de la g�n�ration de la carte.
+	 */
+	private final long seed;
+	
+	/**
+	 * Constructeur MapSnapshot.
+	 * 
+	 * <p>Le fichier pass� en param�tre est projet� en m�moire et son en-t�te est lu.</p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>buffer : le contenu du fichier pass� en param�tre (fileName).</li>
+	 * <li>nbCasesWidth, nbCasesHeight, terrainID, seed : les valeurs lues dans l'en-t�te du fichier.</li>
+	 * </ul></p>
+	 * 
+	 * @param fileName
+	 * 		Le nom du fichier � relire.
+	 * @throws IOException
+	 * 		si le fichier ne peut pas �tre lu ou n'est pas une image de carte dans la version courante du format.
+	 */
+	public MapSnapshot(String fileName) throws IOException {
+		
+		RandomAccessFile file = null;
+		try {
+			file = new RandomAccessFile(fileName, "r");
+			FileChannel channel = file.getChannel();
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (this.buffer.getInt() != magic || this.buffer.getInt() != version)
+				throw new IOException("Le fichier "+fileName+" n'est pas une image de carte valide.");
+			this.nbCasesWidth = this.buffer.getInt();
+			this.nbCasesHeight = this.buffer.getInt();
+			this.terrainID = readString(this.buffer);
+			this.seed = this.buffer.getLong();
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Le fichier "+fileName+" est incomplet.", e);
+		} finally {
+			if (file != null)
+				file.close();
+		}
+		
+	}
+	
+	/**
+	 * Enregistre une carte dans un fichier.
+	 * 
+	 * <p>Le r�pertoire du fichier est cr�� si n�cessaire, et un fichier existant est remplac�.</p>
+	 * 
+	 * @param carte
+	 * 		La carte � enregistrer. Si elle est null, rien n'est fait.
+	 * @param seed
+	 * 		La graine de la g�n�ration de la carte.
+	 * @param fileName
+	 * 		Le nom du fichier.
+	 * @throws IOException
+	 * 		si le fichier ne peut pas �tre �crit.
+	 */
+	public static void save(Map carte, long seed, String fileName) throws IOException {
+		
+		if (carte == null || fileName == null)
+			return;
+		
+		ByteBuffer out = ByteBuffer.allocate(1<<16);
+		out.putInt(magic);
+		out.putInt(version);
+		out.putInt(carte.getNbCasesWidth());
+		out.putInt(carte.getNbCasesHeight());
+		out = putString(out, carte.getTerrainID());
+		out.putLong(seed);
+		
+		// Cases
+		
+		Case cell;
+		for (int i=0;i<carte.getNbCasesWidth();i++) {
+			for (int j=0;j<carte.getNbCasesHeight();j++) {
+				cell = carte.cell(i, j);
+				int nb = (cell == null)?0:cell.numberOfTextures();
+				out = ensure(out, 5+4*nb);
+				out.put((byte) ((cell == null)?CaseType.VOID:cell.getType()).ordinal());
+				out.putInt(nb);
+				for (int n=0;n<nb;n++)
+					out.putInt(cell.textureNumber(n));
+			}
+		}
+		
+		// Objets
+		
+		int count = 0;
+		for (int n=0;n<carte.nbObjects();n++) {
+			if (code(carte.object(n)) != 0)
+				count++;
+		}
+		out = ensure(out, 4);
+		out.putInt(count);
+		for (int n=0;n<carte.nbObjects();n++) {
+			MapObject obj = carte.object(n);
+			if (code(obj) != 0)
+				out = putObject(out, obj);
+		}
+		
+		// Ecriture
+		
+		File file = new File(fileName);
+		if (file.getParentFile() != null)
+			file.getParentFile().mkdirs();
+		out.flip();
+		FileOutputStream stream = new FileOutputStream(file);
+		try {
+			FileChannel channel = stream.getChannel();
+			while (out.hasRemaining())
+				channel.write(out);
+		} finally {
+			stream.close();
+		}
+		
+	}
+	
+	/**
+	 * Restaure la carte enregistr�e dans le fichier de cette image.
+	 * 
+	 * <p>Une nouvelle carte est cr��e aux dimensions enregistr�es, ses cases sont recr��es avec leurs types et leurs
+	 * textures, puis les objets sont construits et ajout�s � la carte (m�thode addObject de la classe Map, avec lecture
+	 * de leurs animations). Leur �tat et leurs zones sont enfin r�tablis.</p>
+	 * 
+	 * @return
+	 * 		La carte restaur�e.
+	 * @throws IOException
+	 * 		si le contenu du fichier est incoh�rent.
+	 * @throws ObjectInstanciationException
+	 * 		si un objet ne peut pas �tre construit ou ajout� � la carte.
+	 */
+	public Map restore() throws IOException, ObjectInstanciationException {
+		
+		ByteBuffer in = this.buffer.duplicate();
+		Map carte = new Map(this.nbCasesWidth, this.nbCasesHeight, this.terrainID);
+		try {
+			
+			// Cases
+			
+			for (int i=0;i<this.nbCasesWidth;i++) {
+				for (int j=0;j<this.nbCasesHeight;j++) {
+					CaseType type = caseTypes[in.get()];
+					int nb = in.getInt();
+					Case cell = new Case(carte, i*Constantes.sizeCell, j*Constantes.sizeCell, Constantes.sizeCell,
+							Constantes.sizeCell, this.terrainID, (nb > 0)?in.getInt():0);
+					for (int n=1;n<nb;n++)
+						cell.addTextureNumber(in.getInt());
+					cell.setType(type);
+					carte.replaceCell(i, j, cell);
+				}
+			}
+			
+			// Objets
+			
+			int count = in.getInt();
+			for (int n=0;n<count;n++)
+				readObject(in, carte);
+				
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Image de carte incompl�te.", e);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new IOException("Image de carte incoh�rente.", e);
+		}
+		
+		return carte;
+		
+	}
+	
+	/**
+	 * Retourne le code de la classe d'un objet.
+	 * 
+	 * @param obj
+	 * 		L'objet.
+	 * @return
+	 * 		Le code de sa classe, ou 0 si cette classe n'est pas enregistr�e.
+	 */
+	private static byte code(MapObject obj) {
+		
+		if (obj instanceof Poufalouf)
+			return POUFALOUF;
+		if (obj instanceof Douni)
+			return DOUNI;
+		if (obj instanceof Barriere)
+			return BARRIERE;
+		if (obj instanceof Decor)
+			return DECOR;
+		if (obj instanceof Chaise)
+			return CHAISE;
+		if (obj instanceof Coeur)
+			return COEUR;
+		if (obj instanceof Mine)
+			return MINE;
+		return 0;
+		
+	}
+	
+	/**
+	 * Ecrit un objet dans le tampon.
+	 * 
+	 * @param out
+	 * 		Le tampon.
+	 * @param obj
+	 * 		L'objet, d'une classe enregistr�e.
+	 * @return
+	 * 		Le tampon, agrandi si n�cessaire.
+	 */
+	private static ByteBuffer putObject(ByteBuffer out, MapObject obj) {
+		
+		byte code = code(obj);
+		ByteBuffer b = ensure(out, 64);
+		b.put(code);
+		b.putDouble(obj.getX());
+		b.putDouble(obj.getY());
+		b.putDouble(obj.getW());
+		b.putDouble(obj.getH());
+		b.put((byte) obj.getOrientation().ordinal());
+		switch (code) {
+		case POUFALOUF:
+		case DOUNI:
+			b = putString(b, obj.getName());
+			break;
+		case DECOR:
+			b = putString(b, obj.getSimpleName());
+			b = ensure(b, 4);
+			b.putInt(((Decor) obj).extraPlans());
+			break;
+		default:
+		}
+		
+		// Etat
+		
+		b = ensure(b, 12+zoneTypes.length*33);
+		b.put((byte) ((obj.currentAnim() == null)?-1:obj.currentAnim().getStatus().ordinal()));
+		b.put((byte) ((obj.isStandby()?1:0) | (obj.isInvisible()?2:0) | (obj.isToUpdate()?4:0)
+				| (obj.isFlying()?8:0)));
+		b.putInt(obj.getHauteur());
+		
+		// Zones
+		
+		for (ZoneType type : zoneTypes) {
+			Zone z = obj.zone(type);
+			b.put((byte) ((z == null)?0:1));
+			if (z != null) {
+				b.putDouble(z.getObjRect().getX());
+				b.putDouble(z.getObjRect().getY());
+				b.putDouble(z.getObjRect().getW());
+				b.putDouble(z.getObjRect().getH());
+			}
+		}
+		
+		return b;
+		
+	}
+	
+	/**
+	 * Lit un objet dans le tampon et l'ajoute � la carte.
+	 * 
+	 * @param in
+	 * 		Le tampon.
+	 * @param carte
+	 * 		La carte.
+	 * @throws IOException
+	 * 		si le code de l'objet est inconnu.
+	 * @throws ObjectInstanciationException
+	 * 		si l'objet ne peut pas �tre construit ou ajout� � la carte.
+	 */
+	private static void readObject(ByteBuffer in, Map carte) throws IOException, ObjectInstanciationException {
+		
+		byte code = in.get();
+		double x = in.getDouble(), y = in.getDouble(), w = in.getDouble(), h = in.getDouble();
+		Orientation or = orientations[in.get()];
+		MapObject obj;
+		switch (code) {
+		case POUFALOUF:
+			obj = new Poufalouf(readString(in), carte, (int) x, (int) y);
+			break;
+		case DOUNI:
+			obj = new Douni(readString(in), carte, (int) x, (int) y);
+			break;
+		case BARRIERE:
+			obj = new Barriere(carte, x, y, w, h, or);
+			break;
+		case DECOR:
+			obj = new Decor(readString(in), carte, x, y, w, h, null, in.getInt());
+			break;
+		case CHAISE:
+			obj = new Chaise(carte, (int) x, (int) y, or);
+			break;
+		case COEUR:
+			obj = new Coeur(carte, (int) x, (int) y);
+			break;
+		case MINE:
+			obj = new Mine(carte, (int) x, (int) y);
+			break;
+		default:
+			throw new IOException("Code d'objet inconnu : "+code+".");
+		}
+		obj.setOrientation(or);
+		
+		// Etat
+		
+		byte status = in.get();
+		byte flags = in.get();
+		int hauteur = in.getInt();
+		
+		// Zones
+		
+		for (ZoneType type : zoneTypes) {
+			if (in.get() == 0)
+				continue;
+			Rectangle rect = new Rectangle(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+			if (obj.zone(type) != null)
+				obj.changeZone(type, rect);
+			else
+				obj.addZone(type, rect, "Zone "+type+" "+obj.getName());
+		}
+		
+		carte.addObject(obj, true);
+		if (status >= 0)
+			obj.changeCurrentAnim(statuses[status]);
+		obj.setStandby((flags & 1) != 0);
+		obj.setInvisible((flags & 2) != 0);
+		obj.setToUpdate((flags & 4) != 0);
+		obj.setFlying((flags & 8) != 0);
+		obj.setHauteur(hauteur);
+		
+	}
+	
+	/**
+	 * Ecrit une cha�ne dans le tampon, pr�c�d�e de sa longueur en octets.
+	 * 
+	 * @param out
+	 * 		Le tampon.
+	 * @param s
+	 * 		La cha�ne. Si elle est null, une cha�ne vide est �crite.
+	 * @return
+	 * 		Le tampon, agrandi si n�cessaire.
+	 */
+	private static ByteBuffer putString(ByteBuffer out, String s) {
+		
+		byte[] bytes = ((s == null)?"":s).getBytes(charset);
+		ByteBuffer b = ensure(out, 4+bytes.length);
+		b.putInt(bytes.length);
+		b.put(bytes);
+		
+		return b;
+		
+	}
+	
+	/**
+	 * Lit une cha�ne dans le tampon.
+	 * 
+	 * @param in
+	 * 		Le tampon.
+	 * @return
+	 * 		La cha�ne lue.
+	 */
+	private static String readString(ByteBuffer in) {
+		
+		byte[] bytes = new byte[in.getInt()];
+		in.get(bytes);
+		
+		return new String(bytes, charset);
+		
+	}
+	
+	/**
+	 * Agrandit un tampon s'il ne peut pas recevoir le nombre d'octets sp�cifi�.
+	 * 
+	 * @param out
+	 * 		Le tampon.
+	 * @param size
+	 * 		Le nombre d'octets � �crire.
+	 * @return
+	 * 		Le tampon pass� en param�tre s'il est assez grand, ou un nouveau tampon de capacit� double contenant les
+	 * m�mes donn�es.
+	 */
+	private static ByteBuffer ensure(ByteBuffer out, int size) {
+		
+		if (out.remaining() >= size)
+			return out;
+		ByteBuffer b = ByteBuffer.allocate(Math.max(out.capacity()*2, out.position()+size));
+		out.flip();
+		b.put(out);
+		
+		return b;
+		
+	}
+	
+	/**
+	 * Retourne la graine de la g�n�ration de la carte enregistr�e.
+	 * 
+	 * @return
+	 * 		La graine.
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+	
+}
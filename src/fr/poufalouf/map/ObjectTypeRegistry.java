@@ -0,0 +1,97 @@
+package fr.poufalouf.map;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Registre des types d'objets de carte
+ * 
+ * <p>Cette classe attribue � chaque nom simplifi� d'objet (m�thode getSimpleName() de la classe MapObject) un
+ * identifiant entier, attribu� dans l'ordre d'enregistrement � partir de 0. Ces identifiants sont denses et ne
+ * changent plus une fois attribu�s : ils servent d'indices aux tableaux tenus par la classe Map (nombre d'objets et
+ * animations de chaque type), de sorte que l'ajout ou la suppression d'un objet ne co�te plus que des acc�s � ces
+ * tableaux.</p>
+ * <p>Le registre est commun � toutes les cartes. Ses m�thodes sont synchronis�es, un objet pouvant �tre construit par
+ * un autre thread que celui du mod�le.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class ObjectTypeRegistry {
+	
+	/**
+	 * Table de hachage stockant l'identifiant de chaque type, r�f�renc� par son nom.
+	 */
+	private static final HashMap<String, Integer> ids = new HashMap<String, Integer>();
+	/**
+	 * La liste des noms des types, rang�s selon leur identifiant.
+	 */
+	private static final ArrayList<String> names = new ArrayList<String>();
+	
+	/**
+	 * Retourne l'identifiant d'un type, en l'enregistrant s'il n'est pas encore connu.
+	 * 
+	 * @param name
+	 * 		Le nom simplifi� du type. S'il est null, le nom "" est utilis�.
+	 * @return
+	 * 		L'identifiant du type.
+	 */
+	public static synchronized int id(String name) {
+		
+		String key = (name == null)?"":name;
+		Integer id = ids.get(key);
+		if (id == null) {
+			id = Integer.valueOf(names.size());
+			ids.put(key, id);
+			names.add(key);
+		}
+		
+		return id.intValue();
+		
+	}
+	
+	/**
+	 * Retourne l'identifiant d'un type sans l'enregistrer.
+	 * 
+	 * @param name
+	 * 		Le nom simplifi� du type.
+	 * @return
+	 * 		L'identifiant du type, ou -1 si ce type n'a jamais �t� enregistr�.
+	 */
+	public static synchronized int find(String name) {
+		
+		Integer id = ids.get((name == null)?"":name);
+		if (id == null)
+			return -1;
+		
+		return id.intValue();
+		
+	}
+	
+	/**
+	 * Retourne le nom d'un type.
+	 * 
+	 * @param id
+	 * 		L'identifiant du type.
+	 * @return
+	 * 		Le nom simplifi� du type, ou null si l'identifiant n'est pas attribu�.
+	 */
+	public static synchronized String name(int id) {
+		
+		if (id < 0 || id >= names.size())
+			return null;
+		
+		return names.get(id);
+		
+	}
+	
+	/**
+	 * Retourne le nombre de types enregistr�s.
+	 * 
+	 * @return
+	 * 		Le nombre de types, sup�rieur de 1 au plus grand identifiant attribu�.
+	 */
+	public static synchronized int size() {
+		return names.size();
+	}
+	
+}
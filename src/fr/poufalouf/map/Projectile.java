@@ -111,7 +111,7 @@ public class Projectile extends MapObject implements ActivableObject {
 		if (animations != null) {
 			for (Animation a : animations) {
 				if (a != null)
-					this.addAnimation(a.clone());
+					this.addAnimation(a);
 			}
 		}
 		
@@ -0,0 +1,295 @@
+package fr.poufalouf.map;
+
+import fr.poufalouf.tools.CombinedImage;
+import fr.poufalouf.tools.Constantes;
+import fr.poufalouf.tools.Cullable;
+import fr.poufalouf.tools.Rectangle;
+import fr.poufalouf.tools.TexturedImage;
+
+/**
+ * Portion du terrain d'une carte
+ * 
+ * <p>Cette classe regroupe un bloc carr� de cases d'une carte, dont le c�t� est d�fini par le champ cellPerChunk de la
+ * classe Constantes. Elle impl�mente l'interface Drawable et retourne une image combin�e contenant la superposition des
+ * textures de toutes ses cases.</p>
+ * <p>Le terrain n'�tant modifi� que lors de la g�n�ration de la carte, cette image n'est construite qu'une seule fois
+ * puis conserv�e. Elle n'est reconstruite que si ce bloc a �t� marqu� comme modifi� par la m�thode invalidate(), appel�e
+ * par la carte lorsque les textures d'une de ses cases changent.</p>
+ * <p>Ce bloc impl�mente l'interface Cullable : la vue ne demande son image que s'il recouvre la portion du jeu qu'elle
+ * affiche, de sorte que seules les cases visibles sont parcourues � chaque mise � jour.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public class TerrainChunk implements Cullable {
+	
+	/**
+	 * La carte � laquelle appartient ce bloc.
+	 */
+	private final Map carte;
+	/**
+	 * La colonne de la premi�re case de ce bloc.
+	 */
+	private final int firstCol;
+	/**
+	 * La ligne de la premi�re case de ce bloc.
+	 */
+	private final int firstLine;
+	/**
+	 * L'abscisse de ce bloc par rapport au jeu.
+	 */
+	private double x;
+	/**
+	 * L'ordonn�e de ce bloc par rapport au jeu.
+	 */
+	private double y;
+	/**
+	 * La largeur de ce bloc.
+	 */
+	private double w;
+	/**
+	 * La hauteur de ce bloc.
+	 */
+	private double h;
+	/**
+	 * Indique si l'image de ce bloc doit �tre reconstruite.
+	 */
+	private boolean dirty;
+	/**
+	 * L'image conserv�e de ce bloc.
+	 */
+	private CombinedImage image;
+	
+	/**
+	 * Constructeur TerrainChunk.
+	 * 
+	 * <p></p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>carte : la carte pass�e en param�tre (carte).</li>
+	 * <li>firstCol : la colonne pass�e en param�tre (firstCol).</li>
+	 * <li>firstLine : la ligne pass�e en param�tre (firstLine).</li>
+	 * <li>x : la colonne firstCol multipli�e par le champ sizeCell de la classe Constantes.</li>
+	 * <li>y : la ligne firstLine multipli�e par le champ sizeCell de la classe Constantes.</li>
+	 * <li>w : le champ cellPerChunk multipli� par le champ sizeCell de la classe Constantes.</li>
+	 * <li>h : le champ cellPerChunk multipli� par le champ sizeCell de la classe Constantes.</li>
+	 * <li>dirty : vrai.</li>
+	 * <li>image : une nouvelle CombinedImage vide.</li>
+	 * </ul></p>
+	 * 
+	 * @param carte
+	 * 		La carte � laquelle appartient ce bloc.
+	 * @param firstCol
+	 * 		La colonne de la premi�re case de ce bloc.
+	 * @param firstLine
+	 * 		La ligne de la premi�re case de ce bloc.
+	 */
+	public TerrainChunk(Map carte, int firstCol, int firstLine) {
+		
+		this.carte = carte;
+		this.firstCol = firstCol;
+		this.firstLine = firstLine;
+		this.x = firstCol*Constantes.sizeCell;
+		this.y = firstLine*Constantes.sizeCell;
+		this.w = Constantes.cellPerChunk*Constantes.sizeCell;
+		this.h = Constantes.cellPerChunk*Constantes.sizeCell;
+		this.dirty = true;
+		this.image = new CombinedImage(null);
+		
+	}
+	
+	/**
+	 * Indique que l'image de ce bloc doit �tre reconstruite.
+	 */
+	public void invalidate() {
+		
+		this.dirty = true;
+		
+	}
+	
+	/**
+	 * Reconstruit l'image de ce bloc � partir des textures de ses cases.
+	 * 
+	 * <p>L'image principale n'a pas de texture. Pour chaque case, une sous-image est ajout�e par num�ro de texture de la
+	 * case, dans l'ordre de la liste des num�ros de texture, en coordonn�es relatives � ce bloc.</p>
+	 */
+	private void rebuild() {
+		
+		double size = (double) Constantes.sizeTextureTile/Constantes.sizeTerrain;
+		
+		this.image = new CombinedImage(new TexturedImage("Terrain("+this.firstCol+","+this.firstLine+")",
+				this.getX(), this.getY(), this.getW(), this.getH(), null));
+		this.image.setPlan(-1);
+		
+		for (int i=this.firstCol;i<this.firstCol+Constantes.cellPerChunk;i++) {
+			for (int j=this.firstLine;j<this.firstLine+Constantes.cellPerChunk;j++) {
+				Case cell = this.carte.cell(i, j);
+				if (cell == null)
+					continue;
+				for (int n=0;n<cell.numberOfTextures();n++) {
+					TexturedImage img = new TexturedImage("Case("+cell.getX()+","+cell.getY()+")nv"+n,
+							(cell.getX()-this.getX())/this.getW(), (cell.getY()-this.getY())/this.getH(),
+							Constantes.sizeCell/this.getW(), Constantes.sizeCell/this.getH(), cell.getTextureID(),
+							new Rectangle(cell.textX(n), cell.textY(n), size, size));
+					img.setPlan(-1);
+					this.image.addImage(img);
+				}
+			}
+		}
+		
+		this.dirty = false;
+		
+	}
+	
+	/**
+	 * G�n�re une image caract�risant l'�tat de ce bloc.
+	 * 
+	 * <p>L'image conserv�e par ce bloc est reconstruite si n�cessaire, puis sa position et ses dimensions sont
+	 * r�initialis�es selon celles de ce bloc, la vue les ayant modifi�es lors de l'appel pr�c�dent. Ses sous-images ne
+	 * sont jamais modifi�es par la vue.</p>
+	 * <p>Le plan de perspective de cette image est �gal � -1.</p>
+	 * 
+	 * @return
+	 * 		L'image g�n�r�e.
+	 */
+	@Override
+	public CombinedImage generateImage() {
+		
+		if (this.dirty)
+			this.rebuild();
+		
+		this.image.setX(this.getX());
+		this.image.setY(this.getY());
+		this.image.setW(this.getW());
+		this.image.setH(this.getH());
+		
+		return this.image;
+		
+	}
+	
+	/**
+	 * Indique si ce bloc se trouve enti�rement en dehors d'une portion du jeu.
+	 * 
+	 * @param px
+	 * 		L'abscisse de la portion du jeu par rapport au jeu.
+	 * @param py
+	 * 		L'ordonn�e de la portion du jeu par rapport au jeu.
+	 * @param pw
+	 * 		La largeur de la portion du jeu.
+	 * @param ph
+	 * 		La hauteur de la portion du jeu.
+	 * @return
+	 * 		Vrai si ce bloc ne recouvre pas cette portion du jeu.
+	 */
+	@Override
+	public boolean cull(double px, double py, double pw, double ph) {
+		
+		return this.getX()+this.getW() <= px || this.getX() >= px+pw
+				|| this.getY()+this.getH() <= py || this.getY() >= py+ph;
+				
+	}
+	
+	/**
+	 * Retourne faux.
+	 * 
+	 * @return
+	 * 		Faux.
+	 */
+	@Override
+	public boolean isVBORendered() {
+		
+		return false;
+		
+	}
+	
+	/**
+	 * Modifie l'abscisse de ce bloc.
+	 * 
+	 * @param x
+	 * 		L'abscisse de ce bloc.
+	 */
+	@Override
+	public void setX(double x) {
+		this.x = x;
+	}
+	
+	/**
+	 * Retourne l'abscisse de ce bloc.
+	 * 
+	 * @return
+	 * 		L'abscisse de ce bloc.
+	 */
+	@Override
+	public double getX() {
+		return this.x;
+	}
+	
+	/**
+	 * Modifie l'ordonn�e de ce bloc.
+	 * 
+	 * @param y
+	 * 		L'ordonn�e de ce bloc.
+	 */
+	@Override
+	public void setY(double y) {
+		this.y = y;
+	}
+	
+	/**
+	 * Retourne l'ordonn�e de ce bloc.
+	 * 
+	 * @return
+	 * 		L'ordonn�e de ce bloc.
+	 */
+	@Override
+	public double getY() {
+		return this.y;
+	}
+	
+	/**
+	 * Modifie la largeur de ce bloc.
+	 * 
+	 * @param w
+	 * 		La largeur de ce bloc.
+	 */
+	@Override
+	public void setW(double w) {
+		this.w = w;
+	}
+	
+	/**
+	 * Retourne la largeur de ce bloc.
+	 * 
+	 * @return
+	 * 		La largeur de ce bloc.
+	 */
+	@Override
+	public double getW() {
+		return this.w;
+	}
+	
+	/**
+	 * Modifie la hauteur de ce bloc.
+	 * 
+	 * @param h
+	 * 		La hauteur de ce bloc.
+	 */
+	@Override
+	public void setH(double h) {
+		this.h = h;
+	}
+	
+	/**
+	 * Retourne la hauteur de ce bloc.
+	 * 
+	 * @return
+	 * 		La hauteur de ce bloc.
+	 */
+	@Override
+	public double getH() {
+		return this.h;
+	}
+	
+}
@@ -0,0 +1,562 @@
+package fr.poufalouf.map;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import fr.poufalouf.tools.Constantes;
+import fr.poufalouf.tools.Orientation;
+
+/**
+ * G�n�rateur du terrain d'une carte
+ * 
+ * <p>Cette classe cr�e les cases d'une carte puis y d�pose des nappes de terrain (m�thode generate). Chacune de ces
+ * �tapes est r�alis�e en parall�le sur des bandes de la carte, dont la largeur est celle d'un bloc de terrain (champ
+ * cellPerChunk de la classe Constantes), par un ForkJoinPool.</p>
+ * <p>Chaque bande tire ses nombres al�atoires d'un g�n�rateur qui lui est propre, initialis� � partir de la graine de
+ * ce g�n�rateur, du num�ro de l'�tape et de la position de la bande. Les bandes �tant fixes, une m�me graine produit
+ * toujours le m�me terrain, quel que soit le nombre de threads du pool.</p>
+ * <p>Une bande ne modifie que ses propres cases. Lorsqu'elle doit lire une case voisine dont le num�ro de texture
+ * n'est pas encore d�finitif, elle utilise celui qu'avait cette case au d�but de l'�tape, conserv� dans le tableau
+ * snapshot.</p>
+ * <p>Le d�p�t des nappes reproduit le parcours s�quentiel des cases colonne par colonne, au cours duquel une nappe
+ * s'�tend vers l'est et le sud : une case lit l'�tat final de ses voisines d�j� parcourues (colonne pr�c�dente et case
+ * au nord) et l'�tat initial des autres. Chaque bande de colonnes est alors d�coup�e en blocs limit�s par des
+ * diagonales, trait�s en vague d'un coin de la carte � l'autre (m�thode spread). Une nappe n'est ainsi jamais
+ * interrompue � la limite de deux bandes.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+final class TerrainGenerator {
+	
+	/**
+	 * Les orientations des cases voisines, dans l'ordre de leur parcours.
+	 */
+	private static final Orientation[] neighbours = {Orientation.SUD, Orientation.SUD_OUEST, Orientation.OUEST,
+		Orientation.NORD_OUEST, Orientation.NORD, Orientation.NORD_EST, Orientation.EST, Orientation.SUD_EST};
+	
+	/**
+	 * La carte dont le terrain est g�n�r�.
+	 */
+	private final Map carte;
+	/**
+	 * La graine de ce g�n�rateur.
+	 */
+	private final long seed;
+	/**
+	 * Le pool ex�cutant les bandes.
+	 */
+	private final ForkJoinPool pool;
+	/**
+	 * Le num�ro de texture principal de chaque case au d�but de l'�tape en cours, rang� par colonne puis par ligne.
+	 */
+	private final int[] snapshot;
+	/**
+	 * Le num�ro de l'�tape en cours.
+	 */
+	private int pass;
+	
+	/**
+	 * Constructeur TerrainGenerator.
+	 * 
+	 * <p></p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>carte : la carte pass�e en param�tre (carte).</li>
+	 * <li>seed : la graine pass�e en param�tre (seed).</li>
+	 * <li>pool : le pool pass� en param�tre (pool).</li>
+	 * <li>snapshot : un nouveau tableau d'entiers de la taille de la carte.</li>
+	 * <li>pass : 0.</li>
+	 * </ul></p>
+	 * 
+	 * @param carte
+	 * 		La carte dont le terrain est g�n�r�. Elle ne doit pas �tre null.
+	 * @param seed
+	 * 		La graine du g�n�rateur.
+	 * @param pool
+	 * 		Le pool ex�cutant les bandes. Il ne doit pas �tre null.
+	 */
+	TerrainGenerator(Map carte, long seed, ForkJoinPool pool) {
+		
+		this.carte = carte;
+		this.seed = seed;
+		this.pool = pool;
+		this.snapshot = new int[carte.getNbCasesWidth()*carte.getNbCasesHeight()];
+		this.pass = 0;
+		
+	}
+	
+	/**
+	 * Remplace toutes les cases de la carte par de nouvelles cases, de texture 0 et de type SOLID.
+	 */
+	void createCells() {
+		
+		this.run(Band.CELLS, 0, 0, 0, 0, null, false);
+		
+	}
+	
+	/**
+	 * G�n�re une portion de terrain.
+	 * 
+	 * <p>Une case de texture dont le num�ro est sp�cifi� en param�tre est ajout�e � la carte en remplacement d'une case
+	 * existante, al�atoirement � une fr�quence sp�cifi�e en param�tre. Puis, les cases l'entourant sont �galement
+	 * modifi�es avec une probabilit� sp�cifi�e en param�tre, afin de cr�er une nappe. Cette nappe est ensuite bord�e
+	 * gr�ce � une suite de huit textures cons�cutives dans le fichier texture du terrain (dans l'ordre bordures EST,
+	 * OUEST, NORD, SUD, SUD_EST, NORD_OUEST, NORD_EST, SUD_OUEST). Les cases modifi�es prennent le type pass� en
+	 * param�tre.</p>
+	 * <p>En fonction du type de bordures choisie (� l'int�rieur ou � l'ext�rieur), les bordures seront plac�es sur les
+	 * cases modifi�es o� sur leurs voisines.</p>
+	 * <p>Les nappes puis les bordures sont chacune g�n�r�es en parall�le sur les bandes de la carte.</p>
+	 * 
+	 * @param textureNb
+	 * 		Le num�ro de la texture.
+	 * @param borderTextureNb
+	 * 		Le num�ro de la premi�re des huit textures de la bordure.
+	 * @param freq
+	 * 		La fr�quence d'apparition de la texture. Si ce param�tre est 500, alors il y a une chance sur 500 pour
+	 * que la case soit remplac�e.
+	 * @param neighbourFreq
+	 * 		La fr�quence d'apparition de la texture � c�t� d'une case d�j� modifi�e. Si ce param�tre est 2, alors il
+	 * y a une chance sur 2 pour que la case soit remplac�e.
+	 * @param type
+	 * 		Le type de la case.
+	 * @param borderOutside
+	 * 		Vrai si les bordures doivent �tre � l'ext�rieur des cases modifi�es.
+	 */
+	void generate(int textureNb, int borderTextureNb, int freq, int neighbourFreq, CaseType type,
+			boolean borderOutside) {
+		
+		this.run(Band.SNAPSHOT, 0, 0, 0, 0, null, false);
+		this.spread(textureNb, freq, neighbourFreq, type);
+		this.run(Band.SNAPSHOT, 0, 0, 0, 0, null, false);
+		this.run(Band.BORDER, textureNb, borderTextureNb, 0, 0, null, borderOutside);
+		
+	}
+	
+	/**
+	 * Ex�cute une �tape sur toutes les bandes de la carte et attend sa fin.
+	 * 
+	 * @param phase
+	 * 		L'�tape � ex�cuter (champs statiques de la classe Band).
+	 * @param textureNb
+	 * 		Le num�ro de la texture.
+	 * @param borderTextureNb
+	 * 		Le num�ro de la premi�re des huit textures de la bordure.
+	 * @param freq
+	 * 		La fr�quence d'apparition de la texture.
+	 * @param neighbourFreq
+	 * 		La fr�quence d'apparition de la texture � c�t� d'une case d�j� modifi�e.
+	 * @param type
+	 * 		Le type des cases modifi�es.
+	 * @param borderOutside
+	 * 		Vrai si les bordures doivent �tre � l'ext�rieur des cases modifi�es.
+	 */
+	private void run(int phase, int textureNb, int borderTextureNb, int freq, int neighbourFreq, CaseType type,
+			boolean borderOutside) {
+		
+		int nbBands = (this.carte.getNbCasesWidth()+Constantes.cellPerChunk-1)/Constantes.cellPerChunk;
+		if (nbBands > 0)
+			this.pool.invoke(new Band(phase, 0, nbBands-1, 0, textureNb, borderTextureNb, freq, neighbourFreq, type,
+					borderOutside));
+		this.pass++;
+		
+	}
+	
+	/**
+	 * D�pose les nappes d'une texture sur toutes les bandes de la carte et attend sa fin.
+	 * 
+	 * <p>Chaque bande de colonnes est d�coup�e en blocs selon la diagonale des cases (somme de la colonne et de la
+	 * ligne), par tranches de cellPerChunk diagonales. A chaque pas, la bande num�ro b traite son bloc de diagonales
+	 * num�ro (pas-b). Lorsqu'une case est trait�e, ses voisines � l'ouest, au nord-ouest, au sud-ouest et au nord
+	 * appartiennent � son bloc ou � un bloc trait� lors d'un pas pr�c�dent, ce qui donne le m�me r�sultat que le
+	 * parcours s�quentiel des cases colonne par colonne. Une limite horizontale entre deux blocs ne le permettrait pas,
+	 * la voisine au sud-ouest d'une case devant �tre trait�e avant elle.</p>
+	 * 
+	 * @param textureNb
+	 * 		Le num�ro de la texture.
+	 * @param freq
+	 * 		La fr�quence d'apparition de la texture.
+	 * @param neighbourFreq
+	 * 		La fr�quence d'apparition de la texture � c�t� d'une case d�j� modifi�e.
+	 * @param type
+	 * 		Le type des cases modifi�es.
+	 */
+	private void spread(int textureNb, int freq, int neighbourFreq, CaseType type) {
+		
+		int nbBands = (this.carte.getNbCasesWidth()+Constantes.cellPerChunk-1)/Constantes.cellPerChunk;
+		int nbBlocks = (this.carte.getNbCasesWidth()+this.carte.getNbCasesHeight()+Constantes.cellPerChunk-2)
+				/Constantes.cellPerChunk;
+		int nbSteps = (nbBands > 0)?nbBands+nbBlocks-1:0;
+		for (int step=0;step<nbSteps;step++)
+			this.pool.invoke(new Band(Band.SPREAD, 0, nbBands-1, step, textureNb, 0, freq, neighbourFreq, type,
+					false));
+		this.pass++;
+		
+	}
+	
+	/**
+	 * Retourne le num�ro de texture principal d'une case voisine, tel que le lit le parcours s�quentiel des cases
+	 * colonne par colonne.
+	 * 
+	 * <p>Les voisines situ�es � l'ouest, au nord-ouest, au sud-ouest et au nord ont d�j� �t� trait�es : leur num�ro est
+	 * lu directement. Celui des autres voisines est lu dans le tableau snapshot.</p>
+	 * 
+	 * @param cell
+	 * 		La case voisine. Elle ne doit pas �tre null.
+	 * @param or
+	 * 		L'orientation de la case voisine.
+	 * @return
+	 * 		Le num�ro de texture principal de la case.
+	 */
+	private int texture(Case cell, Orientation or) {
+		
+		switch (or) {
+		case OUEST:
+		case NORD_OUEST:
+		case SUD_OUEST:
+		case NORD:
+			return cell.textureNumber(0);
+		default:
+			return this.snapshot[(int) (cell.getX()/Constantes.sizeCell)*this.carte.getNbCasesHeight()
+					+(int) (cell.getY()/Constantes.sizeCell)];
+		}
+		
+	}
+	
+	/**
+	 * Retourne le d�calage de la texture de bordure � ajouter � une case dont la voisine dans l'orientation pass�e en
+	 * param�tre appartient � la nappe.
+	 * 
+	 * @param or
+	 * 		L'orientation de la case voisine.
+	 * @param outside
+	 * 		Vrai si les bordures sont � l'ext�rieur des cases modifi�es.
+	 * @return
+	 * 		Le d�calage � ajouter au num�ro de la premi�re texture de la bordure, ou -1 si aucune bordure n'est ajout�e.
+	 */
+	private static int borderOffset(Orientation or, boolean outside) {
+		
+		switch (or) {
+		case NORD:
+			return 3;
+		case SUD:
+			return 2;
+		case EST:
+			return 1;
+		case OUEST:
+			return 0;
+		case NORD_EST:
+			return (outside)?7:-1;
+		case NORD_OUEST:
+			return (outside)?4:-1;
+		case SUD_EST:
+			return (outside)?5:-1;
+		case SUD_OUEST:
+			return (outside)?6:-1;
+		default:
+			return -1;
+		}
+		
+	}
+	
+	/**
+	 * Bande de colonnes de la carte
+	 * 
+	 * <p>Cette t�che traite un intervalle de bandes : elle le divise en deux t�ches tant qu'il contient plus d'une
+	 * bande, puis ex�cute l'�tape demand�e sur sa bande. Pour l'�tape de d�p�t des nappes, seul le bloc de diagonales
+	 * de la bande correspondant au pas en cours est trait�.</p>
+	 */
+	private final class Band extends RecursiveAction {
+		
+		/**
+		 * L'�tape de cr�ation des cases.
+		 */
+		static final int CELLS = 0;
+		/**
+		 * L'�tape de copie des num�ros de texture dans le tableau snapshot.
+		 */
+		static final int SNAPSHOT = 1;
+		/**
+		 * L'�tape de d�p�t des nappes, par blocs de diagonales.
+		 */
+		static final int SPREAD = 2;
+		/**
+		 * L'�tape de d�p�t des bordures.
+		 */
+		static final int BORDER = 3;
+		
+		/**
+		 * Num�ro de s�rie de cette classe.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * L'�tape � ex�cuter.
+		 */
+		private final int phase;
+		/**
+		 * La premi�re bande de cette t�che.
+		 */
+		private final int firstBand;
+		/**
+		 * La derni�re bande de cette t�che.
+		 */
+		private final int lastBand;
+		/**
+		 * Le pas en cours de l'�tape de d�p�t des nappes.
+		 */
+		private final int step;
+		/**
+		 * Le num�ro de la texture.
+		 */
+		private final int textureNb;
+		/**
+		 * Le num�ro de la premi�re des huit textures de la bordure.
+		 */
+		private final int borderTextureNb;
+		/**
+		 * La fr�quence d'apparition de la texture.
+		 */
+		private final int freq;
+		/**
+		 * La fr�quence d'apparition de la texture � c�t� d'une case d�j� modifi�e.
+		 */
+		private final int neighbourFreq;
+		/**
+		 * Le type des cases modifi�es.
+		 */
+		private final CaseType type;
+		/**
+		 * Vrai si les bordures doivent �tre � l'ext�rieur des cases modifi�es.
+		 */
+		private final boolean borderOutside;
+		
+		/**
+		 * Constructeur Band.
+		 * 
+		 * @param phase
+		 * 		L'�tape � ex�cuter.
+		 * @param firstBand
+		 * 		La premi�re bande de cette t�che.
+		 * @param lastBand
+		 * 		La derni�re bande de cette t�che.
+		 * @param step
+		 * 		Le pas en cours de l'�tape de d�p�t des nappes.
+		 * @param textureNb
+		 * 		Le num�ro de la texture.
+		 * @param borderTextureNb
+		 * 		Le num�ro de la premi�re des huit textures de la bordure.
+		 * @param freq
+		 * 		La fr�quence d'apparition de la texture.
+		 * @param neighbourFreq
+		 * 		La fr�quence d'apparition de la texture � c�t� d'une case d�j� modifi�e.
+		 * @param type
+		 * 		Le type des cases modifi�es.
+		 * @param borderOutside
+		 * 		Vrai si les bordures doivent �tre � l'ext�rieur des cases modifi�es.
+		 */
+		Band(int phase, int firstBand, int lastBand, int step, int textureNb, int borderTextureNb, int freq,
+				int neighbourFreq, CaseType type, boolean borderOutside) {
+			
+			this.phase = phase;
+			this.firstBand = firstBand;
+			this.lastBand = lastBand;
+			this.step = step;
+			this.textureNb = textureNb;
+			this.borderTextureNb = borderTextureNb;
+			this.freq = freq;
+			this.neighbourFreq = neighbourFreq;
+			this.type = type;
+			this.borderOutside = borderOutside;
+			
+		}
+		
+		/**
+		 * Divise cette t�che ou ex�cute l'�tape sur sa bande.
+		 */
+		@Override
+		protected void compute() {
+			
+			if (this.firstBand < this.lastBand) {
+				int middle = (this.firstBand+this.lastBand)/2;
+				invokeAll(new Band(this.phase, this.firstBand, middle, this.step, this.textureNb, this.borderTextureNb,
+						this.freq, this.neighbourFreq, this.type, this.borderOutside),
+						new Band(this.phase, middle+1, this.lastBand, this.step, this.textureNb, this.borderTextureNb,
+						this.freq, this.neighbourFreq, this.type, this.borderOutside));
+				return;
+			}
+			
+			Map carte = TerrainGenerator.this.carte;
+			int first = this.firstBand*Constantes.cellPerChunk;
+			int last = Math.min(first+Constantes.cellPerChunk, carte.getNbCasesWidth())-1;
+			if (this.phase == SPREAD) {
+				int block = this.step-this.firstBand;
+				if (block < 0 || block*Constantes.cellPerChunk > last+carte.getNbCasesHeight()-1)
+					return;
+				this.spread(first, last, block*Constantes.cellPerChunk, new Random(TerrainGenerator.this.seed*31
+						+((long) TerrainGenerator.this.pass << 32)+(long) block*carte.getNbCasesWidth()+first));
+				return;
+			}
+			
+			Random random = new Random(TerrainGenerator.this.seed*31+((long) TerrainGenerator.this.pass << 32)+first);
+			switch (this.phase) {
+			case CELLS:
+				this.createCells(first, last, random);
+				break;
+			case SNAPSHOT:
+				this.snapshot(first, last);
+				break;
+			case BORDER:
+				this.border(first, last);
+				break;
+			default:
+			}
+			
+		}
+		
+		/**
+		 * Cr�e les cases de la bande.
+		 * 
+		 * @param first
+		 * 		La premi�re colonne de la bande.
+		 * @param last
+		 * 		La derni�re colonne de la bande.
+		 * @param random
+		 * 		Le g�n�rateur al�atoire de la bande.
+		 */
+		private void createCells(int first, int last, Random random) {
+			
+			Map carte = TerrainGenerator.this.carte;
+			for (int i=first;i<=last;i++) {
+				for (int j=0;j<carte.getNbCasesHeight();j++) {
+					carte.replaceCell(i, j, new Case(carte, i*Constantes.sizeCell, j*Constantes.sizeCell,
+							Constantes.sizeCell, Constantes.sizeCell, carte.getTerrainID(), random.nextInt(1)));
+				}
+			}
+			
+		}
+		
+		/**
+		 * Copie les num�ros de texture principaux des cases de la bande dans le tableau snapshot.
+		 * 
+		 * @param first
+		 * 		La premi�re colonne de la bande.
+		 * @param last
+		 * 		La derni�re colonne de la bande.
+		 */
+		private void snapshot(int first, int last) {
+			
+			Map carte = TerrainGenerator.this.carte;
+			Case cell;
+			for (int i=first;i<=last;i++) {
+				for (int j=0;j<carte.getNbCasesHeight();j++) {
+					cell = carte.cell(i, j);
+					if (cell != null)
+						TerrainGenerator.this.snapshot[i*carte.getNbCasesHeight()+j] = cell.textureNumber(0);
+				}
+			}
+			
+		}
+		
+		/**
+		 * D�pose les nappes sur les cases d'un bloc de diagonales de la bande.
+		 * 
+		 * <p>Les cases sont parcourues colonne par colonne, comme dans la m�thode cells() de la classe Map : une nappe
+		 * s'�tend donc au fil du parcours vers le sud, et vers l'est d'une colonne � la suivante.</p>
+		 * 
+		 * @param first
+		 * 		La premi�re colonne de la bande.
+		 * @param last
+		 * 		La derni�re colonne de la bande.
+		 * @param diagonal
+		 * 		La premi�re diagonale du bloc.
+		 * @param random
+		 * 		Le g�n�rateur al�atoire de ce bloc.
+		 */
+		private void spread(int first, int last, int diagonal, Random random) {
+			
+			Map carte = TerrainGenerator.this.carte;
+			Case cell, next;
+			for (int i=first;i<=last;i++) {
+				int end = Math.min(carte.getNbCasesHeight(), diagonal+Constantes.cellPerChunk-i);
+				for (int j=Math.max(0, diagonal-i);j<end;j++) {
+					cell = carte.cell(i, j);
+					if (cell == null)
+						continue;
+					if (random.nextInt(this.freq) == 0) {
+						this.replace(cell);
+					} else {
+						for (Orientation or : neighbours) {
+							next = cell.nextCell(or);
+							if (next != null && texture(next, or) == this.textureNb
+									&& random.nextInt(this.neighbourFreq) == 0)
+								this.replace(cell);
+						}
+					}
+				}
+			}
+			
+		}
+		
+		/**
+		 * Remplace les textures d'une case par la texture de la nappe.
+		 * 
+		 * @param cell
+		 * 		La case � modifier.
+		 */
+		private void replace(Case cell) {
+			
+			cell.clearTextures();
+			cell.replaceTextureNumber(0, this.textureNb);
+			if (this.type != null)
+				cell.setType(this.type);
+				
+		}
+		
+		/**
+		 * D�pose les bordures sur les cases de la bande.
+		 * 
+		 * <p>Les num�ros de texture principaux ne changeant plus, ils sont tous lus dans le tableau snapshot.</p>
+		 * 
+		 * @param first
+		 * 		La premi�re colonne de la bande.
+		 * @param last
+		 * 		La derni�re colonne de la bande.
+		 */
+		private void border(int first, int last) {
+			
+			Map carte = TerrainGenerator.this.carte;
+			int[] textures = TerrainGenerator.this.snapshot;
+			int h = carte.getNbCasesHeight(), offset, col, line;
+			boolean inside, nextInside;
+			Case cell, next;
+			for (int i=first;i<=last;i++) {
+				for (int j=0;j<h;j++) {
+					cell = carte.cell(i, j);
+					if (cell == null)
+						continue;
+					inside = textures[i*h+j] == this.textureNb;
+					if (inside != this.borderOutside) {
+						for (Orientation or : neighbours) {
+							next = cell.nextCell(or);
+							if (next == null)
+								continue;
+							col = (int) (next.getX()/Constantes.sizeCell);
+							line = (int) (next.getY()/Constantes.sizeCell);
+							nextInside = textures[col*h+line] == this.textureNb;
+							offset = borderOffset(or, this.borderOutside);
+							if (nextInside != inside && offset >= 0)
+								cell.addTextureNumber(this.borderTextureNb+offset);
+						}
+					}
+				}
+			}
+			
+		}
+		
+	}
+	
+}
@@ -0,0 +1,224 @@
+package fr.poufalouf.map;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Ordonnanceur des mises � jour des objets d'une carte
+ * 
+ * <p>Cette classe conserve les objets devant �tre mis � jour dans une file de priorit� tri�e selon l'instant de leur
+ * prochaine mise � jour, �gal � leur compteur de temps augment� de leur d�lai de mise � jour. Seuls les objets dont cet
+ * instant est atteint sont r�veill�s par la m�thode wake(long), les autres restant en sommeil dans la file. Le co�t
+ * d'un appel � cette m�thode d�pend donc du nombre d'objets r�veill�s et non du nombre d'objets ordonnanc�s.</p>
+ * <p>Un objet r�veill� est imm�diatement replac� dans la file pour sa mise � jour suivante, en supposant que son
+ * compteur de temps est r�initialis� � l'instant du r�veil. Si le compteur de temps d'un objet est modifi� autrement,
+ * l'instant de sa prochaine mise � jour est recalcul� lorsqu'il arrive en t�te de la file.</p>
+ * <p>Chaque objet est plac� dans la file sous la forme d'une entr�e (classe interne Entry) portant l'instant de sa
+ * prochaine mise � jour, afin que la file soit tri�e sans conversion de cet instant en objet Long.</p>
+ * <p>Un objet retir� de cet ordonnanceur (m�thode cancel(MapObject)) n'est pas cherch� dans la file : son entr�e est
+ * seulement marqu�e comme annul�e, puis abandonn�e lorsqu'elle arrive en t�te de la file.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public class UpdateScheduler {
+	
+	/**
+	 * La file des objets ordonnanc�s, tri�e selon l'instant de leur prochaine mise � jour.
+	 */
+	private PriorityQueue<Entry> queue;
+	/**
+	 * Table de hachage stockant l'entr�e de chaque objet ordonnanc�, r�f�renc�e par cet objet. Les entr�es annul�es
+	 * n'y figurent plus.
+	 */
+	private HashMap<MapObject, Entry> entries;
+	/**
+	 * Le nombre d'objets r�veill�s lors du dernier appel � la m�thode wake(long).
+	 */
+	private int nbWoken;
+	
+	/**
+	 * Constructeur UpdateScheduler.
+	 * 
+	 * <p></p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>entries : une nouvelle table (HashMap) d'Entry r�f�renc�es par des MapObject.</li>
+	 * <li>queue : une nouvelle file de priorit� (PriorityQueue) d'Entry, tri�e selon l'instant de mise � jour des
+	 * entr�es.</li>
+	 * <li>nbWoken : 0.</li>
+	 * </ul></p>
+	 */
+	public UpdateScheduler() {
+		
+		this.entries = new HashMap<MapObject, Entry>();
+		this.queue = new PriorityQueue<Entry>(64, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry e1, Entry e2) {
+				return (e1.due < e2.due)?-1:((e1.due > e2.due)?1:0);
+			}
+		});
+		this.nbWoken = 0;
+		
+	}
+	
+	/**
+	 * Calcule l'instant de la prochaine mise � jour d'un objet.
+	 * 
+	 * <p>Un objet doit �tre mis � jour d�s que le temps �coul� depuis son compteur de temps d�passe strictement son
+	 * d�lai de mise � jour.</p>
+	 * 
+	 * @param obj
+	 * 		L'objet.
+	 * @return
+	 * 		Le premier instant auquel l'objet doit �tre mis � jour.
+	 */
+	private static long dueTime(MapObject obj) {
+		
+		return obj.getCompteurTemps()+obj.getDelayUpdate()+1;
+		
+	}
+	
+	/**
+	 * Ajoute un objet � la file de cet ordonnanceur.
+	 * 
+	 * <p>Si l'objet est null ou d�j� pr�sent dans la file, cette m�thode ne fait rien.</p>
+	 * 
+	 * @param obj
+	 * 		L'objet � ordonnancer.
+	 */
+	public void schedule(MapObject obj) {
+		
+		if (obj == null || this.entries.containsKey(obj))
+			return;
+		
+		Entry e = new Entry(obj, dueTime(obj));
+		this.entries.put(obj, e);
+		this.queue.add(e);
+		
+	}
+	
+	/**
+	 * Retire un objet de cet ordonnanceur.
+	 * 
+	 * <p>L'entr�e de l'objet est marqu�e comme annul�e et reste dans la file jusqu'� ce qu'elle en soit retir�e par la
+	 * m�thode wake(long), sans que l'objet soit r�veill�. Si l'objet n'est pas ordonnanc�, cette m�thode ne fait
+	 * rien.</p>
+	 * 
+	 * @param obj
+	 * 		L'objet � retirer.
+	 */
+	public void cancel(MapObject obj) {
+		
+		if (obj == null)
+			return;
+		
+		Entry e = this.entries.remove(obj);
+		if (e != null)
+			e.cancelled = true;
+		
+	}
+	
+	/**
+	 * R�veille les objets dont l'instant de mise � jour est atteint.
+	 * 
+	 * <p>Les objets sont retir�s de la t�te de la file tant que l'instant de leur mise � jour est inf�rieur ou �gal au
+	 * temps pass� en param�tre. Les entr�es annul�es sont abandonn�es. Si le compteur de temps d'un objet a �t� modifi�
+	 * depuis son ajout et que l'instant recalcul� n'est pas atteint, l'objet est replac� dans la file sans �tre
+	 * r�veill�. Sinon, il est ajout� � la liste retourn�e puis replac� dans la file pour l'instant de sa mise � jour
+	 * suivante.</p>
+	 * 
+	 * @param temps
+	 * 		Le temps actuel.
+	 * @return
+	 * 		La liste (ArrayList) des objets r�veill�s, dans l'ordre de leur instant de mise � jour.
+	 */
+	public ArrayList<MapObject> wake(long temps) {
+		
+		ArrayList<MapObject> woken = new ArrayList<MapObject>();
+		ArrayList<Entry> polled = new ArrayList<Entry>();
+		
+		while (!this.queue.isEmpty() && this.queue.peek().due <= temps) {
+			Entry e = this.queue.poll();
+			if (e.cancelled)
+				continue;
+			long due = dueTime(e.obj);
+			if (due > temps) {
+				e.due = due;
+			} else {
+				e.due = temps+e.obj.getDelayUpdate()+1;
+				woken.add(e.obj);
+			}
+			polled.add(e);
+		}
+		this.queue.addAll(polled);
+		this.nbWoken = woken.size();
+		
+		return woken;
+		
+	}
+	
+	/**
+	 * Retourne le nombre d'objets r�veill�s lors du dernier appel � la m�thode wake(long).
+	 * 
+	 * @return
+	 * 		Le nombre d'objets r�veill�s.
+	 */
+	public int getNbWoken() {
+		return this.nbWoken;
+	}
+	
+	/**
+	 * Retourne le nombre d'objets ordonnanc�s par cet ordonnanceur, sans compter les entr�es annul�es.
+	 * 
+	 * @return
+	 * 		Le nombre d'objets ordonnanc�s.
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+	
+	/**
+	 * Entr�e de la file d'un ordonnanceur
+	 * 
+	 * <p>Cette classe associe un objet ordonnanc� � l'instant de sa prochaine mise � jour. Cet instant n'est modifi�
+	 * que lorsque l'entr�e est hors de la file.</p>
+	 */
+	private static final class Entry {
+		
+		/**
+		 * L'objet ordonnanc�.
+		 */
+		final MapObject obj;
+		/**
+		 * L'instant de la prochaine mise � jour de l'objet.
+		 */
+		long due;
+		/**
+		 * Indique si l'objet a �t� retir� de l'ordonnanceur.
+		 */
+		boolean cancelled;
+		
+		/**
+		 * Constructeur Entry.
+		 * 
+		 * @param obj
+		 * 		L'objet ordonnanc�.
+		 * @param due
+		 * 		L'instant de la prochaine mise � jour de l'objet.
+		 */
+		Entry(MapObject obj, long due) {
+			
+			this.obj = obj;
+			this.due = due;
+			this.cancelled = false;
+			
+		}
+		
+	}
+	
+}
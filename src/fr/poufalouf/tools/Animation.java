@@ -2,8 +2,8 @@ package fr.poufalouf.tools;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.script.ScriptException;
 
@@ -12,27 +12,26 @@ import javax.script.ScriptException;
  * 
  * <p>Il s'agit d'une succession d'AnimationFrame. Les images d'une animation doivent toutes �tre stock�es dans un m�me
  * fichier texture. Seules les coordonn�es des fragments de texture � utiliser peuvent varier d'une frame � l'autre.</p>
+ * <p>Les donn�es de l'animation (statut, fichier texture, nombre de cycles et frames) sont port�es par une instance
+ * de la classe AnimationClip, partag�e par toutes les animations construites � partir d'un m�me script. Une instance
+ * de cette classe ne conserve que l'�tat de lecture propre � un objet : la frame actuelle et le timer.</p>
+ * <p>Les donn�es lues dans un script d'animation sont conserv�es dans un cache partag�, jusqu'� ce que le script soit
+ * relu par la classe ScriptReader. Les animations cr��es plusieurs fois � partir d'un m�me script (objets d'une carte,
+ * personnages et boutons d'un combat) ne refont donc pas l'analyse du script.</p>
  * 
  * @author Anaïs Vernet
  */
 public class Animation implements Cloneable {
-
-	/**
-	 * L'�tat caract�ris� par cette animation.
-	 */
-	private final Status status;
-	/**
-	 * Le nom du fichier texture de cette animation.
-	 */
-	private final String textureID;
+	
 	/**
-	 * Le nombre de cycles pr�vus pour cette animation.
+	 * Table de hachage stockant les donn�es des scripts d'animation d�j� lus, r�f�renc�es par le nom du fichier.
 	 */
-	private final int nbCycles;
+	private static final HashMap<String, ClipSet> clipCache = new HashMap<String, ClipSet>();
+
 	/**
-	 * La liste des frames composant cette animation.
+	 * Les donn�es partag�es de cette animation.
 	 */
-	private ArrayList<AnimationFrame> frames;
+	private AnimationClip clip;
 	/**
 	 * Le num�ro de la frame actuelle de cette animation.
 	 */
@@ -51,17 +50,14 @@ public class Animation implements Cloneable {
 	 * �v�nement ext�rieur ne vient pas la modifier. Le contr�le de fin d'animation doit se faire dans les m�thodes
 	 * des objets. Par d�faut, une animation continue de tourner m�me quand elle est cens�e �tre finie, si on ne lui
 	 * dit pas sur quoi encha�ner.</p>
-	 * <p>Apr�s initialisation, ce constructeur ajoute une premi�re AnimationFrame � cette animation, gr�ce � son dernier
-	 * param�tre, ou s'il est null, en construisant une nouvelle AnimationFrame standard.</p>
+	 * <p>Les donn�es de cette animation sont une nouvelle instance d'AnimationClip dont la premi�re frame est le
+	 * dernier param�tre de ce constructeur, ou s'il est null, une nouvelle AnimationFrame standard.</p>
 	 * 
 	 * <b>Initialisation</b>
 	 * 
 	 * <p>
 	 * <ul>
-	 * <li>status : le Status pass� en param�tre (status), ou STILL si le param�tre est null.</li>
-	 * <li>textureID : l'identifiant pass� en param�tre (textureID), ou "" si le param�tre est null.</li>
-	 * <li>nbCycles : la longueur pass�e en param�tre (length).</li>
-	 * <li>frames : une nouvelle liste (ArrayList) d'AnimationFrame.</li>
+	 * <li>clip : un nouvel AnimationClip construit � partir des param�tres.</li>
 	 * <li>currentFrame : 0.</li>
 	 * <li>timer : la dur�e pass�e en param�tre.</li>
 	 * </ul></p>
@@ -77,36 +73,66 @@ public class Animation implements Cloneable {
 	 */
 	public Animation(Status status, String textureID, AnimationFrame animationFrame, int length) {
 		
-		if (status != null)
-			this.status = status;
-		else
-			this.status = Status.STILL;
-		if (textureID != null)
-			this.textureID = textureID;
-		else
-			this.textureID = "";
-		this.nbCycles = length;
-		this.frames = new ArrayList<AnimationFrame>();
-		this.currentFrame = 0;
-		this.timer = length;
+		this(new AnimationClip(status, textureID, length, new AnimationFrame[] {animationFrame}));
 		
-		if (animationFrame != null)
-			this.frames.add(animationFrame);
+	}
+	
+	/**
+	 * Constructeur Animation.
+	 * 
+	 * <p>Cette animation lit les donn�es pass�es en param�tre, sans les copier.</p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>clip : les donn�es pass�es en param�tre (clip), ou un AnimationClip standard de statut STILL si le param�tre
+	 * est null.</li>
+	 * <li>currentFrame : 0.</li>
+	 * <li>timer : le nombre de cycles de clip.</li>
+	 * </ul></p>
+	 * 
+	 * @param clip
+	 * 		Les donn�es de cette animation.
+	 */
+	public Animation(AnimationClip clip) {
+		
+		if (clip != null)
+			this.clip = clip;
 		else
-			this.frames.add(new AnimationFrame(null, null, 0));
+			this.clip = new AnimationClip(null, null, 0, null);
+		this.currentFrame = 0;
+		this.timer = this.clip.getNbCycles();
 		
 	}
 
 	/**
 	 * Ajoute une frame � cette animation.
 	 * 
+	 * <p>Les donn�es de cette animation sont remplac�es par une nouvelle instance d'AnimationClip comprenant la frame
+	 * ajout�e ; les autres animations partageant les donn�es pr�c�dentes ne sont pas modifi�es.</p>
+	 * 
 	 * @param af
 	 * 		La frame � ajouter. Si elle est null, elle n'est pas ajout�e.
 	 */
 	public void addFrame(AnimationFrame af) {
 		
-		if (af != null)
-			this.frames.add(af);
+		this.clip = this.clip.withFrame(af);
+		
+	}
+	
+	/**
+	 * Remplace les donn�es de cette animation et la repositionne � z�ro.
+	 * 
+	 * @param c
+	 * 		Les nouvelles donn�es de cette animation. Si elles sont null, rien n'est fait.
+	 */
+	public void play(AnimationClip c) {
+		
+		if (c == null)
+			return;
+		this.clip = c;
+		this.reset();
 		
 	}
 	
@@ -118,7 +144,7 @@ public class Animation implements Cloneable {
 	 */
 	public void incrementFrame() {
 		
-		if (this.currentFrame == this.frames.size()-1) {
+		if (this.currentFrame == this.clip.numberOfFrames()-1) {
 			this.currentFrame = 0;
 			if (this.timer > 0)
 				this.timer--;
@@ -145,7 +171,7 @@ public class Animation implements Cloneable {
 	 * 		Le nombre de frames.
 	 */
 	public int numberOfFrames() {
-		return this.frames.size();
+		return this.clip.numberOfFrames();
 	}
 	
 	/**
@@ -154,7 +180,7 @@ public class Animation implements Cloneable {
 	public void reset() {
 		
 		this.currentFrame = 0;
-		this.timer = this.nbCycles;
+		this.timer = this.clip.getNbCycles();
 		
 	}
 	
@@ -175,6 +201,8 @@ public class Animation implements Cloneable {
 	 * retourn� � une abscisse nulle (utile pour les barri�res qui peuvent soit �tre d�termin�es par l'orientation, soit
 	 * par la frame).</li>
 	 * </ul></p>
+	 * <p>Le rectangle retourn� est lu dans la table pr�calcul�e des donn�es partag�es de cette animation (m�thode
+	 * textRect(int, Orientation) de la classe AnimationClip). Il ne doit pas �tre modifi�.</p>
 	 * 
 	 * @param or
 	 * 		L'orientation d�finissant les coordonn�es, si cette animation est orientable.
@@ -185,37 +213,10 @@ public class Animation implements Cloneable {
 		
 		/*
 		 * currentFrame est forc�ment un indice valide. Il s'agit d'une variable priv�e dont les modifications sont
-		 * contr�l�es dans les m�thodes incrementFrame() et reset().
+		 * contr�l�es dans les m�thodes incrementFrame(), reset() et play(AnimationClip).
 		 */
 		
-		Rectangle rect;
-
-		if (or != null && or != Orientation.AUCUNE) {
-			if (this.frames.get(this.currentFrame).getText().getY() < 0) {
-				rect = new Rectangle((or.getNumText()%4)*Constantes.sizeTextureFragment,
-						(or.getNumText()/4)*Constantes.sizeTextureFragment,
-						this.frames.get(this.currentFrame).getText().getW(),
-						this.frames.get(this.currentFrame).getText().getH());
-			} else if (this.frames.get(this.currentFrame).getText().getX() < 0) {
-				rect = new Rectangle((or.getNumText()%4)*Constantes.sizeTextureFragment,
-						this.frames.get(this.currentFrame).getText().getY(),
-						this.frames.get(this.currentFrame).getText().getW(),
-						this.frames.get(this.currentFrame).getText().getH());
-			} else if (this.frames.get(this.currentFrame).getText().getY() < 0) {
-				rect = new Rectangle(this.frames.get(this.currentFrame).getText().getX(),
-						(or.getNumText()/4)*Constantes.sizeTextureFragment,
-						this.frames.get(this.currentFrame).getText().getW(),
-						this.frames.get(this.currentFrame).getText().getH());
-			} else {
-				rect = this.frames.get(this.currentFrame).getText();
-			}
-		} else {
-			rect = this.frames.get(this.currentFrame).getText();
-			if (rect.getX() < 0)
-				rect = new Rectangle(0, rect.getY(), rect.getW(), rect.getH());
-		}
-		
-		return rect;
+		return this.clip.textRect(this.currentFrame, or);
 		
 	}
 	
@@ -229,9 +230,9 @@ public class Animation implements Cloneable {
 	public String sound() {
 		
 		String s = "";
-		if (this.frames.get(this.currentFrame).getCycleForSound() == this.nbCycles-this.timer+1
-				|| this.frames.get(this.currentFrame).getCycleForSound() == -1)
-			s = this.frames.get(this.currentFrame).getSound();
+		AnimationFrame frame = this.clip.frame(this.currentFrame);
+		if (frame.getCycleForSound() == this.clip.getNbCycles()-this.timer+1 || frame.getCycleForSound() == -1)
+			s = frame.getSound();
 		return s;
 		
 	}
@@ -256,6 +257,8 @@ public class Animation implements Cloneable {
 	 * </ul></p>
 	 * <p>Le fichier d'animation doit �tre plac� dans le dossier res/scripts/animations et porter le nom de l'objet
 	 * correspondant en minuscules.</p>
+	 * <p>Les donn�es des animations sont prises dans le cache de cette classe si le script n'a pas �t� relu depuis leur
+	 * cr�ation. Seul l'�tat de lecture des animations retourn�es est alors nouveau.</p>
 	 * 
 	 * @param fileName
 	 * 		Le nom du fichier texte � lire.
@@ -271,8 +274,44 @@ public class Animation implements Cloneable {
 	public static ArrayList<Animation> createAnimationFromFile(String fileName) throws IOException, ScriptException,
 		Exception {
 		
+		long revision = ScriptReader.revision(fileName);
+		ClipSet set;
+		synchronized (clipCache) {
+			set = clipCache.get(fileName);
+		}
+		if (set == null || set.revision != revision) {
+			set = new ClipSet(revision, readClips(fileName));
+			synchronized (clipCache) {
+				clipCache.put(fileName, set);
+			}
+		}
+		
 		ArrayList<Animation> a = new ArrayList<Animation>();
-		Animation anim = null;
+		for (AnimationClip c : set.clips)
+			a.add(new Animation(c));
+		
+		return a;
+		
+	}
+	
+	/**
+	 * Lit les donn�es des animations d'un script.
+	 * 
+	 * <p>La structure du script est d�crite par la m�thode createAnimationFromFile(String).</p>
+	 * 
+	 * @param fileName
+	 * 		Le nom du fichier texte � lire.
+	 * @return
+	 * 		Le tableau des donn�es lues, dans leur ordre d'apparition dans le script.
+	 * @throws IOException
+	 * 		si le fichier n'a pas pu �tre lu correctement.
+	 * @throws ScriptException
+	 * 		si le script d'animation contient des erreurs.
+	 */
+	private static AnimationClip[] readClips(String fileName) throws IOException, ScriptException {
+		
+		ArrayList<AnimationClip> a = new ArrayList<AnimationClip>();
+		AnimationClip clip = null;
 		ArrayList<String> lines;
 		String line;
 		boolean stillFound = false;
@@ -292,12 +331,11 @@ public class Animation implements Cloneable {
 						line+".");
 			}
 			line = lines.get(1);
-			Pattern ptn = Pattern.compile("^[a-zA-Z][a-zA-Z0-9/_]+\\.?[a-zA-Z0-9]*$");
 			Matcher mth;
 			if (line == null)
 				throw new ScriptException("Erreur dans le script d'animation "+fileName+" : nom de fichier manquant" +
 						" pour l'animation "+st.toString()+".");
-			mth = ptn.matcher(line);
+			mth = ScriptGrammar.animationTextureLine.matcher(line);
 			if (!mth.find())
 				throw new ScriptException("Erreur dans le script d'animation "+fileName+" : nom de fichier" +
 						" invalide pour l'animation "+st.toString()+".");
@@ -315,12 +353,9 @@ public class Animation implements Cloneable {
 			int x = 0, y = 0, w = 1, h = 1;
 			for (int i=3;i<lines.size();i++) {
 				line = lines.get(i);
-				Pattern pttn = Pattern.compile("^-?\\d+,-?\\d+,\\d+,\\d+$");
-				Pattern pttn2 = Pattern.compile("^x\\d+$");
-				ptn = Pattern.compile("^[a-zA-Z][a-zA-Z0-9/_]+\\.?[a-zA-Z0-9]*(\\[\\d+\\])?$");
-				Matcher mtch = pttn.matcher(line);
-				Matcher mtch2 = pttn2.matcher(line);
-				mth = ptn.matcher(line);
+				Matcher mtch = ScriptGrammar.rectangleLine.matcher(line);
+				Matcher mtch2 = ScriptGrammar.repeatLine.matcher(line);
+				mth = ScriptGrammar.animationSoundLine.matcher(line);
 				if (mtch.find()) {
 					String[] strs;
 					try {
@@ -349,7 +384,7 @@ public class Animation implements Cloneable {
 					}
 				} else if (mth.find()) {
 					try {
-						String[] strs = mth.group().split("[\\[\\]]");
+						String[] strs = ScriptGrammar.soundChannelSeparator.split(mth.group());
 						int k = -1;
 						if (strs.length > 1)
 							k = Integer.parseInt(strs[1]);
@@ -369,14 +404,9 @@ public class Animation implements Cloneable {
 			if (!frameFound)
 				throw new ScriptException("Erreur dans le script d'animation "+fileName+" : frame manquante" +
 						" pour l'animation "+st.toString()+".");
-			anim = new Animation(st, animFile, af.get(0), nbCycles.intValue());
-			af.remove(0);
-			for (AnimationFrame afr : af) {
-				if (afr != null)
-					anim.addFrame(afr);
-			}
-			a.add(anim);
-			if (anim.getStatus() == Status.STILL)
+			clip = new AnimationClip(st, animFile, nbCycles.intValue(), af.toArray(new AnimationFrame[af.size()]));
+			a.add(clip);
+			if (clip.getStatus() == Status.STILL)
 				stillFound = true;
 			n++;
 			lines = ScriptReader.readSection(fileName, n);
@@ -385,13 +415,15 @@ public class Animation implements Cloneable {
 		if (!stillFound)
 			throw new ScriptException("Erreur dans le script d'animation "+fileName+" : animation STILL non trouv�e.");
 		
-		return a;
+		return a.toArray(new AnimationClip[a.size()]);
 		
 	}
 	
 	/**
 	 * Clone cette animation.
 	 * 
+	 * <p>La copie partage les donn�es de cette animation et reprend son �tat de lecture.</p>
+	 * 
 	 * @return
 	 * 		Une copie de cette animation.
 	 */
@@ -410,6 +442,16 @@ public class Animation implements Cloneable {
 		
 	}
 
+	/**
+	 * Retourne les donn�es partag�es de cette animation.
+	 * 
+	 * @return
+	 * 		Les donn�es de cette animation.
+	 */
+	public AnimationClip getClip() {
+		return this.clip;
+	}
+	
 	/**
 	 * Retourne l'�tat caract�ris� par cette animation.
 	 * 
@@ -417,7 +459,7 @@ public class Animation implements Cloneable {
 	 * 		L'�tat de cette animation.
 	 */
 	public Status getStatus() {
-		return this.status;
+		return this.clip.getStatus();
 	}
 	
 	/**
@@ -427,7 +469,7 @@ public class Animation implements Cloneable {
 	 * 		Le nom du fichier texture.
 	 */
 	public String getTextureID() {
-		return this.textureID;
+		return this.clip.getTextureID();
 	}
 	
 	/**
@@ -437,7 +479,7 @@ public class Animation implements Cloneable {
 	 * 		Le nombre de cycles.
 	 */
 	public int getNbCycles() {
-		return this.nbCycles;
+		return this.clip.getNbCycles();
 	}
 	
 	/**
@@ -450,4 +492,37 @@ public class Animation implements Cloneable {
 		return this.timer;
 	}
 	
+	/**
+	 * Donn�es d'un script d'animation
+	 * 
+	 * <p>Cette classe associe les donn�es lues dans un script au num�ro de r�vision du script lors de leur lecture.</p>
+	 */
+	private static final class ClipSet {
+		
+		/**
+		 * Le num�ro de r�vision du script lors de la lecture des donn�es.
+		 */
+		final long revision;
+		/**
+		 * Les donn�es des animations du script, dans leur ordre d'apparition.
+		 */
+		final AnimationClip[] clips;
+		
+		/**
+		 * Constructeur ClipSet.
+		 * 
+		 * @param revision
+		 * 		Le num�ro de r�vision du script.
+		 * @param clips
+		 * 		Les donn�es des animations du script.
+		 */
+		ClipSet(long revision, AnimationClip[] clips) {
+			
+			this.revision = revision;
+			this.clips = clips;
+			
+		}
+		
+	}
+	
 }
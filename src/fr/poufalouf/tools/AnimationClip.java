@@ -0,0 +1,233 @@
+package fr.poufalouf.tools;
+
+/**
+ * Donn�es partag�es d'une animation
+ * 
+ * <p>Cette classe regroupe la partie immuable d'une animation : son statut, son fichier texture, son nombre de cycles
+ * et ses frames. Une m�me instance est partag�e par tous les objets utilisant cette animation, chacun ne conservant
+ * que son �tat de lecture (frame actuelle et timer) dans une instance de la classe Animation.</p>
+ * <p>Une instance n'est jamais modifi�e apr�s sa construction : l'ajout d'une frame (m�thode withFrame(AnimationFrame))
+ * cr�e une nouvelle instance. La table des rectangles de texture, qui ne d�pendent que des frames et de l'orientation,
+ * est enti�rement calcul�e par le constructeur, lors de la lecture du fichier d'animation ; la m�thode
+ * textRect(int, Orientation) n'est alors plus qu'une lecture de tableau, sans calcul ni allocation.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class AnimationClip {
+	
+	/**
+	 * L'�tat caract�ris� par cette animation.
+	 */
+	private final Status status;
+	/**
+	 * Le nom du fichier texture de cette animation.
+	 */
+	private final String textureID;
+	/**
+	 * Le nombre de cycles pr�vus pour cette animation.
+	 */
+	private final int nbCycles;
+	/**
+	 * Le tableau des frames composant cette animation.
+	 */
+	private final AnimationFrame[] frames;
+	/**
+	 * La table des rectangles de texture, index�e par le num�ro de la frame puis par le rang de l'orientation.
+	 */
+	private final Rectangle[][] textRects;
+	
+	/**
+	 * Constructeur AnimationClip.
+	 * 
+	 * <p>Si le tableau de frames est null ou vide, une AnimationFrame standard est utilis�e comme unique frame. Les
+	 * frames null sont ignor�es.</p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>status : le Status pass� en param�tre (status), ou STILL si le param�tre est null.</li>
+	 * <li>textureID : l'identifiant pass� en param�tre (textureID), ou "" si le param�tre est null.</li>
+	 * <li>nbCycles : la longueur pass�e en param�tre (length).</li>
+	 * <li>frames : une copie du tableau pass� en param�tre (frames), sans ses cases null.</li>
+	 * <li>textRects : un nouveau tableau de Rectangle, d'une ligne par frame et d'une colonne par orientation, rempli
+	 * par la m�thode computeTextRect(int, Orientation).</li>
+	 * </ul></p>
+	 * 
+	 * @param status
+	 * 		L'�tat caract�ris� par cette animation.
+	 * @param textureID
+	 * 		Le nom du fichier texture de cette animation.
+	 * @param length
+	 * 		Le nombre de cycles qu'est cens�e durer cette animation.
+	 * @param frames
+	 * 		Les frames de cette animation.
+	 */
+	public AnimationClip(Status status, String textureID, int length, AnimationFrame[] frames) {
+		
+		if (status != null)
+			this.status = status;
+		else
+			this.status = Status.STILL;
+		if (textureID != null)
+			this.textureID = textureID;
+		else
+			this.textureID = "";
+		this.nbCycles = length;
+		
+		int nb = 0;
+		if (frames != null) {
+			for (AnimationFrame af : frames) {
+				if (af != null)
+					nb++;
+			}
+		}
+		if (nb == 0) {
+			this.frames = new AnimationFrame[] {new AnimationFrame(null, null, 0)};
+		} else {
+			this.frames = new AnimationFrame[nb];
+			nb = 0;
+			for (AnimationFrame af : frames) {
+				if (af != null)
+					this.frames[nb++] = af;
+			}
+		}
+		this.textRects = new Rectangle[this.frames.length][Orientation.values().length];
+		for (int i=0;i<this.frames.length;i++) {
+			for (Orientation o : Orientation.values())
+				this.textRects[i][o.ordinal()] = this.computeTextRect(i, o);
+		}
+		
+	}
+	
+	/**
+	 * Retourne une nouvelle instance identique � celle-ci, augment�e d'une frame.
+	 * 
+	 * @param af
+	 * 		La frame � ajouter. Si elle est null, cette instance est retourn�e.
+	 * @return
+	 * 		La nouvelle instance.
+	 */
+	public AnimationClip withFrame(AnimationFrame af) {
+		
+		if (af == null)
+			return this;
+		AnimationFrame[] f = new AnimationFrame[this.frames.length+1];
+		System.arraycopy(this.frames, 0, f, 0, this.frames.length);
+		f[this.frames.length] = af;
+		
+		return new AnimationClip(this.status, this.textureID, this.nbCycles, f);
+		
+	}
+	
+	/**
+	 * Retourne une frame de cette animation.
+	 * 
+	 * @param n
+	 * 		Le num�ro de la frame, compris entre 0 et numberOfFrames()-1.
+	 * @return
+	 * 		La frame.
+	 */
+	public AnimationFrame frame(int n) {
+		return this.frames[n];
+	}
+	
+	/**
+	 * Retourne le nombre total de frames de cette animation.
+	 * 
+	 * @return
+	 * 		Le nombre de frames.
+	 */
+	public int numberOfFrames() {
+		return this.frames.length;
+	}
+	
+	/**
+	 * Retourne le rectangle des coordonn�es du fragment de texture � utiliser pour une frame de cette animation.
+	 * 
+	 * <p>Ce rectangle a �t� calcul� � la construction de cette instance, selon les r�gles d�crites par la m�thode
+	 * textRect(Orientation) de la classe Animation. Les appels avec la m�me frame et la m�me orientation retournent la
+	 * m�me instance, qui ne doit pas �tre modifi�e.</p>
+	 * 
+	 * @param n
+	 * 		Le num�ro de la frame, compris entre 0 et numberOfFrames()-1.
+	 * @param or
+	 * 		L'orientation d�finissant les coordonn�es, si cette animation est orientable. Null �quivaut � AUCUNE.
+	 * @return
+	 * 		Le rectangle des coordonn�es du fragment de texture.
+	 */
+	public Rectangle textRect(int n, Orientation or) {
+		
+		if (or == null)
+			return this.textRects[n][Orientation.AUCUNE.ordinal()];
+		
+		return this.textRects[n][or.ordinal()];
+		
+	}
+	
+	/**
+	 * Calcule le rectangle des coordonn�es du fragment de texture � utiliser pour une frame de cette animation.
+	 * 
+	 * @param n
+	 * 		Le num�ro de la frame.
+	 * @param or
+	 * 		L'orientation d�finissant les coordonn�es, si cette animation est orientable.
+	 * @return
+	 * 		Le rectangle des coordonn�es du fragment de texture.
+	 */
+	private Rectangle computeTextRect(int n, Orientation or) {
+		
+		Rectangle text = this.frames[n].getText();
+		Rectangle rect;
+		
+		if (or != Orientation.AUCUNE) {
+			if (text.getY() < 0) {
+				rect = new Rectangle((or.getNumText()%4)*Constantes.sizeTextureFragment,
+						(or.getNumText()/4)*Constantes.sizeTextureFragment, text.getW(), text.getH());
+			} else if (text.getX() < 0) {
+				rect = new Rectangle((or.getNumText()%4)*Constantes.sizeTextureFragment, text.getY(), text.getW(),
+						text.getH());
+			} else {
+				rect = text;
+			}
+		} else {
+			rect = text;
+			if (rect.getX() < 0)
+				rect = new Rectangle(0, rect.getY(), rect.getW(), rect.getH());
+		}
+		
+		return rect;
+		
+	}
+	
+	/**
+	 * Retourne l'�tat caract�ris� par cette animation.
+	 * 
+	 * @return
+	 * 		L'�tat de cette animation.
+	 */
+	public Status getStatus() {
+		return this.status;
+	}
+	
+	/**
+	 * Retourne le nom du fichier texture de cette animation.
+	 * 
+	 * @return
+	 * 		Le nom du fichier texture.
+	 */
+	public String getTextureID() {
+		return this.textureID;
+	}
+	
+	/**
+	 * Retourne le nombre de cycles de cette animation.
+	 * 
+	 * @return
+	 * 		Le nombre de cycles.
+	 */
+	public int getNbCycles() {
+		return this.nbCycles;
+	}
+	
+}
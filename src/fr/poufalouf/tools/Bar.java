@@ -35,6 +35,18 @@ public class Bar implements Drawable {
 	 * La hauteur de cette barre.
 	 */
 	private double h;
+	/**
+	 * L'image de cette barre, r�utilis�e par la m�thode generateImage() d'un appel � l'autre.
+	 */
+	private final CombinedImage image;
+	/**
+	 * La sous-image de l'image de cette barre repr�sentant son remplissage.
+	 */
+	private final TexturedImage barre;
+	/**
+	 * Le taux de remplissage repr�sent� par la sous-image barre, ou -1 si elle n'a pas encore �t� dimensionn�e.
+	 */
+	private double imageRate;
 	
 	/**
 	 * Constructeur Bar.
@@ -52,6 +64,9 @@ public class Bar implements Drawable {
 	 * <li>y : l'ordonn�e pass�e en param�tre (y).</li>
 	 * <li>w : la largeur pass�e en param�tre (w).</li>
 	 * <li>h : la hauteur pass�e en param�tre (h).</li>
+	 * <li>image : une nouvelle CombinedImage nomm�e name+" [Support]", au premier plan.</li>
+	 * <li>barre : une nouvelle TexturedImage nomm�e name+" [Barre]", ajout�e � l'image.</li>
+	 * <li>imageRate : -1.</li>
 	 * </ul></p>
 	 * 
 	 * @param name
@@ -85,6 +100,14 @@ public class Bar implements Drawable {
 		this.y = y;
 		this.w = w;
 		this.h = h;
+		this.image = new CombinedImage(new TexturedImage(this.name+" [Support]",
+				this.x, this.y, this.w, this.h, this.textureID, new Rectangle(0, 0, 1, Constantes.sizeTextureFragment)));
+		this.image.setPlan(Constantes.maxPlan);
+		this.barre = new TexturedImage(this.name+" [Barre]", Constantes.sizeTextureFragment, 0, 0, 1, this.textureID,
+				new Rectangle(Constantes.sizeTextureFragment, Constantes.sizeTextureFragment, 0,
+						Constantes.sizeTextureFragment));
+		this.image.addImage(this.barre);
+		this.imageRate = -1;
 		
 	}
 
@@ -93,6 +116,8 @@ public class Bar implements Drawable {
 	 * 
 	 * <p>Il s'agit d'une image combin�e superposant la barre plus ou moins remplie au support de cette barre.
 	 * Cette image est plac�e au premier plan.</p>
+	 * <p>L'image retourn�e est toujours la m�me instance, repositionn�e � chaque appel. Le rectangle de texture de la
+	 * barre n'est reconstruit que si son taux de remplissage a chang�.</p>
 	 * 
 	 * @return
 	 * 		L'image g�n�r�e.
@@ -100,8 +125,10 @@ public class Bar implements Drawable {
 	@Override
 	public CombinedImage generateImage() {
 		
-		CombinedImage img = new CombinedImage(new TexturedImage(this.name+" [Support]",
-				this.x, this.y, this.w, this.h, this.textureID, new Rectangle(0, 0, 1, Constantes.sizeTextureFragment)));
+		this.image.setX(this.x);
+		this.image.setY(this.y);
+		this.image.setW(this.w);
+		this.image.setH(this.h);
 		
 		double r;
 		if (this.rate < 0)
@@ -110,13 +137,14 @@ public class Bar implements Drawable {
 			r = 1;
 		else
 			r = this.rate;
-		img.addImage(new TexturedImage(this.name+" [Barre]",
-				Constantes.sizeTextureFragment, 0, (2*Constantes.sizeTextureFragment)*r, 1,
-				this.textureID, new Rectangle(Constantes.sizeTextureFragment, Constantes.sizeTextureFragment,
-						(1-2*Constantes.sizeTextureFragment)*r, Constantes.sizeTextureFragment)));
-		img.setPlan(Constantes.maxPlan);
+		if (r != this.imageRate) {
+			this.imageRate = r;
+			this.barre.setW((2*Constantes.sizeTextureFragment)*r);
+			this.barre.setTextRect(new Rectangle(Constantes.sizeTextureFragment, Constantes.sizeTextureFragment,
+					(1-2*Constantes.sizeTextureFragment)*r, Constantes.sizeTextureFragment));
+		}
 		
-		return img;
+		return this.image;
 		
 	}
 	
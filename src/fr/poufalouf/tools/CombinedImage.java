@@ -112,6 +112,42 @@ public class CombinedImage extends TexturedImage {
 		
 	}
 	
+	/**
+	 * Retourne le nombre de sous-images de cette image combin�e.
+	 * 
+	 * @return
+	 * 		Le nombre de sous-images.
+	 */
+	public int nbImages() {
+		return this.images.size();
+	}
+	
+	/**
+	 * Retourne une sous-image de cette image combin�e selon son rang.
+	 * 
+	 * <p>Cette m�thode permet de parcourir les sous-images sans copier leur liste. L'instance retourn�e est l'originale
+	 * et ne doit pas �tre modifi�e.</p>
+	 * 
+	 * @param n
+	 * 		Le rang de la sous-image, compris entre 0 et nbImages()-1.
+	 * @return
+	 * 		La sous-image de rang n.
+	 */
+	public TexturedImage image(int n) {
+		return this.images.get(n);
+	}
+	
+	/**
+	 * Retire toutes les sous-images de cette image combin�e.
+	 * 
+	 * <p>Cette m�thode permet � un Drawable de r�utiliser la m�me image combin�e d'une mise � jour � l'autre.</p>
+	 */
+	public void clearImages() {
+		
+		this.images.clear();
+		
+	}
+	
 	/**
 	 * Ajoute une image textur�e � la liste des images de cette image combin�e.
 	 * 
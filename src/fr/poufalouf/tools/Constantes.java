@@ -18,6 +18,53 @@ public final class Constantes {
 	 * Le d�lai standard entre deux mises � jour d'un objet du jeu (en millisecondes).
 	 */
 	public static final int delayUpdate = 120;
+	/**
+	 * Le nombre de mises � jour du mod�le par seconde r�alis�es par le thread du mod�le.
+	 */
+	public static final int modelUpdateRate = 60;
+	/**
+	 * La dur�e maximale consacr�e par le thread de jeu � l'envoi des textures charg�es � OpenGL, par image (en
+	 * millisecondes).
+	 */
+	public static final int uploadBudget = 4;
+	
+	// Effets sonores et musique
+	
+	/**
+	 * Le nombre maximal d'effets sonores jou�s simultan�ment.
+	 */
+	public static final int soundSources = 16;
+	/**
+	 * Le nombre maximal de lectures simultan�es d'un m�me effet sonore.
+	 */
+	public static final int maxSoundVoices = 4;
+	/**
+	 * La distance au centre de la vue au-del� de laquelle un effet sonore spatialis� n'est pas jou�.
+	 * 
+	 * <p>Cette distance est exprim�e dans les unit�s de position des sons, pour lesquelles les bords de la vue sont �
+	 * une distance de 2 de son centre.</p>
+	 */
+	public static final float soundCullDistance = 6;
+	/**
+	 * Le nombre de tampons OpenAL utilis�s � tour de r�le pour jouer une musique.
+	 */
+	public static final int musicBuffers = 4;
+	/**
+	 * La taille d'un tampon de musique (en octets).
+	 */
+	public static final int musicChunkSize = 32768;
+	/**
+	 * La dur�e du fondu encha�n� entre deux musiques (en millisecondes).
+	 */
+	public static final int musicCrossfade = 1000;
+	/**
+	 * Le nombre maximal de musiques conserv�es pr�tes � �tre jou�es, en plus de celles en cours de lecture.
+	 */
+	public static final int musicPrefetch = 2;
+	/**
+	 * Le d�lai entre deux mises � jour du lecteur de musique (en millisecondes).
+	 */
+	public static final int musicPollDelay = 10;
 	
 	// Taille de la vue
 	
@@ -54,6 +101,19 @@ public final class Constantes {
 	 * La taille du fragment de texture d'un terrain correspondant � une case en pixels.
 	 */
 	public static final int sizeTextureTile = 64;
+	/**
+	 * La taille d'une page d'atlas de textures en pixels.
+	 */
+	public static final int atlasPageSize = 2048;
+	/**
+	 * Le r�pertoire o� sont enregistr�es les pages et les index des atlas de textures.
+	 */
+	public static final String atlasDirectory = "res/atlas/";
+	/**
+	 * Le nombre maximal de mises en page de textes conserv�es en m�moire pour �tre r�utilis�es par de nouveaux textes
+	 * identiques.
+	 */
+	public static final int textLayoutCacheSize = 128;
 	
 	/*
 	 * Map
@@ -71,6 +131,19 @@ public final class Constantes {
 	 * Le nombre de cases de la carte en hauteur.
 	 */
 	public static final int cellPerMapH = 100;
+	/**
+	 * La graine de la g�n�ration al�atoire de la carte. Une m�me graine produit toujours la m�me carte ; si elle vaut
+	 * 0, une nouvelle graine est tir�e � chaque g�n�ration.
+	 */
+	public static final long mapSeed = 0;
+	/**
+	 * Le fichier dans lequel la carte g�n�r�e est enregistr�e, puis relue lors d'un red�marrage du jeu.
+	 */
+	public static final String mapSnapshotFileName = "res/maps/carte.bin";
+	/**
+	 * Le nombre de cases en largeur (et en hauteur) d'un bloc de terrain de la carte.
+	 */
+	public static final int cellPerChunk = 16;
 	/**
 	 * La taille d'une case en pixels.
 	 */
@@ -124,5 +197,15 @@ public final class Constantes {
 	 * Le nom du fichier contenant la liste des objets du jeu.
 	 */
 	public static final String listItemsFileName = "res/scripts/listeObjets.txt";
+	
+	/*
+	 * D�bogage
+	 */
+	
+	/**
+	 * Indique si les mesures de performances de l'affichage (dur�e de rendu, nombre d'appels de dessin et de
+	 * quadrilat�res par image) doivent �tre �crites sur la sortie standard chaque seconde.
+	 */
+	public static final boolean showFrameStats = false;
 
 }
@@ -0,0 +1,34 @@
+package fr.poufalouf.tools;
+
+/**
+ * Interface impl�ment�e par tout Drawable dont on peut savoir, sans g�n�rer son image, qu'il ne sera pas visible
+ * 
+ * <p>Avant de g�n�rer l'image d'un Drawable impl�mentant cette interface, la vue lui transmet la portion du jeu
+ * qu'elle affiche (m�thode cull(double, double, double, double)). Si le Drawable se trouve enti�rement en dehors de
+ * cette portion, son image n'est pas g�n�r�e.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public interface Cullable extends Drawable {
+	
+	/**
+	 * Indique si ce Drawable se trouve enti�rement en dehors d'une portion du jeu.
+	 * 
+	 * <p>Si cette m�thode retourne vrai, la m�thode generateImage() de l'interface Drawable n'est pas appel�e pour
+	 * cette mise � jour : cette m�thode doit alors r�aliser elle-m�me les op�rations que generateImage() aurait r�alis�es
+	 * en dehors de la construction de l'image. Dans le doute, elle doit retourner faux.</p>
+	 * 
+	 * @param x
+	 * 		L'abscisse de la portion du jeu par rapport au jeu.
+	 * @param y
+	 * 		L'ordonn�e de la portion du jeu par rapport au jeu.
+	 * @param w
+	 * 		La largeur de la portion du jeu.
+	 * @param h
+	 * 		La hauteur de la portion du jeu.
+	 * @return
+	 * 		Vrai si l'image de ce Drawable ne peut pas �tre visible dans cette portion du jeu.
+	 */
+	public boolean cull(double x, double y, double w, double h);
+	
+}
@@ -0,0 +1,274 @@
+package fr.poufalouf.tools;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Image fig�e d'une vue � l'issue d'une mise � jour du mod�le
+ * 
+ * <p>Cette classe regroupe les commandes de dessin produites par une vue lors d'une mise � jour du mod�le, ainsi que
+ * l'instant de cette mise � jour. Elle est remplie par le thread du mod�le puis lue par le thread de jeu, et n'est
+ * plus modifi�e une fois publi�e tant que le thread de jeu peut la lire.</p>
+ * <p>Les instances de cette classe ne sont pas jet�es apr�s usage : chaque vue en conserve un petit nombre qu'elle
+ * r�utilise � tour de r�le (m�thode prepare(long, FrameSnapshot)), avec leurs tampons de commandes (RenderBuffer), de
+ * sorte que la publication d'une mise � jour n'alloue aucun objet. La vue s'assure qu'une instance n'est pas r�utilis�e
+ * pendant que le thread de jeu la dessine.</p>
+ * <p>Chaque instance conserve le tampon de commandes de l'instance publi�e avant elle, afin de pouvoir calculer une
+ * position interm�diaire entre deux mises � jour successives du mod�le (m�thodes interpolatedX(int, double) et
+ * interpolatedY(int, double)).</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class FrameSnapshot {
+	
+	/**
+	 * Le num�ro de publication de cette instance.
+	 */
+	private long seq;
+	/**
+	 * L'instant de publication de cette instance (en nanosecondes).
+	 */
+	private long time;
+	/**
+	 * L'instant de publication de l'instance pr�c�dente (en nanosecondes), ou l'instant de publication de cette
+	 * instance s'il n'y en a pas.
+	 */
+	private long previousTime;
+	/**
+	 * Le tampon des commandes de dessin de cette instance, dans leur ordre d'affichage.
+	 */
+	private final RenderBuffer commands;
+	/**
+	 * Le tampon des commandes de dessin de l'instance pr�c�dente.
+	 */
+	private RenderBuffer previousCommands;
+	/**
+	 * Le tampon des commandes de cette instance, ou d'instances pr�c�dentes jamais dessin�es, dont le son doit �tre
+	 * jou�.
+	 */
+	private final RenderBuffer soundCommands;
+	/**
+	 * Indique si les sons de cette instance ont d�j� �t� pris en charge.
+	 */
+	private final AtomicBoolean consumed;
+	
+	/**
+	 * Constructeur FrameSnapshot.
+	 * 
+	 * <p>L'instance construite est vide et consid�r�e comme publi�e.</p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>seq : 0.</li>
+	 * <li>time : l'instant pr�sent.</li>
+	 * <li>previousTime : l'instant pr�sent.</li>
+	 * <li>commands : un nouveau RenderBuffer.</li>
+	 * <li>previousCommands : le tampon commands.</li>
+	 * <li>soundCommands : un nouveau RenderBuffer.</li>
+	 * <li>consumed : faux.</li>
+	 * </ul></p>
+	 */
+	public FrameSnapshot() {
+		
+		this.seq = 0;
+		this.time = System.nanoTime();
+		this.previousTime = this.time;
+		this.commands = new RenderBuffer();
+		this.commands.index();
+		this.previousCommands = this.commands;
+		this.soundCommands = new RenderBuffer();
+		this.consumed = new AtomicBoolean(false);
+		
+	}
+	
+	/**
+	 * Pr�pare cette instance � recevoir les commandes d'une nouvelle mise � jour.
+	 * 
+	 * <p>Les tampons de cette instance sont vid�s. Si les sons de l'instance pr�c�dente n'ont pas �t� pris en charge par
+	 * le thread de jeu, ils sont recopi�s dans ceux de cette instance afin de ne pas �tre perdus.</p>
+	 * 
+	 * @param number
+	 * 		Le num�ro de publication de cette instance.
+	 * @param previous
+	 * 		L'instance publi�e avant celle-ci. Elle ne doit pas �tre null.
+	 */
+	public void prepare(long number, FrameSnapshot previous) {
+		
+		this.seq = number;
+		this.previousTime = previous.time;
+		this.previousCommands = previous.commands;
+		this.commands.clear();
+		this.soundCommands.clear();
+		this.consumed.set(false);
+		
+		// Les sons d'une instance jamais dessin�e sont repris par celle-ci.
+		if (previous.consume()) {
+			for (int i=0;i<previous.soundCommands.size();i++)
+				this.soundCommands.copy(previous.soundCommands, i);
+		}
+		
+	}
+	
+	/**
+	 * Termine le remplissage de cette instance avant sa publication.
+	 * 
+	 * <p>L'instant de publication est fix�, les commandes sont index�es par leur nom et celles portant un son sont
+	 * recopi�es dans le tampon soundCommands.</p>
+	 */
+	public void publish() {
+		
+		this.time = System.nanoTime();
+		this.commands.index();
+		for (int i=0;i<this.commands.size();i++) {
+			if (this.commands.getSound(i) != "")
+				this.soundCommands.copy(this.commands, i);
+		}
+		
+	}
+	
+	/**
+	 * Prend en charge les sons de cette instance.
+	 * 
+	 * <p>Seul le premier appel � cette m�thode renvoie vrai, qu'il soit fait par le thread de jeu au moment de dessiner
+	 * cette instance ou par le thread du mod�le au moment de pr�parer l'instance suivante.</p>
+	 * 
+	 * @return
+	 * 		Vrai si l'appelant doit jouer les sons de cette instance.
+	 */
+	public boolean consume() {
+		
+		return this.consumed.compareAndSet(false, true);
+		
+	}
+	
+	/**
+	 * Calcule le coefficient d'interpolation � appliquer � un instant donn�.
+	 * 
+	 * <p>Ce coefficient vaut 0 � l'instant de publication de cette instance, pour laquelle les images sont donc
+	 * dessin�es � la position qu'elles avaient lors de la mise � jour pr�c�dente, puis cro�t jusqu'� 1 apr�s une dur�e
+	 * �gale � l'intervalle s�parant les deux derni�res mises � jour.</p>
+	 * 
+	 * @param now
+	 * 		L'instant de rendu (en nanosecondes).
+	 * @return
+	 * 		Le coefficient d'interpolation, compris entre 0 et 1.
+	 */
+	public double alpha(long now) {
+		
+		if (this.time <= this.previousTime)
+			return 1;
+		
+		return Math.max(0, Math.min(1, (double) (now-this.time)/(this.time-this.previousTime)));
+		
+	}
+	
+	/**
+	 * Retourne le rang de la commande de l'instance pr�c�dente correspondant � une commande de cette instance.
+	 * 
+	 * <p>Deux commandes correspondent si elles portent le m�me nom et ont les m�mes dimensions.</p>
+	 * 
+	 * @param n
+	 * 		Le rang de la commande de cette instance.
+	 * @return
+	 * 		Le rang de la commande correspondante, ou -1 s'il n'y en a pas.
+	 */
+	private int previousCommand(int n) {
+		
+		if (this.previousCommands == this.commands)
+			return -1;
+		int p = this.previousCommands.find(this.commands.getName(n));
+		if (p < 0 || this.previousCommands.getW(p) != this.commands.getW(n)
+				|| this.previousCommands.getH(p) != this.commands.getH(n))
+			return -1;
+		return p;
+		
+	}
+	
+	/**
+	 * Calcule l'abscisse interpol�e d'une commande de cette instance.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande de cette instance.
+	 * @param alpha
+	 * 		Le coefficient d'interpolation (m�thode alpha(long)).
+	 * @return
+	 * 		L'abscisse comprise entre celle de la commande correspondante de l'instance pr�c�dente et celle de cette
+	 * commande, ou l'abscisse de cette commande s'il n'y a pas de commande correspondante.
+	 */
+	public double interpolatedX(int n, double alpha) {
+		
+		int p = this.previousCommand(n);
+		if (p < 0)
+			return this.commands.getX(n);
+		return this.previousCommands.getX(p)+(this.commands.getX(n)-this.previousCommands.getX(p))*alpha;
+		
+	}
+	
+	/**
+	 * Calcule l'ordonn�e interpol�e d'une commande de cette instance.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande de cette instance.
+	 * @param alpha
+	 * 		Le coefficient d'interpolation (m�thode alpha(long)).
+	 * @return
+	 * 		L'ordonn�e comprise entre celle de la commande correspondante de l'instance pr�c�dente et celle de cette
+	 * commande, ou l'ordonn�e de cette commande s'il n'y a pas de commande correspondante.
+	 */
+	public double interpolatedY(int n, double alpha) {
+		
+		int p = this.previousCommand(n);
+		if (p < 0)
+			return this.commands.getY(n);
+		return this.previousCommands.getY(p)+(this.commands.getY(n)-this.previousCommands.getY(p))*alpha;
+		
+	}
+	
+	/**
+	 * Retourne le tampon des commandes de dessin de cette instance.
+	 * 
+	 * <p>Les commandes � dessiner avant toutes les autres sont plac�es en t�te, suivies des autres commandes dans
+	 * l'ordre de leur plan de perspective. Le tampon retourn� est l'original et ne doit �tre modifi� que par la vue,
+	 * entre les appels aux m�thodes prepare(long, FrameSnapshot) et publish().</p>
+	 * 
+	 * @return
+	 * 		Le tampon des commandes de cette instance.
+	 */
+	public RenderBuffer commands() {
+		return this.commands;
+	}
+	
+	/**
+	 * Retourne le tampon des commandes dont le son doit �tre jou�.
+	 * 
+	 * <p>Ce tampon ne doit �tre lu qu'apr�s un appel � la m�thode consume() ayant renvoy� vrai.</p>
+	 * 
+	 * @return
+	 * 		Le tampon des commandes portant un son.
+	 */
+	public RenderBuffer soundCommands() {
+		return this.soundCommands;
+	}
+	
+	/**
+	 * Retourne le num�ro de publication de cette instance.
+	 * 
+	 * @return
+	 * 		Le num�ro de publication.
+	 */
+	public long getSeq() {
+		return this.seq;
+	}
+	
+	/**
+	 * Retourne l'instant de publication de cette instance.
+	 * 
+	 * @return
+	 * 		L'instant de publication (en nanosecondes).
+	 */
+	public long getTime() {
+		return this.time;
+	}
+	
+}
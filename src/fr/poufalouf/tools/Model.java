@@ -131,10 +131,12 @@ public abstract class Model implements Observable {
 	
 	/**
 	 * Efface la liste des Drawable repr�sentant les objets du jeu.
+	 * 
+	 * <p>La liste est vid�e et non remplac�e, afin de ne pas allouer une nouvelle liste � chaque mise � jour.</p>
 	 */
 	public void clearDrawables() {
 		
-		this.drawables = new ArrayList<Drawable>();
+		this.drawables.clear();
 		
 	}
 	
@@ -194,6 +196,31 @@ public abstract class Model implements Observable {
 		
 	}
 	
+	/**
+	 * Retourne le nombre de Drawable de ce mod�le.
+	 * 
+	 * @return
+	 * 		Le nombre de Drawable.
+	 */
+	public int nbDrawables() {
+		return this.drawables.size();
+	}
+	
+	/**
+	 * Retourne un Drawable de ce mod�le selon son rang.
+	 * 
+	 * <p>Cette m�thode permet de parcourir les Drawable de ce mod�le sans copier leur liste. L'instance retourn�e est
+	 * l'originale.</p>
+	 * 
+	 * @param n
+	 * 		Le rang du Drawable, compris entre 0 et nbDrawables()-1.
+	 * @return
+	 * 		Le Drawable de rang n.
+	 */
+	public Drawable drawable(int n) {
+		return this.drawables.get(n);
+	}
+	
 	/**
 	 * Retourne l'�tat de la touche du clavier pass�e en param�tre, sous forme de champ de la classe Keyboard de slick.
 	 * 
@@ -283,6 +310,16 @@ public abstract class Model implements Observable {
 		return s;
 		
 	}
+	
+	/**
+	 * Retourne le nombre de sons � jouer pour ce mod�le.
+	 * 
+	 * @return
+	 * 		Le nombre de sons en attente.
+	 */
+	public int nbSounds() {
+		return this.sounds.size();
+	}
 
 	/**
 	 * Met � jour les observateurs de ce mod�le.
@@ -157,6 +157,9 @@ public final class Rectangle {
 	/**
 	 * Retourne vrai si ce rectangle est � l'int�rieur du rectangle pass� en param�tre.
 	 * 
+	 * <p>Cette m�thode fait appel � la m�thode statique isInside(double, double, double, double, double, double,
+	 * double, double, boolean) de cette classe.</p>
+	 * 
 	 * @param rect
 	 * 		Le rectangle � comparer � celui-ci.
 	 * @param border
@@ -168,24 +171,17 @@ public final class Rectangle {
 		
 		if (rect == null)
 			return false;
-		if (this.getW() < 0 || this.getH() < 0 || rect.getW() < 0 || rect.getH() < 0)
-			return false;
 		
-		if (border)
-			return this.getX() <= rect.getX()+rect.getW()
-				&& this.getW() >= rect.getX()-this.getX()
-				&& this.getY() <= rect.getY()+rect.getH()
-				&& this.getH() >= rect.getY()-this.getY();
-		return this.getX() < rect.getX()+rect.getW()
-			&& this.getW() > rect.getX()-this.getX()
-			&& this.getY() < rect.getY()+rect.getH()
-			&& this.getH() > rect.getY()-this.getY();
+		return isInside(this.x, this.y, this.w, this.h, rect.x, rect.y, rect.w, rect.h, border);
 		
 	}
 	
 	/**
 	 * Retourne vrai si ce rectangle est enti�rement � l'int�rieur du rectangle pass� en param�tre.
 	 * 
+	 * <p>Cette m�thode fait appel � la m�thode statique isCompletelyInside(double, double, double, double, double,
+	 * double, double, double, boolean) de cette classe.</p>
+	 * 
 	 * @param rect
 	 * 		Le rectangle � comparer � celui-ci.
 	 * @param border
@@ -197,18 +193,134 @@ public final class Rectangle {
 		
 		if (rect == null)
 			return false;
-		if (this.getW() < 0 || this.getH() < 0 || rect.getW() < 0 || rect.getH() < 0)
+		
+		return isCompletelyInside(this.x, this.y, this.w, this.h, rect.x, rect.y, rect.w, rect.h, border);
+		
+	}
+	
+	/**
+	 * Retourne vrai si un premier rectangle est � l'int�rieur d'un second.
+	 * 
+	 * <p>Cette m�thode travaille directement sur les coordonn�es et dimensions des rectangles, ce qui permet de tester
+	 * des zones sans cr�er d'instance de cette classe.</p>
+	 * 
+	 * @param x
+	 * 		L'abscisse du premier rectangle.
+	 * @param y
+	 * 		L'ordonn�e du premier rectangle.
+	 * @param w
+	 * 		La largeur du premier rectangle.
+	 * @param h
+	 * 		La hauteur du premier rectangle.
+	 * @param rx
+	 * 		L'abscisse du second rectangle.
+	 * @param ry
+	 * 		L'ordonn�e du second rectangle.
+	 * @param rw
+	 * 		La largeur du second rectangle.
+	 * @param rh
+	 * 		La hauteur du second rectangle.
+	 * @param border
+	 * 		Vrai si les bords des rectangles comptent comme leurs int�rieurs.
+	 * @return
+	 * 		Vrai si le premier rectangle est � l'int�rieur du second. Faux si l'un des rectangles a des dimensions
+	 * n�gatives.
+	 */
+	public static boolean isInside(double x, double y, double w, double h, double rx, double ry, double rw, double rh,
+			boolean border) {
+		
+		if (w < 0 || h < 0 || rw < 0 || rh < 0)
+			return false;
+		
+		if (border)
+			return x <= rx+rw
+				&& w >= rx-x
+				&& y <= ry+rh
+				&& h >= ry-y;
+		return x < rx+rw
+			&& w > rx-x
+			&& y < ry+rh
+			&& h > ry-y;
+			
+	}
+	
+	/**
+	 * Retourne vrai si un premier rectangle est enti�rement � l'int�rieur d'un second.
+	 * 
+	 * <p>Cette m�thode travaille directement sur les coordonn�es et dimensions des rectangles, ce qui permet de tester
+	 * des zones sans cr�er d'instance de cette classe.</p>
+	 * 
+	 * @param x
+	 * 		L'abscisse du premier rectangle.
+	 * @param y
+	 * 		L'ordonn�e du premier rectangle.
+	 * @param w
+	 * 		La largeur du premier rectangle.
+	 * @param h
+	 * 		La hauteur du premier rectangle.
+	 * @param rx
+	 * 		L'abscisse du second rectangle.
+	 * @param ry
+	 * 		L'ordonn�e du second rectangle.
+	 * @param rw
+	 * 		La largeur du second rectangle.
+	 * @param rh
+	 * 		La hauteur du second rectangle.
+	 * @param border
+	 * 		Vrai si les bords des rectangles comptent comme leurs int�rieurs.
+	 * @return
+	 * 		Vrai si le premier rectangle est enti�rement � l'int�rieur du second. Faux si l'un des rectangles a des
+	 * dimensions n�gatives.
+	 */
+	public static boolean isCompletelyInside(double x, double y, double w, double h, double rx, double ry, double rw,
+			double rh, boolean border) {
+		
+		if (w < 0 || h < 0 || rw < 0 || rh < 0)
 			return false;
 		
 		if (border)
-			return this.getX() <= rect.getX()+rect.getW() && this.getX() >= rect.getX()
-				&& this.getW() <= rect.getX()+rect.getW()-this.getX()
-				&& this.getY() <= rect.getY()+rect.getH() && this.getY() >= rect.getY()
-				&& this.getH() <= rect.getY()+rect.getH()-this.getY();
-		return this.getX() < rect.getX()+rect.getW() && this.getX() > rect.getX()
-		&& this.getW() < rect.getX()+rect.getW()-this.getX()
-		&& this.getY() < rect.getY()+rect.getH() && this.getY() > rect.getY()
-		&& this.getH() < rect.getY()+rect.getH()-this.getY();
+			return x <= rx+rw && x >= rx
+				&& w <= rx+rw-x
+				&& y <= ry+rh && y >= ry
+				&& h <= ry+rh-y;
+		return x < rx+rw && x > rx
+		&& w < rx+rw-x
+		&& y < ry+rh && y > ry
+		&& h < ry+rh-y;
+		
+	}
+	
+	/**
+	 * Retourne vrai si le bord avant d'un premier rectangle se trouve dans un second, dans une direction donn�e.
+	 * 
+	 * <p>Le bord avant est le bord du premier rectangle le plus loin dans la direction test�e. Il doit �tre compris
+	 * entre les bords du second rectangle selon l'axe de cette direction (bords compris), et les deux rectangles
+	 * doivent se chevaucher selon l'autre axe, soit parce que l'un des bords du premier rectangle d�passe strictement l'un des
+	 * bords du second, soit parce que le premier rectangle est compris dans le second selon cet axe.</p>
+	 * <p>Ce test est celui de la m�thode colliding(Zone, Orientation) de la classe Zone pour une orientation
+	 * cardinale.</p>
+	 * 
+	 * @param edge
+	 * 		La coordonn�e du bord avant du premier rectangle selon l'axe de la direction.
+	 * @param r
+	 * 		La coordonn�e du second rectangle selon l'axe de la direction.
+	 * @param rs
+	 * 		La dimension du second rectangle selon l'axe de la direction.
+	 * @param q
+	 * 		La coordonn�e du premier rectangle selon l'autre axe.
+	 * @param s
+	 * 		La dimension du premier rectangle selon l'autre axe.
+	 * @param rq
+	 * 		La coordonn�e du second rectangle selon l'autre axe.
+	 * @param rqs
+	 * 		La dimension du second rectangle selon l'autre axe.
+	 * @return
+	 * 		Vrai si le bord avant du premier rectangle se trouve dans le second.
+	 */
+	public static boolean isEdgeInside(double edge, double r, double rs, double q, double s, double rq, double rqs) {
+		
+		return edge <= r+rs && edge >= r && ((q < rq && q+s > rq) || (q+s > rq+rqs && q < rq+rqs)
+				|| (q >= rq && q+s <= rq+rqs));
 		
 	}
 
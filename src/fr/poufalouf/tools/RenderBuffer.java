@@ -0,0 +1,566 @@
+package fr.poufalouf.tools;
+
+import java.util.Arrays;
+
+/**
+ * Tampon de commandes de dessin
+ * 
+ * <p>Cette classe stocke une suite de commandes de dessin, chacune d�crivant une image � dessiner (nom, position,
+ * dimensions, angle, plan de perspective, couleur, texture et son). Les champs des commandes sont rang�s dans des
+ * tableaux de types primitifs, index�s par le rang de la commande, plut�t que dans des instances d'Image : remplir ce
+ * tampon n'alloue donc aucun objet tant que sa capacit� n'est pas d�pass�e, et la m�thode clear() le vide sans lib�rer
+ * ses tableaux afin qu'il soit r�utilis� d'une mise � jour � l'autre.</p>
+ * <p>Les commandes peuvent �tre index�es par leur nom (m�thode index()) dans une table � adressage ouvert, elle aussi
+ * r�utilis�e, afin de retrouver une commande sans construire de table de hachage (m�thode find(String)). Si plusieurs
+ * commandes portent le m�me nom, la derni�re ajout�e est retenue.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class RenderBuffer {
+	
+	/**
+	 * La capacit� initiale d'un tampon.
+	 */
+	private static final int initialCapacity = 256;
+	
+	/**
+	 * Le nombre de commandes de ce tampon.
+	 */
+	private int size;
+	/**
+	 * Les noms des images des commandes.
+	 */
+	private String[] names;
+	/**
+	 * Les abscisses des commandes.
+	 */
+	private double[] x;
+	/**
+	 * Les ordonn�es des commandes.
+	 */
+	private double[] y;
+	/**
+	 * Les largeurs des commandes.
+	 */
+	private double[] w;
+	/**
+	 * Les hauteurs des commandes.
+	 */
+	private double[] h;
+	/**
+	 * Les angles de rotation des commandes (en degr�s).
+	 */
+	private int[] angles;
+	/**
+	 * Les plans de perspective des commandes.
+	 */
+	private int[] plans;
+	/**
+	 * Les composantes rouges des couleurs des commandes.
+	 */
+	private float[] red;
+	/**
+	 * Les composantes vertes des couleurs des commandes.
+	 */
+	private float[] green;
+	/**
+	 * Les composantes bleues des couleurs des commandes.
+	 */
+	private float[] blue;
+	/**
+	 * Indique pour chaque commande si elle d�signe une image textur�e, ou un simple contour dans le cas contraire.
+	 */
+	private boolean[] textured;
+	/**
+	 * Les identifiants de texture des commandes ("" pour un contour).
+	 */
+	private String[] textureIDs;
+	/**
+	 * Les abscisses des rectangles de texture des commandes.
+	 */
+	private double[] textX;
+	/**
+	 * Les ordonn�es des rectangles de texture des commandes.
+	 */
+	private double[] textY;
+	/**
+	 * Les largeurs des rectangles de texture des commandes.
+	 */
+	private double[] textW;
+	/**
+	 * Les hauteurs des rectangles de texture des commandes.
+	 */
+	private double[] textH;
+	/**
+	 * Les sons associ�s aux commandes ("" si aucun).
+	 */
+	private String[] sounds;
+	/**
+	 * Indique pour chaque commande si son son est spatialis�.
+	 */
+	private boolean[] spatialSounds;
+	/**
+	 * La table � adressage ouvert des commandes index�es par leur nom. Chaque case contient le rang d'une commande
+	 * augment� de 1, ou 0 si elle est libre. Sa taille est une puissance de 2.
+	 */
+	private int[] table;
+	
+	/**
+	 * Constructeur RenderBuffer.
+	 * 
+	 * <p></p>
+	 * 
+	 * <b>Initialisation</b>
+	 * 
+	 * <p>
+	 * <ul>
+	 * <li>size : 0.</li>
+	 * <li>tableaux des champs des commandes : de nouveaux tableaux de taille initialCapacity.</li>
+	 * <li>table : un nouveau tableau d'entiers de taille 2*initialCapacity.</li>
+	 * </ul></p>
+	 */
+	public RenderBuffer() {
+		
+		this.size = 0;
+		this.names = new String[initialCapacity];
+		this.x = new double[initialCapacity];
+		this.y = new double[initialCapacity];
+		this.w = new double[initialCapacity];
+		this.h = new double[initialCapacity];
+		this.angles = new int[initialCapacity];
+		this.plans = new int[initialCapacity];
+		this.red = new float[initialCapacity];
+		this.green = new float[initialCapacity];
+		this.blue = new float[initialCapacity];
+		this.textured = new boolean[initialCapacity];
+		this.textureIDs = new String[initialCapacity];
+		this.textX = new double[initialCapacity];
+		this.textY = new double[initialCapacity];
+		this.textW = new double[initialCapacity];
+		this.textH = new double[initialCapacity];
+		this.sounds = new String[initialCapacity];
+		this.spatialSounds = new boolean[initialCapacity];
+		this.table = new int[2*initialCapacity];
+		
+	}
+	
+	/**
+	 * Double la capacit� de ce tampon.
+	 */
+	private void grow() {
+		
+		int capacity = 2*this.names.length;
+		this.names = Arrays.copyOf(this.names, capacity);
+		this.x = Arrays.copyOf(this.x, capacity);
+		this.y = Arrays.copyOf(this.y, capacity);
+		this.w = Arrays.copyOf(this.w, capacity);
+		this.h = Arrays.copyOf(this.h, capacity);
+		this.angles = Arrays.copyOf(this.angles, capacity);
+		this.plans = Arrays.copyOf(this.plans, capacity);
+		this.red = Arrays.copyOf(this.red, capacity);
+		this.green = Arrays.copyOf(this.green, capacity);
+		this.blue = Arrays.copyOf(this.blue, capacity);
+		this.textured = Arrays.copyOf(this.textured, capacity);
+		this.textureIDs = Arrays.copyOf(this.textureIDs, capacity);
+		this.textX = Arrays.copyOf(this.textX, capacity);
+		this.textY = Arrays.copyOf(this.textY, capacity);
+		this.textW = Arrays.copyOf(this.textW, capacity);
+		this.textH = Arrays.copyOf(this.textH, capacity);
+		this.sounds = Arrays.copyOf(this.sounds, capacity);
+		this.spatialSounds = Arrays.copyOf(this.spatialSounds, capacity);
+		
+	}
+	
+	/**
+	 * Vide ce tampon.
+	 * 
+	 * <p>Les tableaux de ce tampon sont conserv�s pour les commandes suivantes.</p>
+	 */
+	public void clear() {
+		
+		this.size = 0;
+		
+	}
+	
+	/**
+	 * Ajoute une commande dessinant une image � une position donn�e.
+	 * 
+	 * <p>Le nom, l'angle, le plan de perspective, la couleur et le son de la commande sont ceux de l'image. Si l'image
+	 * est une instance de TexturedImage, la commande re�oit son identifiant et son rectangle de texture ; sinon, elle
+	 * d�signe un contour. Les sous-images d'une image combin�e ne sont pas ajout�es par cette m�thode.</p>
+	 * 
+	 * @param img
+	 * 		L'image � dessiner. Si elle est null, cette m�thode ne fait rien.
+	 * @param px
+	 * 		L'abscisse de la commande.
+	 * @param py
+	 * 		L'ordonn�e de la commande.
+	 * @param pw
+	 * 		La largeur de la commande.
+	 * @param ph
+	 * 		La hauteur de la commande.
+	 */
+	public void add(Image img, double px, double py, double pw, double ph) {
+		
+		if (img == null)
+			return;
+		if (this.size == this.names.length)
+			grow();
+		
+		int i = this.size;
+		this.names[i] = img.getName();
+		this.x[i] = px;
+		this.y[i] = py;
+		this.w[i] = pw;
+		this.h[i] = ph;
+		this.angles[i] = img.getAngle();
+		this.plans[i] = img.getPlan();
+		this.red[i] = img.getCouleur().r;
+		this.green[i] = img.getCouleur().g;
+		this.blue[i] = img.getCouleur().b;
+		if (img instanceof TexturedImage) {
+			TexturedImage t = (TexturedImage) img;
+			this.textured[i] = true;
+			this.textureIDs[i] = t.getTextureID();
+			this.textX[i] = t.getTextRect().getX();
+			this.textY[i] = t.getTextRect().getY();
+			this.textW[i] = t.getTextRect().getW();
+			this.textH[i] = t.getTextRect().getH();
+		} else {
+			this.textured[i] = false;
+			this.textureIDs[i] = "";
+		}
+		this.sounds[i] = (img.getSound() != null)?img.getSound():"";
+		this.spatialSounds[i] = img.isSpatialSound();
+		this.size++;
+		
+	}
+	
+	/**
+	 * Ajoute � ce tampon une copie d'une commande d'un autre tampon.
+	 * 
+	 * @param src
+	 * 		Le tampon contenant la commande.
+	 * @param n
+	 * 		Le rang de la commande dans ce tampon.
+	 */
+	public void copy(RenderBuffer src, int n) {
+		
+		if (this.size == this.names.length)
+			grow();
+		
+		int i = this.size;
+		this.names[i] = src.names[n];
+		this.x[i] = src.x[n];
+		this.y[i] = src.y[n];
+		this.w[i] = src.w[n];
+		this.h[i] = src.h[n];
+		this.angles[i] = src.angles[n];
+		this.plans[i] = src.plans[n];
+		this.red[i] = src.red[n];
+		this.green[i] = src.green[n];
+		this.blue[i] = src.blue[n];
+		this.textured[i] = src.textured[n];
+		this.textureIDs[i] = src.textureIDs[n];
+		this.textX[i] = src.textX[n];
+		this.textY[i] = src.textY[n];
+		this.textW[i] = src.textW[n];
+		this.textH[i] = src.textH[n];
+		this.sounds[i] = src.sounds[n];
+		this.spatialSounds[i] = src.spatialSounds[n];
+		this.size++;
+		
+	}
+	
+	/**
+	 * Calcule la case de d�part d'un nom dans la table.
+	 * 
+	 * @param name
+	 * 		Le nom.
+	 * @return
+	 * 		La case de d�part, comprise entre 0 et la taille de la table moins 1.
+	 */
+	private int slot(String name) {
+		
+		int hash = name.hashCode();
+		hash ^= (hash >>> 16);
+		return hash & (this.table.length-1);
+		
+	}
+	
+	/**
+	 * Indexe les commandes de ce tampon par leur nom.
+	 * 
+	 * <p>La table n'est agrandie que si elle contient moins de deux cases par commande. Cette m�thode doit �tre
+	 * appel�e apr�s le dernier ajout et avant tout appel � la m�thode find(String).</p>
+	 */
+	public void index() {
+		
+		if (this.table.length < 2*this.size) {
+			int capacity = this.table.length;
+			while (capacity < 2*this.size)
+				capacity *= 2;
+			this.table = new int[capacity];
+		} else {
+			Arrays.fill(this.table, 0);
+		}
+		
+		for (int i=0;i<this.size;i++) {
+			int s = slot(this.names[i]);
+			while (this.table[s] != 0 && !this.names[this.table[s]-1].equals(this.names[i]))
+				s = (s+1) & (this.table.length-1);
+			this.table[s] = i+1;
+		}
+		
+	}
+	
+	/**
+	 * Recherche une commande de ce tampon selon son nom.
+	 * 
+	 * @param name
+	 * 		Le nom de la commande.
+	 * @return
+	 * 		Le rang de la derni�re commande portant ce nom, ou -1 s'il n'y en a pas.
+	 */
+	public int find(String name) {
+		
+		if (name == null)
+			return -1;
+		
+		int s = slot(name);
+		while (this.table[s] != 0) {
+			if (this.names[this.table[s]-1].equals(name))
+				return this.table[s]-1;
+			s = (s+1) & (this.table.length-1);
+		}
+		return -1;
+		
+	}
+	
+	/**
+	 * Retourne le nombre de commandes de ce tampon.
+	 * 
+	 * @return
+	 * 		Le nombre de commandes.
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Retourne le nom de l'image d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		Le nom de l'image.
+	 */
+	public String getName(int n) {
+		return this.names[n];
+	}
+	
+	/**
+	 * Retourne l'abscisse d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		L'abscisse.
+	 */
+	public double getX(int n) {
+		return this.x[n];
+	}
+	
+	/**
+	 * Retourne l'ordonn�e d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		L'ordonn�e.
+	 */
+	public double getY(int n) {
+		return this.y[n];
+	}
+	
+	/**
+	 * Retourne la largeur d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		La largeur.
+	 */
+	public double getW(int n) {
+		return this.w[n];
+	}
+	
+	/**
+	 * Retourne la hauteur d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		La hauteur.
+	 */
+	public double getH(int n) {
+		return this.h[n];
+	}
+	
+	/**
+	 * Retourne l'angle de rotation d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		L'angle de rotation (en degr�s).
+	 */
+	public int getAngle(int n) {
+		return this.angles[n];
+	}
+	
+	/**
+	 * Retourne le plan de perspective d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		Le plan de perspective.
+	 */
+	public int getPlan(int n) {
+		return this.plans[n];
+	}
+	
+	/**
+	 * Retourne la composante rouge de la couleur d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		La composante rouge.
+	 */
+	public float getRed(int n) {
+		return this.red[n];
+	}
+	
+	/**
+	 * Retourne la composante verte de la couleur d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		La composante verte.
+	 */
+	public float getGreen(int n) {
+		return this.green[n];
+	}
+	
+	/**
+	 * Retourne la composante bleue de la couleur d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		La composante bleue.
+	 */
+	public float getBlue(int n) {
+		return this.blue[n];
+	}
+	
+	/**
+	 * Indique si une commande d�signe une image textur�e.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		Vrai si la commande d�signe une image textur�e, faux s'il s'agit d'un contour.
+	 */
+	public boolean isTextured(int n) {
+		return this.textured[n];
+	}
+	
+	/**
+	 * Retourne l'identifiant de texture d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		L'identifiant de texture, "" pour un contour.
+	 */
+	public String getTextureID(int n) {
+		return this.textureIDs[n];
+	}
+	
+	/**
+	 * Retourne l'abscisse du rectangle de texture d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		L'abscisse du rectangle de texture.
+	 */
+	public double getTextX(int n) {
+		return this.textX[n];
+	}
+	
+	/**
+	 * Retourne l'ordonn�e du rectangle de texture d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		L'ordonn�e du rectangle de texture.
+	 */
+	public double getTextY(int n) {
+		return this.textY[n];
+	}
+	
+	/**
+	 * Retourne la largeur du rectangle de texture d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		La largeur du rectangle de texture.
+	 */
+	public double getTextW(int n) {
+		return this.textW[n];
+	}
+	
+	/**
+	 * Retourne la hauteur du rectangle de texture d'une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		La hauteur du rectangle de texture.
+	 */
+	public double getTextH(int n) {
+		return this.textH[n];
+	}
+	
+	/**
+	 * Retourne le son associ� � une commande.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		Le nom du fichier son, "" si aucun.
+	 */
+	public String getSound(int n) {
+		return this.sounds[n];
+	}
+	
+	/**
+	 * Indique si le son d'une commande est spatialis�.
+	 * 
+	 * @param n
+	 * 		Le rang de la commande.
+	 * @return
+	 * 		Vrai si le son est spatialis�.
+	 */
+	public boolean isSpatialSound(int n) {
+		return this.spatialSounds[n];
+	}
+	
+}
@@ -0,0 +1,68 @@
+package fr.poufalouf.tools;
+
+import java.util.regex.Pattern;
+
+/**
+ * Grammaire des lignes des fichiers script
+ * 
+ * <p>Cette classe regroupe les motifs (Pattern) reconnus par les lecteurs de scripts du jeu (animations, attaques,
+ * objets de combat et personnages). Ces motifs sont compil�s une seule fois au chargement de la classe, puis partag�s
+ * par tous les lecteurs ; seuls les Matcher sont cr��s � chaque ligne lue.</p>
+ * 
+ * @author Anaïs Vernet
+ */
+public final class ScriptGrammar {
+	
+	/**
+	 * Ligne d'en-t�te de section : [nom de la section].
+	 */
+	public static final Pattern sectionLine = Pattern.compile("^\\[.+\\]$");
+	/**
+	 * Ligne de coordonn�es enti�res : x,y,w,h (largeur et hauteur positives).
+	 */
+	public static final Pattern rectangleLine = Pattern.compile("^-?\\d+,-?\\d+,\\d+,\\d+$");
+	/**
+	 * Ligne de coordonn�es d�cimales : x,y,w,h (largeur et hauteur positives).
+	 */
+	public static final Pattern decimalRectangleLine =
+			Pattern.compile("^-?\\d+\\.?\\d*,-?\\d+\\.?\\d*,\\d+\\.?\\d*,\\d+\\.?\\d*$");
+	/**
+	 * Ligne de r�p�tition de la frame pr�c�dente : xn.
+	 */
+	public static final Pattern repeatLine = Pattern.compile("^x\\d+$");
+	/**
+	 * Ligne de nom de fichier texture (scripts d'attaques et d'objets de combat).
+	 */
+	public static final Pattern textureLine = Pattern.compile("^[a-zA-Z][a-zA-Z0-9/_]*\\.?[a-zA-Z0-9]*$");
+	/**
+	 * Ligne de nom de fichier son, suivi �ventuellement du num�ro du canal entre crochets (scripts d'attaques).
+	 */
+	public static final Pattern soundLine = Pattern.compile("^[a-zA-Z][a-zA-Z0-9/_]*\\.[a-zA-Z0-9]*(\\[\\d+\\])?$");
+	/**
+	 * Ligne de nom de fichier texture d'un script d'animation.
+	 */
+	public static final Pattern animationTextureLine = Pattern.compile("^[a-zA-Z][a-zA-Z0-9/_]+\\.?[a-zA-Z0-9]*$");
+	/**
+	 * Ligne de nom de fichier son d'un script d'animation, suivi �ventuellement du num�ro du canal entre crochets.
+	 */
+	public static final Pattern animationSoundLine =
+			Pattern.compile("^[a-zA-Z][a-zA-Z0-9/_]+\\.?[a-zA-Z0-9]*(\\[\\d+\\])?$");
+	/**
+	 * S�parateur du nom d'un fichier son et du num�ro de son canal.
+	 */
+	public static final Pattern soundChannelSeparator = Pattern.compile("[\\[\\]]");
+	/**
+	 * Ligne d'effet d'une attaque sur une caract�ristique : caract�ristique,effet,taux de r�ussite.
+	 */
+	public static final Pattern characteristicEffectLine = Pattern.compile("^.+,-?\\d+,\\d+$");
+	/**
+	 * Ligne de propri�t� : nom=valeur.
+	 */
+	public static final Pattern propertyLine = Pattern.compile("^[^\\=]+\\=[^\\=]+$");
+	/**
+	 * Ligne des caract�ristiques d'un personnage : une valeur enti�re par caract�ristique, s�par�es par des virgules.
+	 */
+	public static final Pattern characteristicsLine =
+			Pattern.compile("^\\d+(,\\d+){"+(Characteristic.values().length-1)+"}$");
+			
+}
@@ -1,23 +1,39 @@
 package fr.poufalouf.tools;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.HashMap;
 
 /**
  * Ensemble de m�thodes permettant de lire les �l�ments d'un script
  * 
  * <p>Dans cette classe, les m�thodes retournent des listes de cha�nes de caract�res correspondant aux lignes d'un fichier
  * script. Toutes les lignes vides (0 caract�res) sont omises.</p>
+ * <p>Chaque fichier script n'est lu qu'une seule fois : ses lignes sont index�es par section puis par flag dans une
+ * instance de la classe interne Script, conserv�e dans un cache partag� par toutes les m�thodes de cette classe. Une
+ * entr�e du cache est relue si la date de derni�re modification ou la taille du fichier a chang� depuis sa lecture.
+ * Les listes retourn�es sont des copies des listes du cache et peuvent donc �tre modifi�es par l'appelant.</p>
+ * <p>Chaque lecture d'un fichier re�oit un num�ro de r�vision unique (m�thode revision(String)), qui permet aux
+ * classes construisant des donn�es � partir d'un script de conserver ces donn�es tant que le script n'a pas
+ * �t� relu.</p>
  * 
  * @author Anaïs Vernet
  */
 public class ScriptReader {
 	
+	/**
+	 * Table de hachage stockant les scripts d�j� lus, r�f�renc�s par leur nom de fichier.
+	 */
+	private static final HashMap<String, Script> cache = new HashMap<String, Script>();
+	/**
+	 * Le nombre de lectures de fichiers script r�alis�es depuis le lancement du jeu.
+	 */
+	private static long revisions = 0;
+	
 	/**
 	 * Lis un script et retourne une liste de cha�nes de caract�res correspondant aux diff�rentes lignes
 	 * (s�par�es par des \n) du fichier.
@@ -31,27 +47,7 @@ public class ScriptReader {
 	 */
 	public static ArrayList<String> readAll(String scriptName) throws IOException {
 		
-		ArrayList<String> lines = new ArrayList<String>();
-		BufferedReader bufR;
-		String line;
-		
-		try {
-			bufR = new BufferedReader(new InputStreamReader(new FileInputStream(scriptName)));
-		} catch (Exception e) {
-			throw new IOException("Fichier "+scriptName+" non trouvé ou non lisible.", e);
-		}
-		
-		line = bufR.readLine();
-		while (line != null) {
-			
-			if (line.length() == 0)
-				continue;
-			lines.add(line);
-			line = bufR.readLine();
-			
-		}
-		
-		return lines;
+		return new ArrayList<String>(script(scriptName).lines);
 		
 	}
 	
@@ -76,41 +72,13 @@ public class ScriptReader {
 	public static ArrayList<String> readSection(String scriptName, int index) throws IOException {
 		
 		ArrayList<String> lines = new ArrayList<String>();
-		BufferedReader bufR;
-		String line;
-		int nb = 1;
-		
-		try {
-			bufR = new BufferedReader(new InputStreamReader(new FileInputStream(scriptName)));
-		} catch (Exception e) {
-			throw new IOException("Fichier "+scriptName+" non trouv� ou non lisible.", e);
-		}
+		Script script = script(scriptName);
 		
-		line = bufR.readLine();
-		Pattern pattern = Pattern.compile("^\\[.+\\]$");
-		boolean cnt = true;
-		while (line != null && cnt) {
-			Matcher matcher = pattern.matcher(line);
-			
-			if (matcher.find()) {
-				if (nb == index) {
-					lines.add(matcher.group().substring(1, matcher.group().length()-1));
-					while ((line=bufR.readLine()) != null && cnt) {
-						if (line.length() == 0)
-							continue;
-						if (line.charAt(0) == '[') {
-							cnt = false;
-							break;
-						}
-						lines.add(line);
-					}
-				} else
-					nb++;
-			}
-			line = bufR.readLine();
-		}
-		
-		bufR.close();
+		if (index < 1 || index > script.sections.size())
+			return lines;
+		Section section = script.sections.get(index-1);
+		lines.add(section.name);
+		lines.addAll(section.lines);
 		
 		return lines;
 		
@@ -120,6 +88,8 @@ public class ScriptReader {
 	 * Lis un script et en extrait une liste de cha�nes de caract�res correspondant aux diff�rentes lignes
 	 * (s�par�es par des \n) d'une section (entre crochets [nom de la section]).
 	 * 
+	 * <p>Si plusieurs sections portent le m�me nom, seule la premi�re est prise en compte.</p>
+	 * 
 	 * @param scriptName
 	 * 		Le nom du fichier script.
 	 * @param section
@@ -131,42 +101,11 @@ public class ScriptReader {
 	 */
 	public static ArrayList<String> readSection(String scriptName, String section) throws IOException {
 		
-		ArrayList<String> lines = new ArrayList<String>();
-		BufferedReader bufR;
-		String line;
-		
-		try {
-			bufR = new BufferedReader(new InputStreamReader(new FileInputStream(scriptName)));
-		} catch (Exception e) {
-			throw new IOException("Fichier "+scriptName+" non trouv� ou non lisible.", e);
-		}
-		
-		line = bufR.readLine();
-		Pattern pattern = Pattern.compile("^\\[.+\\]$");
-		boolean cnt = true;
-		while (line != null && cnt) {
-			Matcher matcher = pattern.matcher(line);
-			
-			if (matcher.find()) {
-				String sectionName = line.substring(1, line.length()-1);
-				if (sectionName.equals(section)) {
-					while ((line=bufR.readLine()) != null && cnt) {
-						if (line.length() == 0)
-							continue;
-						if (line.charAt(0) == '[') {
-							cnt = false;
-							break;
-						}
-						lines.add(line);
-					}
-				}
-			}
-			line = bufR.readLine();
-		}
-		
-		bufR.close();
+		Section s = script(scriptName).sectionsByName.get(section);
+		if (s == null)
+			return new ArrayList<String>();
 		
-		return lines;
+		return new ArrayList<String>(s.lines);
 		
 	}
 	
@@ -174,6 +113,9 @@ public class ScriptReader {
 	 * Lis un script et en extrait une liste de cha�nes de caract�res correspondant aux diff�rentes lignes
 	 * (s�par�es par des \n) d'une section (entre crochets [nom de la section]) � un flag pr�cis ($nom du flag).
 	 * 
+	 * <p>Si plusieurs sections portent le m�me nom, seule la premi�re est prise en compte ; de m�me, seule la premi�re
+	 * occurrence du flag dans cette section est lue.</p>
+	 * 
 	 * @param scriptName
 	 * 		Le nom du fichier script.
 	 * @param section
@@ -188,51 +130,222 @@ public class ScriptReader {
 	public static ArrayList<String> readSectionAtFlag(String scriptName, String section, String flag)
 	throws IOException {
 		
-		ArrayList<String> lines = new ArrayList<String>();
-		BufferedReader bufR;
-		String line;
+		Section s = script(scriptName).sectionsByName.get(section);
+		if (s == null)
+			return new ArrayList<String>();
+		ArrayList<String> lines = s.flags.get(flag);
+		if (lines == null)
+			return new ArrayList<String>();
+		
+		return new ArrayList<String>(lines);
 		
-		try {
-			bufR = new BufferedReader(new InputStreamReader(new FileInputStream(scriptName)));
-		} catch (Exception e) {
-			throw new IOException("Fichier "+scriptName+" non trouv� ou non lisible.", e);
+	}
+	
+	/**
+	 * Retourne le num�ro de r�vision d'un script.
+	 * 
+	 * <p>Ce num�ro change � chaque fois que le fichier est relu parce qu'il a �t� modifi� depuis sa derni�re
+	 * lecture.</p>
+	 * 
+	 * @param scriptName
+	 * 		Le nom du fichier script.
+	 * @return
+	 * 		Le num�ro de r�vision du script.
+	 * @throws IOException
+	 * 		si la lecture du fichier script �choue.
+	 */
+	public static long revision(String scriptName) throws IOException {
+		
+		return script(scriptName).revision;
+		
+	}
+	
+	/**
+	 * Retourne le script index� correspondant � un fichier.
+	 * 
+	 * <p>Le script est pris dans le cache de cette classe s'il y figure et que le fichier n'a pas �t� modifi� depuis sa
+	 * lecture. Sinon, le fichier est lu et index�, puis le cache est mis � jour.</p>
+	 * 
+	 * @param scriptName
+	 * 		Le nom du fichier script.
+	 * @return
+	 * 		Le script index�.
+	 * @throws IOException
+	 * 		si la lecture du fichier script �choue.
+	 */
+	private static Script script(String scriptName) throws IOException {
+		
+		File file = new File(scriptName);
+		long modified = file.lastModified();
+		long length = file.length();
+		
+		synchronized (cache) {
+			Script script = cache.get(scriptName);
+			if (script != null && script.modified == modified && script.length == length)
+				return script;
 		}
 		
-		line = bufR.readLine();
-		Pattern pattern = Pattern.compile("^\\[.+\\]$");
-		boolean cnt = true;
-		while (line != null && cnt) {
-			Matcher matcher = pattern.matcher(line);
+		Script script = new Script(scriptName, modified, length);
+		synchronized (cache) {
+			script.revision = ++revisions;
+			cache.put(scriptName, script);
+		}
+		
+		return script;
+		
+	}
+	
+	/**
+	 * Script index�
+	 * 
+	 * <p>Cette classe contient les lignes non vides d'un fichier script, ainsi que ses sections dans leur ordre
+	 * d'apparition. Une ligne d'en-t�te de section est une ligne de la forme [nom de la section] ; les lignes d'une
+	 * section s'arr�tent � la premi�re ligne commen�ant par un crochet.</p>
+	 */
+	private static final class Script {
+		
+		/**
+		 * La date de derni�re modification du fichier lors de sa lecture.
+		 */
+		final long modified;
+		/**
+		 * La taille du fichier lors de sa lecture.
+		 */
+		final long length;
+		/**
+		 * Le num�ro de r�vision attribu� � cette lecture du fichier.
+		 */
+		long revision;
+		/**
+		 * La liste des lignes non vides du fichier.
+		 */
+		final ArrayList<String> lines;
+		/**
+		 * La liste des sections du fichier, dans leur ordre d'apparition.
+		 */
+		final ArrayList<Section> sections;
+		/**
+		 * Table de hachage stockant la premi�re section portant chaque nom, r�f�renc�e par ce nom.
+		 */
+		final HashMap<String, Section> sectionsByName;
+		
+		/**
+		 * Constructeur Script.
+		 * 
+		 * <p>Le fichier est lu en entier puis ferm�.</p>
+		 * 
+		 * @param scriptName
+		 * 		Le nom du fichier script.
+		 * @param modified
+		 * 		La date de derni�re modification du fichier.
+		 * @param length
+		 * 		La taille du fichier.
+		 * @throws IOException
+		 * 		si la lecture du fichier script �choue.
+		 */
+		Script(String scriptName, long modified, long length) throws IOException {
+			
+			this.modified = modified;
+			this.length = length;
+			this.lines = new ArrayList<String>();
+			this.sections = new ArrayList<Section>();
+			this.sectionsByName = new HashMap<String, Section>();
 			
-			if (matcher.find()) {
-				String sectionName = line.substring(1, line.length()-1);
-				if (sectionName.equals(section)) {
-					while ((line=bufR.readLine()) != null && cnt) {
-						if (line.equals("$"+flag)) {
-							while ((line=bufR.readLine()) != null) {
-								if (line.length() == 0)
-									continue;
-								if (line.charAt(0) == '$' || line.charAt(0) == '[') {
-									cnt = false;
-									break;
-								}
-								lines.add(line);
-							}
-						} else if (line.length() > 0) {
-							if (line.charAt(0) == '[') {
-								cnt = false;
-								break;
-							}
-						}
+			BufferedReader bufR;
+			try {
+				bufR = new BufferedReader(new InputStreamReader(new FileInputStream(scriptName)));
+			} catch (Exception e) {
+				throw new IOException("Fichier "+scriptName+" non trouv� ou non lisible.", e);
+			}
+			
+			try {
+				Section section = null;
+				String line;
+				while ((line = bufR.readLine()) != null) {
+					if (ScriptGrammar.sectionLine.matcher(line).find()) {
+						section = new Section(line.substring(1, line.length()-1));
+						this.sections.add(section);
+						if (!this.sectionsByName.containsKey(section.name))
+							this.sectionsByName.put(section.name, section);
+					} else if (line.length() > 0 && line.charAt(0) == '[') {
+						section = null;
+					} else if (section != null && line.length() > 0) {
+						section.addLine(line);
 					}
+					if (line.length() > 0)
+						this.lines.add(line);
 				}
+			} finally {
+				bufR.close();
 			}
-			line = bufR.readLine();
+			
 		}
 		
-		bufR.close();
+	}
+	
+	/**
+	 * Section d'un script index�
+	 * 
+	 * <p>Cette classe contient les lignes non vides d'une section, ainsi que les lignes de chacun de ses flags. Les
+	 * lignes d'un flag ($nom du flag) s'arr�tent � la ligne commen�ant par un $ suivante.</p>
+	 */
+	private static final class Section {
+		
+		/**
+		 * Le nom de la section, sans les crochets.
+		 */
+		final String name;
+		/**
+		 * La liste des lignes non vides de la section.
+		 */
+		final ArrayList<String> lines;
+		/**
+		 * Table de hachage stockant les lignes de la premi�re occurrence de chaque flag, r�f�renc�es par le nom du flag
+		 * (sans le $).
+		 */
+		final HashMap<String, ArrayList<String>> flags;
+		/**
+		 * Les lignes du flag en cours de lecture, ou null si ce flag a d�j� �t� lu plus haut dans la section.
+		 */
+		private ArrayList<String> currentFlag;
 		
-		return lines;
+		/**
+		 * Constructeur Section.
+		 * 
+		 * @param name
+		 * 		Le nom de la section.
+		 */
+		Section(String name) {
+			
+			this.name = name;
+			this.lines = new ArrayList<String>();
+			this.flags = new HashMap<String, ArrayList<String>>();
+			this.currentFlag = null;
+			
+		}
+		
+		/**
+		 * Ajoute une ligne non vide � cette section.
+		 * 
+		 * @param line
+		 * 		La ligne � ajouter.
+		 */
+		void addLine(String line) {
+			
+			this.lines.add(line);
+			if (line.charAt(0) == '$') {
+				String flag = line.substring(1);
+				if (this.flags.containsKey(flag)) {
+					this.currentFlag = null;
+				} else {
+					this.currentFlag = new ArrayList<String>();
+					this.flags.put(flag, this.currentFlag);
+				}
+			} else if (this.currentFlag != null) {
+				this.currentFlag.add(line);
+			}
+			
+		}
 		
 	}
 
@@ -1,5 +1,8 @@
 package fr.poufalouf.tools;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.newdawn.slick.Color;
 
 /**
@@ -7,11 +10,41 @@ import org.newdawn.slick.Color;
  * 
  * <p>L'image g�n�r�e par cet objet est une image combin�e utilisant le fichier texture sp�cifi� en tant que police pour
  * ce texte. Ce fichier doit contenir les lettres n�cessaires dans l'ordre ASCII. Le texte est affich� sur une ligne.</li>
+ * <p>L'image g�n�r�e est conserv�e d'un appel � l'autre de la m�thode generateImage() : seule la position et la taille
+ * de son image principale sont mises � jour, ses sous-images (une par lettre) n'�tant reconstruites qu'apr�s une
+ * modification du texte, de sa couleur ou de sa police. Les noms et les rectangles de texture de ces sous-images, qui
+ * ne d�pendent que du texte, sont en outre partag�s par les textes identiques gr�ce � une table limit�e aux
+ * Constantes.textLayoutCacheSize textes les plus r�cemment utilis�s, ce qui �vite de les recalculer pour les textes
+ * cr��s � chaque mise � jour (nombres des d�g�ts affich�s en combat par exemple).</p>
  * 
  * @author Anaïs Vernet
  */
 public class Text implements GUIElement {
 	
+	/**
+	 * Les rectangles de texture des 256 premiers caract�res, index�s par leur code.
+	 */
+	private static final Rectangle[] glyphRects = new Rectangle[256];
+	/**
+	 * La table des mises en page des derniers textes utilis�s, r�f�renc�es par leur texte et tri�es de la moins
+	 * r�cemment utilis�e � la plus r�cemment utilis�e.
+	 */
+	private static final LinkedHashMap<String, Layout> layouts = new LinkedHashMap<String, Layout>(16, 0.75f, true) {
+		
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Layout> eldest) {
+			return this.size() > Constantes.textLayoutCacheSize;
+		}
+		
+	};
+	
+	static {
+		for (char c=0;c<glyphRects.length;c++)
+			glyphRects[c] = glyphRect(c);
+	}
+	
 	/**
 	 * Le texte � afficher.
 	 */
@@ -41,6 +74,10 @@ public class Text implements GUIElement {
 	 * L'ordonn�e de ce texte.
 	 */
 	private double y;
+	/**
+	 * L'image repr�sentant ce texte, ou null si elle doit �tre reconstruite.
+	 */
+	private CombinedImage image;
 	
 	/**
 	 * Constructeur Text.
@@ -58,6 +95,7 @@ public class Text implements GUIElement {
 	 * <li>font : le nom pass� en param�tre (font), ou "" si le param�tre est null.</li>
 	 * <li>x : l'abscisse pass�e en param�tre (x).</li>
 	 * <li>y : l'ordonn�e pass�e en param�tre (y).</li>
+	 * <li>image : null.</li>
 	 * </ul></p>
 	 * 
 	 * @param text
@@ -93,6 +131,46 @@ public class Text implements GUIElement {
 			this.font = "";
 		this.x = x;
 		this.y = y;
+		this.image = null;
+		
+	}
+	
+	/**
+	 * Calcule le rectangle de texture d'un caract�re.
+	 * 
+	 * @param c
+	 * 		Le caract�re.
+	 * @return
+	 * 		Le rectangle des coordonn�es du caract�re dans le fichier servant de police.
+	 */
+	private static Rectangle glyphRect(char c) {
+		
+		return new Rectangle((double) (c%16)/16, (double) (c/16)/16, 1./16, 1./16);
+		
+	}
+	
+	/**
+	 * Retourne la mise en page d'un texte.
+	 * 
+	 * <p>Si ce texte fait partie de la table layouts de cette classe, sa mise en page y est lue. Sinon, elle est
+	 * calcul�e puis ajout�e � la table, dont l'entr�e la moins r�cemment utilis�e est retir�e si sa taille d�passe
+	 * Constantes.textLayoutCacheSize.</p>
+	 * 
+	 * @param text
+	 * 		Le texte.
+	 * @return
+	 * 		La mise en page du texte.
+	 */
+	private static Layout layout(String text) {
+		
+		synchronized (layouts) {
+			Layout l = layouts.get(text);
+			if (l == null) {
+				l = new Layout(text);
+				layouts.put(text, l);
+			}
+			return l;
+		}
 		
 	}
 
@@ -102,6 +180,11 @@ public class Text implements GUIElement {
 	 * <p>L'image principale est invisible et sert de support aux lettres. Chaque lettre est repr�sent�e par une image
 	 * textur�e dont les coordonn�es sont calcul�es gr�ce � sa position dans le texte, et dont les coordonn�es du
 	 * fragment de texture d�pend du code ASCII de la lettre.</p>
+	 * <p>L'image est construite lors du premier appel � cette m�thode, � partir de la mise en page du texte (m�thode
+	 * layout(String)), puis conserv�e par le champ image de cette classe jusqu'� ce que le texte, la couleur ou la
+	 * police soit modifi�. Les appels suivants ne font que replacer l'image principale selon les coordonn�es et la
+	 * taille actuelles de ce texte, et remettre son plan de perspective et celui des lettres � 0, afin d'annuler les
+	 * modifications faites par l'appelant pr�c�dent.</p>
 	 * 
 	 * @return
 	 * 		L'image g�n�r�e.
@@ -109,20 +192,27 @@ public class Text implements GUIElement {
 	@Override
 	public CombinedImage generateImage() {
 
-		CombinedImage image = new CombinedImage(new TexturedImage("(TEXT) "+this.getText()+" [support]",
-				this.getX(), this.getY(), this.getText().length()*this.getSizeW(), this.getSizeH(), null));
-		int s = this.getText().length();
-		TexturedImage img;
-		for (int i=0;i<s;i++) {
-			char c = this.getText().charAt(i);
-			img = new TexturedImage("(TEXT) "+this.getText()+" ["+c+"/"+i+"]",
-					(double) i/s, 0, (double) 1/s, 1, this.getFont(),
-					new Rectangle((double) (c%16)/16, (double) (c/16)/16, 1./16, 1./16));
-			img.setCouleur(this.getColor());
-			image.addImage(img);
+		if (this.image == null) {
+			Layout l = layout(this.text);
+			this.image = new CombinedImage(new TexturedImage(l.supportName, 0, 0, 0, 0, null));
+			int s = l.names.length;
+			Color c = this.getColor();
+			TexturedImage img;
+			for (int i=0;i<s;i++) {
+				img = new TexturedImage(l.names[i], (double) i/s, 0, (double) 1/s, 1, this.font, l.rects[i]);
+				img.setCouleur(c);
+				this.image.addImage(img);
+			}
 		}
+		this.image.setX(this.x);
+		this.image.setY(this.y);
+		this.image.setW(this.text.length()*this.sizeW);
+		this.image.setH(this.sizeH);
+		this.image.setPlan(0);
+		for (int i=0;i<this.image.nbImages();i++)
+			this.image.image(i).setPlan(0);
 		
-		return image;
+		return this.image;
 		
 	}
 
@@ -271,12 +361,17 @@ public class Text implements GUIElement {
 	/**
 	 * Met � jour le texte.
 	 * 
+	 * <p>Si le texte est modifi�, l'image de ce texte sera reconstruite au prochain appel � la m�thode
+	 * generateImage().</p>
+	 * 
 	 * @param text
 	 * 		Le texte � afficher.
 	 */
 	public void setText(String text) {
-		if (text != null)
+		if (text != null && !text.equals(this.text)) {
 			this.text = text;
+			this.image = null;
+		}
 	}
 	
 	/**
@@ -292,12 +387,17 @@ public class Text implements GUIElement {
 	/**
 	 * Met � jour la couleur de ce texte.
 	 * 
+	 * <p>Si la couleur est modifi�e, l'image de ce texte sera reconstruite au prochain appel � la m�thode
+	 * generateImage().</p>
+	 * 
 	 * @param color
 	 * 		La couleur de ce texte.
 	 */
 	public void setColor(Color color) {
-		if (color != null)
+		if (color != null && !color.equals(this.color)) {
 			this.color = new Color(color);
+			this.image = null;
+		}
 	}
 	
 	/**
@@ -352,13 +452,18 @@ public class Text implements GUIElement {
 	
 	/**
 	 * Met � jour le nom du fichier image servant de police.
+	 * 
+	 * <p>Si la police est modifi�e, l'image de ce texte sera reconstruite au prochain appel � la m�thode
+	 * generateImage().</p>
 	 *
 	 * @param font
 	 * 		Le nom du fichier image.
 	 */
 	public void setFont(String font) {
-		if (font != null)
+		if (font != null && !font.equals(this.font)) {
 			this.font = font;
+			this.image = null;
+		}
 	}
 	
 	/**
@@ -459,4 +564,47 @@ public class Text implements GUIElement {
 		return this.sizeH;
 	}
 
+	/**
+	 * Mise en page d'un texte
+	 * 
+	 * <p>Cette classe regroupe le nom de l'image principale d'un texte, ainsi que le nom et le rectangle de texture de
+	 * chacune de ses lettres. Ces donn�es ne d�pendent que du texte et ne sont jamais modifi�es apr�s leur calcul.</p>
+	 */
+	private static final class Layout {
+		
+		/**
+		 * Le nom de l'image principale du texte.
+		 */
+		final String supportName;
+		/**
+		 * Les noms des images des lettres du texte.
+		 */
+		final String[] names;
+		/**
+		 * Les rectangles de texture des lettres du texte.
+		 */
+		final Rectangle[] rects;
+		
+		/**
+		 * Constructeur Layout.
+		 * 
+		 * @param text
+		 * 		Le texte. Il ne doit pas �tre null.
+		 */
+		Layout(String text) {
+			
+			int s = text.length();
+			this.supportName = "(TEXT) "+text+" [support]";
+			this.names = new String[s];
+			this.rects = new Rectangle[s];
+			for (int i=0;i<s;i++) {
+				char c = text.charAt(i);
+				this.names[i] = "(TEXT) "+text+" ["+c+"/"+i+"]";
+				this.rects[i] = (c < glyphRects.length)?glyphRects[c]:glyphRect(c);
+			}
+			
+		}
+		
+	}
+	
 }
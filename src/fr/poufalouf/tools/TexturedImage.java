@@ -120,6 +120,19 @@ public class TexturedImage extends Image {
 		
 	}
 	
+	/**
+	 * Modifie l'identifiant de texture de cette image.
+	 * 
+	 * @param textureID
+	 * 		L'identifiant de texture. S'il est null, cette m�thode ne fait rien.
+	 */
+	public void setTextureID(String textureID) {
+		
+		if (textureID != null)
+			this.textureID = textureID;
+			
+	}
+	
 	/**
 	 * Retourne l'identifiant de texture de cette image.
 	 * 
@@ -130,6 +143,19 @@ public class TexturedImage extends Image {
 		return this.textureID;
 	}
 
+	/**
+	 * Modifie le rectangle des coordonn�es du fragment de texture de cette image.
+	 * 
+	 * @param textRect
+	 * 		Le rectangle des coordonn�es du fragment de texture. S'il est null, cette m�thode ne fait rien.
+	 */
+	public void setTextRect(Rectangle textRect) {
+		
+		if (textRect != null)
+			this.textRect = textRect;
+			
+	}
+	
 	/**
 	 * Retourne le rectangle des coordonn�es du fragment de texture de cette image.
 	 * 
@@ -2,7 +2,7 @@ package fr.poufalouf.tools;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 
 import org.lwjgl.opengl.Display;
 
@@ -20,6 +20,17 @@ import fr.poufalouf.UpdateException;
  * au moyen d'une liste d'objets Drawable.</p>
  * <p>Si le mod�le contient des informations concernant la musique de fond � jouer, cette classe g�re la musique gr�ce
  * aux variables musicFile et playingMusic. La musique doit �tre au format OGG.</p>
+ * <p>La mise � jour d'une vue est r�alis�e par le thread du mod�le, tandis que ses images sont dessin�es par le thread
+ * de jeu. A l'issue de chaque mise � jour, les images produites sont donc converties en commandes de dessin publi�es
+ * sous la forme d'une instance de FrameSnapshot, que le thread de jeu obtient par la m�thode acquireSnapshot() et lib�re
+ * par la m�thode releaseSnapshot().</p>
+ * <p>Une vue r�utilise � tour de r�le les instances de FrameSnapshot de son champ ring, ainsi que ses listes de travail,
+ * de sorte qu'une mise � jour n'alloue aucun objet pour publier ses images. Une instance n'est r�utilis�e que si le
+ * thread de jeu n'est pas en train de dessiner l'instance qui la pr�c�de ou celle qui la suit.</p>
+ * <p>Les images � trier selon leur plan de perspective sont d'abord d�compos�es en commandes de dessin dans un tampon
+ * interm�diaire (champ flat), chaque commande recevant une cl� de tri, puis ces commandes sont recopi�es dans l'ordre
+ * obtenu par un tri par base (radix sort) stable sur ces cl�s. Le co�t du tri est ainsi lin�aire en le nombre de
+ * commandes.</p>
  * 
  * @author Anaïs Vernet
  */
@@ -64,13 +75,29 @@ public class View implements Observer {
 	 */
 	private Camera camera;
 	/**
-	 * La liste des images de cette vue.
+	 * La liste des Drawable de l'Observable lors de la derni�re mise � jour.
 	 */
-	private ArrayList<Image> images;
+	private ArrayList<Drawable> drawables;
 	/**
-	 * La liste des images rendues par VBO.
+	 * Le tampon des commandes de dessin � trier selon leur plan de perspective.
 	 */
-	private ArrayList<TexturedImage> vboImages;
+	private final RenderBuffer flat;
+	/**
+	 * Les cl�s de tri des commandes du tampon flat, au m�me rang.
+	 */
+	private long[] keys;
+	/**
+	 * L'ordre des commandes du tampon flat, calcul� par la m�thode sortCommands(RenderBuffer).
+	 */
+	private int[] order;
+	/**
+	 * Tableau de travail de la m�thode sortCommands(RenderBuffer), de m�me taille que le tableau order.
+	 */
+	private int[] swap;
+	/**
+	 * Les compteurs de chiffres de la m�thode sortCommands(RenderBuffer).
+	 */
+	private final int[] counts;
 	/**
 	 * Le nom du fichier de la musique de fond � jouer. Il doit s'agir d'un fichier OGG.
 	 */
@@ -79,6 +106,28 @@ public class View implements Observer {
 	 * La liste des sons � jouer.
 	 */
 	private ArrayList<String> soundsToPlay;
+	/**
+	 * Les instances de FrameSnapshot r�utilis�es � tour de r�le par cette vue. L'instance de num�ro de publication n
+	 * est rang�e � l'indice n modulo la taille de ce tableau.
+	 */
+	private final FrameSnapshot[] ring;
+	/**
+	 * Le num�ro de publication de l'instance de FrameSnapshot en cours de dessin par le thread de jeu, ou -1 si aucune
+	 * ne l'est. Ce champ n'est lu et modifi� qu'en d�tenant le verrou du tableau ring.
+	 */
+	private long drawing;
+	/**
+	 * Les images publi�es � l'issue de la derni�re mise � jour de cette vue.
+	 */
+	private volatile FrameSnapshot snapshot;
+	/**
+	 * Le nombre de Drawable dont l'image a �t� conserv�e lors de la derni�re mise � jour.
+	 */
+	private int nbDrawn;
+	/**
+	 * Le nombre de Drawable �cart�s sans g�n�rer leur image lors de la derni�re mise � jour.
+	 */
+	private int nbCulled;
 	
 	/**
 	 * Constructeur View 1.
@@ -100,10 +149,19 @@ public class View implements Observer {
 	 * <li>coeffHeight : 1.</li>
 	 * <li>ctrl : un nouveau Control standard.</li>
 	 * <li>camera : une nouvelle Camera standard.</li>
-	 * <li>images : une nouvelle liste (ArrayList) d'Image.</li>
-	 * <li>vboImages : une nouvelle liste (ArrayList) de TexturedImage.</li>
+	 * <li>drawables : une nouvelle liste (ArrayList) de Drawable.</li>
+	 * <li>flat : un nouveau RenderBuffer.</li>
+	 * <li>keys : un nouveau tableau de 256 entiers longs.</li>
+	 * <li>order : un nouveau tableau de 256 entiers.</li>
+	 * <li>swap : un nouveau tableau de 256 entiers.</li>
+	 * <li>counts : un nouveau tableau de 257 entiers.</li>
 	 * <li>musicFile : "".</li>
 	 * <li>soundsToPlay : une nouvelle liste (ArrayList) de String.</li>
+	 * <li>ring : un nouveau tableau de trois FrameSnapshot vides.</li>
+	 * <li>drawing : -1.</li>
+	 * <li>snapshot : la premi�re instance du tableau ring.</li>
+	 * <li>nbDrawn : 0.</li>
+	 * <li>nbCulled : 0.</li>
 	 * </ul></p>
 	 */
 	public View() {
@@ -133,10 +191,21 @@ public class View implements Observer {
 			
 		};
 		this.camera = new Camera(0, 0);
-		this.images = new ArrayList<Image>();
-		this.vboImages = new ArrayList<TexturedImage>();
+		this.drawables = new ArrayList<Drawable>();
+		this.flat = new RenderBuffer();
+		this.keys = new long[256];
+		this.order = new int[256];
+		this.swap = new int[256];
+		this.counts = new int[257];
 		this.musicFile = "";
 		this.soundsToPlay = new ArrayList<String>();
+		this.ring = new FrameSnapshot[3];
+		for (int i=0;i<this.ring.length;i++)
+			this.ring[i] = new FrameSnapshot();
+		this.drawing = -1;
+		this.snapshot = this.ring[0];
+		this.nbDrawn = 0;
+		this.nbCulled = 0;
 		
 		setPosition();
 		resizeToDisplay();
@@ -263,21 +332,32 @@ public class View implements Observer {
 	 * appel�e apr�s avoir cast� l'Observable en Model. S'il s'agit d'un LoadingScreen, cet Observable est directement
 	 * ajout� � la liste en tant que Drawable. Si l'Observable n'est d'aucune de ces classes, la mise � jour se
 	 * traduit par un �cran noir.</p>
-	 * <p>Apr�s avoir effac� toutes les images de cette vue par l'appel � la m�thode clearImages() de cette classe,
+	 * <p>Apr�s avoir obtenu l'instance de FrameSnapshot � remplir gr�ce � la m�thode nextSnapshot() de cette classe,
 	 * cette m�thode repositionne la cam�ra de cette vue suite au nouvel �tat du jeu gr�ce � la m�thode
 	 * update(ArrayList[Drawable]) de la classe Camera.</p>
-	 * <p>Les images des Drawable de l'Observable pass� en param�tre sont g�n�r�es gr�ce � la m�thode generateImage()
-	 * de l'interface Drawable, avant d'�tre repositionn�es par rapport au Display. Les images g�n�r�es par generateImage()
-	 * sont en effet positionn�es par rapport au jeu. Les coefficients coeffWidth et coeffHeight de cette classe sont
+	 * <p>Les Drawable impl�mentant l'interface Cullable sont d'abord confront�s � la portion du jeu affich�e par cette
+	 * vue, soit le rectangle de coordonn�es celles de la cam�ra et de dimensions celles de cette vue divis�es par les
+	 * coefficients coeffWidth et coeffHeight : ceux qui sont enti�rement en dehors sont �cart�s sans g�n�rer leur
+	 * image. Les nombres de Drawable �cart�s et conserv�s sont disponibles par les m�thodes getNbCulled() et
+	 * getNbDrawn() de cette classe.</p>
+	 * <p>Les images des autres Drawable de l'Observable pass� en param�tre sont g�n�r�es gr�ce � la m�thode
+	 * generateImage() de l'interface Drawable, avant d'�tre repositionn�es par rapport au Display. Les images g�n�r�es par generateImage()
+	 * sont en effet positionn�es par rapport au jeu. Elles ne sont pas modifi�es par cette vue, ce qui permet aux
+	 * Drawable de r�utiliser la m�me image d'une mise � jour � l'autre : seules les commandes de dessin re�oivent les
+	 * coordonn�es calcul�es. Les coefficients coeffWidth et coeffHeight de cette classe sont
 	 * �galement utilis�s. La formule de d�placement et de redimensionnement des images est la suivante :</p>
 	 * <p><code>nouveauXimage = xVue + (xImage-xCamera)*coeffLargeur</code></p>
 	 * <p><code>nouveauYimage = yVue + (yImage-yCamera)*coeffHauteur</code></p>
 	 * <p><code>nouveauWimage = wImage*coeffLargeur</code></p>
 	 * <p><code>nouveauHimage = hImage*coeffHauteur</code></p>
-	 * <p>Enfin, les images obtenues sont ajout�es � la liste des images de cette vue.</p>
-	 * <p>La liste des images de cette vue est tri�e selon le plan de perspective des images, de fa�on � ce que les images
-	 * ayant le plan le plus profond (le plus petit num�riquement) soient dessin�es en premier et �ventuellement
+	 * <p>Les images rendues par VBO sont converties imm�diatement en commandes de dessin, qui seront dessin�es avant
+	 * toutes les autres. Les autres images visibles sont d�compos�es en commandes de dessin dans le tampon flat de
+	 * cette vue gr�ce � la m�thode flatten(Image) de cette classe.</p>
+	 * <p>Les commandes du tampon flat sont ensuite tri�es selon le plan de perspective des images, de fa�on � ce que les
+	 * images ayant le plan le plus profond (le plus petit num�riquement) soient dessin�es en premier et �ventuellement
 	 * recouvertes par les suivantes.</p>
+	 * <p>Les commandes ainsi obtenues sont publi�es dans l'instance de FrameSnapshot remplie, qui remplace le champ
+	 * snapshot de cette classe.</p>
 	 * <p>Enfin, la musique est mise � jour si l'Observable est un Model. Si la cha�ne de caract�re retourn�e par la
 	 * m�thode getMusique de la classe Model est diff�rente de la cha�ne musicFile de cette classe, alors celle-ci est
 	 * mise � jour. Les sons retourn�s par la m�thode sounds de la classe Model sont ajout�s � la liste soundsToPlay
@@ -291,178 +371,331 @@ public class View implements Observer {
 	@Override
 	public void update(Observable obs) throws IOException {
 		
-		ArrayList<Drawable> drws = new ArrayList<Drawable>();
-		if (obs instanceof Model)
-			drws = ((Model) obs).drawables();
-		else if (obs instanceof LoadingScreen)
-			drws.add((LoadingScreen) obs);
+		this.drawables.clear();
+		if (obs instanceof Model) {
+			Model model = (Model) obs;
+			for (int i=0;i<model.nbDrawables();i++)
+				this.drawables.add(model.drawable(i));
+		} else if (obs instanceof LoadingScreen)
+			this.drawables.add((LoadingScreen) obs);
 		
-		// Efface les images de cette vue
+		// Pr�pare l'instance de FrameSnapshot � remplir
 		
-		clearImages();
+		FrameSnapshot next = this.nextSnapshot();
+		RenderBuffer commands = next.commands();
+		this.flat.clear();
 		
 		// Repositionne la cam�ra
 		
-		this.camera.update(drws);
+		this.camera.update(this.drawables);
 		
-		// G�n�re les images
+		// G�n�re les images des Drawable pouvant �tre visibles
 		
-		for (Drawable drw : drws) {
+		double camW = this.getW()/this.coeffWidth, camH = this.getH()/this.coeffHeight;
+		this.nbDrawn = 0;
+		this.nbCulled = 0;
+		for (int i=0;i<this.drawables.size();i++) {
+			Drawable drw = this.drawables.get(i);
 			if (drw == null)
 				continue;
+			if (drw instanceof Cullable && ((Cullable) drw).cull(this.camera.getX(), this.camera.getY(), camW, camH)) {
+				this.nbCulled++;
+				continue;
+			}
 			
 			Image image = drw.generateImage();
 			
-			if (image != null) {
-				/* 
-				 * Les images g�n�r�es par generateImage sont positionn�es par rapport au jeu.
-				 * Ces lignes repositionnent les images par rapport au Display et les multiplient par les coefficients 
-				 * de la vue.
-				 */
-				image.setX(this.getX()+(image.getX()-this.camera.getX())*this.coeffWidth);
-				image.setY(this.getY()+(image.getY()-this.camera.getY())*this.coeffHeight);
-				image.setW(image.getW()*this.coeffWidth);
-				image.setH(image.getH()*this.coeffHeight);
-				
-				this.addImage(image, drw.isVBORendered());
-			}
+			if (image == null || !this.isVisible(image))
+				continue;
+			this.nbDrawn++;
+			if (drw.isVBORendered() && image instanceof TexturedImage)
+				this.addCommands(commands, image);
+			else
+				this.flatten(image);
 		}
 		
 		// Les images les plus au fond seront dessin�es les premi�res, pour cr�er une perspective.
-		sortImages();
+		sortCommands(commands);
+		
+		// Publication des commandes pour le thread de jeu
+		next.publish();
+		this.snapshot = next;
 		
 		// Gestion des sons
 		
 		if (obs instanceof Model) {
 			this.musicFile = ((Model) obs).getMusique();
-			ArrayList<String> snds = ((Model) obs).sounds();
-			for (String s : snds) {
-				this.soundsToPlay.add(s);
+			if (((Model) obs).nbSounds() > 0) {
+				ArrayList<String> snds = ((Model) obs).sounds();
+				synchronized (this.soundsToPlay) {
+					for (String s : snds) {
+						this.soundsToPlay.add(s);
+					}
+				}
 			}
 		}
 		
 	}
 	
 	/**
-	 * Ajoute une image � la liste des images de cette vue, seulement si elle est visible dans la vue.
+	 * Retourne l'instance de FrameSnapshot � remplir lors de cette mise � jour, pr�par�e par sa m�thode
+	 * prepare(long, FrameSnapshot).
 	 * 
-	 * <p>Si cette image est ajout�e � la liste des images VBO, alors elle sera en arri�re-plan, et aura la texture de
-	 * la derni�re image ajout�e � la liste VBO.</li>
+	 * <p>L'instance retourn�e est celle du tableau ring suivant la derni�re instance publi�e. Son tampon de commandes
+	 * est aussi celui qu'utilise l'instance qui la suit pour l'interpolation : si le thread de jeu est en train de
+	 * dessiner l'une de ces deux instances, cette m�thode attend qu'il la lib�re par la m�thode releaseSnapshot(). Si
+	 * cette attente est interrompue, une nouvelle instance est construite plut�t que de r�utiliser l'instance du
+	 * tableau.</p>
 	 * 
-	 * @param image
-	 * 		L'image � ajouter.
-	 * @param vbo
-	 * 		Vrai si cette image doit �tre ajotu�e � la liste des images VBO (ce doit �tre une image textur�e).
-	 */
-	private void addImage(Image image, boolean vbo) {
-		
-		if (image != null) {
-			if (image.getX()+image.getW() <= this.getX() || image.getY()+image.getH() <= this.getY()
-					|| image.getX() >= this.getX()+this.getW() || image.getY() >= this.getY()+this.getH())
-				return;
-			if (vbo && image instanceof TexturedImage) {
-				if (image instanceof CombinedImage) {
-					this.vboImages.add(((CombinedImage) image).mainImage());
-					for (TexturedImage img : ((CombinedImage) image).images()) {
-						TexturedImage t = img.clone();
-						t.setX(image.getX()+t.getX()*image.getW());
-						t.setY(image.getY()+t.getY()*image.getH());
-						t.setW(t.getW()*image.getW());
-						t.setH(t.getH()*image.getH());
-						this.vboImages.add(t);
-					}
-				} else
-					this.vboImages.add((TexturedImage) image);
-			}
-			else {
-				this.images.add(image);
+	 * @return
+	 * 		L'instance � remplir.
+	 */
+	private FrameSnapshot nextSnapshot() {
+		
+		FrameSnapshot current = this.snapshot;
+		long seq = current.getSeq()+1;
+		FrameSnapshot next = this.ring[(int) (seq%this.ring.length)];
+		
+		synchronized (this.ring) {
+			while (this.drawing >= 0 && this.drawing < seq-1) {
+				try {
+					this.ring.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					next = new FrameSnapshot();
+					break;
+				}
 			}
 		}
 		
+		next.prepare(seq, current);
+		return next;
+		
 	}
 	
 	/**
-	 * Efface la liste des images de cette vue (standard et VBO).
+	 * Indique si une image g�n�r�e par un Drawable est visible dans cette vue.
+	 * 
+	 * @param image
+	 * 		L'image, positionn�e par rapport au jeu.
+	 * @return
+	 * 		Vrai si l'image, une fois repositionn�e par rapport au Display, recouvre au moins en partie cette vue.
 	 */
-	private void clearImages() {
+	private boolean isVisible(Image image) {
 		
-		this.images = new ArrayList<Image>();
-		this.vboImages = new ArrayList<TexturedImage>();
+		double ix = this.displayX(image), iy = this.displayY(image);
+		return !(ix+image.getW()*this.coeffWidth <= this.getX() || iy+image.getH()*this.coeffHeight <= this.getY()
+				|| ix >= this.getX()+this.getW() || iy >= this.getY()+this.getH());
 		
 	}
 	
 	/**
-	 * Trie les images de la liste des images � afficher par ordre croissant selon leurs plans de perspective.
-	 * 
-	 * <p>Les images combin�es sont retir�es de la liste, et remplac�es par une s�rie d'images textur�es ins�r�es dans la
-	 * liste dans l'ordre d�fini par l'image principale. Si une sous-image de l'image combin�e a un plan de perspective
-	 * �gal au champ maxPlan de la classe Constantes, alors elle est plac�e � la fin de la liste des images de cette
-	 * vue.</p>
-	 */
-	private void sortImages() {
-		
-		Collections.sort(this.images);
-		
-		int index;
-		TexturedImage tx, img;
-		ArrayList<TexturedImage> txts;
-		@SuppressWarnings("unchecked")
-		ArrayList<Image> imgs = (ArrayList<Image>) this.images.clone();
-		for (Image image : imgs) {
-			if (image instanceof CombinedImage) {
-				index = this.images.indexOf(image);
-				this.images.remove(index);
-				txts = ((CombinedImage) image).images();
-				for (int i=0;i<txts.size();i++) {
-					img = txts.get(i);
-					TexturedImage t = img.clone();
-					t.setX(image.getX()+t.getX()*image.getW());
-					t.setY(image.getY()+t.getY()*image.getH());
-					t.setW(t.getW()*image.getW());
-					t.setH(t.getH()*image.getH());
-					if (t.getPlan() < Constantes.maxPlan)
-						this.images.add(index+i, t);
-					else
-						this.images.add(t);
-				}
-				tx = ((CombinedImage) image).mainImage();
-				if (tx.getTextureID() != "")
-					this.images.add(index, tx);
-			}
+	 * Calcule l'abscisse d'une image par rapport au Display.
+	 * 
+	 * @param image
+	 * 		L'image, positionn�e par rapport au jeu.
+	 * @return
+	 * 		L'abscisse de l'image par rapport au Display.
+	 */
+	private double displayX(Image image) {
+		return this.getX()+(image.getX()-this.camera.getX())*this.coeffWidth;
+	}
+	
+	/**
+	 * Calcule l'ordonn�e d'une image par rapport au Display.
+	 * 
+	 * @param image
+	 * 		L'image, positionn�e par rapport au jeu.
+	 * @return
+	 * 		L'ordonn�e de l'image par rapport au Display.
+	 */
+	private double displayY(Image image) {
+		return this.getY()+(image.getY()-this.camera.getY())*this.coeffHeight;
+	}
+	
+	/**
+	 * Ajoute les commandes de dessin d'une image � un tampon.
+	 * 
+	 * <p>Si l'image est une image combin�e, son image principale n'est ajout�e que si sa texture est d�finie, puis ses
+	 * sous-images sont ajout�es dans leur ordre, en coordonn�es relatives � l'image principale.</p>
+	 * 
+	 * @param commands
+	 * 		Le tampon de commandes � remplir.
+	 * @param image
+	 * 		L'image, positionn�e par rapport au jeu.
+	 */
+	private void addCommands(RenderBuffer commands, Image image) {
+		
+		if (!(image instanceof CombinedImage)) {
+			commands.add(image, this.displayX(image), this.displayY(image), image.getW()*this.coeffWidth,
+					image.getH()*this.coeffHeight);
+			return;
 		}
 		
+		CombinedImage cbImg = (CombinedImage) image;
+		if (cbImg.getTextureID() != "")
+			commands.add(cbImg, this.displayX(cbImg), this.displayY(cbImg), cbImg.getW()*this.coeffWidth,
+					cbImg.getH()*this.coeffHeight);
+		for (int i=0;i<cbImg.nbImages();i++)
+			this.addSubImage(commands, cbImg, cbImg.image(i));
+		
 	}
 	
 	/**
-	 * Retourne une copie de la liste des images de cette vue.
+	 * Ajoute la commande de dessin d'une sous-image d'image combin�e � un tampon.
 	 * 
-	 * <p>La liste retourn�e est une copie mais les instances d'Image sont les originales.</p>
+	 * @param commands
+	 * 		Le tampon de commandes � remplir.
+	 * @param parent
+	 * 		L'image combin�e, positionn�e par rapport au jeu.
+	 * @param img
+	 * 		La sous-image, en coordonn�es relatives � l'image principale.
+	 */
+	private void addSubImage(RenderBuffer commands, CombinedImage parent, TexturedImage img) {
+		
+		double pw = parent.getW()*this.coeffWidth, ph = parent.getH()*this.coeffHeight;
+		commands.add(img, this.displayX(parent)+img.getX()*pw, this.displayY(parent)+img.getY()*ph,
+				img.getW()*pw, img.getH()*ph);
+		
+	}
+	
+	/**
+	 * D�compose une image en commandes de dessin dans le tampon flat de cette vue, en attribuant � chacune sa cl� de
+	 * tri.
 	 * 
-	 * @return
-	 * 		Une copie de la liste des images de cette vue.
+	 * <p>Les commandes sont ajout�es comme par la m�thode addCommands(RenderBuffer, Image) de cette classe. Elles
+	 * re�oivent toutes pour cl� le plan de perspective de l'image, de sorte que les sous-images d'une image combin�e
+	 * restent adjacentes � leur image principale, sauf les sous-images dont le plan de perspective est sup�rieur ou
+	 * �gal au champ maxPlan de la classe Constantes : leur cl� est augment�e de 2^32 afin qu'elles soient dessin�es
+	 * apr�s toutes les autres commandes, dans l'ordre de leurs images principales.</p>
+	 * 
+	 * @param image
+	 * 		L'image, positionn�e par rapport au jeu.
+	 */
+	private void flatten(Image image) {
+		
+		int first = this.flat.size();
+		long key = (image.getPlan()^0x80000000)&0xFFFFFFFFL;
+		
+		this.addCommands(this.flat, image);
+		
+		// Rang de la premi�re sous-image, apr�s l'image principale si celle-ci a �t� ajout�e
+		int n = this.flat.size(), subs = n;
+		if (image instanceof CombinedImage)
+			subs = (((CombinedImage) image).getTextureID() != "")?first+1:first;
+		if (n > this.keys.length)
+			this.keys = Arrays.copyOf(this.keys, Math.max(n, 2*this.keys.length));
+		for (int i=first;i<n;i++) {
+			if (i >= subs && this.flat.getPlan(i) >= Constantes.maxPlan)
+				this.keys[i] = key|(1L<<32);
+			else
+				this.keys[i] = key;
+		}
+		
+	}
+	
+	/**
+	 * Trie les commandes du tampon flat de cette vue par ordre croissant selon leurs cl�s, puis les ajoute � un
+	 * tampon.
+	 * 
+	 * <p>Le tri est un tri par base (radix sort) par octet, du poids faible au poids fort, sur les cinq octets
+	 * utilis�s par les cl�s. Chaque passe est un tri par d�nombrement stable, de sorte que les commandes de m�me cl�
+	 * conservent leur ordre d'ajout. Une passe est omise si toutes les cl�s ont le m�me octet � ce rang, ce qui est le
+	 * cas des octets de poids fort pour les plans de perspective usuels.</p>
+	 * 
+	 * @param commands
+	 * 		Le tampon de commandes � remplir.
 	 */
-	@SuppressWarnings("unchecked")
-	public ArrayList<Image> images() {
+	private void sortCommands(RenderBuffer commands) {
 		
-		return (ArrayList<Image>) this.images.clone();
+		int n = this.flat.size();
+		if (n > this.order.length) {
+			this.order = new int[Math.max(n, 2*this.order.length)];
+			this.swap = new int[this.order.length];
+		}
+		for (int i=0;i<n;i++)
+			this.order[i] = i;
+		
+		for (int shift=0;shift<40;shift+=8) {
+			Arrays.fill(this.counts, 0);
+			for (int i=0;i<n;i++)
+				this.counts[(int) ((this.keys[this.order[i]]>>>shift)&0xFF)+1]++;
+			boolean single = false;
+			for (int d=1;d<this.counts.length;d++) {
+				if (this.counts[d] == n) {
+					single = true;
+					break;
+				}
+			}
+			if (single)
+				continue;
+			for (int d=1;d<this.counts.length;d++)
+				this.counts[d] += this.counts[d-1];
+			for (int i=0;i<n;i++)
+				this.swap[this.counts[(int) ((this.keys[this.order[i]]>>>shift)&0xFF)]++] = this.order[i];
+			int[] t = this.order;
+			this.order = this.swap;
+			this.swap = t;
+		}
 		
+		for (int i=0;i<n;i++)
+			commands.copy(this.flat, this.order[i]);
+			
 	}
 	
 	/**
-	 * Retourne une copie de la liste des images VBO de cette vue.
+	 * Retourne les commandes publi�es � l'issue de la derni�re mise � jour de cette vue, et les r�serve pour le
+	 * dessin.
 	 * 
-	 * <p>La liste retourn�e est une copie mais les instances d'Image sont les originales.</p>
+	 * <p>Cette m�thode est appel�e par le thread de jeu, �ventuellement pendant que le thread du mod�le met � jour cette
+	 * vue. L'instance retourn�e, ainsi que celle qui la pr�c�de, ne sont pas r�utilis�es par cette vue avant l'appel
+	 * � la m�thode releaseSnapshot(), qui doit suivre chaque appel � cette m�thode.</p>
 	 * 
 	 * @return
-	 * 		Une copie de la liste des images VBO de cette vue.
+	 * 		La derni�re instance de FrameSnapshot publi�e.
 	 */
-	@SuppressWarnings("unchecked")
-	public ArrayList<TexturedImage> vboImages() {
+	public FrameSnapshot acquireSnapshot() {
 		
-		return (ArrayList<TexturedImage>) this.vboImages.clone();
+		synchronized (this.ring) {
+			FrameSnapshot s = this.snapshot;
+			this.drawing = s.getSeq();
+			return s;
+		}
+		
+	}
+	
+	/**
+	 * Lib�re l'instance de FrameSnapshot r�serv�e par la m�thode acquireSnapshot().
+	 */
+	public void releaseSnapshot() {
+		
+		synchronized (this.ring) {
+			this.drawing = -1;
+			this.ring.notifyAll();
+		}
 		
 	}
 
+	/**
+	 * Retourne le nombre de Drawable dont l'image a �t� conserv�e lors de la derni�re mise � jour de cette vue.
+	 * 
+	 * @return
+	 * 		Le nombre de Drawable dessin�s.
+	 */
+	public int getNbDrawn() {
+		return this.nbDrawn;
+	}
+	
+	/**
+	 * Retourne le nombre de Drawable �cart�s sans g�n�rer leur image lors de la derni�re mise � jour de cette vue.
+	 * 
+	 * @return
+	 * 		Le nombre de Drawable �cart�s.
+	 */
+	public int getNbCulled() {
+		return this.nbCulled;
+	}
+	
 	/**
 	 * Retourne l'abscisse de cette vue par rapport au Display.
 	 * 
@@ -545,9 +778,11 @@ public class View implements Observer {
 	 */
 	public ArrayList<String> soundsToPlay() {
 		
-		@SuppressWarnings("unchecked")
-		ArrayList<String> snds = (ArrayList<String>) this.soundsToPlay.clone();
-		this.soundsToPlay.clear();
+		ArrayList<String> snds;
+		synchronized (this.soundsToPlay) {
+			snds = new ArrayList<String>(this.soundsToPlay);
+			this.soundsToPlay.clear();
+		}
 		
 		return snds;
 		
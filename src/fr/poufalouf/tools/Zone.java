@@ -33,6 +33,11 @@ public class Zone implements Drawable, Cloneable {
 	 * La couleur de cette zone.
 	 */
 	private Color couleur;
+	/**
+	 * L'intervalle de calcul de la m�thode collidingStep(Zone, Orientation, int, int), cr�� lors de son premier appel
+	 * puis r�utilis�, ou null.
+	 */
+	private StepRange range;
 	
 	/**
 	 * Constructeur Zone.
@@ -49,6 +54,7 @@ public class Zone implements Drawable, Cloneable {
 	 * <li>objRect : le rectangle pass� en param�tre (rect), ou un nouveau Rectangle de coordonn�es (0, 0) et de
 	 * dimensions (1, 1)*Constantes.sizeCell si le param�tre est null.</li>
 	 * <li>couleur : la couleur pass�e en param�tre (couleur), ou Color.white si le param�tre est null.</li>
+	 * <li>range : null.</li>
 	 * </ul></p>
 	 * 
 	 * @param name
@@ -78,13 +84,15 @@ public class Zone implements Drawable, Cloneable {
 			this.couleur = couleur;
 		else
 			this.couleur = Color.white;
+		this.range = null;
 		
 	}
 	
 	/**
 	 * Retourne vrai si cette zone est � l'int�rieur de la zone pass�e en param�tre.
 	 * 
-	 * <p>Cette m�thode fait appel � la m�thode isInside de la classe Rectangle.</p>
+	 * <p>Cette m�thode fait appel aux m�thodes statiques isInside et isCompletelyInside de la classe Rectangle, sans
+	 * cr�er de rectangle.</p>
 	 * 
 	 * @param zone
 	 * 		La zone � comparer � celle-ci.
@@ -100,15 +108,12 @@ public class Zone implements Drawable, Cloneable {
 		
 		if (zone == null)
 			return false;
-		if (this.getObjRect().getW() < 0 || this.getObjRect().getH() < 0 || zone.getObjRect().getW() < 0
-				|| zone.getObjRect().getH() < 0)
-			return false;
-		Rectangle r1 = new Rectangle(this.getX(), this.getY(), this.getW(), this.getH());
-		Rectangle r2 = new Rectangle(zone.getX(), zone.getY(), zone.getW(), zone.getH());
 		
 		if (completely)
-			return r1.isCompletelyInside(r2, border);
-		return r1.isInside(r2, border);
+			return Rectangle.isCompletelyInside(this.x, this.y, this.getW(), this.getH(), zone.x, zone.y, zone.getW(),
+					zone.getH(), border);
+		return Rectangle.isInside(this.x, this.y, this.getW(), this.getH(), zone.x, zone.y, zone.getW(), zone.getH(),
+				border);
 		
 	}
 
@@ -161,76 +166,189 @@ public class Zone implements Drawable, Cloneable {
 		
 		switch (orientation) {
 		case NORD:
-			if (Y <= zy+zh && Y >= zy && ((X < zx && X+w > zx) || (X+w > zx+zw && X < zx+zw) || (X >= zx && X+w <= zx+zw)))
-				return true;
+			return Rectangle.isEdgeInside(Y, zy, zh, X, w, zx, zw);
+		case SUD:
+			return Rectangle.isEdgeInside(Y+h, zy, zh, X, w, zx, zw);
+		case OUEST:
+			return Rectangle.isEdgeInside(X, zx, zw, Y, h, zy, zh);
+		case EST:
+			return Rectangle.isEdgeInside(X+w, zx, zw, Y, h, zy, zh);
+		case NORD_EST:
+			return Rectangle.isEdgeInside(Y, zy, zh, X, w, zx, zw)
+					|| Rectangle.isEdgeInside(X+w, zx, zw, Y, h, zy, zh);
+		case NORD_OUEST:
+			return Rectangle.isEdgeInside(Y, zy, zh, X, w, zx, zw)
+					|| Rectangle.isEdgeInside(X, zx, zw, Y, h, zy, zh);
+		case SUD_OUEST:
+			return Rectangle.isEdgeInside(Y+h, zy, zh, X, w, zx, zw)
+					|| Rectangle.isEdgeInside(X, zx, zw, Y, h, zy, zh);
+		case SUD_EST:
+			return Rectangle.isEdgeInside(Y+h, zy, zh, X, w, zx, zw)
+					|| Rectangle.isEdgeInside(X+w, zx, zw, Y, h, zy, zh);
+		default:
+			return this.isInside(zone, true, false);
+		}
+		
+	}
+	
+	/**
+	 * Calcule le premier pas de d�placement � partir duquel cette zone entre en collision avec la zone pass�e en
+	 * param�tre dans la direction sp�cifi�e.
+	 * 
+	 * <p>Cette zone est suppos�e se d�placer d'un pixel par pas selon l'orientation pass�e en param�tre, � partir de sa
+	 * position actuelle. Cette m�thode retourne le plus petit nombre de pas k, compris entre first et last, tel que la
+	 * m�thode colliding(Zone, Orientation) de cette classe retournerait vrai apr�s un d�placement de k pixels.</p>
+	 * <p>Les conditions test�es par la m�thode colliding(Zone, Orientation) portent sur des coordonn�es variant
+	 * lin�airement avec le nombre de pas : chacune d'elles restreint donc les pas possibles � un intervalle. Le
+	 * r�sultat est ainsi obtenu par le calcul de quelques intersections d'intervalles, sans d�placer la zone pixel par
+	 * pixel.</p>
+	 * <p>Si l'orientation pass�e en param�tre n'est pas l'une des huit directions de d�placement, la zone ne se d�place
+	 * pas et le r�sultat de la m�thode colliding(Zone, Orientation) est utilis� tel quel.</p>
+	 * <p>Les intervalles sont calcul�s dans le champ range de cette zone, qui n'est cr�� qu'une fois : cette m�thode,
+	 * appel�e sur la zone de l'objet en mouvement pour chacun de ses voisins, n'alloue aucun objet.</p>
+	 * 
+	 * @param zone
+	 * 		La zone test�e.
+	 * @param orientation
+	 * 		La direction du d�placement.
+	 * @param first
+	 * 		Le premier pas � tester.
+	 * @param last
+	 * 		Le dernier pas � tester.
+	 * @return
+	 * 		Le premier pas de collision, ou -1 s'il n'y a pas collision entre les pas first et last, si l'un des
+	 * param�tres est null ou si l'une des zones a des dimensions n�gatives.
+	 */
+	public int collidingStep(Zone zone, Orientation orientation, int first, int last) {
+		
+		if (zone == null || zone.getObjRect().getW() < 0 || zone.getObjRect().getH() < 0 || orientation == null
+				|| this.getObjRect().getW() < 0 || this.getObjRect().getH() < 0 || first > last)
+			return -1;
+		
+		int dx = 0, dy = 0;
+		switch (orientation) {
+		case NORD:
+			dy = -1;
 			break;
 		case SUD:
-			if (Y+h >= zy && Y+h <= zy+zh && ((X < zx && X+w > zx) || (X+w > zx+zw && X < zx+zw)
-					|| (X >= zx && X+w <= zx+zw)))
-				return true;
+			dy = 1;
 			break;
 		case OUEST:
-			if (X <= zx+zw && X >= zx && ((Y < zy && Y+h > zy) || (Y+h > zy+zh && Y < zy+zh) || (Y >= zy && Y+h <= zy+zh)))
-				return true;
+			dx = -1;
 			break;
 		case EST:
-			if (X+w >= zx && X+w <= zx+zw && ((Y < zy && Y+h > zy) || (Y+h > zy+zh && Y < zy+zh)
-					|| (Y >= zy && Y+h <= zy+zh)))
-				return true;
+			dx = 1;
 			break;
 		case NORD_EST:
-			if (Y <= zy+zh && Y >= zy
-					&& ((X < zx && X+w > zx)
-							|| (X+w > zx+zw && X < zx+zw)
-							|| (X >= zx && X+w <= zx+zw))
-							||
-							X+w >= zx && X+w <= zx+zw
-							&& ((Y < zy && Y+h > zy)
-									|| (Y+h > zy+zh && Y < zy+zh)
-									|| (Y >= zy && Y+h <= zy+zh)))
-				return true;
+			dx = 1;
+			dy = -1;
 			break;
 		case NORD_OUEST:
-			if (Y <= zy+zh && Y >= zy
-					&& ((X < zx && X+w > zx)
-							|| (X+w > zx+zw && X < zx+zw)
-							|| (X >= zx && X+w <= zx+zw))
-							||
-							X <= zx+zw && X >= zx
-							&& ((Y < zy && Y+h > zy)
-									|| (Y+h > zy+zh && Y < zy+zh)
-									|| (Y >= zy && Y+h <= zy+zh)))
-				return true;
+			dx = -1;
+			dy = -1;
 			break;
 		case SUD_OUEST:
-			if (Y+h >= zy && Y+h <= zy+zh
-					&& ((X < zx && X+w > zx)
-							|| (X+w > zx+zw && X < zx+zw)
-							|| (X >= zx && X+w <= zx+zw))
-							||
-							X <= zx+zw && X >= zx
-							&& ((Y < zy && Y+h > zy)
-									|| (Y+h > zy+zh && Y < zy+zh)
-									|| (Y >= zy && Y+h <= zy+zh)))
-				return true;
+			dx = -1;
+			dy = 1;
 			break;
 		case SUD_EST:
-			if (Y+h >= zy && Y+h <= zy+zh
-					&& ((X < zx && X+w > zx)
-							|| (X+w > zx+zw && X < zx+zw)
-							|| (X >= zx && X+w <= zx+zw))
-							||
-							X+w >= zx && X+w <= zx+zw
-							&& ((Y < zy && Y+h > zy)
-									|| (Y+h > zy+zh && Y < zy+zh)
-									|| (Y >= zy && Y+h <= zy+zh)))
-				return true;
+			dx = 1;
+			dy = 1;
 			break;
 		default:
-			return this.isInside(zone, true, false);
+			return (this.colliding(zone, orientation))?first:-1;
 		}
 		
-		return false;
+		if (this.range == null)
+			this.range = new StepRange();
+		StepRange range = this.range;
+		int k = -1, s;
+		if (dy != 0) {
+			s = edgeStep(range, first, last, dy, dy > 0, this.getY(), this.getObjRect().getH(), zone.getY(),
+					zone.getObjRect().getH(), dx, this.getX(), this.getObjRect().getW(), zone.getX(),
+					zone.getObjRect().getW());
+			if (s >= 0)
+				k = s;
+		}
+		if (dx != 0) {
+			s = edgeStep(range, first, last, dx, dx > 0, this.getX(), this.getObjRect().getW(), zone.getX(),
+					zone.getObjRect().getW(), dy, this.getY(), this.getObjRect().getH(), zone.getY(),
+					zone.getObjRect().getH());
+			if (s >= 0 && (k < 0 || s < k))
+				k = s;
+		}
+		
+		return k;
+		
+	}
+	
+	/**
+	 * Calcule le premier pas de collision selon l'un des axes, pour la m�thode collidingStep(Zone, Orientation, int,
+	 * int).
+	 * 
+	 * <p>L'axe principal est celui du bord avant test�, l'axe secondaire celui selon lequel les deux zones doivent se
+	 * chevaucher. Les coordonn�es pass�es en param�tre sont celles des zones avant d�placement.</p>
+	 * 
+	 * @param range
+	 * 		L'intervalle de calcul, r�initialis� pour chaque condition.
+	 * @param first
+	 * 		Le premier pas � tester.
+	 * @param last
+	 * 		Le dernier pas � tester.
+	 * @param dp
+	 * 		Le d�placement par pas selon l'axe principal.
+	 * @param far
+	 * 		Vrai si le bord avant est celui de plus grande coordonn�e (SUD ou EST).
+	 * @param p
+	 * 		La coordonn�e de cette zone selon l'axe principal.
+	 * @param sp
+	 * 		La dimension de cette zone selon l'axe principal.
+	 * @param zp
+	 * 		La coordonn�e de la zone test�e selon l'axe principal.
+	 * @param zsp
+	 * 		La dimension de la zone test�e selon l'axe principal.
+	 * @param dq
+	 * 		Le d�placement par pas selon l'axe secondaire.
+	 * @param q
+	 * 		La coordonn�e de cette zone selon l'axe secondaire.
+	 * @param sq
+	 * 		La dimension de cette zone selon l'axe secondaire.
+	 * @param zq
+	 * 		La coordonn�e de la zone test�e selon l'axe secondaire.
+	 * @param zsq
+	 * 		La dimension de la zone test�e selon l'axe secondaire.
+	 * @return
+	 * 		Le premier pas de collision, ou -1 s'il n'y en a pas.
+	 */
+	private static int edgeStep(StepRange range, int first, int last, int dp, boolean far, double p, double sp,
+			double zp, double zsp, int dq, double q, double sq, double zq, double zsq) {
+		
+		int k = -1;
+		double front = (far)?p+sp:p;
+		for (int i=0;i<3;i++) {
+			range.reset(first, last);
+			// Bord avant de cette zone entre les bords de la zone test�e
+			range.lessOrEqual(front, dp, zp+zsp);
+			range.greaterOrEqual(front, dp, zp);
+			// Chevauchement selon l'axe secondaire
+			switch (i) {
+			case 0:
+				range.less(q, dq, zq);
+				range.greater(q+sq, dq, zq);
+				break;
+			case 1:
+				range.greater(q+sq, dq, zq+zsq);
+				range.less(q, dq, zq+zsq);
+				break;
+			default:
+				range.greaterOrEqual(q, dq, zq);
+				range.lessOrEqual(q+sq, dq, zq+zsq);
+			}
+			if (!range.isEmpty() && (k < 0 || range.lo < k))
+				k = range.lo;
+		}
+		
+		return k;
 		
 	}
 	
@@ -288,6 +406,7 @@ public class Zone implements Drawable, Cloneable {
 			return null;
 		
 		zone.couleur = new Color(this.couleur);
+		zone.range = null;
 		
 		return zone;
 		
@@ -412,4 +531,124 @@ public class Zone implements Drawable, Cloneable {
 		return this.objRect;
 	}
 	
+	/**
+	 * Intervalle de pas de d�placement
+	 * 
+	 * <p>Cette classe restreint un intervalle d'entiers k selon des conditions de la forme a+d*k op b, o� d vaut -1, 0
+	 * ou 1 et o� op est une comparaison.</p>
+	 */
+	private static final class StepRange {
+		
+		/**
+		 * La borne inf�rieure de l'intervalle (incluse).
+		 */
+		int lo;
+		/**
+		 * La borne sup�rieure de l'intervalle (incluse).
+		 */
+		int hi;
+		
+		/**
+		 * R�initialise cet intervalle.
+		 * 
+		 * @param first
+		 * 		La borne inf�rieure.
+		 * @param last
+		 * 		La borne sup�rieure.
+		 */
+		void reset(int first, int last) {
+			
+			this.lo = first;
+			this.hi = last;
+			
+		}
+		
+		/**
+		 * Indique si cet intervalle est vide.
+		 * 
+		 * @return
+		 * 		Vrai si aucun entier ne v�rifie toutes les conditions.
+		 */
+		boolean isEmpty() {
+			
+			return this.lo > this.hi;
+			
+		}
+		
+		/**
+		 * Restreint cet intervalle aux entiers k tels que a+d*k <= b.
+		 * 
+		 * @param a
+		 * 		La valeur initiale.
+		 * @param d
+		 * 		La variation par pas.
+		 * @param b
+		 * 		La valeur compar�e.
+		 */
+		void lessOrEqual(double a, int d, double b) {
+			
+			if (d > 0)
+				this.hi = (int) Math.min(this.hi, Math.floor(b-a));
+			else if (d < 0)
+				this.lo = (int) Math.max(this.lo, Math.ceil(a-b));
+			else if (a > b)
+				this.hi = this.lo-1;
+				
+		}
+		
+		/**
+		 * Restreint cet intervalle aux entiers k tels que a+d*k < b.
+		 * 
+		 * @param a
+		 * 		La valeur initiale.
+		 * @param d
+		 * 		La variation par pas.
+		 * @param b
+		 * 		La valeur compar�e.
+		 */
+		void less(double a, int d, double b) {
+			
+			if (d > 0)
+				this.hi = (int) Math.min(this.hi, Math.ceil(b-a)-1);
+			else if (d < 0)
+				this.lo = (int) Math.max(this.lo, Math.floor(a-b)+1);
+			else if (a >= b)
+				this.hi = this.lo-1;
+				
+		}
+		
+		/**
+		 * Restreint cet intervalle aux entiers k tels que a+d*k >= b.
+		 * 
+		 * @param a
+		 * 		La valeur initiale.
+		 * @param d
+		 * 		La variation par pas.
+		 * @param b
+		 * 		La valeur compar�e.
+		 */
+		void greaterOrEqual(double a, int d, double b) {
+			
+			this.lessOrEqual(-a, -d, -b);
+			
+		}
+		
+		/**
+		 * Restreint cet intervalle aux entiers k tels que a+d*k > b.
+		 * 
+		 * @param a
+		 * 		La valeur initiale.
+		 * @param d
+		 * 		La variation par pas.
+		 * @param b
+		 * 		La valeur compar�e.
+		 */
+		void greater(double a, int d, double b) {
+			
+			this.less(-a, -d, -b);
+			
+		}
+		
+	}
+	
 }